@@ -23,6 +23,9 @@
 package org.juniversal.buildtools.common;
 
 import org.gradle.api.GradleException;
+import org.juniversal.translator.core.TranslationManifest;
+import org.juniversal.translator.core.TranslationStats;
+import org.juniversal.translator.core.TranslatorDaemon;
 import org.juniversal.buildtools.common.support.*;
 
 import java.io.File;
@@ -34,21 +37,105 @@ import java.util.ArrayList;
  */
 public class JUniversalTranslator extends Translator {
     private String targetLanguage;
+    private boolean useDaemon = true;
+    private boolean incremental = true;
+    private boolean stats = false;
+    private int batchSize = 0;
+    private boolean fast = false;
+    private int validationSampleRate = 0;
 
     public JUniversalTranslator(CommonProject project, String targetLanguage) {
         super(project);
         this.targetLanguage = targetLanguage;
     }
 
+    public boolean isUseDaemon() {
+        return useDaemon;
+    }
+
+    public void setUseDaemon(boolean useDaemon) {
+        this.useDaemon = useDaemon;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public boolean isStats() {
+        return stats;
+    }
+
+    public void setStats(boolean stats) {
+        this.stats = stats;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public boolean isFast() {
+        return fast;
+    }
+
+    public void setFast(boolean fast) {
+        this.fast = fast;
+    }
+
+    public int getValidationSampleRate() {
+        return validationSampleRate;
+    }
+
+    public void setValidationSampleRate(int validationSampleRate) {
+        this.validationSampleRate = validationSampleRate;
+    }
+
     public void translateSourceType(SourceType sourceType, File outputDirectory) {
-        // Delete the generated source directories
-        Utils.deleteChildDirectoriesExcept(outputDirectory, "nontranslated", "Properties", "bin");
+        // When translation is incremental, the translator only regenerates what changed since the manifest was
+        // written.  If there's no manifest yet, delete the generated source directories, to clear out anything left
+        // over from a non incremental translation.  Otherwise everything is regenerated, so always delete them, along
+        // with any manifest, which would no longer match the output
+        File manifestFile = new File(outputDirectory, TranslationManifest.FILE_NAME);
+        if (! incremental || ! manifestFile.exists()) {
+            Utils.deleteChildDirectoriesExcept(outputDirectory, "nontranslated", "Properties", "bin");
+            manifestFile.delete();
+        }
 
         ArrayList<String> args = new ArrayList<String>();
 
         args.add("-l");
         args.add(targetLanguage);
 
+        if (incremental)
+            args.add("-incremental");
+
+        if (batchSize > 0) {
+            args.add("-batchsize");
+            args.add(Integer.toString(batchSize));
+        }
+
+        // In fast mode, skip the translator's source position checks, or only do them for a sample of the files
+        if (fast) {
+            if (validationSampleRate > 0) {
+                args.add("-validatesample");
+                args.add(Integer.toString(validationSampleRate));
+            } else args.add("-fast");
+        }
+
+        // The translator outputs a summary of the stats, which ends up in the build log, along with writing the full
+        // JSON report
+        if (stats) {
+            args.add("-stats");
+            args.add(new File(outputDirectory, TranslationStats.FILE_NAME).getPath());
+        }
+
         FileSet classpath = getProject().getClasspath(sourceType);
         FileSet sourcepath = getProject().getAllSourceDirectories(sourceType);
         FileSet translateDirectories = getProject().getTranslatableSourceDirectories(sourceType);
@@ -76,7 +163,13 @@ public class JUniversalTranslator extends Translator {
         // Log the arguments
         getProject().info("Calling juniversal-translator with: " + Utils.argsToCommandLineString(argsArray));
 
-        if (! org.juniversal.translator.core.Translator.translate(argsArray))
+        // Use the translator daemon if one is running, as it's already warmed up; otherwise translate in process
+        Boolean succeeded = useDaemon ? TranslatorDaemon.translateUsingDaemon(argsArray) : null;
+        if (succeeded != null)
+            getProject().info("Translated using translator daemon");
+        else succeeded = org.juniversal.translator.core.Translator.translate(argsArray);
+
+        if (! succeeded)
             throw new RuntimeException("JUniversal source translation failed");
     }
 }
@@ -25,11 +25,60 @@ package org.juniversal.buildtools.gradle;
 import org.juniversal.buildtools.common.JUniversalTranslator;
 
 public class JUniversalTranslatorTask extends TranslatorTask {
+    /**
+     * If true, translate using the translator daemon (started with "-daemon") when one is running.  Defaults to true.
+     */
+    public boolean useDaemon = true;
+
+    /**
+     * If true, only translate the source files that changed, or depend on something that changed, since the last
+     * translation, as recorded in the .juniversal-manifest file in the output directory.  If false, everything is
+     * translated each time.  Defaults to the juniversalIncremental project property, if set, else true.
+     */
+    public boolean incremental;
+
+    /**
+     * If true, collect timing stats for the translation, writing them as JSON to .juniversal-stats.json in the output
+     * directory and logging a summary.  Defaults to the juniversalStats project property, if set, else false.
+     */
+    public boolean stats;
+
+    /**
+     * If greater than 0, parse & translate the source in batches of at most this many files, bounding the memory
+     * needed for large projects.  Defaults to 0, translating all files as a single batch.
+     */
+    public int batchSize = 0;
+
+    /**
+     * If true, skip the translator's checks that each node's writer consumed exactly the node's source, which are
+     * mainly useful when developing the translator.  Defaults to the juniversalFast project property, if set, else
+     * false.
+     */
+    public boolean fast;
+
+    /**
+     * In fast mode, if greater than 0, still do the checks for one file in every this many.  Defaults to 0, doing no
+     * checks in fast mode.
+     */
+    public int validationSampleRate = 0;
+
     public JUniversalTranslatorTask(String defaultOutputDirectoryName) {
         super(defaultOutputDirectoryName);
+        incremental = !getProject().hasProperty("juniversalIncremental") ||
+                      Boolean.parseBoolean(String.valueOf(getProject().property("juniversalIncremental")));
+        stats = getProject().hasProperty("juniversalStats") &&
+                Boolean.parseBoolean(String.valueOf(getProject().property("juniversalStats")));
+        fast = getProject().hasProperty("juniversalFast") &&
+               Boolean.parseBoolean(String.valueOf(getProject().property("juniversalFast")));
     }
 
     protected void initTranslator(JUniversalTranslator translator) {
         super.initTranslator(translator);
+        translator.setUseDaemon(useDaemon);
+        translator.setIncremental(incremental);
+        translator.setStats(stats);
+        translator.setBatchSize(batchSize);
+        translator.setFast(fast);
+        translator.setValidationSampleRate(validationSampleRate);
     }
 }
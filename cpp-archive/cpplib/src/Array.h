@@ -1,6 +1,8 @@
 #ifndef ARRAY_H
 #define ARRAY_H
 
+#include <stdexcept>
+
 #include "juniversal_defs.h"
 #include "java/lang/Object.h"
 
@@ -29,6 +31,21 @@ public:
 
 	unsigned int length() { return m_length; }
 
+	/**
+	 * Get the element at the given index, checking that it's in bounds, like Java array indexing does.
+	 */
+	T& at(int index) {
+		if (index < 0 || static_cast<unsigned int>(index) >= m_length)
+			throw std::out_of_range("Array index out of range");
+		return m_data[index];
+	}
+
+	/**
+	 * Get the element at the given index, with no bounds check.  The translator only generates this when it can prove
+	 * the index is in bounds, e.g. in a for loop over the array where the loop condition already checks the index.
+	 */
+	T& uncheckedAt(int index) { return m_data[index]; }
+
 private: // Data
 	unsigned int m_length;
 	T m_data[0];
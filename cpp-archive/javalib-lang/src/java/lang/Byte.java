@@ -268,6 +268,13 @@ public final class Byte extends Number implements Comparable<Byte> {
         return valueOf(parseByte(string, radix));
     }
 
+    private static final Byte[] valueOfCache = new Byte[256];
+
+    static {
+        for (int j = 0; j < valueOfCache.length; j++)
+            valueOfCache[j] = new Byte((byte) (j - 128));
+    }
+
     /**
      * Returns a {@code Byte} instance for the specified byte value.
      * <p>
@@ -275,9 +282,8 @@ public final class Byte extends Number implements Comparable<Byte> {
      * recommended to use this method instead of the constructor, since it
      * maintains a cache of instances which may result in better performance.
      * 
-	 * JUniversal CHANGE: Removed the CACHE, which cached all bytes on first access, in
-	 * order to make things a little simpler & since static initializers & synchronized aren't
-	 * currently supported.
+	 * JUniversal CHANGE: The cache, which caches all bytes, is built by a static
+	 * initializer of this class, rather than of a nested class.
 	 * 
      * @param b
      *            the byte value to store in the instance.
@@ -285,6 +291,6 @@ public final class Byte extends Number implements Comparable<Byte> {
      * @since 1.5
      */
     public static Byte valueOf(byte b) {
-        return new Byte(b);
+        return valueOfCache[b + 128];
     }
 }
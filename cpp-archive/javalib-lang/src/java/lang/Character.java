@@ -134,13 +134,21 @@ public final class Character implements Comparable<Character> {
         return value - c.value;
     }
     
+    private static final Character[] valueOfCache = new Character[128];
+
+    static {
+        for (int j = 0; j < valueOfCache.length; j++)
+            valueOfCache[j] = new Character((char) j);
+    }
+
     /**
      * Returns a {@code Character} instance for the {@code char} value passed.
      * For ASCII/Latin-1 characters (and generally all characters with a Unicode
      * value up to 512), this method should be used instead of the constructor,
      * as it maintains a cache of corresponding {@code Character} instances.
      *
-     * JUniversal CHANGE: Cache optimization was removed for now
+     * JUniversal CHANGE: Only ASCII characters are cached, like Java does, with
+     * the cache built by a static initializer of this class
      *
      * @param c
      *            the char value for which to get a {@code Character} instance.
@@ -148,7 +156,10 @@ public final class Character implements Comparable<Character> {
      * @since 1.5
      */
     public static Character valueOf(char c) {
-        return new Character(c);
+        if (c > 127)
+            return new Character(c);
+
+        return valueOfCache[c];
     }
 
     /**
@@ -763,6 +763,13 @@ public final class Integer extends Number implements Comparable<Integer> {
         return (i == 0 ? 0 : (i < 0 ? -1 : 1));
     }
 
+    private static final Integer[] valueOfCache = new Integer[256];
+
+    static {
+        for (int j = 0; j < valueOfCache.length; j++)
+            valueOfCache[j] = new Integer(j - 128);
+    }
+
     /**
 	 * Returns a {@code Integer} instance for the specified integer value.
 	 * <p>
@@ -770,9 +777,8 @@ public final class Integer extends Number implements Comparable<Integer> {
 	 * recommended to use this method instead of the constructor, since it
 	 * maintains a cache of instances which may result in better performance.
 	 * 
-	 * JUniversal CHANGE: Removed the valueOfCache, which cached -128 to 127, in
-	 * order to make things a little simpler & since static initializers aren't
-	 * currently supported.
+	 * JUniversal CHANGE: The cache, which caches -128 to 127, is built by a static
+	 * initializer of this class, rather than of a nested class.
 	 * 
 	 * @param i
 	 *            the integer value to store in the instance.
@@ -780,6 +786,9 @@ public final class Integer extends Number implements Comparable<Integer> {
 	 * @since 1.5
 	 */
     public static Integer valueOf(int i) {
-        return new Integer(i);
+        if (i < -128 || i > 127)
+            return new Integer(i);
+
+        return valueOfCache[i + 128];
     }
 }
@@ -665,6 +665,13 @@ public final class Long extends Number implements Comparable<Long> {
         return (lng == 0 ? 0 : (lng < 0 ? -1 : 1));
     }
 
+    private static final Long[] valueOfCache = new Long[256];
+
+    static {
+        for (int j = 0; j < valueOfCache.length; j++)
+            valueOfCache[j] = new Long(j - 128);
+    }
+
     /**
      * Returns a {@code Long} instance for the specified long value.
      * <p>
@@ -672,9 +679,8 @@ public final class Long extends Number implements Comparable<Long> {
      * recommended to use this method instead of the constructor, since it
      * maintains a cache of instances which may result in better performance.
      *
-	 * JUniversal CHANGE: Removed the valueOfCache, which cached -128 to 127, in
-	 * order to make things a little simpler & since static initializers aren't
-	 * currently supported.
+	 * JUniversal CHANGE: The cache, which caches -128 to 127, is built by a static
+	 * initializer of this class, rather than of a nested class.
 	 * 
      * @param lng
      *            the long value to store in the instance.
@@ -682,6 +688,9 @@ public final class Long extends Number implements Comparable<Long> {
      * @since 1.5
      */
     public static Long valueOf(long lng) {
-        return new Long(lng);
+        if (lng < -128 || lng > 127)
+            return new Long(lng);
+
+        return valueOfCache[(int) lng + 128];
     }
 }
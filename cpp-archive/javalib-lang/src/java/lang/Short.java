@@ -282,6 +282,13 @@ public final class Short extends Number implements Comparable<Short> {
         return (short) (low | high);
     }
 
+    private static final Short[] valueOfCache = new Short[256];
+
+    static {
+        for (int j = 0; j < valueOfCache.length; j++)
+            valueOfCache[j] = new Short((short) (j - 128));
+    }
+
     /**
      * Returns a {@code Short} instance for the specified short value.
      * <p>
@@ -289,9 +296,8 @@ public final class Short extends Number implements Comparable<Short> {
      * recommended to use this method instead of the constructor, since it
      * maintains a cache of instances which may result in better performance.
      *
-	 * JUniversal CHANGE: Removed the valueOfCache, which cached -128 to 127, in
-	 * order to make things a little simpler & since static initializers aren't
-	 * currently supported.
+	 * JUniversal CHANGE: The cache, which caches -128 to 127, is built by a static
+	 * initializer of this class, rather than of a nested class.
 	 * 
      * @param s
      *            the short value to store in the instance.
@@ -299,6 +305,9 @@ public final class Short extends Number implements Comparable<Short> {
      * @since 1.5
      */
     public static Short valueOf(short s) {
-        return new Short(s);
+        if (s < -128 || s > 127)
+            return new Short(s);
+
+        return valueOfCache[s + 128];
     }
 }
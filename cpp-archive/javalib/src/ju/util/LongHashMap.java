@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ju.util;
+
+
+/**
+ * LongHashMap is a map from {@code long} keys to object values, using open
+ * addressing like {@link OpenHashMap}.  The keys are stored unboxed in a flat
+ * array, parallel to the values, so neither a lookup nor an insertion
+ * allocates, and a lookup never compares keys through {@code equals}.
+ * <p>
+ * A zero key marks an empty slot, so the mapping for zero, if any, is stored
+ * separately.
+ */
+public class LongHashMap<V> {
+
+    /*
+     * Number of mappings, including the zero key mapping
+     */
+    int elementCount;
+
+    /*
+     * Keys and values; a zero key marks an empty slot.  The length is always a
+     * power of two.
+     */
+    long[] keys;
+    V[] values;
+
+    /*
+     * The zero key mapping, if any
+     */
+    boolean hasZeroKey;
+    V zeroKeyValue;
+
+    private static final int DEFAULT_SIZE = 16;
+
+    /*
+     * maximum ratio of (stored elements)/(storage size) which does not lead to
+     * rehash
+     */
+    final float loadFactor;
+
+    /*
+     * maximum number of elements that can be stored in the arrays before having
+     * to rehash
+     */
+    int threshold;
+
+    /**
+     * Constructs a new empty {@code LongHashMap} instance.
+     */
+    public LongHashMap() {
+        this(DEFAULT_SIZE, 0.75f);
+    }
+
+    /**
+     * Constructs a new {@code LongHashMap} instance with the specified capacity.
+     *
+     * @param capacity
+     *            the initial capacity of this hash map.
+     * @throws IllegalArgumentException
+     *                when the capacity is less than zero.
+     */
+    public LongHashMap(int capacity) {
+        this(capacity, 0.75f);
+    }
+
+    /**
+     * Constructs a new {@code LongHashMap} instance with the specified capacity
+     * and load factor, which must be less than one.
+     *
+     * @param capacity
+     *            the initial capacity of this hash map.
+     * @param loadFactor
+     *            the initial load factor.
+     * @throws IllegalArgumentException
+     *                when the capacity is less than zero or the load factor
+     *                isn't between zero & one.
+     */
+    public LongHashMap(int capacity, float loadFactor) {
+        if (capacity < 0 || loadFactor <= 0 || loadFactor >= 1)
+            throw new IllegalArgumentException();
+
+        this.loadFactor = loadFactor;
+        allocate(OpenHashMap.calculateCapacity((int) (capacity / loadFactor) + 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int length) {
+        keys = new long[length];
+        values = (V[]) new Object[length];
+        threshold = (int) (length * loadFactor);
+    }
+
+    /**
+     * Removes all mappings from this hash map, leaving it empty.
+     */
+    public void clear() {
+        if (elementCount > 0) {
+            elementCount = 0;
+
+            int length = keys.length;
+            for (int i = 0; i < length; ++i) {
+                keys[i] = 0;
+                values[i] = null;
+            }
+
+            hasZeroKey = false;
+            zeroKeyValue = null;
+        }
+    }
+
+    /**
+     * Returns whether this map contains the specified key.
+     *
+     * @param key
+     *            the key to search for.
+     * @return {@code true} if this map contains the specified key,
+     *         {@code false} otherwise.
+     */
+    public boolean containsKey(long key) {
+        if (key == 0)
+            return hasZeroKey;
+        return findIndex(key) >= 0;
+    }
+
+    /**
+     * Returns whether this map contains the specified value.
+     *
+     * @param value
+     *            the value to search for.
+     * @return {@code true} if this map contains the specified value,
+     *         {@code false} otherwise.
+     */
+    public boolean containsValue(Object value) {
+        if (hasZeroKey && OpenHashMap.areEqualValues(value, zeroKeyValue))
+            return true;
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && OpenHashMap.areEqualValues(value, values[i]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value of the mapping with the specified key.
+     *
+     * @param key
+     *            the key.
+     * @return the value of the mapping with the specified key, or {@code null}
+     *         if no mapping for the specified key is found.
+     */
+    public V get(long key) {
+        if (key == 0)
+            return zeroKeyValue;
+
+        int index = findIndex(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    /**
+     * Returns whether this map is empty.
+     *
+     * @return {@code true} if this map has no elements, {@code false}
+     *         otherwise.
+     */
+    public boolean isEmpty() {
+        return elementCount == 0;
+    }
+
+    /**
+     * Maps the specified key to the specified value.
+     *
+     * @param key
+     *            the key.
+     * @param value
+     *            the value.
+     * @return the value of any previous mapping with the specified key or
+     *         {@code null} if there was no such mapping.
+     */
+    public V put(long key, V value) {
+        if (key == 0) {
+            V result = zeroKeyValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                ++elementCount;
+            }
+            zeroKeyValue = value;
+            return result;
+        }
+
+        int mask = keys.length - 1;
+        int index = computeHashCode(key) & mask;
+        long slotKey;
+        while ((slotKey = keys[index]) != 0) {
+            if (slotKey == key) {
+                V result = values[index];
+                values[index] = value;
+                return result;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        if (++elementCount - (hasZeroKey ? 1 : 0) > threshold)
+            rehash(keys.length << 1);
+        return null;
+    }
+
+    /**
+     * Removes the mapping with the specified key from this map.
+     *
+     * @param key
+     *            the key of the mapping to remove.
+     * @return the value of the removed mapping or {@code null} if no mapping
+     *         for the specified key was found.
+     */
+    public V remove(long key) {
+        if (key == 0) {
+            V result = zeroKeyValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroKeyValue = null;
+                --elementCount;
+            }
+            return result;
+        }
+
+        int index = findIndex(key);
+        if (index < 0)
+            return null;
+
+        V result = values[index];
+        removeAt(index);
+        --elementCount;
+        return result;
+    }
+
+    /**
+     * Returns the number of elements in this map.
+     *
+     * @return the number of elements in this map.
+     */
+    public int size() {
+        return elementCount;
+    }
+
+    /*
+     * Returns the slot index of the specified (non zero) key, or -1 if it isn't
+     * in the map.
+     */
+    final int findIndex(long key) {
+        int mask = keys.length - 1;
+        int index = computeHashCode(key) & mask;
+        long slotKey;
+        while ((slotKey = keys[index]) != 0) {
+            if (slotKey == key)
+                return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /*
+     * Empties the slot at the specified index, then moves back any following
+     * entries of the probe sequence that can no longer be reached.
+     */
+    private void removeAt(int index) {
+        int mask = keys.length - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0) {
+            int home = computeHashCode(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+    }
+
+    void rehash(int length) {
+        long[] oldKeys = keys;
+        V[] oldValues = values;
+
+        allocate(OpenHashMap.calculateCapacity(length));
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int index = computeHashCode(key) & mask;
+                while (keys[index] != 0)
+                    index = (index + 1) & mask;
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    static int computeHashCode(long key) {
+        return OpenHashMap.mix((int) (key ^ (key >>> 32)));
+    }
+}
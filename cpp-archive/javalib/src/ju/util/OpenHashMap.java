@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ju.util;
+
+
+/**
+ * OpenHashMap is an implementation of Map that uses open addressing.  Unlike
+ * {@link HashMap}, which allocates an entry object per mapping & chains them,
+ * the keys, their hash codes, and the values are stored in flat parallel
+ * arrays, so a lookup probes consecutive array slots rather than following a
+ * pointer per entry.  In the translated C++, that means no heap node per
+ * mapping and far fewer cache misses for lookup heavy code.
+ * <p>
+ * Collisions are resolved by linear probing.  Removal shifts the following
+ * entries of the probe sequence back, so no "deleted" markers are needed and
+ * lookups never get slower as entries are removed.  The null key, which
+ * marks an empty slot, is stored separately.
+ */
+public class OpenHashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
+
+    /*
+     * Number of mappings, including the null key mapping
+     */
+    int elementCount;
+
+    /*
+     * Keys, their hash codes, and values; a null key marks an empty slot.  The
+     * length is always a power of two.
+     */
+    K[] keys;
+    int[] keyHashes;
+    V[] values;
+
+    /*
+     * The null key mapping, if any
+     */
+    boolean hasNullKey;
+    V nullKeyValue;
+
+    private static final int DEFAULT_SIZE = 16;
+
+    /*
+     * maximum ratio of (stored elements)/(storage size) which does not lead to
+     * rehash
+     */
+    final float loadFactor;
+
+    /*
+     * maximum number of elements that can be stored in the arrays before having
+     * to rehash
+     */
+    int threshold;
+
+    /**
+     * Constructs a new empty {@code OpenHashMap} instance.
+     */
+    public OpenHashMap() {
+        this(DEFAULT_SIZE, 0.75f);
+    }
+
+    /**
+     * Constructs a new {@code OpenHashMap} instance with the specified
+     * capacity.
+     *
+     * @param capacity
+     *            the initial capacity of this hash map.
+     * @throws IllegalArgumentException
+     *                when the capacity is less than zero.
+     */
+    public OpenHashMap(int capacity) {
+        this(capacity, 0.75f);
+    }
+
+    /**
+     * Constructs a new {@code OpenHashMap} instance with the specified capacity
+     * and load factor.  As probe sequences get long as the arrays fill up, the
+     * load factor must be less than one.
+     *
+     * @param capacity
+     *            the initial capacity of this hash map.
+     * @param loadFactor
+     *            the initial load factor.
+     * @throws IllegalArgumentException
+     *                when the capacity is less than zero or the load factor
+     *                isn't between zero & one.
+     */
+    public OpenHashMap(int capacity, float loadFactor) {
+        if (capacity < 0 || loadFactor <= 0 || loadFactor >= 1)
+            throw new IllegalArgumentException();
+
+        this.loadFactor = loadFactor;
+        allocate(calculateCapacity((int) (capacity / loadFactor) + 1));
+    }
+
+    /**
+     * Calculates the (power of two) array length required for storing the given
+     * number of slots.
+     */
+    static int calculateCapacity(int x) {
+        if (x >= 1 << 30)
+            return 1 << 30;
+        if (x <= DEFAULT_SIZE)
+            return DEFAULT_SIZE;
+        x = x - 1;
+        x |= x >> 1;
+        x |= x >> 2;
+        x |= x >> 4;
+        x |= x >> 8;
+        x |= x >> 16;
+        return x + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int length) {
+        keys = (K[]) new Object[length];
+        keyHashes = new int[length];
+        values = (V[]) new Object[length];
+        threshold = (int) (length * loadFactor);
+    }
+
+    /**
+     * Removes all mappings from this hash map, leaving it empty.
+     *
+     * @see #isEmpty
+     * @see #size
+     */
+    @Override
+    public void clear() {
+        if (elementCount > 0) {
+            elementCount = 0;
+
+            int length = keys.length;
+            for (int i = 0; i < length; ++i) {
+                keys[i] = null;
+                values[i] = null;
+            }
+
+            hasNullKey = false;
+            nullKeyValue = null;
+        }
+    }
+
+    /**
+     * Returns whether this map contains the specified key.
+     *
+     * @param key
+     *            the key to search for.
+     * @return {@code true} if this map contains the specified key,
+     *         {@code false} otherwise.
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if (key == null)
+            return hasNullKey;
+        return findIndex(key) >= 0;
+    }
+
+    /**
+     * Returns whether this map contains the specified value.
+     *
+     * @param value
+     *            the value to search for.
+     * @return {@code true} if this map contains the specified value,
+     *         {@code false} otherwise.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (hasNullKey && areEqualValues(value, nullKeyValue))
+            return true;
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && areEqualValues(value, values[i]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value of the mapping with the specified key.
+     *
+     * @param key
+     *            the key.
+     * @return the value of the mapping with the specified key, or {@code null}
+     *         if no mapping for the specified key is found.
+     */
+    @Override
+    public V get(Object key) {
+        if (key == null)
+            return nullKeyValue;
+
+        int index = findIndex(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    /**
+     * Returns whether this map is empty.
+     *
+     * @return {@code true} if this map has no elements, {@code false}
+     *         otherwise.
+     * @see #size()
+     */
+    @Override
+    public boolean isEmpty() {
+        return elementCount == 0;
+    }
+
+    /**
+     * Maps the specified key to the specified value.
+     *
+     * @param key
+     *            the key.
+     * @param value
+     *            the value.
+     * @return the value of any previous mapping with the specified key or
+     *         {@code null} if there was no such mapping.
+     */
+    @Override
+    public V put(K key, V value) {
+        if (key == null) {
+            V result = nullKeyValue;
+            if (!hasNullKey) {
+                hasNullKey = true;
+                ++elementCount;
+            }
+            nullKeyValue = value;
+            return result;
+        }
+
+        int hash = computeHashCode(key);
+        int mask = keys.length - 1;
+        int index = hash & mask;
+        K slotKey;
+        while ((slotKey = keys[index]) != null) {
+            if (keyHashes[index] == hash && areEqualKeys(key, slotKey)) {
+                V result = values[index];
+                values[index] = value;
+                return result;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        keyHashes[index] = hash;
+        values[index] = value;
+        if (++elementCount - (hasNullKey ? 1 : 0) > threshold)
+            rehash(keys.length << 1);
+        return null;
+    }
+
+    /**
+     * Removes the mapping with the specified key from this map.
+     *
+     * @param key
+     *            the key of the mapping to remove.
+     * @return the value of the removed mapping or {@code null} if no mapping
+     *         for the specified key was found.
+     */
+    @Override
+    public V remove(Object key) {
+        if (key == null) {
+            V result = nullKeyValue;
+            if (hasNullKey) {
+                hasNullKey = false;
+                nullKeyValue = null;
+                --elementCount;
+            }
+            return result;
+        }
+
+        int index = findIndex(key);
+        if (index < 0)
+            return null;
+
+        V result = values[index];
+        removeAt(index);
+        --elementCount;
+        return result;
+    }
+
+    /**
+     * Returns the number of elements in this map.
+     *
+     * @return the number of elements in this map.
+     */
+    @Override
+    public int size() {
+        return elementCount;
+    }
+
+    /*
+     * Returns the slot index of the specified (non null) key, or -1 if it isn't
+     * in the map.
+     */
+    final int findIndex(Object key) {
+        int hash = computeHashCode(key);
+        int mask = keys.length - 1;
+        int index = hash & mask;
+        K slotKey;
+        while ((slotKey = keys[index]) != null) {
+            if (keyHashes[index] == hash && areEqualKeys(key, slotKey))
+                return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /*
+     * Empties the slot at the specified index, then moves back any following
+     * entries of the probe sequence that can no longer be reached.
+     */
+    private void removeAt(int index) {
+        int mask = keys.length - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != null) {
+            int home = keyHashes[next] & mask;
+            // Move the entry to the hole if its home slot isn't between the hole and it, cyclically
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                keyHashes[hole] = keyHashes[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+    }
+
+    void rehash(int length) {
+        K[] oldKeys = keys;
+        int[] oldKeyHashes = keyHashes;
+        V[] oldValues = values;
+
+        allocate(calculateCapacity(length));
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            K key = oldKeys[i];
+            if (key != null) {
+                int index = oldKeyHashes[i] & mask;
+                while (keys[index] != null)
+                    index = (index + 1) & mask;
+                keys[index] = key;
+                keyHashes[index] = oldKeyHashes[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    /*
+     * Contract-related functionality.  The hash code is mixed, since linear
+     * probing degrades badly when hash codes (like Integer's) are sequential.
+     */
+    static int computeHashCode(Object key) {
+        return mix(key.hashCode());
+    }
+
+    static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    static boolean areEqualKeys(Object key1, Object key2) {
+        return (key1 == key2) || key1.equals(key2);
+    }
+
+    static boolean areEqualValues(Object value1, Object value2) {
+        return (value1 == value2) || (value1 != null && value1.equals(value2));
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ju.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for the open addressing maps: OpenHashMap, IntHashMap & LongHashMap.
+ */
+public class OpenHashMapTest {
+
+    @Test
+    public void testNullKey() {
+        OpenHashMap<String, String> map = new OpenHashMap<String, String>();
+        map.put("a", "1");
+
+        assertFalse(map.containsKey(null));
+        assertNull(map.put(null, "null"));
+        assertEquals("null", map.put(null, "null2"));
+        assertTrue(map.containsKey(null));
+        assertTrue(map.containsValue("null2"));
+        assertEquals("null2", map.get(null));
+        assertEquals(2, map.size());
+
+        assertEquals("null2", map.remove(null));
+        assertFalse(map.containsKey(null));
+        assertNull(map.remove(null));
+        assertEquals(1, map.size());
+
+        // A null key with a null value is still a mapping
+        map.put(null, null);
+        assertTrue(map.containsKey(null));
+        assertEquals(2, map.size());
+        map.clear();
+        assertFalse(map.containsKey(null));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testZeroKey() {
+        IntHashMap<String> intMap = new IntHashMap<String>();
+        intMap.put(1, "1");
+        assertFalse(intMap.containsKey(0));
+        assertNull(intMap.put(0, "zero"));
+        assertEquals("zero", intMap.put(0, "zero2"));
+        assertTrue(intMap.containsKey(0));
+        assertTrue(intMap.containsValue("zero2"));
+        assertEquals("zero2", intMap.get(0));
+        assertEquals(2, intMap.size());
+        assertEquals("zero2", intMap.remove(0));
+        assertFalse(intMap.containsKey(0));
+        assertNull(intMap.remove(0));
+        assertEquals(1, intMap.size());
+
+        LongHashMap<String> longMap = new LongHashMap<String>();
+        longMap.put(1L << 32, "high");
+        assertFalse(longMap.containsKey(0));
+        assertNull(longMap.put(0, "zero"));
+        assertTrue(longMap.containsKey(0));
+        assertEquals("zero", longMap.get(0));
+        assertEquals("high", longMap.get(1L << 32));
+        assertEquals(2, longMap.size());
+        assertEquals("zero", longMap.remove(0));
+        assertFalse(longMap.containsKey(0));
+        assertEquals(1, longMap.size());
+    }
+
+    /**
+     * Fill the last slots of the table with keys whose home is the last slot, so their probe sequence wraps around,
+     * then remove the first one; the others must be shifted back across the wraparound.
+     */
+    @Test
+    public void testRemoveAcrossWraparound() {
+        OpenHashMap<Integer, String> map = new OpenHashMap<Integer, String>();
+        Object[] table = getKeys(map);
+        int mask = table.length - 1;
+        int[] keys = findKeys(mask, 3, new KeyHome() {
+            public int getHome(int key, int mask) {
+                return OpenHashMap.computeHashCode(Integer.valueOf(key)) & mask;
+            }
+        });
+        int zeroHomeKey = findKeys(mask, 0, 1, new KeyHome() {
+            public int getHome(int key, int mask) {
+                return OpenHashMap.computeHashCode(Integer.valueOf(key)) & mask;
+            }
+        })[0];
+
+        for (int key : keys)
+            map.put(key, "v" + key);
+        map.put(zeroHomeKey, "v" + zeroHomeKey);
+        assertEquals(Integer.valueOf(keys[0]), table[mask]);
+        assertEquals(Integer.valueOf(zeroHomeKey), table[2]);
+
+        assertEquals("v" + keys[0], map.remove(keys[0]));
+        assertEquals(Integer.valueOf(keys[1]), table[mask]);
+        assertEquals(Integer.valueOf(keys[2]), table[0]);
+        assertEquals(Integer.valueOf(zeroHomeKey), table[1]);
+        assertNull(table[2]);
+
+        assertNull(map.get(keys[0]));
+        assertEquals("v" + keys[1], map.get(keys[1]));
+        assertEquals("v" + keys[2], map.get(keys[2]));
+        assertEquals("v" + zeroHomeKey, map.get(zeroHomeKey));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void testIntRemoveAcrossWraparound() {
+        IntHashMap<String> map = new IntHashMap<String>();
+        int mask = map.keys.length - 1;
+        KeyHome keyHome = new KeyHome() {
+            public int getHome(int key, int mask) {
+                return IntHashMap.computeHashCode(key) & mask;
+            }
+        };
+        int[] keys = findKeys(mask, 3, keyHome);
+        int zeroHomeKey = findKeys(mask, 0, 1, keyHome)[0];
+
+        for (int key : keys)
+            map.put(key, "v" + key);
+        map.put(zeroHomeKey, "v" + zeroHomeKey);
+        assertEquals(keys[0], map.keys[mask]);
+        assertEquals(zeroHomeKey, map.keys[2]);
+
+        assertEquals("v" + keys[0], map.remove(keys[0]));
+        assertEquals(keys[1], map.keys[mask]);
+        assertEquals(keys[2], map.keys[0]);
+        assertEquals(zeroHomeKey, map.keys[1]);
+        assertEquals(0, map.keys[2]);
+
+        assertNull(map.get(keys[0]));
+        assertEquals("v" + keys[1], map.get(keys[1]));
+        assertEquals("v" + keys[2], map.get(keys[2]));
+        assertEquals("v" + zeroHomeKey, map.get(zeroHomeKey));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void testLongRemoveAcrossWraparound() {
+        LongHashMap<String> map = new LongHashMap<String>();
+        int mask = map.keys.length - 1;
+        KeyHome keyHome = new KeyHome() {
+            public int getHome(int key, int mask) {
+                return LongHashMap.computeHashCode(toLongKey(key)) & mask;
+            }
+        };
+        int[] keys = findKeys(mask, 3, keyHome);
+        int zeroHomeKey = findKeys(mask, 0, 1, keyHome)[0];
+
+        for (int key : keys)
+            map.put(toLongKey(key), "v" + key);
+        map.put(toLongKey(zeroHomeKey), "v" + zeroHomeKey);
+
+        assertEquals("v" + keys[0], map.remove(toLongKey(keys[0])));
+        assertEquals(toLongKey(keys[1]), map.keys[mask]);
+        assertEquals(toLongKey(keys[2]), map.keys[0]);
+        assertEquals(toLongKey(zeroHomeKey), map.keys[1]);
+        assertEquals(0, map.keys[2]);
+
+        assertNull(map.get(toLongKey(keys[0])));
+        assertEquals("v" + keys[1], map.get(toLongKey(keys[1])));
+        assertEquals("v" + keys[2], map.get(toLongKey(keys[2])));
+        assertEquals("v" + zeroHomeKey, map.get(toLongKey(zeroHomeKey)));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void testRehash() {
+        OpenHashMap<Integer, Integer> map = new OpenHashMap<Integer, Integer>(4);
+        IntHashMap<Integer> intMap = new IntHashMap<Integer>(4);
+        LongHashMap<Integer> longMap = new LongHashMap<Integer>(4);
+        int initialLength = getKeys(map).length;
+
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+            intMap.put(i, i);
+            longMap.put(toLongKey(i), i);
+        }
+
+        assertTrue(getKeys(map).length > initialLength);
+        assertTrue(map.elementCount <= map.threshold);
+        assertTrue(intMap.elementCount - 1 <= intMap.threshold);
+        assertTrue(longMap.elementCount - 1 <= longMap.threshold);
+        assertEquals(1000, map.size());
+        assertEquals(1000, intMap.size());
+        assertEquals(1000, longMap.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i));
+            assertEquals(Integer.valueOf(i), intMap.get(i));
+            assertEquals(Integer.valueOf(i), longMap.get(toLongKey(i)));
+        }
+        assertNull(map.get(1000));
+        assertNull(intMap.get(1000));
+        assertNull(longMap.get(toLongKey(1000)));
+    }
+
+    /**
+     * Apply the same random puts & removes, on a small key range so there are many collisions & removals, to each map
+     * & to java.util.HashMap, checking they always agree.
+     */
+    @Test
+    public void testMatchesHashMap() {
+        OpenHashMap<Integer, Integer> map = new OpenHashMap<Integer, Integer>();
+        IntHashMap<Integer> intMap = new IntHashMap<Integer>();
+        LongHashMap<Integer> longMap = new LongHashMap<Integer>();
+        java.util.HashMap<Integer, Integer> expected = new java.util.HashMap<Integer, Integer>();
+        Random random = new Random(1);
+
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(200) - 20;
+            if (random.nextInt(3) == 0) {
+                Integer expectedValue = expected.remove(key);
+                assertEquals(expectedValue, map.remove(key));
+                assertEquals(expectedValue, intMap.remove(key));
+                assertEquals(expectedValue, longMap.remove(toLongKey(key)));
+            } else {
+                Integer expectedValue = expected.put(key, i);
+                assertEquals(expectedValue, map.put(key, i));
+                assertEquals(expectedValue, intMap.put(key, i));
+                assertEquals(expectedValue, longMap.put(toLongKey(key), i));
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.size(), intMap.size());
+            assertEquals(expected.size(), longMap.size());
+        }
+
+        for (int key = -20; key < 180; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.get(key), intMap.get(key));
+            assertEquals(expected.get(key), longMap.get(toLongKey(key)));
+            assertEquals(expected.containsKey(key), intMap.containsKey(key));
+        }
+    }
+
+    /*
+     * The keys array is created as an Object[], so read it through a wildcard to avoid a cast to the key type.
+     */
+    private static Object[] getKeys(OpenHashMap<?, ?> map) {
+        return map.keys;
+    }
+
+    private interface KeyHome {
+        int getHome(int key, int mask);
+    }
+
+    private static int[] findKeys(int home, int count, KeyHome keyHome) {
+        return findKeys(home, home, count, keyHome);
+    }
+
+    /*
+     * Find non zero keys whose home slot, for a table with the specified mask, is the specified one.
+     */
+    private static int[] findKeys(int mask, int home, int count, KeyHome keyHome) {
+        int[] keys = new int[count];
+        int found = 0;
+        for (int key = 1; found < count; key++) {
+            if (keyHome.getHome(key, mask) == home)
+                keys[found++] = key;
+        }
+        return keys;
+    }
+
+    /*
+     * Map an int to a long key that uses the high bits too. The halves differ, as the hash code XORs them together.
+     */
+    private static long toLongKey(int key) {
+        return ((long) key << 32) | ((key * 31) & 0xFFFFFFFFL);
+    }
+}
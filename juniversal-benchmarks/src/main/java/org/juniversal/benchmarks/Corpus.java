@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.benchmarks;
+
+import org.jetbrains.annotations.Nullable;
+import org.juniversal.translator.core.JUniversalException;
+import org.xuniversal.translator.core.Util;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+/**
+ * Source corpora used by the benchmarks: the translator-tests sources and a synthetic corpus, generated on demand, of
+ * many mid sized, comment heavy classes.
+ */
+public class Corpus {
+    public static final String TRANSLATOR_TESTS = "translator-tests";
+    public static final String SYNTHETIC = "synthetic";
+
+    private static final int SYNTHETIC_FILE_COUNT = 200;
+    private static final int SYNTHETIC_METHODS_PER_FILE = 20;
+
+    /**
+     * Get the root source directory for the specified corpus, generating it if need be.
+     *
+     * @param corpus TRANSLATOR_TESTS or SYNTHETIC
+     * @return source directory
+     */
+    public static File getDirectory(String corpus) {
+        if (corpus.equals(TRANSLATOR_TESTS)) {
+            String directory = System.getProperty("juniversal.benchmarks.translatorTests", "translator-tests/src/test/java");
+            return new File(directory).getAbsoluteFile();
+        } else if (corpus.equals(SYNTHETIC))
+            return createSyntheticCorpus();
+        else throw new JUniversalException("Unknown benchmark corpus: " + corpus);
+    }
+
+    /**
+     * Release a corpus directory returned by getDirectory, once the benchmark is done with it.   A generated corpus
+     * is deleted.
+     *
+     * @param corpus    TRANSLATOR_TESTS or SYNTHETIC
+     * @param directory source directory
+     */
+    public static void releaseDirectory(String corpus, File directory) {
+        if (corpus.equals(SYNTHETIC))
+            deleteRecursively(directory);
+    }
+
+    /**
+     * Delete a file, or a directory and everything in it.
+     *
+     * @param file file or directory to delete
+     */
+    public static void deleteRecursively(File file) {
+        @Nullable File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children)
+                deleteRecursively(child);
+        }
+
+        if (file.exists() && !file.delete())
+            throw new JUniversalException("Unable to delete " + file);
+    }
+
+    public static String[] getJavaFiles(File directory) {
+        ArrayList<File> files = new ArrayList<>();
+        try {
+            Util.getFilesRecursive(directory, ".java", files);
+        } catch (FileNotFoundException e) {
+            throw new JUniversalException("Benchmark corpus directory " + directory + " not found");
+        }
+
+        String[] filePaths = new String[files.size()];
+        for (int i = 0; i < filePaths.length; ++i)
+            filePaths[i] = files.get(i).getPath();
+        return filePaths;
+    }
+
+    private static File createSyntheticCorpus() {
+        try {
+            File directory = Files.createTempDirectory("juniversal-synthetic").toFile();
+            File packageDirectory = new File(directory, "synthetic");
+            if (!packageDirectory.mkdirs())
+                throw new JUniversalException("Unable to create directory " + packageDirectory);
+
+            for (int i = 0; i < SYNTHETIC_FILE_COUNT; ++i) {
+                File file = new File(packageDirectory, "Synthetic" + i + ".java");
+                Files.write(file.toPath(), createSyntheticClass(i).getBytes(StandardCharsets.UTF_8));
+            }
+
+            return directory;
+        } catch (IOException e) {
+            throw new JUniversalException(e);
+        }
+    }
+
+    /**
+     * Create the source for a synthetic class.   Each class calls into the one before it, so binding resolution has
+     * cross file references to follow.
+     */
+    public static String createSyntheticClass(int index) {
+        StringBuilder source = new StringBuilder();
+
+        source.append("/*\n * Synthetic benchmark source, file ").append(index).append("\n */\n\n");
+        source.append("package synthetic;\n\n");
+        source.append("/**\n * Synthetic class ").append(index).append(".\n *\n");
+        source.append(" * Lots of documentation, as is typical for an API layer.\n */\n");
+        source.append("public class Synthetic").append(index).append(" {\n");
+        source.append("    private int count;      // Number of things counted so far\n");
+        source.append("    private int total = 0;  // Running total\n\n");
+
+        for (int method = 0; method < SYNTHETIC_METHODS_PER_FILE; ++method) {
+            source.append("    /**\n");
+            source.append("     * Compute value ").append(method).append(", accumulating into the total.\n");
+            source.append("     *\n");
+            source.append("     * @param value  starting value\n");
+            source.append("     * @param limit  number of iterations\n");
+            source.append("     * @return computed value\n");
+            source.append("     */\n");
+            source.append("    public int compute").append(method).append("(int value, int limit) {\n");
+            source.append("        /* Loop, doing some simple arithmetic */\n");
+            source.append("        for (int i = 0; i < limit; ++i) {\n");
+            source.append("            if (i % 2 == 0)\n");
+            source.append("                value += i * ").append(method + 1).append(";   // Even\n");
+            source.append("            else value -= i;   // Odd\n");
+            source.append("        }\n\n");
+            source.append("        total += value;\n");
+            source.append("        ++count;\n");
+            if (index > 0)
+                source.append("        value += Synthetic").append(index - 1).append(".helper(value);\n");
+            source.append("        return value;\n");
+            source.append("    }\n\n");
+        }
+
+        source.append("    /**\n     * Static helper, called from other classes.\n     */\n");
+        source.append("    public static int helper(int value) {\n");
+        source.append("        return value * 2 + 1;\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        return source.toString();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.benchmarks;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing plus binding resolution, via ASTParser.createASTs, for a whole corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParseBenchmark {
+    @Param({Corpus.TRANSLATOR_TESTS, Corpus.SYNTHETIC})
+    public String corpus;
+
+    private File corpusDirectory;
+    private String[] javaFiles;
+
+    @Setup public void setup() {
+        corpusDirectory = Corpus.getDirectory(corpus);
+        javaFiles = Corpus.getJavaFiles(corpusDirectory);
+    }
+
+    @TearDown public void tearDown() {
+        Corpus.releaseDirectory(corpus, corpusDirectory);
+    }
+
+    @Benchmark public void parseAndBind(Blackhole blackhole) {
+        ParsedCorpus.createParser().createASTs(javaFiles, null, new String[0], new FileASTRequestor() {
+            @Override public void acceptAST(String sourceFilePath, CompilationUnit compilationUnit) {
+                blackhole.consume(compilationUnit);
+            }
+        }, null);
+    }
+}
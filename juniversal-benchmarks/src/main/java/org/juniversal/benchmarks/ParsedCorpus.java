@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.benchmarks;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.*;
+import org.juniversal.translator.core.JUniversalException;
+import org.juniversal.translator.core.JavaSourceFile;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A corpus parsed, with bindings resolved, for benchmarks that translate already parsed files.  JDT bindings are only
+ * fully usable while ASTParser.createASTs is running, so parsing is done on a background thread that waits, inside
+ * the last acceptAST callback, until the corpus is closed.
+ */
+public class ParsedCorpus implements AutoCloseable {
+    private final List<JavaSourceFile> sourceFiles = new ArrayList<>();
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private final CountDownLatch parsed = new CountDownLatch(1);
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private final Thread parserThread;
+    private volatile Throwable parserError;
+
+    public ParsedCorpus(File directory) {
+        String[] javaFiles = Corpus.getJavaFiles(directory);
+
+        parserThread = new Thread(() -> {
+            try {
+                createParser().createASTs(javaFiles, null, new String[0], new FileASTRequestor() {
+                    @Override public void acceptAST(String sourceFilePath, CompilationUnit compilationUnit) {
+                        sourceFiles.add(new JavaSourceFile(compilationUnit, new File(sourceFilePath),
+                                Charset.defaultCharset(), 4));
+
+                        if (sourceFiles.size() == javaFiles.length) {
+                            ready.countDown();
+                            waitUntilClosed();
+                        }
+                    }
+                }, null);
+            } catch (Throwable t) {
+                parserError = t;
+            } finally {
+                ready.countDown();
+                parsed.countDown();
+            }
+        }, "benchmark-parser");
+        parserThread.setDaemon(true);
+        parserThread.start();
+
+        // Wait until all files are parsed (the parser thread is then blocked in waitUntilClosed) or parsing fails
+        try {
+            ready.await();
+        } catch (InterruptedException e) {
+            throw new JUniversalException(e);
+        }
+        if (parserError != null)
+            throw new JUniversalException("Error parsing benchmark corpus", parserError);
+        if (sourceFiles.size() != javaFiles.length)
+            throw new JUniversalException("Only " + sourceFiles.size() + " of " + javaFiles.length +
+                                          " benchmark corpus files were parsed");
+    }
+
+    public static ASTParser createParser() {
+        ASTParser parser = ASTParser.newParser(AST.JLS8);
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setEnvironment(null, null, null, true);
+        parser.setResolveBindings(true);
+
+        Map options = JavaCore.getOptions();
+        JavaCore.setComplianceOptions(JavaCore.VERSION_1_7, options);
+        parser.setCompilerOptions(options);
+
+        return parser;
+    }
+
+    private void waitUntilClosed() {
+        try {
+            closed.await();
+        } catch (InterruptedException e) {
+            throw new JUniversalException(e);
+        }
+    }
+
+    public List<JavaSourceFile> getSourceFiles() {
+        return sourceFiles;
+    }
+
+    @Override public void close() {
+        closed.countDown();
+        try {
+            parsed.await();
+        } catch (InterruptedException e) {
+            throw new JUniversalException(e);
+        }
+    }
+}
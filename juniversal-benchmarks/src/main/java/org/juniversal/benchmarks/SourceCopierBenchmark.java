@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.xuniversal.translator.core.SourceCopier;
+import org.xuniversal.translator.core.SourceFile;
+import org.xuniversal.translator.core.TargetWriter;
+import org.xuniversal.translator.cplusplus.CPlusPlusTargetProfile;
+
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying & skipping whitespace and comments, on comment heavy source.   The benchmarks process every run of
+ * whitespace/comments in the source, as the writers do when translating it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SourceCopierBenchmark {
+    @Param({"4"})
+    public int sourceTabStop;
+
+    private SourceFile sourceFile;
+    private SourceCopier sourceCopier;
+    private int[] spaceAndCommentStarts;
+
+    @Setup public void setup() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 20; ++i)
+            source.append(Corpus.createSyntheticClass(i).replace("    ", "\t"));
+
+        sourceFile = new SourceFile(source.toString(), sourceTabStop);
+        TargetWriter targetWriter = new CPlusPlusTargetProfile().createTargetWriter(new NullWriter());
+        sourceCopier = new SourceCopier(sourceFile, sourceFile.getSource(), targetWriter);
+
+        spaceAndCommentStarts = findSpaceAndCommentStarts(sourceFile.getSource());
+    }
+
+    /**
+     * Find where each run of whitespace/comments starts, by alternately skipping whitespace/comments and code.
+     */
+    private int[] findSpaceAndCommentStarts(String source) {
+        int[] starts = new int[source.length()];
+        int count = 0;
+
+        int position = 0;
+        while (position < source.length()) {
+            starts[count++] = position;
+            position = sourceCopier.skipSpaceAndComments(position, false);
+
+            while (position < source.length() && !isSpaceOrCommentStart(source, position))
+                ++position;
+        }
+
+        return Arrays.copyOf(starts, count);
+    }
+
+    private static boolean isSpaceOrCommentStart(String source, int position) {
+        char currChar = source.charAt(position);
+        if (Character.isWhitespace(currChar))
+            return true;
+        return currChar == '/' && position + 1 < source.length() &&
+               (source.charAt(position + 1) == '/' || source.charAt(position + 1) == '*');
+    }
+
+    @Benchmark public int copySpaceAndComments() {
+        int endPositionTotal = 0;
+        for (int start : spaceAndCommentStarts)
+            endPositionTotal += sourceCopier.copySpaceAndComments(start, false, -1);
+        return endPositionTotal;
+    }
+
+    @Benchmark public int skipSpaceAndComments() {
+        int endPositionTotal = 0;
+        for (int start : spaceAndCommentStarts)
+            endPositionTotal += sourceCopier.skipSpaceAndComments(start, false);
+        return endPositionTotal;
+    }
+
+    @Benchmark public int skipSpaceAndCommentsBackward() {
+        int endPositionTotal = 0;
+        for (int start : spaceAndCommentStarts) {
+            if (start > 0)
+                endPositionTotal += sourceCopier.skipSpaceAndCommentsBackward(start - 1);
+        }
+        return endPositionTotal;
+    }
+
+    /**
+     * Writer that discards its output, so that just the copying logic is measured.
+     */
+    public static class NullWriter extends Writer {
+        @Override public void write(char[] cbuf, int off, int len) {
+        }
+
+        @Override public void write(int c) {
+        }
+
+        @Override public void flush() {
+        }
+
+        @Override public void close() {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.xuniversal.translator.core.TargetWriter;
+import org.xuniversal.translator.cplusplus.CPlusPlusTargetProfile;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TargetWriter output, writing translated code a token at a time as the writers do, with & without tabification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TargetWriterBenchmark {
+    @Param({"-1", "4"})
+    public int destTabStop;
+
+    private String[] tokens;
+    private CPlusPlusTargetProfile targetProfile;
+
+    @Setup public void setup() {
+        targetProfile = new CPlusPlusTargetProfile();
+        targetProfile.setTabStop(destTabStop);
+
+        // Split a synthetic class into tokens & the whitespace between them, including newlines & indentation
+        tokens = Corpus.createSyntheticClass(1).split("(?<=\\s)(?=\\S)|(?<=\\S)(?=\\s)");
+    }
+
+    @Benchmark public TargetWriter writeTokens() {
+        try (TargetWriter targetWriter = targetProfile.createTargetWriter(new SourceCopierBenchmark.NullWriter())) {
+            for (int i = 0; i < 10; ++i) {
+                for (String token : tokens)
+                    targetWriter.write(token);
+            }
+            return targetWriter;
+        }
+    }
+}
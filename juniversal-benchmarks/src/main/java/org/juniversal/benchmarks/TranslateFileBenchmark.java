@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.benchmarks;
+
+import org.juniversal.translator.core.JavaSourceFile;
+import org.juniversal.translator.core.Translator;
+import org.openjdk.jmh.annotations.*;
+import org.xuniversal.translator.core.UserViewableException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole file translation, via Translator.translateFile, of an already parsed corpus.  Files the translator doesn't
+ * support for a target language are counted, but otherwise ignored, same as a normal translation.   Any other error
+ * fails the benchmark.   Swift isn't included, as its translator can't translate whole files yet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TranslateFileBenchmark {
+    @Param({"c++", "c#"})
+    public String language;
+
+    @Param({Corpus.TRANSLATOR_TESTS, Corpus.SYNTHETIC})
+    public String corpus;
+
+    private File corpusDirectory;
+    private File outputDirectory;
+    private ParsedCorpus parsedCorpus;
+    private Translator translator;
+
+    @Setup public void setup() throws IOException {
+        corpusDirectory = Corpus.getDirectory(corpus);
+        parsedCorpus = new ParsedCorpus(corpusDirectory);
+
+        translator = Translator.createTranslator(language);
+
+        outputDirectory = Files.createTempDirectory("juniversal-benchmark-output").toFile();
+        translator.init(new String[]{"-l", language, "-o", outputDirectory.getPath(), corpusDirectory.getPath()});
+    }
+
+    @TearDown public void tearDown() {
+        parsedCorpus.close();
+        Corpus.deleteRecursively(outputDirectory);
+        Corpus.releaseDirectory(corpus, corpusDirectory);
+    }
+
+    @Benchmark public int translateFiles() {
+        int unsupportedCount = 0;
+        for (JavaSourceFile sourceFile : parsedCorpus.getSourceFiles()) {
+            try {
+                translator.translateFile(sourceFile);
+            } catch (UserViewableException e) {
+                ++unsupportedCount;
+            }
+        }
+        return unsupportedCount;
+    }
+}
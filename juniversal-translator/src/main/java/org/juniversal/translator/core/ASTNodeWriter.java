@@ -364,6 +364,52 @@ public abstract class ASTNodeWriter<T extends ASTNode> {
         });
     }
 
+    /**
+     * Ensure that the value type declaration (see ASTUtil.isValueType) meets the requirements for one:  it must be a
+     * final, non-generic class deriving directly from Object, implementing no interfaces, and its instance fields must
+     * all be final primitives, set in the constructor.
+     *
+     * @param typeDeclaration value type declaration
+     */
+    public void ensureValidValueType(TypeDeclaration typeDeclaration) {
+        if (typeDeclaration.isInterface() || !isFinal(typeDeclaration) || !typeDeclaration.typeParameters().isEmpty())
+            throw sourceNotSupported("A @ValueType must be a final, non-generic class");
+
+        if (typeDeclaration.getSuperclassType() != null || !typeDeclaration.superInterfaceTypes().isEmpty())
+            throw sourceNotSupported("A @ValueType can't have a superclass or implement interfaces");
+
+        if (typeDeclaration.getParent() instanceof AbstractTypeDeclaration && !isStatic(typeDeclaration))
+            throw sourceNotSupported("A nested @ValueType must be static");
+
+        forEach(typeDeclaration.bodyDeclarations(), (BodyDeclaration bodyDeclaration) -> {
+            if (!(bodyDeclaration instanceof FieldDeclaration) || isStatic(bodyDeclaration))
+                return;
+
+            FieldDeclaration fieldDeclaration = (FieldDeclaration) bodyDeclaration;
+            if (!isFinal(fieldDeclaration) || !fieldDeclaration.getType().isPrimitiveType())
+                throw sourceNotSupported("@ValueType instance fields must be final primitives");
+
+            forEach(fieldDeclaration.fragments(), (VariableDeclarationFragment fragment) -> {
+                if (fragment.getInitializer() != null)
+                    throw sourceNotSupported("@ValueType instance fields must be set in the constructor, not initialized in their declaration");
+            });
+        });
+    }
+
+    /**
+     * Ensure that the infix expression doesn't compare value types with == or !=.  Value types have no identity, so
+     * that's not supported.
+     *
+     * @param infixExpression infix expression in question
+     */
+    public void ensureNotValueTypeIdentityComparison(InfixExpression infixExpression) {
+        InfixExpression.Operator operator = infixExpression.getOperator();
+        if ((operator == InfixExpression.Operator.EQUALS || operator == InfixExpression.Operator.NOT_EQUALS) &&
+            (isValueType(infixExpression.getLeftOperand().resolveTypeBinding()) ||
+             isValueType(infixExpression.getRightOperand().resolveTypeBinding())))
+            throw sourceNotSupported("@ValueType values have no identity, so can't be compared with == or !=; use equals instead");
+    }
+
     /**
      * Set the context's current position to just after the end of the modifiers, including (if there are modifiers) any
      * trailing spaces/comments after the last one. If there are no modifiers in the list, the position remains
@@ -29,12 +29,15 @@ import org.xuniversal.translator.core.HierarchicalName;
 import java.io.File;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 public class ASTUtil {
+    // Qualified name of the annotation marking value types; see isValueType
+    public static final String VALUE_TYPE_ANNOTATION = "org.juniversal.annotations.ValueType";
 
     public static void parseJava(List<File> javaProjectDirectories) {
 
@@ -420,6 +423,44 @@ public class ASTUtil {
         return binding != null;
     }
 
+    /**
+     * Determine if the infix expression is a String concatenation, a "+" of String type.
+     *
+     * @param infixExpression infix expression in question
+     * @return true if the expression concatenates its operands
+     */
+    public static boolean isStringConcatenation(InfixExpression infixExpression) {
+        return infixExpression.getOperator() == InfixExpression.Operator.PLUS &&
+               isType(infixExpression.resolveTypeBinding(), "java.lang.String");
+    }
+
+    /**
+     * Get the operands of a String concatenation, in order.   Java evaluates "+" left to right, so any operands before
+     * the first String one, as in "1 + 2 + str", are added numerically rather than concatenated.   Those are returned
+     * together in the first list; all other lists contain a single operand.
+     *
+     * @param infixExpression String concatenation expression
+     * @return operands, each list holding the operands for a single piece of the result
+     */
+    public static List<List<Expression>> getStringConcatenationOperands(InfixExpression infixExpression) {
+        ArrayList<Expression> operands = new ArrayList<>();
+        operands.add(infixExpression.getLeftOperand());
+        operands.add(infixExpression.getRightOperand());
+        forEach(infixExpression.extendedOperands(), (Expression extendedOperand) -> operands.add(extendedOperand));
+
+        int firstStringOperand = 0;
+        while (firstStringOperand < operands.size() - 1 &&
+               !isType(operands.get(firstStringOperand).resolveTypeBinding(), "java.lang.String"))
+            ++firstStringOperand;
+
+        ArrayList<List<Expression>> pieces = new ArrayList<>();
+        int firstPieceSize = Math.max(firstStringOperand, 1);
+        pieces.add(operands.subList(0, firstPieceSize));
+        for (Expression operand : operands.subList(firstPieceSize, operands.size()))
+            pieces.add(Collections.singletonList(operand));
+        return pieces;
+    }
+
     /**
      * For a given type, get its outermost declaring class.   That is, if typeBinding corresponds to class C which is an
      * inner class inside class B which is in turn an inner class inside class A, class A (the outermost class) is
@@ -532,6 +573,53 @@ public class ASTUtil {
     }
 */
 
+    /**
+     * Determine if the type is a value type, a class annotated with @ValueType.   Value types are small immutable
+     * classes, like points & colors, that are translated to types held by value (C++ classes held inline, C# structs)
+     * rather than heap allocated objects.   The annotation is {@link #VALUE_TYPE_ANNOTATION}, which the project
+     * being translated declares itself (it just guides the translation, so needs nothing at runtime).   It must be
+     * declared (not unresolved) for the annotation to be seen from other source files.   Value types have no identity,
+     * so can't be compared with == or be null.
+     *
+     * @param typeBinding type in question
+     * @return true if the type is a value type
+     */
+    public static boolean isValueType(@Nullable ITypeBinding typeBinding) {
+        return typeBinding != null && typeBinding.isClass() &&
+               anyMatch(typeBinding.getTypeDeclaration().getAnnotations(),
+                       (IAnnotationBinding annotationBinding) ->
+                               annotationBinding.getAnnotationType().getQualifiedName().equals(VALUE_TYPE_ANNOTATION));
+    }
+
+    /**
+     * Get the primitive type corresponding to a boxed primitive type (e.g. "int" for java.lang.Integer).
+     *
+     * @param typeBinding type in question
+     * @return primitive type name, or null if the type isn't a boxed primitive
+     */
+    public static @Nullable String getBoxedPrimitiveTypeName(ITypeBinding typeBinding) {
+        switch (typeBinding.getQualifiedName()) {
+            case "java.lang.Boolean":
+                return "boolean";
+            case "java.lang.Byte":
+                return "byte";
+            case "java.lang.Character":
+                return "char";
+            case "java.lang.Short":
+                return "short";
+            case "java.lang.Integer":
+                return "int";
+            case "java.lang.Long":
+                return "long";
+            case "java.lang.Float":
+                return "float";
+            case "java.lang.Double":
+                return "double";
+            default:
+                return null;
+        }
+    }
+
     public static boolean isNumericPrimitiveType(Type type) {
         if (!(type instanceof PrimitiveType))
             return false;
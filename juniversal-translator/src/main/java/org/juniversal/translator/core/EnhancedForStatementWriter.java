@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+import static org.juniversal.translator.core.ASTUtil.getBoxedPrimitiveTypeName;
+import static org.juniversal.translator.core.ASTUtil.implementsInterface;
+
+
+/**
+ * Writer for enhanced for statements.   When iterating over an array or a random access List (like ArrayList), the
+ * loop is lowered to an indexed loop, with the length read once before the loop, rather than going through an
+ * iterator object.   Other loops are written in the target language's native for-each form.
+ * <p>
+ * To keep the lowered loop simple, the array or list must be a variable that can't change during the loop (an
+ * effectively final local or parameter, or a final field), so it can be referenced directly each iteration.   Note
+ * that a list structurally modified in the body of a lowered loop isn't detected like it is by Java's iterators.
+ */
+public abstract class EnhancedForStatementWriter extends CommonASTNodeWriter<EnhancedForStatement> {
+    public EnhancedForStatementWriter(Translator translator) {
+        super(translator);
+    }
+
+    @Override public void write(EnhancedForStatement enhancedForStatement) {
+        Expression expression = enhancedForStatement.getExpression();
+        @Nullable ITypeBinding expressionType = expression.resolveTypeBinding();
+
+        if (expressionType != null && isStableExpression(expression) &&
+            (expressionType.isArray() && isIndexedArrayLoop(enhancedForStatement) ||
+             isRandomAccessList(expressionType)) &&
+            canAssignElement(enhancedForStatement, getElementType(expressionType), expressionType.isArray()))
+            writeIndexedLoop(enhancedForStatement, expressionType.isArray());
+        else writeForEachLoop(enhancedForStatement);
+    }
+
+    /**
+     * Write the loop in the target language's native for-each form.
+     */
+    protected abstract void writeForEachLoop(EnhancedForStatement enhancedForStatement);
+
+    /**
+     * Determine if a loop over an array should be lowered to an indexed loop.   By default it is.
+     */
+    protected boolean isIndexedArrayLoop(EnhancedForStatement enhancedForStatement) {
+        return true;
+    }
+
+    /**
+     * Determine if a boxed primitive element, as read by {@link #writeElement}, can be assigned directly to a primitive
+     * loop variable.   By default it can.
+     */
+    protected boolean canUnboxElement(EnhancedForStatement enhancedForStatement, boolean isArray) {
+        return true;
+    }
+
+    /**
+     * Write an expression giving the length of the array or the size of the list.
+     */
+    protected abstract void writeLength(Expression expression, boolean isArray);
+
+    /**
+     * Write an expression giving the element of the array or list at the specified index.
+     */
+    protected abstract void writeElement(EnhancedForStatement enhancedForStatement, String index, boolean isArray);
+
+    private void writeIndexedLoop(EnhancedForStatement enhancedForStatement, boolean isArray) {
+        Expression expression = enhancedForStatement.getExpression();
+        int statementColumn = getTargetColumn();
+
+        // Nested loops need distinct names; loops at the same depth are in separate scopes so can share them
+        int depth = 0;
+        for (ASTNode ancestor = enhancedForStatement.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            if (ancestor instanceof EnhancedForStatement)
+                ++depth;
+        }
+        String index = "juniversalIndex" + depth;
+        String length = "juniversalLength" + depth;
+
+        matchAndWrite("for");
+
+        copySpaceAndComments();
+        matchAndWrite("(");
+
+        write("int " + index + " = 0, " + length + " = ");
+        writeLength(expression, isArray);
+        write("; " + index + " < " + length + "; ++" + index);
+
+        setPositionToEndOfNode(expression);
+        copySpaceAndComments();
+        matchAndWrite(")");
+
+        Statement body = enhancedForStatement.getBody();
+        if (body instanceof Block) {
+            copySpaceAndComments();
+            matchAndWrite("{");
+
+            List<?> statements = ((Block) body).statements();
+            if (statements.isEmpty()) {
+                write(" ");
+                writeElementDeclaration(enhancedForStatement, index, isArray);
+            } else {
+                // Declare the loop variable at the start of the block, lined up with the first statement
+                copySpaceAndComments();
+                int column = getTargetColumn();
+                writeElementDeclaration(enhancedForStatement, index, isArray);
+                writeln();
+                indentToColumn(column);
+
+                writeNodes(statements);
+            }
+
+            copySpaceAndComments();
+            matchAndWrite("}");
+        } else {
+            // Add braces, to hold the loop variable declaration as well as the statement
+            write(" {");
+            if (startsOnSameLine(body)) {
+                write(" ");
+                writeElementDeclaration(enhancedForStatement, index, isArray);
+                copySpaceAndComments();
+                writeNode(body);
+                write(" }");
+            } else {
+                copySpaceAndComments();
+                int column = getTargetColumn();
+                writeElementDeclaration(enhancedForStatement, index, isArray);
+                writeln();
+                indentToColumn(column);
+
+                writeNode(body);
+
+                writeln();
+                indentToColumn(statementColumn);
+                write("}");
+            }
+        }
+    }
+
+    private void writeElementDeclaration(EnhancedForStatement enhancedForStatement, String index, boolean isArray) {
+        writeNodeAtDifferentPosition(enhancedForStatement.getParameter());
+        write(" = ");
+        writeElement(enhancedForStatement, index, isArray);
+        write(";");
+    }
+
+    /**
+     * Determine if the expression always refers to the same object, however many times it's evaluated in the loop:  an
+     * effectively final local variable or parameter, or a final field.
+     */
+    private static boolean isStableExpression(Expression expression) {
+        @Nullable IBinding binding;
+        if (expression instanceof SimpleName)
+            binding = ((SimpleName) expression).resolveBinding();
+        else if (expression instanceof FieldAccess && ((FieldAccess) expression).getExpression() instanceof ThisExpression)
+            binding = ((FieldAccess) expression).resolveFieldBinding();
+        else return false;
+
+        if (!(binding instanceof IVariableBinding))
+            return false;
+
+        IVariableBinding variableBinding = (IVariableBinding) binding;
+        return Modifier.isFinal(variableBinding.getModifiers()) ||
+               !variableBinding.isField() && variableBinding.isEffectivelyFinal();
+    }
+
+    private static boolean isRandomAccessList(ITypeBinding typeBinding) {
+        return !typeBinding.isInterface() && implementsInterface(typeBinding, "java.util.RandomAccess") &&
+               getListElementType(typeBinding) != null;
+    }
+
+    private static @Nullable ITypeBinding getElementType(ITypeBinding typeBinding) {
+        if (typeBinding.isArray())
+            return typeBinding.getComponentType();
+        else return getListElementType(typeBinding);
+    }
+
+    /**
+     * Get the type argument for the java.util.List that the type is or implements, or null if it doesn't implement
+     * List or is a raw type.
+     */
+    protected static @Nullable ITypeBinding getListElementType(@Nullable ITypeBinding typeBinding) {
+        if (typeBinding == null)
+            return null;
+
+        if (typeBinding.getErasure().getQualifiedName().equals("java.util.List")) {
+            ITypeBinding[] typeArguments = typeBinding.getTypeArguments();
+            return typeArguments.length == 1 ? typeArguments[0] : null;
+        }
+
+        for (ITypeBinding interfaceType : typeBinding.getInterfaces()) {
+            @Nullable ITypeBinding elementType = getListElementType(interfaceType);
+            if (elementType != null)
+                return elementType;
+        }
+        return getListElementType(typeBinding.getSuperclass());
+    }
+
+    /**
+     * Determine if an element can be assigned directly to the loop variable:  it's the same type, or the variable's a
+     * primitive that the element unboxes to, where the target supports that (see {@link #canUnboxElement}).   Anything
+     * needing a real conversion is left to the for-each form.
+     */
+    private boolean canAssignElement(EnhancedForStatement enhancedForStatement, @Nullable ITypeBinding elementType,
+                                     boolean isArray) {
+        SingleVariableDeclaration parameter = enhancedForStatement.getParameter();
+        @Nullable ITypeBinding parameterType = parameter.getType().resolveBinding();
+        if (parameterType == null || elementType == null || parameter.getExtraDimensions() != 0)
+            return false;
+
+        if (parameterType.isEqualTo(elementType))
+            return true;
+        return parameterType.isPrimitive() && parameterType.getName().equals(getBoxedPrimitiveTypeName(elementType)) &&
+               canUnboxElement(enhancedForStatement, isArray);
+    }
+}
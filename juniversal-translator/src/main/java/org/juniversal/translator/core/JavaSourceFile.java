@@ -26,12 +26,13 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.xuniversal.translator.core.SourceFile;
 
 import java.io.File;
+import java.nio.charset.Charset;
 
 public class JavaSourceFile extends SourceFile {
     private final CompilationUnit compilationUnit;
 
-    public JavaSourceFile(CompilationUnit compilationUnit, File sourceFile, int sourceTabStop) {
-        super(sourceFile, sourceTabStop);
+    public JavaSourceFile(CompilationUnit compilationUnit, File sourceFile, Charset charset, int sourceTabStop) {
+        super(sourceFile, charset, sourceTabStop);
         this.compilationUnit = compilationUnit;
     }
 
@@ -43,25 +44,4 @@ public class JavaSourceFile extends SourceFile {
     public CompilationUnit getCompilationUnit() {
         return compilationUnit;
     }
-
-    @Override public int getPhysicalColumn(int position) {
-        int physicalColumn = compilationUnit.getColumnNumber(position);
-        if (physicalColumn < 0)
-            throw new RuntimeException("Position is invalid: " + position);
-
-        return physicalColumn;
-    }
-
-    @Override public int getLineNumber(int position) {
-        int lineNumber = compilationUnit.getLineNumber(position);
-        if (lineNumber < 0) {
-            if (position == getSource().length())
-                throw new RuntimeException("Position " + position + " is at end of source file; can't get line number");
-            else throw new RuntimeException("Position " + position + " isn't valid");
-        } else return lineNumber;
-    }
-
-    @Override public int getPosition(int lineNumber, int physicalColumn) {
-        return compilationUnit.getPosition(lineNumber, physicalColumn);
-    }
 }
@@ -47,6 +47,10 @@ public class ReferencedTypes {
         if (typeBinding == null)
             return;
 
+        add(typeBinding, needDefinition);
+    }
+
+    public void add(ITypeBinding typeBinding, boolean needDefinition) {
         // We don't care about references to primitive types--ignore those
         if (typeBinding.isPrimitive())
             return;
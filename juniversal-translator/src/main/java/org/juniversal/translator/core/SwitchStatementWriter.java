@@ -29,6 +29,12 @@ import org.xuniversal.translator.core.Var;
 import static org.juniversal.translator.core.ASTUtil.forEach;
 
 
+/**
+ * Writer for switch statements.   By default the switch is written in the same form as the Java source, which C#
+ * supports for all switch types (including strings & enums), only needing explicit fall through.   Targets that don't
+ * support switching on some types can override {@link #write(SwitchStatement)} & {@link #writeCaseLabel(Expression)}
+ * to lower the switch, using {@link #writeSwitchBody(SwitchStatement)} to write the case groups.
+ */
 public class SwitchStatementWriter extends CommonASTNodeWriter<SwitchStatement> {
     public SwitchStatementWriter(Translator translator) {
         super(translator);
@@ -36,9 +42,6 @@ public class SwitchStatementWriter extends CommonASTNodeWriter<SwitchStatement>
 
     @Override
     public void write(SwitchStatement switchStatement) {
-        // TODO: Handle string switch statements
-        // TODO: Check for fall through of cases (disallowed in C#)
-
         matchAndWrite("switch");
 
         copySpaceAndComments();
@@ -50,6 +53,15 @@ public class SwitchStatementWriter extends CommonASTNodeWriter<SwitchStatement>
         matchAndWrite(")");
 
         copySpaceAndComments();
+        writeSwitchBody(switchStatement);
+    }
+
+    /**
+     * Write the body of the switch, from the opening brace through the closing one.
+     */
+    protected void writeSwitchBody(SwitchStatement switchStatement) {
+        // TODO: Check for fall through of cases (disallowed in C#)
+
         matchAndWrite("{");
 
         Var<Statement> previousStatement = new Var<>();
@@ -67,9 +79,13 @@ public class SwitchStatementWriter extends CommonASTNodeWriter<SwitchStatement>
                     writeln();
                     indentToColumn(previousStatementIndent.value());
 
-                    write("goto case ");
-                    writeCaseLabelAtOtherPosition(switchCase.getExpression());
-                    write(";");
+                    if (switchCase.isDefault())
+                        write("goto default;");
+                    else {
+                        write("goto case ");
+                        writeCaseLabelAtOtherPosition(switchCase.getExpression());
+                        write(";");
+                    }
                 }
 
                 copySpaceAndComments();
@@ -138,7 +154,7 @@ public class SwitchStatementWriter extends CommonASTNodeWriter<SwitchStatement>
      *
      * @param expression case label expression
      */
-    private void writeCaseLabel(Expression expression) {
+    protected void writeCaseLabel(Expression expression) {
         if (getTranslator().isCSharp() && expression instanceof SimpleName) {
             SimpleName simpleName = (SimpleName) expression;
 
@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+import org.xuniversal.translator.core.UserViewableException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import static org.juniversal.translator.core.ASTUtil.getOuterDeclaringType;
+
+/**
+ * Manifest of what was produced by the last translation to an output directory, used for incremental translation.  For
+ * each source file it records the hash of the file's contents, the top level types it declares, the types it depends
+ * on (each along with the path & hash of the source file that declared that type at the time) and the target files
+ * emitted for it.  A source file needs to be translated again if its contents changed, one of the source files it
+ * depends on changed or went away, or one of its target files is missing.
+ * <p>
+ * The manifest is a simple tab separated text file, with one record per line.   It's only valid for the translator
+ * settings it was written with; if those change, everything is translated again.
+ */
+public class TranslationManifest {
+    public static final String FILE_NAME = ".juniversal-manifest";
+    private static final String HEADER = "juniversal-manifest\t1";
+
+    private final File outputDirectory;
+    private final String settings;
+    private final HashMap<String, Entry> entries = new HashMap<>();
+    private final HashMap<String, Entry> previousEntries = new HashMap<>();
+    private final ArrayList<Entry> failedEntries = new ArrayList<>();
+    private final HashMap<String, String> currentHashes = new HashMap<>();
+
+    public static class Entry {
+        private final String sourcePath;
+        private final String hash;
+        private final ArrayList<String> declaredTypes = new ArrayList<>();
+        private final ArrayList<String> referencedTypes = new ArrayList<>();
+        private final ArrayList<Dependency> dependencies = new ArrayList<>();
+        private final ArrayList<String> targets = new ArrayList<>();
+
+        public Entry(String sourcePath, String hash) {
+            this.sourcePath = sourcePath;
+            this.hash = hash;
+        }
+
+        public String getSourcePath() {
+            return sourcePath;
+        }
+
+        public List<String> getTargets() {
+            return targets;
+        }
+    }
+
+    private static class Dependency {
+        private final String typeName;
+        private final String sourcePath;
+        private final String hash;
+
+        private Dependency(String typeName, String sourcePath, String hash) {
+            this.typeName = typeName;
+            this.sourcePath = sourcePath;
+            this.hash = hash;
+        }
+    }
+
+    private TranslationManifest(File outputDirectory, String settings) {
+        this.outputDirectory = outputDirectory;
+        this.settings = settings;
+    }
+
+    /**
+     * Load the manifest from the specified output directory.  If there's no manifest there, or it was written with
+     * different translator settings, an empty manifest is returned, causing everything to be translated.
+     *
+     * @param outputDirectory output directory
+     * @param settings        description of the translator settings that affect output
+     * @return manifest
+     */
+    public static TranslationManifest load(File outputDirectory, String settings) {
+        TranslationManifest manifest = new TranslationManifest(outputDirectory, settings);
+
+        File file = new File(outputDirectory, FILE_NAME);
+        if (!file.exists())
+            return manifest;
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine()) || !("settings\t" + settings).equals(reader.readLine()))
+                return manifest;
+
+            @Nullable Entry entry = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+
+                if (fields[0].equals("file") && fields.length == 3) {
+                    entry = new Entry(fields[1], fields[2]);
+                    manifest.entries.put(entry.sourcePath, entry);
+                } else if (entry == null)
+                    throw new UserViewableException("Translation manifest " + file + " is corrupt; delete it to translate everything");
+                else if (fields[0].equals("declares") && fields.length == 2)
+                    entry.declaredTypes.add(fields[1]);
+                else if (fields[0].equals("dependency") && fields.length == 4)
+                    entry.dependencies.add(new Dependency(fields[1], fields[2], fields[3]));
+                else if (fields[0].equals("target") && fields.length == 2)
+                    entry.targets.add(fields[1]);
+                else
+                    throw new UserViewableException("Translation manifest " + file + " is corrupt; delete it to translate everything");
+            }
+        } catch (IOException e) {
+            throw new JUniversalException("Error reading translation manifest " + file, e);
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Determine which of the specified source files need to be translated.  The entries for any of those, along with
+     * the entries & target files for source files that no longer exist, are dropped from the manifest.
+     *
+     * @param sourcePaths all source files configured for translation
+     * @return the source files that need to be translated
+     */
+    public String[] getFilesNeedingTranslation(String[] sourcePaths) {
+        for (String sourcePath : sourcePaths)
+            currentHashes.put(sourcePath, hashFile(new File(sourcePath)));
+
+        // Remove the output for source files that were deleted
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if (!currentHashes.containsKey(entry.sourcePath)) {
+                deleteTargets(entry.targets, Collections.emptyList());
+                iterator.remove();
+            }
+        }
+
+        ArrayList<String> filesNeedingTranslation = new ArrayList<>();
+        for (String sourcePath : sourcePaths) {
+            @Nullable Entry entry = entries.get(sourcePath);
+            if (entry == null || !isUpToDate(entry)) {
+                filesNeedingTranslation.add(sourcePath);
+                if (entry != null) {
+                    entries.remove(sourcePath);
+                    previousEntries.put(sourcePath, entry);
+                }
+            }
+        }
+
+        return filesNeedingTranslation.toArray(new String[filesNeedingTranslation.size()]);
+    }
+
+    private boolean isUpToDate(Entry entry) {
+        if (!entry.hash.equals(currentHashes.get(entry.sourcePath)))
+            return false;
+
+        for (Dependency dependency : entry.dependencies) {
+            if (!dependency.hash.equals(currentHashes.get(dependency.sourcePath)))
+                return false;
+        }
+
+        for (String target : entry.targets) {
+            if (!new File(outputDirectory, target).exists())
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Create an entry for a source file about to be translated, recording the types it declares & references.   This
+     * must be called while the compilation unit's bindings are still usable.  It may be called for different batches on
+     * different threads at once, as the hashes it reads don't change after {@link #getFilesNeedingTranslation}.
+     *
+     * @param sourcePath      path of source file
+     * @param compilationUnit compilation unit for source file
+     * @return new entry, which should be passed to {@link #fileTranslated} if translation succeeds
+     */
+    public Entry createEntry(String sourcePath, CompilationUnit compilationUnit) {
+        @Nullable String hash = currentHashes.get(sourcePath);
+        Entry entry = new Entry(sourcePath, hash != null ? hash : hashFile(new File(sourcePath)));
+
+        for (Object type : compilationUnit.types()) {
+            @Nullable ITypeBinding typeBinding = ((AbstractTypeDeclaration) type).resolveBinding();
+            if (typeBinding != null)
+                entry.declaredTypes.add(typeBinding.getQualifiedName());
+        }
+
+        ReferencedTypes referencedTypes = new ReferencedTypes();
+        compilationUnit.accept(new ASTVisitor() {
+            @Override public void preVisit(ASTNode node) {
+                @Nullable ITypeBinding typeBinding = null;
+                if (node instanceof Type)
+                    typeBinding = ((Type) node).resolveBinding();
+                else if (node instanceof Name) {
+                    @Nullable IBinding binding = ((Name) node).resolveBinding();
+                    if (binding instanceof ITypeBinding)
+                        typeBinding = (ITypeBinding) binding;
+                } else if (node instanceof Expression)
+                    typeBinding = ((Expression) node).resolveTypeBinding();
+
+                if (typeBinding != null)
+                    addWithSupertypes(referencedTypes, typeBinding);
+            }
+        });
+
+        TreeSet<String> referencedTypeNames = new TreeSet<>();
+        for (ITypeBinding typeBinding : referencedTypes.getTypesJustNeedingDeclaration()) {
+            String typeName = getOuterDeclaringType(typeBinding).getQualifiedName();
+            if (!typeName.isEmpty() && !entry.declaredTypes.contains(typeName))
+                referencedTypeNames.add(typeName);
+        }
+        entry.referencedTypes.addAll(referencedTypeNames);
+
+        return entry;
+    }
+
+    private static void addWithSupertypes(ReferencedTypes referencedTypes, ITypeBinding typeBinding) {
+        if (typeBinding.isArray())
+            typeBinding = typeBinding.getElementType();
+        if (typeBinding.isPrimitive() || typeBinding.isTypeVariable() || typeBinding.isCapture() ||
+            typeBinding.isWildcardType() || typeBinding.isNullType())
+            return;
+
+        typeBinding = typeBinding.getTypeDeclaration();
+        if (referencedTypes.getTypesJustNeedingDeclaration().contains(typeBinding))
+            return;
+        referencedTypes.add(typeBinding, false);
+
+        // Inherited members affect how a type's uses are translated, so a change to any supertype counts as a change
+        @Nullable ITypeBinding superclass = typeBinding.getSuperclass();
+        if (superclass != null)
+            addWithSupertypes(referencedTypes, superclass);
+        for (ITypeBinding interfaceType : typeBinding.getInterfaces())
+            addWithSupertypes(referencedTypes, interfaceType);
+    }
+
+    /**
+     * Record that translation of a source file succeeded, producing the target files listed in its entry.   Target files
+     * produced by the previous translation of the file, that weren't produced this time, are deleted.  This method can
+     * be called from any thread.
+     *
+     * @param entry entry for the source file, as returned by {@link #createEntry}
+     */
+    public synchronized void fileTranslated(Entry entry) {
+        @Nullable Entry previousEntry = previousEntries.remove(entry.sourcePath);
+        if (previousEntry != null)
+            deleteTargets(previousEntry.targets, entry.targets);
+
+        entries.put(entry.sourcePath, entry);
+    }
+
+    /**
+     * Record that translation of a source file failed.  The file isn't added to the manifest, so it's translated again
+     * next time, but the types it declares are still tracked so that files depending on them get translated again
+     * once it's fixed.  This method can be called from any thread.
+     *
+     * @param entry entry for the source file, as returned by {@link #createEntry}
+     */
+    public synchronized void fileFailed(Entry entry) {
+        failedEntries.add(entry);
+    }
+
+    public String getRelativeTargetPath(File targetFile) {
+        return outputDirectory.toURI().relativize(targetFile.toURI()).getPath();
+    }
+
+    private void deleteTargets(List<String> targets, List<String> targetsToKeep) {
+        for (String target : targets) {
+            if (!targetsToKeep.contains(target)) {
+                File targetFile = new File(outputDirectory, target);
+                if (targetFile.exists() && !targetFile.delete())
+                    throw new UserViewableException("Unable to delete obsolete target file " + targetFile);
+            }
+        }
+    }
+
+    /**
+     * Write the manifest back to the output directory.   Dependencies of newly translated files are resolved here, once
+     * the types declared by all files are known.
+     */
+    public synchronized void save() {
+        HashMap<String, String> typeSourcePaths = new HashMap<>();
+        for (Collection<Entry> entryCollection : Arrays.asList(failedEntries, previousEntries.values(), entries.values())) {
+            for (Entry entry : entryCollection) {
+                for (String declaredType : entry.declaredTypes)
+                    typeSourcePaths.put(declaredType, entry.sourcePath);
+            }
+        }
+
+        for (Entry entry : entries.values()) {
+            if (entry.referencedTypes.isEmpty())
+                continue;
+
+            for (String referencedType : entry.referencedTypes) {
+                @Nullable String sourcePath = typeSourcePaths.get(referencedType);
+                if (sourcePath != null)
+                    entry.dependencies.add(new Dependency(referencedType, sourcePath, currentHashes.get(sourcePath)));
+            }
+            entry.referencedTypes.clear();
+        }
+
+        File file = new File(outputDirectory, FILE_NAME);
+        File tempFile = new File(outputDirectory, FILE_NAME + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(HEADER + "\n");
+                writer.write("settings\t" + settings + "\n");
+
+                for (Entry entry : new TreeMap<>(entries).values()) {
+                    writer.write("file\t" + entry.sourcePath + "\t" + entry.hash + "\n");
+                    for (String declaredType : entry.declaredTypes)
+                        writer.write("declares\t" + declaredType + "\n");
+                    for (Dependency dependency : entry.dependencies)
+                        writer.write("dependency\t" + dependency.typeName + "\t" + dependency.sourcePath + "\t" +
+                                     dependency.hash + "\n");
+                    for (String target : entry.targets)
+                        writer.write("target\t" + target + "\n");
+                }
+            }
+
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new JUniversalException("Error writing translation manifest " + file, e);
+        }
+    }
+
+    private static String hashFile(File file) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hashBytes = digest.digest(Files.readAllBytes(file.toPath()));
+
+            StringBuilder hash = new StringBuilder();
+            for (byte hashByte : hashBytes)
+                hash.append(String.format("%02x", hashByte));
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new JUniversalException(e);
+        } catch (IOException e) {
+            throw new UserViewableException("Error reading source file " + file + ": " + e.getMessage());
+        }
+    }
+}
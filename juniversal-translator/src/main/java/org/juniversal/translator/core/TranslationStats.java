@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.xuniversal.translator.core.UserViewableException;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Timing statistics for a translation, collected when the translator is run with -stats.  Wall time & invocation
+ * counts are tracked per ASTNodeWriter class, per AST node type, per phase (parse/bind, translate, write/flush) and
+ * per file.  Writer & node type times are given both inclusive of the nodes written underneath them and exclusive
+ * ("self"), the latter being what's usually wanted to find hot spots.
+ * <p>
+ * Each file is recorded, on whatever thread translates it, in a {@link FileRecorder}, which isn't thread safe but is
+ * cheap to update.  The recorder is merged into the overall stats, under a lock, when the file is done.
+ */
+public class TranslationStats {
+    /**
+     * Name for the stats file, when written to the output directory (as the Gradle plugin does).
+     */
+    public static final String FILE_NAME = ".juniversal-stats.json";
+
+    public static final String PHASE_PARSE_AND_BIND = "parseAndBind";
+    public static final String PHASE_TRANSLATE = "translate";
+    public static final String PHASE_WRITE_AND_FLUSH = "writeAndFlush";
+
+    private static final int SUMMARY_TOP_COUNT = 5;
+
+    private final HashMap<String, Counter> writers = new HashMap<>();
+    private final HashMap<String, Counter> nodeTypes = new HashMap<>();
+    private final LinkedHashMap<String, Long> phaseNanos = new LinkedHashMap<>();
+    private final ArrayList<FileRecord> files = new ArrayList<>();
+    private long totalNanos;
+    private int threadCount = 1;
+
+    public TranslationStats() {
+        phaseNanos.put(PHASE_PARSE_AND_BIND, 0L);
+        phaseNanos.put(PHASE_TRANSLATE, 0L);
+        phaseNanos.put(PHASE_WRITE_AND_FLUSH, 0L);
+    }
+
+    /**
+     * Invocation count & time for a writer class or node type.
+     */
+    private static class Counter {
+        private long count;
+        private long totalNanos;
+        private long selfNanos;
+
+        private void add(long count, long totalNanos, long selfNanos) {
+            this.count += count;
+            this.totalNanos += totalNanos;
+            this.selfNanos += selfNanos;
+        }
+    }
+
+    private static class FileRecord {
+        private final String path;
+        private final long nanos;
+        private final long writeNanos;
+        private final long nodeCount;
+
+        private FileRecord(String path, long nanos, long writeNanos, long nodeCount) {
+            this.path = path;
+            this.nanos = nanos;
+            this.writeNanos = writeNanos;
+            this.nodeCount = nodeCount;
+        }
+    }
+
+    /**
+     * Records the stats for a single file being translated.  Nested writeNode calls are tracked on a stack, so the
+     * time for child nodes can be subtracted out to get each writer's self time.
+     */
+    public static class FileRecorder {
+        private final String path;
+        private final long startNanos = System.nanoTime();
+        private final HashMap<Class<?>, Counter> writers = new HashMap<>();
+        private final HashMap<Class<?>, Counter> nodeTypes = new HashMap<>();
+        private long[] childNanos = new long[64];
+        private int depth = 0;
+        private long nodeCount = 0;
+        private long writeNanos = 0;
+
+        public FileRecorder(String path) {
+            this.path = path;
+        }
+
+        /**
+         * Note the start of writing a node.
+         *
+         * @return start time, to pass to {@link #nodeWritten}
+         */
+        public long startNode() {
+            if (depth == childNanos.length)
+                childNanos = Arrays.copyOf(childNanos, depth * 2);
+            childNanos[depth++] = 0;
+            return System.nanoTime();
+        }
+
+        public void nodeWritten(Class<?> writerClass, Class<?> nodeType, long startNanos) {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            long selfNanos = elapsedNanos - childNanos[--depth];
+            if (depth > 0)
+                childNanos[depth - 1] += elapsedNanos;
+
+            getCounter(writers, writerClass).add(1, elapsedNanos, selfNanos);
+            getCounter(nodeTypes, nodeType).add(1, elapsedNanos, selfNanos);
+            ++nodeCount;
+        }
+
+        /**
+         * Add time spent writing to (or flushing or closing) a target file.
+         */
+        public void addWriteNanos(long nanos) {
+            writeNanos += nanos;
+        }
+
+        private static Counter getCounter(HashMap<Class<?>, Counter> counters, Class<?> clazz) {
+            Counter counter = counters.get(clazz);
+            if (counter == null) {
+                counter = new Counter();
+                counters.put(clazz, counter);
+            }
+            return counter;
+        }
+    }
+
+    /**
+     * Merge in the stats for a file that's finished translating (successfully or not).
+     */
+    public synchronized void fileTranslated(FileRecorder recorder) {
+        long fileNanos = System.nanoTime() - recorder.startNanos;
+
+        for (Map.Entry<Class<?>, Counter> entry : recorder.writers.entrySet())
+            add(writers, entry.getKey().getName(), entry.getValue());
+        for (Map.Entry<Class<?>, Counter> entry : recorder.nodeTypes.entrySet())
+            add(nodeTypes, entry.getKey().getSimpleName(), entry.getValue());
+
+        addPhaseNanos(PHASE_TRANSLATE, fileNanos - recorder.writeNanos);
+        addPhaseNanos(PHASE_WRITE_AND_FLUSH, recorder.writeNanos);
+
+        files.add(new FileRecord(recorder.path, fileNanos, recorder.writeNanos, recorder.nodeCount));
+    }
+
+    private static void add(HashMap<String, Counter> counters, String name, Counter counter) {
+        Counter total = counters.get(name);
+        if (total == null) {
+            total = new Counter();
+            counters.put(name, total);
+        }
+        total.add(counter.count, counter.totalNanos, counter.selfNanos);
+    }
+
+    public synchronized void addPhaseNanos(String phase, long nanos) {
+        phaseNanos.put(phase, phaseNanos.get(phase) + nanos);
+    }
+
+    public synchronized void setTotalNanos(long totalNanos) {
+        this.totalNanos = totalNanos;
+    }
+
+    public synchronized void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Write the stats, as JSON, to the specified file.
+     */
+    public synchronized void writeJson(File file) {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))) {
+            writer.write(toJson());
+        } catch (IOException e) {
+            throw new UserViewableException("Error writing stats file " + file + ": " + e.getMessage());
+        }
+    }
+
+    public synchronized String toJson() {
+        StringBuilder json = new StringBuilder();
+
+        json.append("{\n");
+        json.append("  \"totalMillis\": ").append(millis(totalNanos)).append(",\n");
+        json.append("  \"threads\": ").append(threadCount).append(",\n");
+        json.append("  \"fileCount\": ").append(files.size()).append(",\n");
+
+        json.append("  \"phases\": {");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : phaseNanos.entrySet()) {
+            json.append(first ? "\n" : ",\n");
+            json.append("    ").append(quote(entry.getKey())).append(": {\"millis\": ")
+                    .append(millis(entry.getValue())).append("}");
+            first = false;
+        }
+        json.append("\n  },\n");
+
+        appendCounters(json, "writers", "class", writers);
+        json.append(",\n");
+        appendCounters(json, "nodeTypes", "type", nodeTypes);
+        json.append(",\n");
+
+        json.append("  \"files\": [");
+        first = true;
+        for (FileRecord file : getFilesSortedByTime()) {
+            json.append(first ? "\n" : ",\n");
+            json.append("    {\"path\": ").append(quote(file.path))
+                    .append(", \"millis\": ").append(millis(file.nanos))
+                    .append(", \"writeMillis\": ").append(millis(file.writeNanos))
+                    .append(", \"nodes\": ").append(file.nodeCount).append("}");
+            first = false;
+        }
+        json.append("\n  ]\n");
+
+        json.append("}\n");
+        return json.toString();
+    }
+
+    private static void appendCounters(StringBuilder json, String name, String keyName,
+                                       HashMap<String, Counter> counters) {
+        json.append("  ").append(quote(name)).append(": [");
+        boolean first = true;
+        for (Map.Entry<String, Counter> entry : sortBySelfTime(counters)) {
+            Counter counter = entry.getValue();
+
+            json.append(first ? "\n" : ",\n");
+            json.append("    {").append(quote(keyName)).append(": ").append(quote(entry.getKey()))
+                    .append(", \"count\": ").append(counter.count)
+                    .append(", \"totalMillis\": ").append(millis(counter.totalNanos))
+                    .append(", \"selfMillis\": ").append(millis(counter.selfNanos)).append("}");
+            first = false;
+        }
+        json.append("\n  ]");
+    }
+
+    /**
+     * Get a short, human readable, summary of the stats, one "key: value" line per item so that it's easy to pick out
+     * of build logs.
+     */
+    public synchronized String getSummary() {
+        StringBuilder summary = new StringBuilder();
+
+        summary.append("Translation stats: ").append(files.size()).append(" file(s) in ").append(millis(totalNanos))
+                .append(" ms, ").append(threadCount).append(" thread(s)\n");
+        for (Map.Entry<String, Long> entry : phaseNanos.entrySet())
+            summary.append("  phase ").append(entry.getKey()).append(": ").append(millis(entry.getValue()))
+                    .append(" ms\n");
+
+        int i = 0;
+        for (Map.Entry<String, Counter> entry : sortBySelfTime(writers)) {
+            if (i++ == SUMMARY_TOP_COUNT)
+                break;
+            summary.append("  writer ").append(entry.getKey()).append(": ").append(millis(entry.getValue().selfNanos))
+                    .append(" ms self, ").append(entry.getValue().count).append(" call(s)\n");
+        }
+
+        i = 0;
+        for (FileRecord file : getFilesSortedByTime()) {
+            if (i++ == SUMMARY_TOP_COUNT)
+                break;
+            summary.append("  file ").append(file.path).append(": ").append(millis(file.nanos)).append(" ms\n");
+        }
+
+        return summary.toString();
+    }
+
+    private static List<Map.Entry<String, Counter>> sortBySelfTime(HashMap<String, Counter> counters) {
+        ArrayList<Map.Entry<String, Counter>> entries = new ArrayList<>(counters.entrySet());
+        entries.sort((entry1, entry2) -> Long.compare(entry2.getValue().selfNanos, entry1.getValue().selfNanos));
+        return entries;
+    }
+
+    private List<FileRecord> getFilesSortedByTime() {
+        ArrayList<FileRecord> sortedFiles = new ArrayList<>(files);
+        sortedFiles.sort((file1, file2) -> Long.compare(file2.nanos, file1.nanos));
+        return sortedFiles;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1000000.0);
+    }
+
+    private static String quote(String string) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < string.length(); ++i) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < ' ')
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    else quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -30,12 +30,28 @@ import org.juniversal.translator.cplusplus.CPlusPlusTranslator;
 import org.juniversal.translator.csharp.CSharpTranslator;
 import org.xuniversal.translator.core.*;
 import org.xuniversal.translator.cplusplus.*;
+import org.xuniversal.translator.csharp.*;
 
 import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import static org.juniversal.translator.core.ASTUtil.getFirstTypeDeclaration;
@@ -43,14 +59,33 @@ import static org.juniversal.translator.core.ASTUtil.getFirstTypeDeclaration;
 public abstract class Translator {
     private List<File> javaProjectDirectories;
     private File outputDirectory;
+    private @Nullable File workingDirectory;
+    private static volatile @Nullable String translatorVersion;
     private int sourceTabStop = 4;
     private int destTabStop = -1;
     private String[] classpath;
     private String[] sourcepath;
+    private int threadCount = 1;
+    private int batchSize = 0;
+    private int validationSampleRate = 1;
+    private boolean validateContextPosition = true;
+    private final AtomicInteger translatedFileCount = new AtomicInteger();
+    private boolean incremental = false;
+    private Charset sourceCharset = Charset.defaultCharset();
+    private @Nullable ArrayList<File> emittedTargetFiles;
+    private @Nullable File statsFile;
+    private @Nullable TranslationStats stats;
+    private @Nullable TranslationStats.FileRecorder statsRecorder;
     private HashMap<Class<? extends ASTNode>, ASTNodeWriter> visitors = new HashMap<>();
+    private ConcurrentLinkedQueue<Translator> idleWorkerTranslators = new ConcurrentLinkedQueue<>();
 
     public static void main(String[] args) {
         try {
+            if (args.length > 0 && args[0].startsWith("-daemon")) {
+                TranslatorDaemon.main(args);
+                return;
+            }
+
             if (!translate(args))
                 System.exit(1);
         } catch (Throwable t) {
@@ -61,35 +96,7 @@ public abstract class Translator {
 
     public static boolean translate(String[] args) {
         try {
-            @Nullable String targetLanguage = null;
-
-            for (int i = 0; i < args.length; ++i) {
-                String arg = args[i];
-
-                if (arg.equals("-l")) {
-                    ++i;
-                    if (i < args.length) {
-                        targetLanguage = args[i];
-                        break;
-                    }
-                }
-            }
-
-            if (targetLanguage == null)
-                usageError("No target language specified; must specify -l <language> param");
-
-            Translator translator;
-            if (targetLanguage.equals("c++"))
-                translator = new CPlusPlusTranslator(new CPlusPlusTargetProfile());
-            else if (targetLanguage.equals("c++vs2008"))
-                translator = new CPlusPlusTranslator(new CPlusPlusVS2008Profile());
-            else if (targetLanguage.equals("c++vs2015"))
-                translator = new CPlusPlusTranslator(new CPlusPlusVS2015Profile());
-            else if (targetLanguage.equals("c#"))
-                translator = new CSharpTranslator();
-            else {
-                throw new UserViewableException("'" + targetLanguage + "' is not a valid target language");
-            }
+            Translator translator = createTranslator(getTargetLanguage(args));
 
             translator.init(args);
             return translator.translate();
@@ -99,6 +106,39 @@ public abstract class Translator {
         }
     }
 
+    public static String getTargetLanguage(String[] args) {
+        @Nullable String targetLanguage = null;
+
+        for (int i = 0; i < args.length; ++i) {
+            String arg = args[i];
+
+            if (arg.equals("-l")) {
+                ++i;
+                if (i < args.length) {
+                    targetLanguage = args[i];
+                    break;
+                }
+            }
+        }
+
+        if (targetLanguage == null)
+            usageError("No target language specified; must specify -l <language> param");
+
+        return targetLanguage;
+    }
+
+    public static Translator createTranslator(String targetLanguage) {
+        if (targetLanguage.equals("c++"))
+            return new CPlusPlusTranslator(new CPlusPlusTargetProfile());
+        else if (targetLanguage.equals("c++vs2008"))
+            return new CPlusPlusTranslator(new CPlusPlusVS2008Profile());
+        else if (targetLanguage.equals("c++vs2015"))
+            return new CPlusPlusTranslator(new CPlusPlusVS2015Profile());
+        else if (targetLanguage.equals("c#"))
+            return new CSharpTranslator();
+        else throw new UserViewableException("'" + targetLanguage + "' is not a valid target language");
+    }
+
     public Translator() {
         addDeclarationWriters();
         addStatementWriters();
@@ -107,8 +147,47 @@ public abstract class Translator {
 
     protected abstract TargetWriter createTargetWriter(Writer writer);
 
+    /**
+     * Create a new translator of the same type as this one, with its own set of writers.   Writers hold state for the
+     * file currently being translated, so each thread translating files in parallel needs a translator of its own.
+     *
+     * @return new translator instance, sharing this translator's target profile
+     */
+    protected abstract Translator newTranslator();
+
+    /**
+     * Configure the translator from the specified command line arguments.  Any settings from a previous call are
+     * replaced, so a translator can be reused for multiple translations (as the daemon does).
+     *
+     * @param args command line arguments
+     */
     public void init(String[] args) {
+        init(args, null);
+    }
+
+    /**
+     * Configure the translator from the specified command line arguments, resolving relative paths in them against
+     * the given working directory.   That's used by the daemon, whose working directory isn't the client's.
+     *
+     * @param args             command line arguments
+     * @param workingDirectory directory relative paths are resolved against, or null for this process's working
+     *                         directory
+     */
+    public void init(String[] args, @Nullable File workingDirectory) {
+        this.workingDirectory = workingDirectory;
         javaProjectDirectories = new ArrayList<>();
+        outputDirectory = null;
+        classpath = null;
+        sourcepath = null;
+        threadCount = 1;
+        batchSize = 0;
+        validationSampleRate = 1;
+        incremental = false;
+        sourceCharset = Charset.defaultCharset();
+        statsFile = null;
+        getTargetProfile().setLineEnding(LineEnding.CRLF);
+        getTargetProfile().setCharset(Charset.defaultCharset());
+        getTargetProfile().resetOptions();
 
         for (int i = 0; i < args.length; ++i) {
             String arg = args[i];
@@ -138,6 +217,90 @@ public abstract class Translator {
                     arg = args[i];
 
                     sourcepath = getPathArgument(arg, "-sourcepath");
+                } else if (arg.equals("-j")) {
+                    ++i;
+                    if (i >= args.length)
+                        usageError();
+                    arg = args[i];
+
+                    try {
+                        threadCount = Integer.parseInt(arg);
+                    } catch (NumberFormatException e) {
+                        threadCount = 0;
+                    }
+                    if (threadCount < 1)
+                        throw new UserViewableException("-j value must be a positive number of threads: " + arg);
+                } else if (arg.equals("-batchsize")) {
+                    ++i;
+                    if (i >= args.length)
+                        usageError();
+                    arg = args[i];
+
+                    try {
+                        batchSize = Integer.parseInt(arg);
+                    } catch (NumberFormatException e) {
+                        batchSize = 0;
+                    }
+                    if (batchSize < 1)
+                        throw new UserViewableException("-batchsize value must be a positive number of files: " + arg);
+                } else if (arg.equals("-fast")) {
+                    validationSampleRate = 0;
+                } else if (arg.equals("-validatesample")) {
+                    ++i;
+                    if (i >= args.length)
+                        usageError();
+                    arg = args[i];
+
+                    try {
+                        validationSampleRate = Integer.parseInt(arg);
+                    } catch (NumberFormatException e) {
+                        validationSampleRate = 0;
+                    }
+                    if (validationSampleRate < 1)
+                        throw new UserViewableException(
+                                "-validatesample value must be a positive number of files: " + arg);
+                } else if (arg.equals("-incremental")) {
+                    incremental = true;
+                } else if (arg.equals("-lineending")) {
+                    ++i;
+                    if (i >= args.length)
+                        usageError();
+                    arg = args[i];
+
+                    getTargetProfile().setLineEnding(LineEnding.fromArgument(arg));
+                } else if (arg.equals("-sourceencoding")) {
+                    ++i;
+                    if (i >= args.length)
+                        usageError();
+                    arg = args[i];
+
+                    sourceCharset = getCharsetArgument(arg);
+                } else if (arg.equals("-targetencoding")) {
+                    ++i;
+                    if (i >= args.length)
+                        usageError();
+                    arg = args[i];
+
+                    getTargetProfile().setCharset(getCharsetArgument(arg));
+                } else if (arg.equals("-nonatomicrefs")) {
+                    getCPlusPlusTargetProfile(arg).setNonAtomicReferenceCounting(true);
+                } else if (arg.equals("-boxcache")) {
+                    getCPlusPlusTargetProfile(arg).setBoxCache(true);
+                } else if (arg.equals("-concatbuilder")) {
+                    getCPlusPlusTargetProfile(arg).setConcatBuilder(true);
+                } else if (arg.equals("-functionrefs")) {
+                    getCPlusPlusTargetProfile(arg).setFunctionRefs(true);
+                } else if (arg.equals("-primitivecollections")) {
+                    getCPlusPlusTargetProfile(arg).setPrimitiveCollections(true);
+                } else if (arg.equals("-splithelpers")) {
+                    getCSharpTargetProfile(arg).setSplitHelpers(true);
+                } else if (arg.equals("-stats") || arg.equals("--stats")) {
+                    ++i;
+                    if (i >= args.length)
+                        usageError();
+                    arg = args[i];
+
+                    statsFile = resolveFile(arg);
                 } else
                     usageError();
             } else
@@ -149,14 +312,26 @@ public abstract class Translator {
             usageError();
     }
 
+    private CPlusPlusTargetProfile getCPlusPlusTargetProfile(String arg) {
+        if (!(getTargetProfile() instanceof CPlusPlusTargetProfile))
+            throw new UserViewableException(arg + " is only supported when translating to C++");
+        return (CPlusPlusTargetProfile) getTargetProfile();
+    }
+
+    private CSharpTargetProfile getCSharpTargetProfile(String arg) {
+        if (!(getTargetProfile() instanceof CSharpTargetProfile))
+            throw new UserViewableException(arg + " is only supported when translating to C#");
+        return (CSharpTargetProfile) getTargetProfile();
+    }
+
     private String[] getPathArgument(String arg, String pathType) {
         ArrayList<String> pathEntries = new ArrayList<>();
         for (String pathEntry : arg.split(Pattern.quote(File.pathSeparator))) {
-            File pathEntryFile = new File(pathEntry);
+            File pathEntryFile = resolveFile(pathEntry);
 
             if (!pathEntryFile.exists())
                 System.err.println("Warning: " + pathType + " path entry " + pathEntry + " does not exist; ignoring");
-            else pathEntries.add(pathEntry);
+            else pathEntries.add(pathEntryFile.getPath());
         }
 
         String[] pathEntriesArray = new String[pathEntries.size()];
@@ -164,19 +339,30 @@ public abstract class Translator {
         return pathEntriesArray;
     }
 
+    private static Charset getCharsetArgument(String arg) {
+        try {
+            return Charset.forName(arg);
+        } catch (IllegalArgumentException e) {
+            throw new UserViewableException("'" + arg + "' is not a supported character encoding");
+        }
+    }
+
     public static void usageError() {
         usageError(null);
     }
 
+    /**
+     * Report invalid command line arguments, by throwing a UserViewableException containing the usage.   An exception
+     * is thrown, rather than exiting, as the translator can run inside another process (Gradle or the daemon).
+     *
+     * @param message description of what's wrong, or null if just the usage should be given
+     */
     public static void usageError(@Nullable String message) {
-        if (message != null)
-            System.err.println(message);
-        System.err.println("Usage: -o <output-directory> -l <target-language> [-classpath <classpath>] [-sourcepath <sourcepath>] <java-project-directories-to-translate>...");
-        System.exit(1);
+        throw new UserViewableException((message != null ? message + "\n" : "") + "Usage: -o <output-directory> -l <target-language> [-classpath <classpath>] [-sourcepath <sourcepath>] [-j <threads>] [-batchsize <files>] [-fast] [-validatesample <files>] [-incremental] [-lineending lf|crlf|preserve] [-sourceencoding <charset>] [-targetencoding <charset>] [-nonatomicrefs] [-boxcache] [-concatbuilder] [-functionrefs] [-primitivecollections] [-splithelpers] [-stats <json-file>] <java-project-directories-to-translate>...");
     }
 
-    private static File validateAndNormalizeDirectoryArgument(String path, boolean ensureExists) {
-        File file = new File(path);
+    private File validateAndNormalizeDirectoryArgument(String path, boolean ensureExists) {
+        File file = resolveFile(path);
         try {
             file = file.getCanonicalFile();
         } catch (IOException e) {
@@ -189,6 +375,17 @@ public abstract class Translator {
         return file;
     }
 
+    /**
+     * Get the file for a path given on the command line.   Relative paths are relative to the working directory passed
+     * to init, if any.
+     */
+    private File resolveFile(String path) {
+        File file = new File(path);
+        if (workingDirectory != null && !file.isAbsolute())
+            file = new File(workingDirectory, path);
+        return file;
+    }
+
     public File getOutputDirectory() {
         return outputDirectory;
     }
@@ -200,27 +397,39 @@ public abstract class Translator {
         String typeName = mainTypeDeclaration.getName().getIdentifier();
         String fileName = typeName + fileExtension;
 
-        File file = new File(getPackageDirectory(mainTypeDeclaration), fileName);
-        try {
-            return createTargetWriter(new FileWriter(file));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        File file = createTargetFile(mainTypeDeclaration, fileName);
+        return createTargetWriter(openTargetFile(file));
     }
 
-    protected FileWriter createTargetFileWriter(JavaSourceFile sourceFile, String targetFileExtension) {
+    protected Writer createTargetFileWriter(JavaSourceFile sourceFile, String targetFileExtension) {
         CompilationUnit compilationUnit = sourceFile.getCompilationUnit();
         AbstractTypeDeclaration mainTypeDeclaration = getFirstTypeDeclaration(compilationUnit);
 
         String typeName = mainTypeDeclaration.getName().getIdentifier();
         String fileName = typeName + targetFileExtension;
 
+        File file = createTargetFile(mainTypeDeclaration, fileName);
+        return openTargetFile(file);
+    }
+
+    private Writer openTargetFile(File file) {
+        @Nullable TranslationStats.FileRecorder statsRecorder = this.statsRecorder;
+        if (statsRecorder == null)
+            return Util.createFileWriter(file, getTargetProfile().getCharset());
+
+        long startNanos = System.nanoTime();
+        Writer writer = Util.createFileWriter(file, getTargetProfile().getCharset());
+        statsRecorder.addWriteNanos(System.nanoTime() - startNanos);
+        return new StatsRecordingWriter(writer, statsRecorder);
+    }
+
+    private File createTargetFile(AbstractTypeDeclaration mainTypeDeclaration, String fileName) {
         File file = new File(getPackageDirectory(mainTypeDeclaration), fileName);
-        try {
-            return new FileWriter(file);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+
+        // When translating incrementally, track the files written for each source file, for the manifest
+        if (emittedTargetFiles != null)
+            emittedTargetFiles.add(file);
+        return file;
     }
 
     public File getPackageDirectory(AbstractTypeDeclaration abstractTypeDeclaration) {
@@ -232,7 +441,8 @@ public abstract class Translator {
         }
 
         if (!directory.exists()) {
-            if (!directory.mkdirs())
+            // Another thread may create the directory concurrently, so only fail if it still doesn't exist
+            if (!directory.mkdirs() && !directory.isDirectory())
                 throw new JUniversalException("Unable to create directory for path: " + directory);
         }
 
@@ -244,52 +454,91 @@ public abstract class Translator {
      * (e.g. a SourceNotSupported exception is thrown), an error message is output for that file, the translation
      * continues on with remaining files, and false is eventually returned from this method as the translate failed.  If
      * an internal occurs during translation (e.g. the translator has a bug), an exception is thrown.
+     * <p>
+     * Parsing & binding resolution is normally done once, for all files together.  If more than one thread is
+     * configured (via -j), the files are instead split into batches (see {@link #getBatches}), with the batches parsed
+     * & translated in parallel.  JDT's bindings aren't thread safe, creating more bindings in the parser's shared
+     * tables as they're used, so each batch is parsed & translated on a single worker thread, with its own parser &
+     * translator instance, and bindings are never shared between threads.  Each file's output only depends on that
+     * file, so the output is the same as when translating serially.
+     * <p>
+     * As the parser holds the ASTs & bindings for all the files parsed together, memory use grows with the number of
+     * files.  With -batchsize, the files are instead parsed & translated in batches, with the parser discarded after
+     * each, so memory use is bounded by the batch size instead.  See {@link #getBatches}.
+     * <p>
+     * When translating incrementally (via -incremental), a {@link TranslationManifest} in the output directory is used
+     * to only translate the source files that changed, or that depend on something that changed, since the last
+     * translation.  The other source files are still made available to the parser, via the sourcepath, for binding
+     * resolution.
+     * <p>
+     * Normally, as each node is written, the writer's position in the source is checked before & after, to catch
+     * writers that skip or duplicate source.  Those checks scan the source again, so -fast turns them off while
+     * -validatesample &lt;N&gt; only does them for one file in every N, still catching regressions at a fraction of
+     * the cost.
+     * <p>
+     * If -stats is specified, timing statistics are collected during the translation and written as JSON to the given
+     * file, with a summary also output.  See {@link TranslationStats}.
      *
      * @return true if all files were translated without error, false if some failed
      */
     public boolean translate() {
-        ASTParser parser = ASTParser.newParser(AST.JLS8);
-        parser.setKind(ASTParser.K_COMPILATION_UNIT);
-        //parser.setEnvironment(new String[0], new String[0], null, false);
-        //TODO: Set classpath & sourcepath differently probably; this just uses the current VM (I think), but I can
-        //see that it doesn't resolve everything for some reason
-        parser.setEnvironment(classpath, sourcepath, null, true);
-        parser.setResolveBindings(true);
+        long startNanos = System.nanoTime();
+        stats = statsFile != null ? new TranslationStats() : null;
 
-        Map options = JavaCore.getOptions();
-        JavaCore.setComplianceOptions(JavaCore.VERSION_1_7, options);
-        parser.setCompilerOptions(options);
+        @Nullable TranslationManifest manifest =
+                incremental ? TranslationManifest.load(outputDirectory, getSettingsDescription()) : null;
 
-        Var<Boolean> failed = new Var<>(false);
+        String[] javaFiles;
+        if (manifest != null) {
+            javaFiles = manifest.getFilesNeedingTranslation(getJavaFiles());
+            System.out.println(javaFiles.length + " file(s) changed or depend on changes; translating those");
+        } else javaFiles = getJavaFiles();
 
-        FileASTRequestor astRequestor = new FileASTRequestor() {
-            public void acceptAST(String sourceFilePath, CompilationUnit compilationUnit) {
-                JavaSourceFile sourceFile = new JavaSourceFile(compilationUnit, new File(sourceFilePath), sourceTabStop);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        translatedFileCount.set(0);
 
-                //boolean outputErrorForFile = false;
-                for (IProblem problem : compilationUnit.getProblems()) {
-                    if (problem.isError()) {
-                        System.err.println("Error: " + problem.getMessage());
-                        System.err.println(sourceFile.getPositionDescription(problem.getSourceStart()));
-                    }
-                }
+        if (threadCount > 1) {
+            // Without a batch size, split the files evenly between the threads
+            List<String[]> batches = getBatches(javaFiles,
+                    batchSize > 0 ? batchSize : Math.max((javaFiles.length + threadCount - 1) / threadCount, 1));
 
-                // Translate each file as it's returned; if a user error occurs while translating (e.g. a
-                // SourceNotSupported exception is thrown), print the message for that, note the failure, and continue
-                // on
-                System.out.println("Translating " + sourceFilePath);
-                try {
-                    translateFile(sourceFile);
-                } catch (UserViewableException e) {
-                    System.err.println("Error: " + e.getMessage());
-                    failed.set(true);
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            try {
+                ArrayList<Future<?>> pendingBatches = new ArrayList<>();
+                for (String[] batch : batches) {
+                    pendingBatches.add(executor.submit(() -> {
+                        Translator workerTranslator = acquireWorkerTranslator();
+                        try {
+                            translateBatch(batch, manifest, failed, workerTranslator);
+                        } finally {
+                            idleWorkerTranslators.add(workerTranslator);
+                        }
+                    }));
                 }
+                waitForTranslations(pendingBatches);
+            } finally {
+                executor.shutdownNow();
             }
-        };
+        } else if (batchSize > 0) {
+            List<String[]> batches = getBatches(javaFiles, batchSize);
+            for (int i = 0; i < batches.size(); ++i) {
+                System.out.println("Translating batch " + (i + 1) + " of " + batches.size());
+                translateBatch(batches.get(i), manifest, failed, this);
+            }
+        } else translateBatch(javaFiles, manifest, failed, this);
 
-        parser.createASTs(getJavaFiles(), null, new String[0], astRequestor, null);
+        if (manifest != null)
+            manifest.save();
 
-        return !failed.value();
+        if (stats != null && statsFile != null) {
+            stats.setThreadCount(threadCount);
+            stats.setTotalNanos(System.nanoTime() - startNanos);
+            stats.writeJson(statsFile);
+            System.out.print(stats.getSummary());
+            stats = null;
+        }
+
+        return !failed.get();
 
 		/*
          * String source = readFile(jUniversal.getJavaProjectDirectories().get(0).getPath());
@@ -327,8 +576,270 @@ public abstract class Translator {
 		 */
     }
 
+    /**
+     * Parse the specified files, all together, and translate each with the specified translator, all on the calling
+     * thread.   The parser, and with it the ASTs & bindings for the files, is discarded when this returns.
+     */
+    private void translateBatch(String[] batchFiles, @Nullable TranslationManifest manifest, AtomicBoolean failed,
+                                Translator fileTranslator) {
+        ASTParser parser = ASTParser.newParser(AST.JLS8);
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        //parser.setEnvironment(new String[0], new String[0], null, false);
+        //TODO: Set classpath & sourcepath differently probably; this just uses the current VM (I think), but I can
+        //see that it doesn't resolve everything for some reason
+        String[] parserSourcepath = incremental || batchSize > 0 || threadCount > 1 ?
+                getSourcepathWithProjectDirectories() : sourcepath;
+        parser.setEnvironment(classpath, parserSourcepath, null, true);
+        parser.setResolveBindings(true);
+
+        Map options = JavaCore.getOptions();
+        JavaCore.setComplianceOptions(JavaCore.VERSION_1_7, options);
+        parser.setCompilerOptions(options);
+
+        long[] translateNanos = new long[1];
+
+        FileASTRequestor astRequestor = new FileASTRequestor() {
+            public void acceptAST(String sourceFilePath, CompilationUnit compilationUnit) {
+                JavaSourceFile sourceFile = new JavaSourceFile(compilationUnit, new File(sourceFilePath), sourceCharset,
+                        sourceTabStop);
+
+                //boolean outputErrorForFile = false;
+                for (IProblem problem : compilationUnit.getProblems()) {
+                    if (problem.isError()) {
+                        System.err.println("Error: " + problem.getMessage());
+                        System.err.println(sourceFile.getPositionDescription(problem.getSourceStart()));
+                    }
+                }
+
+                // Translate each file as it's returned; if a user error occurs while translating (e.g. a
+                // SourceNotSupported exception is thrown), print the message for that, note the failure, and continue
+                // on
+                System.out.println("Translating " + sourceFilePath);
+                @Nullable TranslationManifest.Entry manifestEntry =
+                        manifest != null ? manifest.createEntry(sourceFilePath, compilationUnit) : null;
+                boolean validate = validationSampleRate > 0 &&
+                                   translatedFileCount.getAndIncrement() % validationSampleRate == 0;
+
+                long translateStartNanos = System.nanoTime();
+                fileTranslator.translateFile(sourceFile, validate, failed, manifest, manifestEntry);
+                translateNanos[0] += System.nanoTime() - translateStartNanos;
+            }
+        };
+
+        // Have the parser read the files with the same encoding that JavaSourceFile does, so positions match
+        String[] encodings = new String[batchFiles.length];
+        Arrays.fill(encodings, sourceCharset.name());
+
+        long parseStartNanos = System.nanoTime();
+        if (batchFiles.length > 0)
+            parser.createASTs(batchFiles, encodings, new String[0], astRequestor, null);
+        if (stats != null)
+            stats.addPhaseNanos(TranslationStats.PHASE_PARSE_AND_BIND,
+                    System.nanoTime() - parseStartNanos - translateNanos[0]);
+    }
+
+    /**
+     * Split the files to translate into batches of (at most) the specified size.   Files in the same package tend to
+     * reference each other the most, so a package is kept together in a batch where possible, with the batch ending
+     * early rather than splitting it.  Only packages bigger than a batch are split.  Types from other batches are
+     * still found, via the sourcepath, but aren't fully resolved unless they're actually used, so keeping related
+     * files together keeps the work done for each batch down.
+     *
+     * @param javaFiles files to translate
+     * @param batchSize maximum number of files in a batch
+     * @return the batches
+     */
+    static List<String[]> getBatches(String[] javaFiles, int batchSize) {
+        LinkedHashMap<String, ArrayList<String>> packageFiles = new LinkedHashMap<>();
+        for (String javaFile : javaFiles) {
+            String packageDirectory = String.valueOf(new File(javaFile).getParent());
+
+            ArrayList<String> files = packageFiles.get(packageDirectory);
+            if (files == null) {
+                files = new ArrayList<>();
+                packageFiles.put(packageDirectory, files);
+            }
+            files.add(javaFile);
+        }
+
+        ArrayList<String[]> batches = new ArrayList<>();
+        ArrayList<String> batch = new ArrayList<>();
+        for (ArrayList<String> files : packageFiles.values()) {
+            if (!batch.isEmpty() && batch.size() + files.size() > batchSize) {
+                batches.add(batch.toArray(new String[batch.size()]));
+                batch.clear();
+            }
+
+            for (String file : files) {
+                if (batch.size() == batchSize) {
+                    batches.add(batch.toArray(new String[batch.size()]));
+                    batch.clear();
+                }
+                batch.add(file);
+            }
+        }
+        if (!batch.isEmpty())
+            batches.add(batch.toArray(new String[batch.size()]));
+
+        return batches;
+    }
+
     public abstract void translateFile(JavaSourceFile sourceFile);
 
+    private void translateFile(JavaSourceFile sourceFile, boolean validate, AtomicBoolean failed,
+                               @Nullable TranslationManifest manifest, @Nullable TranslationManifest.Entry manifestEntry) {
+        validateContextPosition = validate;
+        emittedTargetFiles = manifestEntry != null ? new ArrayList<>() : null;
+        statsRecorder = stats != null ? new TranslationStats.FileRecorder(sourceFile.getSourceFile().getPath()) : null;
+        try {
+            // Annotation types (like @ValueType) just guide the translation, with nothing to translate themselves
+            if (!(getFirstTypeDeclaration(sourceFile.getCompilationUnit()) instanceof AnnotationTypeDeclaration))
+                translateFile(sourceFile);
+
+            if (manifest != null && manifestEntry != null) {
+                for (File emittedTargetFile : emittedTargetFiles)
+                    manifestEntry.getTargets().add(manifest.getRelativeTargetPath(emittedTargetFile));
+                manifest.fileTranslated(manifestEntry);
+            }
+        } catch (UserViewableException e) {
+            System.err.println("Error: " + e.getMessage());
+            failed.set(true);
+
+            if (manifest != null && manifestEntry != null)
+                manifest.fileFailed(manifestEntry);
+        } finally {
+            validateContextPosition = true;
+            emittedTargetFiles = null;
+
+            if (stats != null && statsRecorder != null)
+                stats.fileTranslated(statsRecorder);
+            statsRecorder = null;
+        }
+    }
+
+    /**
+     * Get a description of the settings that affect the translator's output.  If these change between incremental
+     * translations, everything is translated again.   That includes the translator version, as a new translator can
+     * translate the same source differently, and the classpath, as bindings to classpath types affect the output.
+     */
+    private String getSettingsDescription() {
+        return getClass().getName() + " " + getTargetProfile().getClass().getName() + " " + sourceTabStop + " " +
+               destTabStop + " " + getTargetProfile().getLineEnding() + " " + getTargetProfile().getCharset().name() +
+               " " + sourceCharset.name() + getTargetProfile().getOptionsDescription() + " version " + getTranslatorVersion() +
+               " classpath " + hashFiles(classpath != null ? classpath : new String[0]);
+    }
+
+    /**
+     * Get the translator version.   When the translator isn't running from a release jar, as when developing it, there's
+     * no version, so a hash of the translator's class files is used instead.
+     */
+    private static String getTranslatorVersion() {
+        if (translatorVersion == null) {
+            @Nullable String implementationVersion = Translator.class.getPackage().getImplementationVersion();
+            if (implementationVersion != null)
+                translatorVersion = implementationVersion;
+            else {
+                try {
+                    File codeSource =
+                            new File(Translator.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+                    translatorVersion = "dev-" + hashFiles(new String[]{codeSource.getPath()});
+                } catch (URISyntaxException | RuntimeException e) {
+                    translatorVersion = "unknown";
+                }
+            }
+        }
+        return translatorVersion;
+    }
+
+    /**
+     * Hash the paths, sizes, and modification times of the given files, including everything in any directories.  This
+     * is much quicker than hashing the contents, and catches any normal rebuild of a jar or class.
+     */
+    private static String hashFiles(String[] paths) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            for (String path : paths)
+                addFileToHash(digest, new File(path));
+
+            StringBuilder hash = new StringBuilder();
+            for (byte hashByte : digest.digest())
+                hash.append(String.format("%02x", hashByte));
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new JUniversalException(e);
+        }
+    }
+
+    private static void addFileToHash(MessageDigest digest, File file) {
+        @Nullable File[] children = file.listFiles();
+        if (children != null) {
+            // Sort, so the hash doesn't depend on the order the file system lists files in
+            Arrays.sort(children);
+            for (File child : children)
+                addFileToHash(digest, child);
+        } else {
+            digest.update((file.getPath() + "\t" + file.length() + "\t" + file.lastModified() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Get the sourcepath to use for incremental or batched translation.  Only some of the files are parsed together,
+     * so the project directories are added to the sourcepath, letting the parser find the other files there.
+     */
+    private String[] getSourcepathWithProjectDirectories() {
+        ArrayList<String> incrementalSourcepath = new ArrayList<>();
+        if (sourcepath != null)
+            Collections.addAll(incrementalSourcepath, sourcepath);
+        for (File javaProjectDirectory : javaProjectDirectories) {
+            if (!incrementalSourcepath.contains(javaProjectDirectory.getPath()))
+                incrementalSourcepath.add(javaProjectDirectory.getPath());
+        }
+        return incrementalSourcepath.toArray(new String[incrementalSourcepath.size()]);
+    }
+
+    /**
+     * Get a translator to use on a worker thread, configured with this translator's output settings; the batch is still
+     * parsed with this translator's parser settings, by {@link #translateBatch}.  Worker translators are
+     * kept around after use, so that when the translator is reused (by the daemon) their writers don't need to be
+     * created again.
+     */
+    private Translator acquireWorkerTranslator() {
+        @Nullable Translator workerTranslator = idleWorkerTranslators.poll();
+        if (workerTranslator == null)
+            workerTranslator = newTranslator();
+
+        workerTranslator.javaProjectDirectories = javaProjectDirectories;
+        workerTranslator.outputDirectory = outputDirectory;
+        workerTranslator.sourceTabStop = sourceTabStop;
+        workerTranslator.destTabStop = destTabStop;
+        workerTranslator.sourceCharset = sourceCharset;
+        workerTranslator.stats = stats;
+        return workerTranslator;
+    }
+
+    /**
+     * Wait for the given translations, running on worker threads, to complete.  If an internal error occurred for any of
+     * them, it's rethrown here.
+     */
+    private static void waitForTranslations(List<Future<?>> pendingTranslations) {
+        for (Future<?> pendingTranslation : pendingTranslations) {
+            try {
+                pendingTranslation.get();
+            } catch (InterruptedException e) {
+                throw new JUniversalException("Interrupted while waiting for translation to finish", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                else if (cause instanceof Error)
+                    throw (Error) cause;
+                else throw new JUniversalException(cause);
+            }
+        }
+        pendingTranslations.clear();
+    }
+
     /**
      * Translate a single node in the AST.   This method is normally just used for testing (unit tests); for production
      * use whole files are always translated.
@@ -415,13 +926,18 @@ public abstract class Translator {
         return visitor;
     }
 
-    private static final boolean VALIDATE_CONTEXT_POSITION = true;
-
     public void writeNode(ASTNode node) {
         JavaSourceContext context = getContext();
 
-        int nodeStartPosition;
-        if (VALIDATE_CONTEXT_POSITION) {
+        // When collecting stats, time the node, including any child nodes written by its writer
+        @Nullable TranslationStats.FileRecorder statsRecorder = this.statsRecorder;
+        long statsStartNanos = statsRecorder != null ? statsRecorder.startNode() : 0;
+
+        // Only fetch the field once, as this is called for every node
+        boolean validateContextPosition = this.validateContextPosition;
+
+        int nodeStartPosition = 0;
+        if (validateContextPosition) {
             nodeStartPosition = node.getStartPosition();
 
             SourceCopier sourceCopier = getSourceCopier();
@@ -452,13 +968,16 @@ public abstract class Translator {
             writeUnboxedExpressionNode(expression, visitor);
         else visitor.write(node);
 
-        if (VALIDATE_CONTEXT_POSITION) {
+        if (validateContextPosition) {
             if (getContext().getKnowinglyProcessedTrailingSpaceAndComments())
                 context.assertPositionIsAtLeast(nodeStartPosition + node.getLength());
             else context.assertPositionIs(nodeStartPosition + node.getLength());
         }
 
         context.setKnowinglyProcessedTrailingSpaceAndComments(false);
+
+        if (statsRecorder != null)
+            statsRecorder.nodeWritten(visitor.getClass(), node.getClass(), statsStartNanos);
     }
 
     /**
@@ -919,4 +1438,41 @@ public abstract class Translator {
             }
         });
     }
+
+    /**
+     * Writer wrapper that adds the time spent writing to a target file to the stats for the current file.
+     */
+    private static class StatsRecordingWriter extends Writer {
+        private final Writer writer;
+        private final TranslationStats.FileRecorder statsRecorder;
+
+        private StatsRecordingWriter(Writer writer, TranslationStats.FileRecorder statsRecorder) {
+            this.writer = writer;
+            this.statsRecorder = statsRecorder;
+        }
+
+        @Override public void write(char[] buffer, int offset, int length) throws IOException {
+            long startNanos = System.nanoTime();
+            writer.write(buffer, offset, length);
+            statsRecorder.addWriteNanos(System.nanoTime() - startNanos);
+        }
+
+        @Override public void write(String string, int offset, int length) throws IOException {
+            long startNanos = System.nanoTime();
+            writer.write(string, offset, length);
+            statsRecorder.addWriteNanos(System.nanoTime() - startNanos);
+        }
+
+        @Override public void flush() throws IOException {
+            long startNanos = System.nanoTime();
+            writer.flush();
+            statsRecorder.addWriteNanos(System.nanoTime() - startNanos);
+        }
+
+        @Override public void close() throws IOException {
+            long startNanos = System.nanoTime();
+            writer.close();
+            statsRecorder.addWriteNanos(System.nanoTime() - startNanos);
+        }
+    }
 }
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.jetbrains.annotations.Nullable;
+import org.xuniversal.translator.core.UserViewableException;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.SecureRandom;
+import java.util.HashMap;
+
+/**
+ * Long running translator process, which keeps translators (with their writers) and the JVM warm between translations.
+ * Requests are just translator command lines, sent either over a socket, listening on the loopback interface, or via
+ * stdin/stdout.  The socket daemon is started with "-daemon" and the stdin/stdout one with "-daemon-stdio".
+ * <p>
+ * The protocol is line based, in UTF-8.  A request is a line with "args &lt;count&gt;", followed by that many lines,
+ * one per argument.  It can be preceded by a line with "dir &lt;directory&gt;", giving the client's working
+ * directory, which relative paths in the arguments are resolved against; otherwise they're relative to the daemon's
+ * working directory.  Over a socket, the request is preceded by a line with "juniversal-translator &lt;token&gt;",
+ * where the token is the one in the daemon file written to the user's home directory.  A socket client that sends
+ * nothing for {@link #READ_TIMEOUT_MILLIS} is disconnected, so it can't block other clients.  The response is the
+ * translator's output, each line prefixed by "out " or "err ", followed by "exit &lt;code&gt;", where the code is
+ * the same as the translator's process exit code.  A request of "stop" instead of "args" shuts the daemon down.
+ * <p>
+ * Clients, like the Gradle plugin, call {@link #translateUsingDaemon}, which finds the daemon via the daemon file.
+ */
+public class TranslatorDaemon {
+    public static final File DAEMON_FILE = new File(System.getProperty("user.home"), ".juniversal-translator-daemon");
+    private static final String GREETING = "juniversal-translator";
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int READ_TIMEOUT_MILLIS = 30000;
+
+    private HashMap<String, Translator> translators = new HashMap<>();
+    private boolean stopped = false;
+
+    public static void main(String[] args) throws IOException {
+        TranslatorDaemon daemon = new TranslatorDaemon();
+
+        if (args.length == 1 && args[0].equals("-daemon"))
+            daemon.serveSocket();
+        else if (args.length == 1 && args[0].equals("-daemon-stdio"))
+            daemon.serveStdio();
+        else Translator.usageError("Daemon mode must be -daemon or -daemon-stdio");
+    }
+
+    /**
+     * Accept requests over a socket, until a stop request is received.  The port & token clients need are written to
+     * {@link #DAEMON_FILE}, which is deleted on shutdown.
+     */
+    public void serveSocket() throws IOException {
+        String token = createToken();
+
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            writeDaemonFile(serverSocket.getLocalPort(), token);
+            System.out.println("Translator daemon listening on port " + serverSocket.getLocalPort());
+
+            try {
+                while (!stopped) {
+                    try (Socket socket = serverSocket.accept()) {
+                        // Requests are handled one at a time, so don't wait forever on a client that's gone quiet
+                        socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+
+                        BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                        PrintStream writer = new PrintStream(socket.getOutputStream(), true, "UTF-8");
+
+                        if ((GREETING + " " + token).equals(reader.readLine()))
+                            handleRequest(reader, writer);
+                        else writer.println("exit 1");
+                    } catch (IOException e) {
+                        // A client going away shouldn't take the daemon down with it
+                        System.err.println("Error: translator daemon request failed: " + e.getMessage());
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(DAEMON_FILE.toPath());
+            }
+        }
+    }
+
+    /**
+     * Accept requests on stdin, writing responses to stdout, until a stop request is received or stdin is closed.
+     */
+    public void serveStdio() throws IOException {
+        serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+                new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8"));
+    }
+
+    /**
+     * Read requests & write their responses, until a stop request is received or the reader is at end of stream.
+     *
+     * @param reader request reader
+     * @param writer response writer
+     */
+    void serve(BufferedReader reader, PrintStream writer) throws IOException {
+        while (!stopped) {
+            if (!handleRequest(reader, writer))
+                break;
+        }
+    }
+
+    /**
+     * Read a request & write its response.
+     *
+     * @return false if the input was at end of stream, so there's no request
+     */
+    private boolean handleRequest(BufferedReader reader, PrintStream writer) throws IOException {
+        @Nullable String requestLine = reader.readLine();
+        if (requestLine == null)
+            return false;
+
+        @Nullable File workingDirectory = null;
+        if (requestLine.startsWith("dir ")) {
+            workingDirectory = new File(requestLine.substring("dir ".length()));
+
+            requestLine = reader.readLine();
+            if (requestLine == null)
+                return false;
+        }
+
+        if (requestLine.equals("stop")) {
+            stopped = true;
+            writer.println("exit 0");
+            return true;
+        }
+
+        int argCount = requestLine.startsWith("args ") ? parseArgCount(requestLine.substring("args ".length())) : -1;
+        if (argCount < 0) {
+            writer.println("err Error: invalid translator daemon request: " + requestLine);
+            writer.println("exit 1");
+            return true;
+        }
+
+        String[] args = new String[argCount];
+        for (int i = 0; i < argCount; ++i) {
+            @Nullable String arg = reader.readLine();
+            if (arg == null)
+                return false;
+            args[i] = arg;
+        }
+
+        writer.println("exit " + translate(args, workingDirectory, writer));
+        return true;
+    }
+
+    /**
+     * Parse the argument count of an "args" request.
+     *
+     * @return argument count, or -1 if it isn't a valid count
+     */
+    private static int parseArgCount(String argCount) {
+        try {
+            return Math.max(Integer.parseInt(argCount), -1);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Translate, sending the output to the client as it's produced.   Requests are handled one at a time, as the
+     * translator writes to System.out & System.err.
+     *
+     * @param args             translator command line arguments
+     * @param workingDirectory client's working directory, or null if the client didn't send it
+     * @param writer           response writer
+     * @return process exit code for the translation
+     */
+    private int translate(String[] args, @Nullable File workingDirectory, PrintStream writer) {
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        ResponseOutputStream outStream = new ResponseOutputStream(writer, "out ");
+        ResponseOutputStream errStream = new ResponseOutputStream(writer, "err ");
+        System.setOut(new PrintStream(outStream, true));
+        System.setErr(new PrintStream(errStream, true));
+
+        try {
+            String targetLanguage = Translator.getTargetLanguage(args);
+
+            // Translators hold no state between translations besides their writers, so reuse them
+            @Nullable Translator translator = translators.get(targetLanguage);
+            if (translator == null) {
+                translator = Translator.createTranslator(targetLanguage);
+                translators.put(targetLanguage, translator);
+            }
+
+            translator.init(args, workingDirectory);
+            return translator.translate() ? 0 : 1;
+        } catch (UserViewableException e) {
+            System.err.println("Error: " + e.getMessage());
+            return 1;
+        } catch (Throwable t) {
+            t.printStackTrace(System.err);
+            return 2;
+        } finally {
+            System.out.flush();
+            System.err.flush();
+            outStream.writePartialLine();
+            errStream.writePartialLine();
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+    }
+
+    /**
+     * Translate using a running daemon, if there is one.   The daemon's output is copied to this process's System.out &
+     * System.err.
+     *
+     * @param args translator command line arguments
+     * @return true if translation succeeded, false if it failed, or null if no daemon is running
+     */
+    public static @Nullable Boolean translateUsingDaemon(String[] args) {
+        if (!DAEMON_FILE.exists())
+            return null;
+
+        int port;
+        String token;
+        try {
+            String[] daemonFileFields = new String(Files.readAllBytes(DAEMON_FILE.toPath()), StandardCharsets.UTF_8)
+                    .trim().split(" ");
+            port = Integer.parseInt(daemonFileFields[0]);
+            token = daemonFileFields[1];
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+
+        try (Socket socket = new Socket()) {
+            try {
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MILLIS);
+            } catch (IOException e) {
+                // The daemon file is left over from a daemon that's no longer running
+                return null;
+            }
+
+            PrintStream writer = new PrintStream(socket.getOutputStream(), true, "UTF-8");
+            writer.println(GREETING + " " + token);
+            writer.println("dir " + new File("").getAbsolutePath());
+            writer.println("args " + args.length);
+            for (String arg : args)
+                writer.println(arg);
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("out "))
+                    System.out.println(line.substring("out ".length()));
+                else if (line.startsWith("err "))
+                    System.err.println(line.substring("err ".length()));
+                else if (line.startsWith("exit ")) {
+                    int exitCode = Integer.parseInt(line.substring("exit ".length()));
+                    if (exitCode == 2)
+                        throw new JUniversalException("Internal error in translator daemon; see output above for details");
+                    return exitCode == 0;
+                }
+            }
+
+            throw new JUniversalException("Translator daemon closed connection without completing translation");
+        } catch (IOException e) {
+            throw new JUniversalException("Error communicating with translator daemon", e);
+        }
+    }
+
+    private static String createToken() {
+        byte[] tokenBytes = new byte[16];
+        new SecureRandom().nextBytes(tokenBytes);
+
+        StringBuilder token = new StringBuilder();
+        for (byte tokenByte : tokenBytes)
+            token.append(String.format("%02x", tokenByte));
+        return token.toString();
+    }
+
+    private static void writeDaemonFile(int port, String token) throws IOException {
+        Files.deleteIfExists(DAEMON_FILE.toPath());
+        Files.createFile(DAEMON_FILE.toPath());
+
+        // The token keeps other users on the machine from submitting requests, so only the owner can read it
+        DAEMON_FILE.setReadable(false, false);
+        DAEMON_FILE.setReadable(true, true);
+
+        Files.write(DAEMON_FILE.toPath(), (port + " " + token).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Output stream that sends each line written to it to the client, with the given prefix.  Flushing doesn't send
+     * partial lines, as PrintStream flushes in the middle of lines; call writePartialLine at the end instead.
+     */
+    private static class ResponseOutputStream extends OutputStream {
+        private final PrintStream writer;
+        private final String prefix;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        private ResponseOutputStream(PrintStream writer, String prefix) {
+            this.writer = writer;
+            this.prefix = prefix;
+        }
+
+        @Override public synchronized void write(int b) {
+            if (b == '\n') {
+                String lineString = new String(line.toByteArray(), Charset.defaultCharset());
+                if (lineString.endsWith("\r"))
+                    lineString = lineString.substring(0, lineString.length() - 1);
+
+                // Both streams go to the same client, so lines are written as a unit
+                synchronized (writer) {
+                    writer.println(prefix + lineString);
+                }
+                line.reset();
+            } else line.write(b);
+        }
+
+        private synchronized void writePartialLine() {
+            if (line.size() > 0)
+                write('\n');
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import static org.juniversal.translator.core.ASTUtil.isArrayLengthField;
+
+/**
+ * Loop analysis used to drop the bounds check for array accesses in the generated C++, where the index is provably
+ * in bounds.   That's the case for the standard ways of looping over an array:
+ * <pre>
+ *     for (int i = 0; i &lt; a.length; i++) ... a[i] ...
+ *     for (int i = a.length - 1; i &gt;= 0; i--) ... a[i] ...
+ * </pre>
+ * where the array variable (a local or parameter) and the index variable aren't otherwise changed in the loop.  The
+ * loop condition then serves as the one bounds check, with the accesses in the body unchecked, which also lets the
+ * C++ compiler vectorize the loop.
+ */
+public class ArrayBoundsAnalysis {
+    /**
+     * Determine if the specified array access is known to be in bounds.
+     *
+     * @param arrayAccess array access in question
+     * @return true if the index is always in bounds, so no check is needed
+     */
+    public static boolean isInBounds(ArrayAccess arrayAccess) {
+        @Nullable IVariableBinding arrayVariable = getLocalVariable(arrayAccess.getArray());
+        @Nullable IVariableBinding indexVariable = getLocalVariable(arrayAccess.getIndex());
+        if (arrayVariable == null || indexVariable == null || !arrayVariable.getType().isArray())
+            return false;
+
+        ASTNode node = arrayAccess;
+        while (node.getParent() != null && !(node instanceof BodyDeclaration) && !(node instanceof LambdaExpression)) {
+            if (node.getLocationInParent() == ForStatement.BODY_PROPERTY &&
+                loopKeepsIndexInBounds((ForStatement) node.getParent(), arrayVariable, indexVariable))
+                return true;
+            node = node.getParent();
+        }
+
+        return false;
+    }
+
+    private static boolean loopKeepsIndexInBounds(ForStatement forStatement, IVariableBinding arrayVariable,
+                                                  IVariableBinding indexVariable) {
+        if (forStatement.initializers().size() != 1 || forStatement.updaters().size() != 1)
+            return false;
+
+        // The index variable must be an int declared by the loop, so nothing outside the loop changes it
+        Object initializer = forStatement.initializers().get(0);
+        if (!(initializer instanceof VariableDeclarationExpression))
+            return false;
+        VariableDeclarationExpression declaration = (VariableDeclarationExpression) initializer;
+        if (declaration.fragments().size() != 1 || !isIntType(declaration.getType()))
+            return false;
+
+        VariableDeclarationFragment fragment = (VariableDeclarationFragment) declaration.fragments().get(0);
+        if (!indexVariable.isEqualTo(fragment.resolveBinding()) || fragment.getInitializer() == null)
+            return false;
+
+        @Nullable Expression condition = forStatement.getExpression();
+        if (!(condition instanceof InfixExpression) || ((InfixExpression) condition).hasExtendedOperands())
+            return false;
+        InfixExpression comparison = (InfixExpression) condition;
+        InfixExpression.Operator operator = comparison.getOperator();
+        Expression left = comparison.getLeftOperand();
+        Expression right = comparison.getRightOperand();
+
+        Expression updater = (Expression) forStatement.updaters().get(0);
+        Expression start = fragment.getInitializer();
+
+        boolean inBounds;
+        if (isIncrement(updater, indexVariable, true)) {
+            // for (int i = 0; i < a.length; i++)
+            inBounds = isNonNegativeIntLiteral(start) &&
+                       (operator == InfixExpression.Operator.LESS &&
+                        isVariable(left, indexVariable) && isArrayLength(right, arrayVariable) ||
+                        operator == InfixExpression.Operator.GREATER &&
+                        isArrayLength(left, arrayVariable) && isVariable(right, indexVariable));
+        } else if (isIncrement(updater, indexVariable, false)) {
+            // for (int i = a.length - 1; i >= 0; i--)
+            inBounds = isArrayLengthMinusOne(start, arrayVariable) &&
+                       (operator == InfixExpression.Operator.GREATER_EQUALS &&
+                        isVariable(left, indexVariable) && isIntLiteral(right, 0) ||
+                        operator == InfixExpression.Operator.LESS_EQUALS &&
+                        isIntLiteral(left, 0) && isVariable(right, indexVariable));
+        } else inBounds = false;
+
+        return inBounds &&
+               !isModified(forStatement.getBody(), indexVariable) && !isModified(forStatement.getBody(), arrayVariable) &&
+               !isModified(condition, indexVariable) && !isModified(condition, arrayVariable) &&
+               !isModified(updater, arrayVariable);
+    }
+
+    /**
+     * Get the local variable (or parameter) the expression refers to, if it's just a name for one.  Fields aren't
+     * included, as they can be changed by any method called in the loop.
+     */
+    private static @Nullable IVariableBinding getLocalVariable(Expression expression) {
+        if (!(expression instanceof SimpleName))
+            return null;
+
+        @Nullable IBinding binding = ((SimpleName) expression).resolveBinding();
+        if (!(binding instanceof IVariableBinding) || ((IVariableBinding) binding).isField())
+            return null;
+        return (IVariableBinding) binding;
+    }
+
+    private static boolean isVariable(Expression expression, IVariableBinding variable) {
+        return expression instanceof SimpleName && variable.isEqualTo(((SimpleName) expression).resolveBinding());
+    }
+
+    private static boolean isArrayLength(Expression expression, IVariableBinding arrayVariable) {
+        if (expression instanceof QualifiedName) {
+            QualifiedName qualifiedName = (QualifiedName) expression;
+            return isArrayLengthField(qualifiedName) && isVariable(qualifiedName.getQualifier(), arrayVariable);
+        } else if (expression instanceof FieldAccess) {
+            FieldAccess fieldAccess = (FieldAccess) expression;
+            return isArrayLengthField(fieldAccess) && isVariable(fieldAccess.getExpression(), arrayVariable);
+        } else return false;
+    }
+
+    private static boolean isArrayLengthMinusOne(Expression expression, IVariableBinding arrayVariable) {
+        if (!(expression instanceof InfixExpression))
+            return false;
+
+        InfixExpression infixExpression = (InfixExpression) expression;
+        return infixExpression.getOperator() == InfixExpression.Operator.MINUS &&
+               !infixExpression.hasExtendedOperands() &&
+               isArrayLength(infixExpression.getLeftOperand(), arrayVariable) &&
+               isIntLiteral(infixExpression.getRightOperand(), 1);
+    }
+
+    private static boolean isIncrement(Expression expression, IVariableBinding variable, boolean increment) {
+        if (expression instanceof PostfixExpression) {
+            PostfixExpression postfixExpression = (PostfixExpression) expression;
+            return isVariable(postfixExpression.getOperand(), variable) && postfixExpression.getOperator() ==
+                    (increment ? PostfixExpression.Operator.INCREMENT : PostfixExpression.Operator.DECREMENT);
+        } else if (expression instanceof PrefixExpression) {
+            PrefixExpression prefixExpression = (PrefixExpression) expression;
+            return isVariable(prefixExpression.getOperand(), variable) && prefixExpression.getOperator() ==
+                    (increment ? PrefixExpression.Operator.INCREMENT : PrefixExpression.Operator.DECREMENT);
+        } else return false;
+    }
+
+    private static boolean isIntType(Type type) {
+        return type.isPrimitiveType() && ((PrimitiveType) type).getPrimitiveTypeCode() == PrimitiveType.INT;
+    }
+
+    private static boolean isNonNegativeIntLiteral(Expression expression) {
+        @Nullable Object value = expression.resolveConstantExpressionValue();
+        return expression instanceof NumberLiteral && value instanceof Integer && (Integer) value >= 0;
+    }
+
+    private static boolean isIntLiteral(Expression expression, int expectedValue) {
+        @Nullable Object value = expression.resolveConstantExpressionValue();
+        return expression instanceof NumberLiteral && value instanceof Integer && (Integer) value == expectedValue;
+    }
+
+    /**
+     * Determine if the variable is assigned, incremented, or decremented anywhere in the specified node.
+     */
+    private static boolean isModified(ASTNode node, IVariableBinding variable) {
+        boolean[] modified = new boolean[1];
+
+        node.accept(new ASTVisitor() {
+            @Override public void endVisit(Assignment assignment) {
+                if (isVariable(assignment.getLeftHandSide(), variable))
+                    modified[0] = true;
+            }
+
+            @Override public void endVisit(PostfixExpression postfixExpression) {
+                if (isVariable(postfixExpression.getOperand(), variable))
+                    modified[0] = true;
+            }
+
+            @Override public void endVisit(PrefixExpression prefixExpression) {
+                PrefixExpression.Operator operator = prefixExpression.getOperator();
+                if ((operator == PrefixExpression.Operator.INCREMENT ||
+                     operator == PrefixExpression.Operator.DECREMENT) &&
+                    isVariable(prefixExpression.getOperand(), variable))
+                    modified[0] = true;
+            }
+        });
+
+        return modified[0];
+    }
+}
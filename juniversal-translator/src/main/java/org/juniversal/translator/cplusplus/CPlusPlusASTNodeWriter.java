@@ -31,9 +31,11 @@ import org.xuniversal.translator.cplusplus.CPlusPlusTargetWriter;
 import org.xuniversal.translator.cplusplus.ReferenceKind;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.juniversal.translator.core.ASTUtil.forEach;
+import static org.juniversal.translator.core.ASTUtil.isValueType;
 import static org.juniversal.translator.core.ASTUtil.typeReferenceContainsTypeVariable;
 
 
@@ -56,6 +58,20 @@ public abstract class CPlusPlusASTNodeWriter<T extends ASTNode> extends ASTNodeW
         return getContext().getTargetWriter();
     }
 
+    /**
+     * Get the smart pointer type that objects are held by:  std::shared_ptr, or xuniv::ref if the target profile uses
+     * non atomic reference counting.
+     *
+     * @return "::" qualified smart pointer type
+     */
+    public String getSharedPtrType() {
+        return getTranslator().getTargetProfile().getSharedPtrType().toString("::");
+    }
+
+    public String getWeakPtrType() {
+        return getTranslator().getTargetProfile().getWeakPtrType().toString("::");
+    }
+
 /*
     public ReferencedTypes getReferencedTypes() {
         return getContext().getReferencedTypes();
@@ -73,7 +89,17 @@ public abstract class CPlusPlusASTNodeWriter<T extends ASTNode> extends ASTNodeW
 
         if (type.isPrimitiveType() || isTypeVariable)
             writeNode(type);
-        else {
+        else if (isValueType(typeBinding)) {
+            // Value types are held inline, by value, never via a pointer
+            if (referenceKind == ReferenceKind.ConstReference) {
+                write("const ");
+                writeNode(type);
+                write("&");
+            } else if (referenceKind == ReferenceKind.RawPointer) {
+                writeNode(type);
+                write("*");
+            } else writeNode(type);
+        } else {
 /*
             getReferencedTypes().add(type,
                     referenceKind == ReferenceKind.Value || getContext().isWritingMethodImplementation());
@@ -88,7 +114,7 @@ public abstract class CPlusPlusASTNodeWriter<T extends ASTNode> extends ASTNodeW
                     write(">");
 */
                     //if (typeReferenceContainsTypeVariable(type))
-                    write("std::shared_ptr< ");
+                    write(getSharedPtrType() + "< ");
                     writeNode(type);
                     write(" >");
                     break;
@@ -101,15 +127,17 @@ public abstract class CPlusPlusASTNodeWriter<T extends ASTNode> extends ASTNodeW
                     write(">");
 */
                     //if (typeReferenceContainsTypeVariable(type))
-                    write("std::weak_ptr < ");
+                    write(getWeakPtrType() + " < ");
                     writeNode(type);
                     write(" >");
                     break;
 
                 case ConstReference:
-                    write("const ");
+                    // Objects are always held via shared_ptr, so this is a reference to the caller's shared_ptr,
+                    // borrowing the object without a reference count update
+                    write("const " + getSharedPtrType() + "< ");
                     writeNode(type);
-                    write("&");
+                    write(" >&");
                     break;
 
                 case RawPointer:
@@ -124,6 +152,89 @@ public abstract class CPlusPlusASTNodeWriter<T extends ASTNode> extends ASTNodeW
         }
     }
 
+    /**
+     * Write out a type, when it's used, given just its binding.   This is used for types that don't appear in the
+     * source, like the types in a functional interface's method signature.   Objects are written as a shared_ptr.
+     *
+     * @param typeBinding type to write
+     */
+    public void writeTypeReference(ITypeBinding typeBinding) {
+        if (typeBinding.isPrimitive())
+            write(getTranslator().primitiveTypeNameToTargetName(typeBinding.getName()));
+        else if (typeBinding.isTypeVariable())
+            write(typeBinding.getName());
+        else if (typeBinding.isWildcardType() || typeBinding.isCapture())
+            throw sourceNotSupported("Wildcard types aren't supported here: " + typeBinding.getName());
+        else if (typeBinding.isArray()) {
+            int dimensions = typeBinding.getDimensions();
+
+            write(getSharedPtrType() + "< ");
+            for (int i = 0; i < dimensions; i++)
+                write("xuniv::Array<");
+            writeTypeReference(typeBinding.getElementType());
+            for (int i = 0; i < dimensions; i++)
+                write(">");
+            write(" >");
+        } else {
+            TypeName typeName = getTargetType(typeBinding.getErasure());
+            getContext().addReferencedTargetType(typeName);
+
+            boolean isValueType = isValueType(typeBinding);
+            if (!isValueType)
+                write(getSharedPtrType() + "< ");
+
+            if (typeName.inSamePackageAs(getContext().getOutermostTypeName()))
+                write(typeName.getType().toString("::"));
+            else write(typeName.toString("::"));
+
+            if (typeBinding.isParameterizedType()) {
+                write("<");
+                forEach(Arrays.asList(typeBinding.getTypeArguments()), (ITypeBinding typeArgument, boolean first) -> {
+                    if (!first)
+                        write(", ");
+                    writeTypeReference(typeArgument);
+                });
+                write(">");
+            }
+
+            if (!isValueType)
+                write(" >");
+        }
+    }
+
+    /**
+     * Write out the type of a function ref parameter (see ClosureAnalysis), a non-owning reference to a callable
+     * with the signature of the functional interface's method.
+     *
+     * @param functionalInterface functional interface type of the parameter
+     */
+    public void writeFunctionRefType(ITypeBinding functionalInterface) {
+        IMethodBinding functionalMethod = functionalInterface.getDeclaredMethods()[0];
+
+        write("xuniv::FunctionRef< ");
+        writeTypeReference(functionalMethod.getReturnType());
+        write("(");
+        forEach(Arrays.asList(functionalMethod.getParameterTypes()), (ITypeBinding parameterType, boolean first) -> {
+            if (!first)
+                write(", ");
+            writeTypeReference(parameterType);
+        });
+        write(") >");
+    }
+
+    /**
+     * Get the C++ operator used to access a member of the object the expression refers to.   That's "->" for objects,
+     * which are held via shared_ptr, but "." for value types, held inline.   "this" is always a pointer though.
+     *
+     * @param expression expression for the object whose member is accessed
+     * @return member access operator
+     */
+    public static String getMemberAccessOperator(Expression expression) {
+        if (isValueType(expression.resolveTypeBinding()) && !(expression instanceof ThisExpression))
+            return ".";
+        else return "->";
+    }
+
     public static String getNamespaceNameForPackageName(Name packageName) {
         if (packageName == null)
             return getNamespaceNameForPackageName((String) null);
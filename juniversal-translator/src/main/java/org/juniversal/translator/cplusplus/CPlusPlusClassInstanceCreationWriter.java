@@ -28,22 +28,37 @@ import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
 import org.eclipse.jdt.core.dom.Type;
 import org.juniversal.translator.core.ClassInstanceCreationWriter;
 
+import java.util.List;
+
 import static org.juniversal.translator.core.ASTUtil.forEach;
 import static org.juniversal.translator.core.ASTUtil.isType;
+import static org.juniversal.translator.core.ASTUtil.isValueType;
 
 
 public class CPlusPlusClassInstanceCreationWriter extends ClassInstanceCreationWriter {
+    private CPlusPlusTranslator cPlusPlusTranslator;
+
     public CPlusPlusClassInstanceCreationWriter(CPlusPlusTranslator translator) {
         super(translator);
+        this.cPlusPlusTranslator = translator;
     }
 
     @Override protected void writeAnonymousInnerClassFunction(ClassInstanceCreation classInstanceCreation) {
         MethodDeclaration functionalMethod = (MethodDeclaration) classInstanceCreation.getAnonymousClassDeclaration().bodyDeclarations().get(0);
 
-        // TODO: Fix this up to only use auto when we think it'll work, to pay attention to pass/return by reference
-        // for auto, and to include right captures
+        // TODO: Fix this up to only use auto when we think it'll work & to pay attention to pass/return by reference
+        // for auto
+
+        List<String> captures =
+                ClosureAnalysis.getCaptures(classInstanceCreation, cPlusPlusTranslator.getTargetProfile().getFunctionRefs());
 
-        write("(");
+        write("[");
+        forEach(captures, (String capture, boolean first) -> {
+            if (! first)
+                write(", ");
+            write(capture);
+        });
+        write("](");
         forEach(functionalMethod.parameters(), (SingleVariableDeclaration parameter, boolean first) -> {
             if (! first)
                 write(", ");
@@ -73,8 +88,23 @@ public class CPlusPlusClassInstanceCreationWriter extends ClassInstanceCreationW
             copySpaceAndComments();
             matchAndWrite(")");
         }
+        else if (isValueType(type.resolveBinding())) {
+            // Value types are constructed in place, with no allocation
+            match("new");
+
+            skipSpaceAndComments();
+            writeNode(type);
+
+            copySpaceAndComments();
+            matchAndWrite("(");
+
+            writeCommaDelimitedNodes(classInstanceCreation.arguments());
+
+            copySpaceAndComments();
+            matchAndWrite(")");
+        }
         else {
-            matchAndWrite("new", "std::make_shared<");
+            matchAndWrite("new", cPlusPlusTranslator.getTargetProfile().getMakeSharedFunction().toString("::") + "<");
 
             skipSpaceAndComments();
             writeNode(type);
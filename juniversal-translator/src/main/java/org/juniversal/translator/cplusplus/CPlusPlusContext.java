@@ -28,11 +28,18 @@ import org.juniversal.translator.core.TypeNames;
 import org.xuniversal.translator.core.TypeName;
 import org.xuniversal.translator.cplusplus.CPlusPlusTargetWriter;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
 public class CPlusPlusContext extends JavaSourceContext {
     private CPlusPlusTargetWriter targetWriter;
     private OutputType outputType;
     private boolean writingVariableDeclarationNeedingStar;
     private TypeNames referencedOutermostTypes = new TypeNames();
+    private boolean poolingStringLiterals;
+    private ArrayList<String> pooledStringLiterals = new ArrayList<>();
+    private HashMap<String, Integer> pooledStringLiteralIndexes = new HashMap<>();
 
     public CPlusPlusContext(JavaSourceFile sourceFile, CPlusPlusTargetWriter targetWriter, OutputType outputType) {
         super(sourceFile, targetWriter);
@@ -61,6 +68,42 @@ public class CPlusPlusContext extends JavaSourceContext {
     }
 
     public void addReferencedTargetType(TypeName typeName) {
-        referencedOutermostTypes.add(typeName.getOutermostType());
+        // A header never needs to include itself, and a source file always includes its own header first anyway
+        TypeName outermostType = typeName.getOutermostType();
+        if (!outermostType.equals(getOutermostTypeName()))
+            referencedOutermostTypes.add(outermostType);
+    }
+
+    public boolean isPoolingStringLiterals() {
+        return poolingStringLiterals;
+    }
+
+    /**
+     * Set whether string literals should be added to the string literal pool for the file, which is written out at
+     * the start of the file.   The pool is only used for source files, as its definitions are local to the file.
+     */
+    public void setPoolingStringLiterals(boolean poolingStringLiterals) {
+        this.poolingStringLiterals = poolingStringLiterals;
+    }
+
+    /**
+     * Get the index in the string literal pool for the specified literal, adding it to the pool if it isn't there
+     * already.
+     *
+     * @param literal C++ string literal
+     * @return index of the literal in the pool
+     */
+    public int addPooledStringLiteral(String literal) {
+        Integer index = pooledStringLiteralIndexes.get(literal);
+        if (index == null) {
+            index = pooledStringLiterals.size();
+            pooledStringLiterals.add(literal);
+            pooledStringLiteralIndexes.put(literal, index);
+        }
+        return index;
+    }
+
+    public List<String> getPooledStringLiterals() {
+        return pooledStringLiterals;
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.eclipse.jdt.core.dom.EnhancedForStatement;
+import org.eclipse.jdt.core.dom.Expression;
+import org.juniversal.translator.core.EnhancedForStatementWriter;
+
+
+public class CPlusPlusEnhancedForStatementWriter extends EnhancedForStatementWriter {
+    private CPlusPlusTranslator cPlusPlusTranslator;
+
+    public CPlusPlusEnhancedForStatementWriter(CPlusPlusTranslator translator) {
+        super(translator);
+        this.cPlusPlusTranslator = translator;
+    }
+
+    /**
+     * Other iterables are written as a C++ range-based for over the object itself, which uses the runtime
+     * collection's begin() & end() iterators, held by value on the stack.
+     */
+    @Override protected void writeForEachLoop(EnhancedForStatement enhancedForStatement) {
+        matchAndWrite("for");
+
+        copySpaceAndComments();
+        matchAndWrite("(");
+
+        copySpaceAndComments();
+        writeNode(enhancedForStatement.getParameter());
+
+        copySpaceAndComments();
+        matchAndWrite(":");
+
+        copySpaceAndComments();
+        write("*");
+        writeNode(enhancedForStatement.getExpression());
+
+        copySpaceAndComments();
+        matchAndWrite(")");
+
+        copySpaceAndComments();
+        writeNode(enhancedForStatement.getBody());
+    }
+
+    /**
+     * Boxed elements are read as boxes, which can't be assigned to a primitive.  Only a list that's specialized for a
+     * primitive (see CollectionSpecialization, used with -primitivecollections) holds elements that are primitives
+     * already.
+     */
+    @Override protected boolean canUnboxElement(EnhancedForStatement enhancedForStatement, boolean isArray) {
+        return !isArray && cPlusPlusTranslator.getTargetProfile().getPrimitiveCollections() &&
+               CollectionSpecialization.isSpecializedReference(enhancedForStatement.getExpression());
+    }
+
+    @Override protected void writeLength(Expression expression, boolean isArray) {
+        writeNodeAtDifferentPosition(expression);
+        write(isArray ? "->length()" : "->size()");
+    }
+
+    /**
+     * Array elements are read unchecked, as the index is always less than the length.   A list is only specialized
+     * for a primitive when the loop variable is a primitive too (see CollectionSpecialization), so its elements are
+     * assigned as is, never needing boxing or unboxing here.
+     */
+    @Override protected void writeElement(EnhancedForStatement enhancedForStatement, String index, boolean isArray) {
+        writeNodeAtDifferentPosition(enhancedForStatement.getExpression());
+        write(isArray ? "->uncheckedAt(" + index + ")" : "->get(" + index + ")");
+    }
+}
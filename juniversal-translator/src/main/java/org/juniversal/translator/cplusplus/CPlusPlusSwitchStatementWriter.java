@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+import org.juniversal.translator.core.SwitchStatementWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.juniversal.translator.core.ASTUtil.forEach;
+import static org.juniversal.translator.core.ASTUtil.isType;
+
+
+/**
+ * C++ only supports switching on integral types, so switches on other types are lowered:
+ * <ul>
+ * <li>A switch on a String becomes two switches, like javac compiles it.   The first switches on the string's hash code,
+ * with the hash codes of the case labels precomputed here, checking equality with the label(s) having that hash to
+ * get the index of the matching case.   The second switches on that index, holding the original case groups, so fall
+ * through, break, and default work just as in Java.</li>
+ * <li>A switch on an enum switches on its ordinal, with the ordinal of each case label's constant.</li>
+ * </ul>
+ */
+public class CPlusPlusSwitchStatementWriter extends SwitchStatementWriter {
+    private CPlusPlusTranslator cPlusPlusTranslator;
+
+    public CPlusPlusSwitchStatementWriter(CPlusPlusTranslator translator) {
+        super(translator);
+        this.cPlusPlusTranslator = translator;
+    }
+
+    @Override
+    public void write(SwitchStatement switchStatement) {
+        Expression expression = switchStatement.getExpression();
+        @Nullable ITypeBinding typeBinding = expression.resolveTypeBinding();
+
+        if (typeBinding != null && isType(typeBinding, "java.lang.String"))
+            writeStringSwitch(switchStatement);
+        else if (typeBinding != null && typeBinding.isEnum()) {
+            matchAndWrite("switch");
+
+            copySpaceAndComments();
+            matchAndWrite("(");
+
+            boolean needsParentheses = !(expression instanceof Name || expression instanceof FieldAccess ||
+                                         expression instanceof MethodInvocation ||
+                                         expression instanceof ParenthesizedExpression);
+            if (needsParentheses)
+                write("(");
+            writeNode(expression);
+            write(needsParentheses ? ")->ordinal()" : "->ordinal()");
+
+            copySpaceAndComments();
+            matchAndWrite(")");
+
+            copySpaceAndComments();
+            writeSwitchBody(switchStatement);
+        } else super.write(switchStatement);
+    }
+
+    private void writeStringSwitch(SwitchStatement switchStatement) {
+        Expression expression = switchStatement.getExpression();
+        int switchColumn = getTargetColumn();
+        int indent = getPreferredIndent();
+
+        // Nested switches need distinct names; switches at the same depth are in separate scopes so can share them
+        int depth = 0;
+        for (ASTNode ancestor = switchStatement.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            if (ancestor instanceof SwitchStatement)
+                ++depth;
+        }
+        String caseIndex = "juniversalCase" + depth;
+
+        // A local variable can be referenced directly for the equality checks; anything else is evaluated just once,
+        // into a temporary
+        @Nullable String value = isLocalVariable(expression) ? null : "juniversalSwitchValue" + depth;
+
+        write("{");
+
+        if (value != null) {
+            writeln();
+            indentToColumn(switchColumn + indent);
+            write("const " + cPlusPlusTranslator.getTargetProfile().getSharedPtrType().toString("::") +
+                  "< xuniv::String > " + value + " = ");
+            writeNodeAtDifferentPosition(expression);
+            write(";");
+        }
+
+        writeln();
+        indentToColumn(switchColumn + indent);
+        write("int " + caseIndex + " = -1;");
+
+        writeln();
+        indentToColumn(switchColumn + indent);
+        write("switch (");
+        writeSwitchValue(expression, value);
+        write("->hashCode()) {");
+
+        // Write the hash codes in ascending order, with any labels whose hashes collide checked in turn
+        List<Expression> labels = getStringCaseLabels(switchStatement);
+        Map<Integer, List<Integer>> labelIndexesByHash = new TreeMap<>();
+        for (int i = 0; i < labels.size(); ++i) {
+            int hashCode = ((String) labels.get(i).resolveConstantExpressionValue()).hashCode();
+            labelIndexesByHash.computeIfAbsent(hashCode, key -> new ArrayList<>()).add(i);
+        }
+
+        labelIndexesByHash.forEach((hashCode, labelIndexes) -> {
+            writeln();
+            indentToColumn(switchColumn + 2 * indent);
+            write("case " + (hashCode == Integer.MIN_VALUE ? "(-2147483647 - 1)" : hashCode.toString()) + ":");
+
+            forEach(labelIndexes, (Integer labelIndex, boolean first) -> {
+                write(first ? " if (" : " else if (");
+                writeSwitchValue(expression, value);
+                write("->equals(");
+                writeNodeAtDifferentPosition(labels.get(labelIndex));
+                write(")) " + caseIndex + " = " + labelIndex + ";");
+            });
+
+            write(" break;");
+        });
+
+        writeln();
+        indentToColumn(switchColumn + indent);
+        write("}");
+
+        writeln();
+        indentToColumn(switchColumn + indent);
+
+        // Now write the original switch, on the case index
+        int previousAdditionalIndentation = getTargetWriter().incrementAdditionalIndentation(indent);
+
+        matchAndWrite("switch");
+
+        copySpaceAndComments();
+        matchAndWrite("(");
+
+        write(caseIndex);
+        setPositionToEndOfNode(expression);
+
+        copySpaceAndComments();
+        matchAndWrite(")");
+
+        copySpaceAndComments();
+        writeSwitchBody(switchStatement);
+
+        getTargetWriter().setAdditionalIndentation(previousAdditionalIndentation);
+
+        writeln();
+        indentToColumn(switchColumn);
+        write("}");
+    }
+
+    private void writeSwitchValue(Expression expression, @Nullable String value) {
+        if (value != null)
+            write(value);
+        else writeNodeAtDifferentPosition(expression);
+    }
+
+    /**
+     * String case labels are written as their index in the switch, the value the hash code switch sets for a match.
+     * Enum constants are written as their ordinal, with the constant name in a comment.
+     */
+    @Override
+    protected void writeCaseLabel(Expression expression) {
+        @Nullable ITypeBinding typeBinding = expression.resolveTypeBinding();
+
+        if (typeBinding != null && isType(typeBinding, "java.lang.String")) {
+            SwitchStatement switchStatement = (SwitchStatement) expression.getParent().getParent();
+            write(Integer.toString(getStringCaseLabels(switchStatement).indexOf(expression)));
+            setPositionToEndOfNode(expression);
+        } else if (typeBinding != null && typeBinding.isEnum() && expression instanceof SimpleName) {
+            SimpleName simpleName = (SimpleName) expression;
+            write(getOrdinal(typeBinding, simpleName) + " /* " + simpleName.getIdentifier() + " */");
+            setPositionToEndOfNode(expression);
+        } else super.writeCaseLabel(expression);
+    }
+
+    private static List<Expression> getStringCaseLabels(SwitchStatement switchStatement) {
+        ArrayList<Expression> labels = new ArrayList<>();
+        forEach(switchStatement.statements(), (Statement statement) -> {
+            if (statement instanceof SwitchCase && !((SwitchCase) statement).isDefault())
+                labels.add(((SwitchCase) statement).getExpression());
+        });
+        return labels;
+    }
+
+    /**
+     * Get the ordinal of an enum constant, its index among the enum's constants.   That's taken from the enum's
+     * declaration, so is only known for enums declared in the same file; the fields of a type binding are sorted by
+     * name, not in declaration order.
+     */
+    private int getOrdinal(ITypeBinding enumType, SimpleName enumConstant) {
+        CompilationUnit compilationUnit = (CompilationUnit) enumConstant.getRoot();
+        @Nullable ASTNode enumDeclaration = compilationUnit.findDeclaringNode(enumType.getTypeDeclaration().getKey());
+        if (!(enumDeclaration instanceof EnumDeclaration))
+            throw sourceNotSupported("Switching on an enum that isn't declared in the same file isn't supported, as the ordinals of its constants aren't known");
+
+        List<?> enumConstants = ((EnumDeclaration) enumDeclaration).enumConstants();
+        for (int ordinal = 0; ordinal < enumConstants.size(); ++ordinal) {
+            EnumConstantDeclaration enumConstantDeclaration = (EnumConstantDeclaration) enumConstants.get(ordinal);
+            if (enumConstantDeclaration.getName().getIdentifier().equals(enumConstant.getIdentifier()))
+                return ordinal;
+        }
+
+        throw invalidAST("Enum constant " + enumConstant.getIdentifier() + " not found in " + enumType.getName());
+    }
+
+    private static boolean isLocalVariable(Expression expression) {
+        if (!(expression instanceof SimpleName))
+            return false;
+
+        @Nullable IBinding binding = ((SimpleName) expression).resolveBinding();
+        return binding instanceof IVariableBinding && !((IVariableBinding) binding).isField();
+    }
+}
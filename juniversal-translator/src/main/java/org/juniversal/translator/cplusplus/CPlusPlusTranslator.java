@@ -68,6 +68,10 @@ public class CPlusPlusTranslator extends Translator {
         return targetProfile.createTargetWriter(writer);
     }
 
+    @Override protected CPlusPlusTranslator newTranslator() {
+        return new CPlusPlusTranslator(targetProfile);
+    }
+
     @Override public void translateFile(JavaSourceFile sourceFile) {
         writeFile(sourceFile, OutputType.HEADER_FILE);
         writeFile(sourceFile, OutputType.SOURCE_FILE);
@@ -85,12 +89,15 @@ public class CPlusPlusTranslator extends Translator {
         try (StringWriter writer = new StringWriter()) {
             AbstractTypeDeclaration typeDeclaration = (AbstractTypeDeclaration) sourceFile.getCompilationUnit().types().get(0);
 
-            context = new CPlusPlusContext(sourceFile, createTargetWriter(writer), OutputType.SOURCE_FILE);
+            CPlusPlusTargetWriter targetWriter = createTargetWriter(writer);
+            context = new CPlusPlusContext(sourceFile, targetWriter, OutputType.SOURCE_FILE);
             // Set the type declaration part of the context
             context.setTypeDeclaration(typeDeclaration);
 
             writeRootNode(astNode);
 
+            // Flush what the target writer has buffered
+            targetWriter.close();
             return writer.getBuffer().toString();
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -157,13 +164,19 @@ public class CPlusPlusTranslator extends Translator {
                     //addNameNeedingImport(getTargetProfile().getSharedPtrType());
                     //addNameNeedingImport(getTargetProfile().getArrayType());
 
-                    write("std::shared_ptr< xuniv::Array<");
+                    write(getSharedPtrType() + "< xuniv::Array<");
                     writeTypeReference(type, ReferenceKind.SharedPtr);
                     write("> >");
 
                     copySpaceAndComments();
                     match("...");
-                } else writeTypeReference(type, ReferenceKind.SharedPtr);
+                } else if (getTargetProfile().getFunctionRefs() &&
+                           ClosureAnalysis.isFunctionRefParameter(singleVariableDeclaration)) {
+                    writeFunctionRefType(type.resolveBinding());
+                    setPositionToEndOfNode(type);
+                } else if (OwnershipAnalysis.isBorrowedParameter(singleVariableDeclaration))
+                    writeTypeReference(type, ReferenceKind.ConstReference);
+                else writeTypeReference(type, ReferenceKind.SharedPtr);
 
                 copySpaceAndComments();
                 writeNode(singleVariableDeclaration.getName());
@@ -189,7 +202,14 @@ public class CPlusPlusTranslator extends Translator {
                     }
 
                     copySpaceAndComments();
-                    writeTypeReference(type, ReferenceKind.SharedPtr);
+
+                    // Collections of boxed primitives hold the primitives themselves
+                    @Nullable String specializedTypeArgument = getTargetProfile().getPrimitiveCollections() ?
+                            CollectionSpecialization.getSpecializedTypeArgument(parameterizedType, type) : null;
+                    if (specializedTypeArgument != null) {
+                        write(primitiveTypeNameToTargetName(specializedTypeArgument));
+                        setPositionToEndOfNode(type);
+                    } else writeTypeReference(type, ReferenceKind.SharedPtr);
                 });
 
                 copySpaceAndComments();
@@ -312,37 +332,25 @@ public class CPlusPlusTranslator extends Translator {
             }
         });
 
-        addWriter(EnhancedForStatement.class, new CPlusPlusASTNodeWriter<EnhancedForStatement>(this) {
-            @Override
-            public void write(EnhancedForStatement enhancedForStatement) {
-                matchAndWrite("for");
-
-                copySpaceAndComments();
-                matchAndWrite("(");
-
-                copySpaceAndComments();
-                writeNode(enhancedForStatement.getParameter());
-
-                copySpaceAndComments();
-                // TODO: Ensure spaces around "in"
-                matchAndWrite(":");
-
-                copySpaceAndComments();
-                writeNode(enhancedForStatement.getExpression());
-
-                copySpaceAndComments();
-                matchAndWrite(")");
+        // Enhanced for statement
+        addWriter(EnhancedForStatement.class, new CPlusPlusEnhancedForStatementWriter(this));
 
-                copySpaceAndComments();
-                writeNode(enhancedForStatement.getBody());
-            }
-        });
+        // Switch statement
+        replaceWriter(SwitchStatement.class, new CPlusPlusSwitchStatementWriter(this));
 
         // Try statement
         addWriter(TryStatement.class, new TryStatementWriter(this));
 
         // Local variable declaration statement
         addWriter(VariableDeclarationStatement.class, new VariableDeclarationWriter(this));
+
+        // Synchronized statement
+        addWriter(SynchronizedStatement.class, new CPlusPlusASTNodeWriter<SynchronizedStatement>(this) {
+            @Override
+            public void write(SynchronizedStatement synchronizedStatement) {
+                throw sourceNotSupported("synchronized blocks aren't currently supported for C++");
+            }
+        });
     }
 
     /**
@@ -413,7 +421,7 @@ public class CPlusPlusTranslator extends Translator {
                 writeNode(fieldAccess.getExpression());
                 copySpaceAndComments();
 
-                matchAndWrite(".", "->");
+                matchAndWrite(".", getMemberAccessOperator(fieldAccess.getExpression()));
 
                 // If accessing array "length" property, turn that into a method call in C++
                 if (fieldAccess.getExpression().resolveTypeBinding().isArray() &&
@@ -435,10 +443,12 @@ public class CPlusPlusTranslator extends Translator {
 
                 IBinding binding = qualifiedName.resolveBinding();
 
+                // Only write the target type when the qualifier names a type; a qualifier that's a variable (e.g.
+                // "values.length") is written as is
                 boolean wroteQualifier = false;
-                @Nullable ITypeBinding typeBinding = qualifiedName.getQualifier().resolveTypeBinding();
-                if (typeBinding != null) {
-                    TypeName typeName = getTargetType(typeBinding);
+                @Nullable IBinding qualifierBinding = qualifiedName.getQualifier().resolveBinding();
+                if (qualifierBinding instanceof ITypeBinding) {
+                    TypeName typeName = getTargetType((ITypeBinding) qualifierBinding);
                     getContext().addReferencedTargetType(typeName);
 
                     if (!typeName.inSamePackageAs(getContext().getOutermostTypeName())) {
@@ -455,7 +465,7 @@ public class CPlusPlusTranslator extends Translator {
                 copySpaceAndComments();
                 if (binding.getKind() == IBinding.VARIABLE && (binding.getModifiers() & Modifier.STATIC) != 0)
                     matchAndWrite(".", "::");
-                else matchAndWrite(".", "->");
+                else matchAndWrite(".", getMemberAccessOperator(qualifiedName.getQualifier()));
 
                 // If accessing array "length" property (which can either look like a FieldAccess or QualifiedName),
                 // turn that into a method call in C++
@@ -471,6 +481,19 @@ public class CPlusPlusTranslator extends Translator {
         addWriter(CastExpression.class, new CPlusPlusASTNodeWriter<CastExpression>(this) {
             @Override
             public void write(CastExpression castExpression) {
+                // A cast that boxes only for the result to be unboxed again is dropped, along with the box
+                if (isBoxImmediatelyUnboxed(castExpression.getExpression())) {
+                    setPositionToStartOfNode(castExpression.getExpression());
+
+                    boolean needParentheses = !(castExpression.getExpression() instanceof ParenthesizedExpression);
+                    if (needParentheses)
+                        write("(");
+                    writeNode(castExpression.getExpression());
+                    if (needParentheses)
+                        write(")");
+                    return;
+                }
+
                 matchAndWrite("(", "static_cast<");
 
                 copySpaceAndComments();
@@ -500,8 +523,9 @@ public class CPlusPlusTranslator extends Translator {
             public void write(ArrayAccess arrayAccess) {
                 writeNode(arrayAccess.getArray());
 
+                // Accesses that loop analysis shows are in bounds skip the check, which also lets the loop vectorize
                 copySpaceAndComments();
-                matchAndWrite("[", "->at(");
+                matchAndWrite("[", ArrayBoundsAnalysis.isInBounds(arrayAccess) ? "->uncheckedAt(" : "->at(");
 
                 copySpaceAndComments();
                 writeNode(arrayAccess.getIndex());
@@ -556,7 +580,13 @@ public class CPlusPlusTranslator extends Translator {
             @Override
             public void write(StringLiteral stringLiteral) {
                 //addNameNeedingImport(getTargetProfile().getMakeSharedFunction());
-                write("xuniv::String::make(u" + stringLiteral.getEscapedValue() + ")");
+                String literal = "u" + stringLiteral.getEscapedValue();
+
+                // In source files, use the file's string literal pool, so the String isn't allocated each time
+                if (getContext().isPoolingStringLiterals()) {
+                    int index = getContext().addPooledStringLiteral(literal);
+                    write(CPlusPlusTargetWriter.getStringLiteralPoolFunction(index) + "()");
+                } else write("xuniv::String::make(" + literal + ")");
                 match(stringLiteral.getEscapedValue());
             }
         });
@@ -571,16 +601,57 @@ public class CPlusPlusTranslator extends Translator {
      * @param visitor    ASTNodeWriter for the expression node
      */
     @Override protected void writeBoxedExpressionNode(Expression expression, ASTNodeWriter visitor) {
+        // If the box would just be unboxed again, skip both.   And collections specialized for primitives (with
+        // -primitivecollections) take them unboxed
+        if (isBoxImmediatelyUnboxed(expression) ||
+            (getTargetProfile().getPrimitiveCollections() &&
+             CollectionSpecialization.isSpecializedElementArgument(expression))) {
+            visitor.write(expression);
+            return;
+        }
+
         ITypeBinding typeBinding = expression.resolveTypeBinding();
-        String boxedTargetTypeName = primitiveTypeNameToTargetName(typeBinding.getName());
+        String primitiveTypeName = typeBinding.getName();
+        String boxedTargetTypeName = primitiveTypeNameToTargetName(primitiveTypeName);
 
         //getContext().addNameNeedingImport(getTargetProfile().getMakeSharedFunction());
         getContext().addReferencedTargetType(getTargetProfile().getBoxType());
-        getContext().write("xuniv::Box<" + boxedTargetTypeName + ">::make(");
+        getContext().write("xuniv::Box<" + boxedTargetTypeName + ">::" + getBoxFunction(primitiveTypeName) + "(");
         visitor.write(expression);
         getContext().write(")");
     }
 
+    /**
+     * Get the xuniv::Box function used to box a primitive.   With -boxcache, that's valueOf, which like Java's valueOf
+     * returns a cached box for booleans, ASCII chars, and integers in the range -128 to 127, allocating a new box only
+     * for other values.   Java doesn't cache floating point values, so neither do we, always making a new box for
+     * those.
+     *
+     * @param primitiveTypeName Java primitive type name
+     * @return "valueOf" or "make"
+     */
+    String getBoxFunction(String primitiveTypeName) {
+        boolean cached = getTargetProfile().getBoxCache() && !primitiveTypeName.equals("float") &&
+                         !primitiveTypeName.equals("double");
+        return cached ? "valueOf" : "make";
+    }
+
+    /**
+     * Determine if a boxed expression is immediately unboxed again, as when the result of a cast to a box type is used
+     * as a primitive (e.g. "(Integer) i + 1").   The box/unbox pair can then be skipped entirely.
+     *
+     * @param expression boxed expression
+     * @return true if the expression is boxed & its box then immediately unboxed
+     */
+    static boolean isBoxImmediatelyUnboxed(Expression expression) {
+        ASTNode parent = expression.getParent();
+        while (parent instanceof ParenthesizedExpression)
+            parent = parent.getParent();
+
+        return expression.resolveBoxing() && parent instanceof CastExpression &&
+               ((CastExpression) parent).resolveUnboxing();
+    }
+
     /**
      * Write an ASTNode corresponding to an expression whose results are unboxed.   The default implementation just
      * writes out the node like any other, but for some languages (namely C++) it's necessary to add an explicit
@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.juniversal.translator.core.ASTUtil.isFunctionalInterface;
+import static org.juniversal.translator.core.ASTUtil.isStatic;
+import static org.juniversal.translator.core.ASTUtil.typeReferenceContainsTypeVariable;
+
+/**
+ * Analysis of the closures (anonymous functional interface implementations, translated to C++ lambdas) in the
+ * generated C++, used to avoid heap allocations & type erasure for them.
+ * <p>
+ * A functional interface parameter is a "function ref" parameter if the method only ever invokes it:  it's never
+ * assigned, stored, returned, passed on, or captured.   Such a parameter is written as an xuniv::FunctionRef, a
+ * non-owning reference to any callable with the right signature, so the caller's lambda can be passed directly,
+ * with no std::function or shared_ptr wrapping it.   FunctionRef is part of the runtime, so this is only done with
+ * -functionrefs.   A FunctionRef can't be made from a shared_ptr to the interface though, so every caller must pass a
+ * lambda (an anonymous implementation of the interface).   That can only be checked when all callers are visible, so
+ * this is only done for private methods, including private constructors, which also can't be overridden.   Which arguments every call in the compilation unit passes is found in one pass,
+ * the first time it's needed, and kept with the compilation unit.
+ * <p>
+ * A lambda's captures are listed explicitly.   Captured variables are always final in Java, so normally they're
+ * captured by value.   When the lambda is passed directly to a function ref parameter though, it doesn't outlive the
+ * call, so variables are captured by reference, avoiding copies (and for objects, the reference count updates).
+ */
+public class ClosureAnalysis {
+    // Compilation unit property holding, for each method called in it, the indexes of the parameters that some call
+    // passes something other than a lambda for
+    private static final String NON_LAMBDA_ARGUMENTS_PROPERTY = "juniversalNonLambdaArguments";
+
+    /**
+     * Determine if the specified parameter is a function ref parameter, which is only invoked by its method.
+     *
+     * @param parameter parameter in question
+     * @return true if the parameter can be passed as a function ref
+     */
+    public static boolean isFunctionRefParameter(SingleVariableDeclaration parameter) {
+        if (!(parameter.getParent() instanceof MethodDeclaration) || parameter.isVarargs() ||
+            parameter.getExtraDimensions() != 0)
+            return false;
+
+        @Nullable ITypeBinding typeBinding = parameter.getType().resolveBinding();
+        if (typeBinding == null || !isFunctionalInterface(typeBinding))
+            return false;
+
+        MethodDeclaration methodDeclaration = (MethodDeclaration) parameter.getParent();
+        @Nullable Block body = methodDeclaration.getBody();
+        @Nullable IMethodBinding methodBinding = methodDeclaration.resolveBinding();
+        if (body == null || methodBinding == null || !Modifier.isPrivate(methodBinding.getModifiers()))
+            return false;
+
+        // C++ can't deduce a generic method's type arguments from a lambda converted to a function ref
+        if (!methodDeclaration.typeParameters().isEmpty() && typeReferenceContainsTypeVariable(typeBinding))
+            return false;
+
+        @Nullable IVariableBinding variableBinding = parameter.resolveBinding();
+        if (variableBinding == null)
+            return false;
+
+        boolean[] onlyInvoked = {true};
+        body.accept(new ASTVisitor() {
+            @Override public boolean visit(SimpleName simpleName) {
+                if (variableBinding.isEqualTo(simpleName.resolveBinding()) && !isInvocation(simpleName, body))
+                    onlyInvoked[0] = false;
+                return false;
+            }
+
+            @Override public boolean preVisit2(ASTNode node) {
+                return onlyInvoked[0];
+            }
+        });
+        return onlyInvoked[0] &&
+               isOnlyPassedLambdas(methodBinding, methodDeclaration.parameters().indexOf(parameter),
+                       (CompilationUnit) methodDeclaration.getRoot());
+    }
+
+    /**
+     * Determine if every call of the private method, all of which are in its compilation unit, passes an anonymous
+     * functional interface implementation (written as a lambda) for the specified parameter.   A method reference to
+     * it counts as a call that doesn't.
+     */
+    private static boolean isOnlyPassedLambdas(IMethodBinding methodBinding, int index, CompilationUnit compilationUnit) {
+        @SuppressWarnings("unchecked")
+        @Nullable HashMap<String, BitSet> nonLambdaArguments =
+                (HashMap<String, BitSet>) compilationUnit.getProperty(NON_LAMBDA_ARGUMENTS_PROPERTY);
+        if (nonLambdaArguments == null) {
+            nonLambdaArguments = getNonLambdaArguments(compilationUnit);
+            compilationUnit.setProperty(NON_LAMBDA_ARGUMENTS_PROPERTY, nonLambdaArguments);
+        }
+
+        @Nullable BitSet indexes = nonLambdaArguments.get(methodBinding.getMethodDeclaration().getKey());
+        return indexes == null || !indexes.get(index);
+    }
+
+    /**
+     * Find, for every method called in the compilation unit, the parameters that some call passes something other than
+     * a lambda for.   A method reference passes nothing, so counts as that for every parameter.
+     *
+     * @return parameter indexes, keyed by the binding key of the called method's declaration
+     */
+    private static HashMap<String, BitSet> getNonLambdaArguments(CompilationUnit compilationUnit) {
+        HashMap<String, BitSet> nonLambdaArguments = new HashMap<>();
+        compilationUnit.accept(new ASTVisitor() {
+            @Override public boolean visit(MethodInvocation methodInvocation) {
+                addCall(methodInvocation.resolveMethodBinding(), methodInvocation.arguments());
+                return true;
+            }
+
+            @Override public boolean visit(SuperMethodInvocation superMethodInvocation) {
+                addCall(superMethodInvocation.resolveMethodBinding(), superMethodInvocation.arguments());
+                return true;
+            }
+
+            @Override public boolean visit(ClassInstanceCreation classInstanceCreation) {
+                addCall(classInstanceCreation.resolveConstructorBinding(), classInstanceCreation.arguments());
+                return true;
+            }
+
+            @Override public boolean visit(ConstructorInvocation constructorInvocation) {
+                addCall(constructorInvocation.resolveConstructorBinding(), constructorInvocation.arguments());
+                return true;
+            }
+
+            @Override public boolean visit(SuperConstructorInvocation superConstructorInvocation) {
+                addCall(superConstructorInvocation.resolveConstructorBinding(), superConstructorInvocation.arguments());
+                return true;
+            }
+
+            @Override public boolean visit(ExpressionMethodReference expressionMethodReference) {
+                addCall(expressionMethodReference.resolveMethodBinding(), null);
+                return true;
+            }
+
+            @Override public boolean visit(TypeMethodReference typeMethodReference) {
+                addCall(typeMethodReference.resolveMethodBinding(), null);
+                return true;
+            }
+
+            @Override public boolean visit(SuperMethodReference superMethodReference) {
+                addCall(superMethodReference.resolveMethodBinding(), null);
+                return true;
+            }
+
+            @Override public boolean visit(CreationReference creationReference) {
+                addCall(creationReference.resolveMethodBinding(), null);
+                return true;
+            }
+
+            private void addCall(@Nullable IMethodBinding calledMethod, @Nullable List<?> arguments) {
+                if (calledMethod == null)
+                    return;
+
+                String key = calledMethod.getMethodDeclaration().getKey();
+                @Nullable BitSet indexes = nonLambdaArguments.get(key);
+                if (indexes == null) {
+                    indexes = new BitSet();
+                    nonLambdaArguments.put(key, indexes);
+                }
+
+                int parameterCount = calledMethod.getParameterTypes().length;
+                for (int index = 0; index < parameterCount; index++) {
+                    if (arguments == null || index >= arguments.size() ||
+                        !(arguments.get(index) instanceof ClassInstanceCreation) ||
+                        ((ClassInstanceCreation) arguments.get(index)).getAnonymousClassDeclaration() == null)
+                        indexes.set(index);
+                }
+            }
+        });
+        return nonLambdaArguments;
+    }
+
+    private static boolean isInvocation(SimpleName simpleName, Block body) {
+        // A use inside a nested closure or class may outlive the call
+        for (ASTNode ancestor = simpleName.getParent(); ancestor != body; ancestor = ancestor.getParent()) {
+            if (ancestor instanceof LambdaExpression || ancestor instanceof AnonymousClassDeclaration ||
+                ancestor instanceof TypeDeclarationStatement)
+                return false;
+        }
+
+        return simpleName.getLocationInParent() == MethodInvocation.EXPRESSION_PROPERTY;
+    }
+
+    /**
+     * Determine if the method invocation invokes a function ref parameter, so is written as a call of the function
+     * ref itself ("func(...)" rather than "func->method(...)").
+     *
+     * @param methodInvocation method invocation in question
+     * @return true if the invocation is on a function ref parameter
+     */
+    public static boolean isFunctionRefInvocation(MethodInvocation methodInvocation) {
+        @Nullable Expression expression = methodInvocation.getExpression();
+        if (!(expression instanceof SimpleName))
+            return false;
+
+        @Nullable IBinding binding = ((SimpleName) expression).resolveBinding();
+        if (!(binding instanceof IVariableBinding) || !((IVariableBinding) binding).isParameter())
+            return false;
+
+        @Nullable ASTNode declaration = ((CompilationUnit) methodInvocation.getRoot()).findDeclaringNode(binding);
+        return declaration instanceof SingleVariableDeclaration &&
+               isFunctionRefParameter((SingleVariableDeclaration) declaration);
+    }
+
+    /**
+     * Get the captures for the lambda that an anonymous functional interface implementation is translated to.  "this"
+     * is captured if the enclosing object's members are used; variables of the enclosing method are captured by name.
+     * Capturing is by reference if the lambda is passed directly to a function ref parameter (of a method declared in
+     * the same source file, where that can be checked), otherwise by value.
+     *
+     * @param classInstanceCreation anonymous class instance creation
+     * @param functionRefs          whether function ref parameters are used (with -functionrefs)
+     * @return captures, in order of first use
+     */
+    public static List<String> getCaptures(ClassInstanceCreation classInstanceCreation, boolean functionRefs) {
+        AnonymousClassDeclaration anonymousClassDeclaration = classInstanceCreation.getAnonymousClassDeclaration();
+        @Nullable ITypeBinding anonymousClass = anonymousClassDeclaration.resolveBinding();
+        CompilationUnit compilationUnit = (CompilationUnit) classInstanceCreation.getRoot();
+        int start = anonymousClassDeclaration.getStartPosition();
+        int end = start + anonymousClassDeclaration.getLength();
+
+        boolean[] capturesThis = new boolean[1];
+        LinkedHashSet<String> capturedVariables = new LinkedHashSet<>();
+
+        anonymousClassDeclaration.accept(new ASTVisitor() {
+            @Override public boolean visit(SimpleName simpleName) {
+                @Nullable IBinding binding = simpleName.resolveBinding();
+                if (!(binding instanceof IVariableBinding))
+                    return false;
+                IVariableBinding variableBinding = (IVariableBinding) binding;
+
+                if (variableBinding.isField()) {
+                    // An unqualified use of a field of the enclosing object needs "this"
+                    StructuralPropertyDescriptor locationInParent = simpleName.getLocationInParent();
+                    if (locationInParent != FieldAccess.NAME_PROPERTY &&
+                        locationInParent != QualifiedName.NAME_PROPERTY &&
+                        locationInParent != SuperFieldAccess.NAME_PROPERTY &&
+                        !Modifier.isStatic(variableBinding.getModifiers()) &&
+                        !isDeclaredBy(variableBinding.getDeclaringClass(), anonymousClass))
+                        capturesThis[0] = true;
+                } else {
+                    @Nullable ASTNode declaration = compilationUnit.findDeclaringNode(variableBinding);
+                    if (declaration != null &&
+                        (declaration.getStartPosition() < start || declaration.getStartPosition() >= end))
+                        capturedVariables.add(simpleName.getIdentifier());
+                }
+                return false;
+            }
+
+            @Override public boolean visit(MethodInvocation methodInvocation) {
+                @Nullable IMethodBinding methodBinding = methodInvocation.resolveMethodBinding();
+                if (methodInvocation.getExpression() == null && methodBinding != null &&
+                    !isStatic(methodBinding) && !isDeclaredBy(methodBinding.getDeclaringClass(), anonymousClass))
+                    capturesThis[0] = true;
+                return true;
+            }
+
+            @Override public boolean visit(ThisExpression thisExpression) {
+                if (thisExpression.getQualifier() != null)
+                    capturesThis[0] = true;
+                return false;
+            }
+        });
+
+        boolean byReference = functionRefs && isPassedToFunctionRefParameter(classInstanceCreation);
+
+        ArrayList<String> captures = new ArrayList<>();
+        if (capturesThis[0])
+            captures.add("this");
+        for (String capturedVariable : capturedVariables)
+            captures.add(byReference ? "&" + capturedVariable : capturedVariable);
+        return captures;
+    }
+
+    private static boolean isDeclaredBy(ITypeBinding declaringClass, @Nullable ITypeBinding anonymousClass) {
+        return anonymousClass != null && declaringClass.getTypeDeclaration().isEqualTo(anonymousClass);
+    }
+
+    private static boolean isPassedToFunctionRefParameter(ClassInstanceCreation classInstanceCreation) {
+        StructuralPropertyDescriptor locationInParent = classInstanceCreation.getLocationInParent();
+        ASTNode parent = classInstanceCreation.getParent();
+
+        @Nullable IMethodBinding methodBinding;
+        List<?> arguments;
+        if (locationInParent == MethodInvocation.ARGUMENTS_PROPERTY) {
+            methodBinding = ((MethodInvocation) parent).resolveMethodBinding();
+            arguments = ((MethodInvocation) parent).arguments();
+        } else if (locationInParent == ClassInstanceCreation.ARGUMENTS_PROPERTY) {
+            methodBinding = ((ClassInstanceCreation) parent).resolveConstructorBinding();
+            arguments = ((ClassInstanceCreation) parent).arguments();
+        } else if (locationInParent == ConstructorInvocation.ARGUMENTS_PROPERTY) {
+            methodBinding = ((ConstructorInvocation) parent).resolveConstructorBinding();
+            arguments = ((ConstructorInvocation) parent).arguments();
+        } else return false;
+
+        if (methodBinding == null)
+            return false;
+
+        @Nullable ASTNode declaration =
+                ((CompilationUnit) classInstanceCreation.getRoot()).findDeclaringNode(methodBinding.getMethodDeclaration());
+        if (!(declaration instanceof MethodDeclaration))
+            return false;
+
+        List<?> parameters = ((MethodDeclaration) declaration).parameters();
+        int index = arguments.indexOf(classInstanceCreation);
+        return index < parameters.size() && isFunctionRefParameter((SingleVariableDeclaration) parameters.get(index));
+    }
+}
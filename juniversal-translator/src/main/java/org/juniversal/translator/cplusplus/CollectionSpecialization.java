@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.juniversal.translator.core.ASTUtil.getBoxedPrimitiveTypeName;
+
+/**
+ * Specialization of collections for primitives in the generated C++.   A java.util collection type argument that's a
+ * boxed primitive, like the Integer in List&lt;Integer&gt; or the Long key in Map&lt;Long, V&gt;, can be written as
+ * the primitive itself, so the runtime's collection templates hold the values unboxed.
+ * <p>
+ * A specialized collection can't hold null & its element methods take & return primitives, so that's only done when
+ * it can't change the program's behavior.   The collection must be held in a local variable or private field, which
+ * is only ever assigned a new, empty collection (or null), and which is only used to call methods that take & return
+ * primitives or elements, passing primitives for the elements.   Methods taking an Object (like Map.get or
+ * List.remove(Object)), methods returning other collection types (like Map.keySet or iterator), methods whose result
+ * is used that can return null for an element (like Map.put or Queue.poll), and passing the collection anywhere else
+ * all keep the boxed type.   Collection types written anywhere else are never specialized,
+ * so they stay consistent when passed to each other.
+ * <p>
+ * Collection methods that take or return an element (declared as the type variable, like List.add(E)) then take or
+ * return the primitive too, so no boxing is needed for an argument & a result that's unboxed by Java is already a
+ * primitive.   A result that Java uses as an object is boxed when it's returned.
+ * <p>
+ * This is only done with -primitivecollections (see CPlusPlusTargetProfile.getPrimitiveCollections), as it needs a
+ * runtime whose collection templates are specialized for primitives; callers check that before using this class.
+ */
+public class CollectionSpecialization {
+    private static final HashSet<String> specializedTypes = new HashSet<>(Arrays.asList(
+            "java.lang.Iterable", "java.util.Collection", "java.util.Iterator", "java.util.ListIterator",
+            "java.util.List", "java.util.ArrayList", "java.util.LinkedList",
+            "java.util.Set", "java.util.SortedSet", "java.util.HashSet", "java.util.LinkedHashSet", "java.util.TreeSet",
+            "java.util.Queue", "java.util.Deque", "java.util.ArrayDeque",
+            "java.util.Map", "java.util.Map.Entry", "java.util.SortedMap", "java.util.HashMap",
+            "java.util.LinkedHashMap", "java.util.TreeMap",
+            "java.util.AbstractCollection", "java.util.AbstractList", "java.util.AbstractSequentialList",
+            "java.util.AbstractSet", "java.util.AbstractQueue", "java.util.AbstractMap"));
+
+    // Methods returning an element that never return null for "absent", instead always returning an element of the
+    // collection (or throwing).   Others, like Map.put, Queue.poll & peek, and TreeSet.floor, can return null, which
+    // a primitive can't represent
+    private static final HashSet<String> elementReturningMethods = new HashSet<>(Arrays.asList(
+            "get", "set", "remove", "next", "previous", "element", "getFirst", "getLast", "removeFirst", "removeLast",
+            "pop", "first", "last", "firstKey", "lastKey", "getKey", "getValue", "setValue"));
+
+    /**
+     * Get the primitive type that the type argument of a parameterized type is specialized to.   Only the declared
+     * type of a specialized variable (see {@link #isSpecializedVariable(IVariableBinding, ASTNode)}) and the
+     * collections created for it are specialized.
+     *
+     * @param parameterizedType parameterized type, like List&lt;Integer&gt;
+     * @param typeArgument      one of its type arguments
+     * @return primitive type name (e.g. "int") if the type argument is specialized, otherwise null
+     */
+    public static @Nullable String getSpecializedTypeArgument(ParameterizedType parameterizedType, Type typeArgument) {
+        @Nullable IVariableBinding variableBinding = getVariableOfType(parameterizedType);
+        if (variableBinding == null || !isSpecializedVariable(variableBinding, parameterizedType.getRoot()))
+            return null;
+        return getSpecializedTypeArgument(parameterizedType.resolveBinding(), typeArgument.resolveBinding());
+    }
+
+    /**
+     * Determine if the expression is passed as a specialized element to a collection method, so the method takes the
+     * primitive & the expression needn't be boxed.
+     *
+     * @param expression expression in question
+     * @return true if the expression is an argument for a specialized element parameter
+     */
+    public static boolean isSpecializedElementArgument(Expression expression) {
+        if (expression.getLocationInParent() != MethodInvocation.ARGUMENTS_PROPERTY)
+            return false;
+
+        MethodInvocation methodInvocation = (MethodInvocation) expression.getParent();
+        @Nullable IMethodBinding methodBinding = methodInvocation.resolveMethodBinding();
+        if (methodBinding == null || !isInvokedOnSpecializedVariable(methodInvocation))
+            return false;
+
+        ITypeBinding[] parameterTypes = methodBinding.getMethodDeclaration().getParameterTypes();
+        int index = methodInvocation.arguments().indexOf(expression);
+        if (index >= parameterTypes.length || methodBinding.isVarargs() && index >= parameterTypes.length - 1)
+            return false;
+
+        return isSpecializedElement(methodBinding.getDeclaringClass(), parameterTypes[index]);
+    }
+
+    /**
+     * Determine if the method invocation returns a specialized element from a collection, so returns the primitive.
+     *
+     * @param methodInvocation method invocation in question
+     * @return true if the invocation's result is a specialized element
+     */
+    public static boolean returnsSpecializedElement(MethodInvocation methodInvocation) {
+        @Nullable IMethodBinding methodBinding = methodInvocation.resolveMethodBinding();
+        return methodBinding != null && isInvokedOnSpecializedVariable(methodInvocation) &&
+               isSpecializedElement(methodBinding.getDeclaringClass(), methodBinding.getMethodDeclaration().getReturnType());
+    }
+
+    /**
+     * Determine if the variable holds a collection that's specialized for primitives, with every use of it unaffected
+     * by the collection holding primitives rather than boxes.
+     *
+     * @param variableBinding local variable or field
+     * @param root            root of the AST containing all uses of the variable (the compilation unit)
+     * @return true if the variable's collection type is specialized
+     */
+    public static boolean isSpecializedVariable(IVariableBinding variableBinding, ASTNode root) {
+        if (variableBinding.isParameter() || variableBinding.isEnumConstant() ||
+            variableBinding.isField() && !Modifier.isPrivate(variableBinding.getModifiers()) ||
+            !hasSpecializedTypeArgument(variableBinding.getType()))
+            return false;
+
+        boolean[] specialized = new boolean[]{true};
+        root.accept(new ASTVisitor() {
+            @Override public boolean visit(SimpleName simpleName) {
+                if (variableBinding.isEqualTo(simpleName.resolveBinding()) && !isSpecializableUse(simpleName))
+                    specialized[0] = false;
+                return false;
+            }
+
+            @Override public boolean preVisit2(ASTNode node) {
+                return specialized[0];
+            }
+        });
+        return specialized[0];
+    }
+
+    private static @Nullable String getSpecializedTypeArgument(@Nullable ITypeBinding parameterizedType,
+                                                               @Nullable ITypeBinding typeArgument) {
+        if (parameterizedType == null || typeArgument == null ||
+            !specializedTypes.contains(parameterizedType.getErasure().getQualifiedName()))
+            return null;
+        return getBoxedPrimitiveTypeName(typeArgument);
+    }
+
+    private static boolean hasSpecializedTypeArgument(ITypeBinding typeBinding) {
+        for (ITypeBinding typeArgument : typeBinding.getTypeArguments()) {
+            if (getSpecializedTypeArgument(typeBinding, typeArgument) != null)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the variable whose declared type, or whose created collection, is the specified type.
+     */
+    private static @Nullable IVariableBinding getVariableOfType(ParameterizedType parameterizedType) {
+        ASTNode parent = parameterizedType.getParent();
+        StructuralPropertyDescriptor locationInParent = parameterizedType.getLocationInParent();
+
+        if (locationInParent == VariableDeclarationStatement.TYPE_PROPERTY) {
+            return getVariable(((VariableDeclarationStatement) parent).fragments());
+        } else if (locationInParent == FieldDeclaration.TYPE_PROPERTY) {
+            return getVariable(((FieldDeclaration) parent).fragments());
+        } else if (locationInParent == ClassInstanceCreation.TYPE_PROPERTY) {
+            StructuralPropertyDescriptor creationLocation = parent.getLocationInParent();
+            if (creationLocation == VariableDeclarationFragment.INITIALIZER_PROPERTY)
+                return ((VariableDeclarationFragment) parent.getParent()).resolveBinding();
+            else if (creationLocation == Assignment.RIGHT_HAND_SIDE_PROPERTY)
+                return getVariable(((Assignment) parent.getParent()).getLeftHandSide());
+        }
+        return null;
+    }
+
+    private static @Nullable IVariableBinding getVariable(List<?> fragments) {
+        return fragments.size() == 1 ? ((VariableDeclarationFragment) fragments.get(0)).resolveBinding() : null;
+    }
+
+    /**
+     * Determine if the expression references a variable holding a collection that's specialized for primitives.
+     *
+     * @param expression expression in question
+     * @return true if the expression is a simple or this-qualified reference to a specialized variable
+     */
+    public static boolean isSpecializedReference(Expression expression) {
+        @Nullable IVariableBinding variableBinding = getVariable(expression);
+        return variableBinding != null && isSpecializedVariable(variableBinding, expression.getRoot());
+    }
+
+    /**
+     * Get the variable referenced by the expression, if it's a simple name or this.name.
+     */
+    private static @Nullable IVariableBinding getVariable(@Nullable Expression expression) {
+        @Nullable IBinding binding = null;
+        if (expression instanceof SimpleName)
+            binding = ((SimpleName) expression).resolveBinding();
+        else if (expression instanceof FieldAccess && ((FieldAccess) expression).getExpression() instanceof ThisExpression)
+            binding = ((FieldAccess) expression).resolveFieldBinding();
+
+        return binding instanceof IVariableBinding ? (IVariableBinding) binding : null;
+    }
+
+    private static boolean isInvokedOnSpecializedVariable(MethodInvocation methodInvocation) {
+        @Nullable Expression expression = methodInvocation.getExpression();
+        return expression != null && isSpecializedReference(expression);
+    }
+
+    /**
+     * Determine if a reference to the variable is a use that works the same for a specialized collection.
+     */
+    private static boolean isSpecializableUse(SimpleName simpleName) {
+        Expression use = simpleName;
+        if (simpleName.getLocationInParent() == FieldAccess.NAME_PROPERTY) {
+            if (!(((FieldAccess) simpleName.getParent()).getExpression() instanceof ThisExpression))
+                return false;
+            use = (Expression) simpleName.getParent();
+        }
+
+        StructuralPropertyDescriptor locationInParent = use.getLocationInParent();
+        ASTNode parent = use.getParent();
+
+        if (locationInParent == VariableDeclarationFragment.NAME_PROPERTY) {
+            @Nullable Expression initializer = ((VariableDeclarationFragment) parent).getInitializer();
+            return initializer == null || isNewEmptyCollection(initializer);
+        } else if (locationInParent == Assignment.LEFT_HAND_SIDE_PROPERTY) {
+            Assignment assignment = (Assignment) parent;
+            return assignment.getOperator() == Assignment.Operator.ASSIGN &&
+                   isNewEmptyCollection(assignment.getRightHandSide());
+        } else if (locationInParent == MethodInvocation.EXPRESSION_PROPERTY) {
+            return isSpecializableMethod((MethodInvocation) parent);
+        } else if (locationInParent == EnhancedForStatement.EXPRESSION_PROPERTY) {
+            @Nullable ITypeBinding parameterType = ((EnhancedForStatement) parent).getParameter().getType().resolveBinding();
+            return parameterType != null && parameterType.isPrimitive();
+        } else if (parent instanceof InfixExpression) {
+            InfixExpression.Operator operator = ((InfixExpression) parent).getOperator();
+            return operator == InfixExpression.Operator.EQUALS || operator == InfixExpression.Operator.NOT_EQUALS;
+        } else return false;
+    }
+
+    /**
+     * Determine if the expression creates a new, empty collection (or is null), possibly passing a primitive like the
+     * initial capacity.
+     */
+    private static boolean isNewEmptyCollection(Expression expression) {
+        if (expression instanceof NullLiteral)
+            return true;
+        if (!(expression instanceof ClassInstanceCreation))
+            return false;
+
+        ClassInstanceCreation classInstanceCreation = (ClassInstanceCreation) expression;
+        if (classInstanceCreation.getAnonymousClassDeclaration() != null)
+            return false;
+
+        for (Object argument : classInstanceCreation.arguments()) {
+            @Nullable ITypeBinding argumentType = ((Expression) argument).resolveTypeBinding();
+            if (argumentType == null || !argumentType.isPrimitive())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Determine if the method works the same for a specialized collection:  all its parameters & its return type are
+     * primitives or elements, elements are passed as primitives (never null), a returned element is never null (or
+     * isn't used), and no other overload of the method would have the same signature once specialized (like List's
+     * remove(int) & remove(Object)).
+     */
+    private static boolean isSpecializableMethod(MethodInvocation methodInvocation) {
+        @Nullable IMethodBinding methodBinding = methodInvocation.resolveMethodBinding();
+        if (methodBinding == null || methodBinding.isVarargs())
+            return false;
+
+        IMethodBinding methodDeclaration = methodBinding.getMethodDeclaration();
+        ITypeBinding returnType = methodDeclaration.getReturnType();
+        if (!returnType.isPrimitive() && !returnType.isTypeVariable())
+            return false;
+        if (returnType.isTypeVariable() && !(methodInvocation.getParent() instanceof ExpressionStatement) &&
+            !elementReturningMethods.contains(methodDeclaration.getName()))
+            return false;
+
+        ITypeBinding[] parameterTypes = methodDeclaration.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            ITypeBinding parameterType = parameterTypes[i];
+            if (parameterType.isPrimitive())
+                continue;
+            if (!parameterType.isTypeVariable())
+                return false;
+
+            if (isSpecializedElement(methodBinding.getDeclaringClass(), parameterType)) {
+                @Nullable ITypeBinding argumentType = ((Expression) methodInvocation.arguments().get(i)).resolveTypeBinding();
+                if (argumentType == null || !argumentType.isPrimitive())
+                    return false;
+            }
+        }
+
+        for (IMethodBinding otherMethod : methodDeclaration.getDeclaringClass().getDeclaredMethods()) {
+            if (!otherMethod.isEqualTo(methodDeclaration) && otherMethod.getName().equals(methodDeclaration.getName()) &&
+                hasSameSpecializedParameters(methodDeclaration.getParameterTypes(), otherMethod.getParameterTypes()))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean hasSameSpecializedParameters(ITypeBinding[] parameterTypes, ITypeBinding[] otherParameterTypes) {
+        if (parameterTypes.length != otherParameterTypes.length)
+            return false;
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            ITypeBinding parameterType = parameterTypes[i];
+            ITypeBinding otherParameterType = otherParameterTypes[i];
+
+            if (!parameterType.getErasure().isEqualTo(otherParameterType.getErasure()) &&
+                !(parameterType.isPrimitive() && isElementOrObject(otherParameterType)) &&
+                !(otherParameterType.isPrimitive() && isElementOrObject(parameterType)))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isElementOrObject(ITypeBinding typeBinding) {
+        return typeBinding.isTypeVariable() || typeBinding.getQualifiedName().equals("java.lang.Object");
+    }
+
+    /**
+     * Determine if the declared type of a method parameter or return value is a type variable of the class, which
+     * the class's type argument specializes.
+     */
+    private static boolean isSpecializedElement(ITypeBinding declaringClass, ITypeBinding declaredType) {
+        if (!declaredType.isTypeVariable() || declaredType.getDeclaringClass() == null ||
+            !declaringClass.isParameterizedType())
+            return false;
+
+        ITypeBinding[] typeParameters = declaringClass.getTypeDeclaration().getTypeParameters();
+        ITypeBinding[] typeArguments = declaringClass.getTypeArguments();
+        for (int i = 0; i < typeParameters.length && i < typeArguments.length; i++) {
+            if (typeParameters[i].isEqualTo(declaredType))
+                return getSpecializedTypeArgument(declaringClass, typeArguments[i]) != null;
+        }
+        return false;
+    }
+}
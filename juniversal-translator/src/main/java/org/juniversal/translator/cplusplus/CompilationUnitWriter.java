@@ -45,6 +45,7 @@ public class CompilationUnitWriter extends CPlusPlusASTNodeWriter<CompilationUni
         // after, via writeEntireFile
         setPositionToStartOfNodeSpaceAndComments(typeDeclaration);
         String typeBuffer;
+        getContext().setPoolingStringLiterals(getContext().getOutputType() == OutputType.SOURCE_FILE);
         try (TargetWriter.BufferedWriter bufferedWriter = getTargetWriter().startBuffering()) {
             copySpaceAndComments();
             writeNode(typeDeclaration);
@@ -52,6 +53,7 @@ public class CompilationUnitWriter extends CPlusPlusASTNodeWriter<CompilationUni
 
             typeBuffer = bufferedWriter.getBufferContents();
         }
+        getContext().setPoolingStringLiterals(false);
 
         setPositionToStartOfNode(compilationUnit);
 
@@ -83,6 +85,12 @@ public class CompilationUnitWriter extends CPlusPlusASTNodeWriter<CompilationUni
         //targetWriter.writeUsings(getContext().getNamesNeedingImport());
         writeln();
 
+        // Write the string literal pool, now that the literals used are known
+        if (!getContext().getPooledStringLiterals().isEmpty()) {
+            targetWriter.writeStringLiteralPool(getContext().getPooledStringLiterals());
+            writeln();
+        }
+
         // Write the guts, defining the class/enum
         write(typeBuffer);
 
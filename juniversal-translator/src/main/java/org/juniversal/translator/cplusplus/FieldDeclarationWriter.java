@@ -26,6 +26,8 @@ import org.juniversal.translator.core.ASTUtil;
 
 import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Modifier;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 import org.xuniversal.translator.cplusplus.ReferenceKind;
 
@@ -80,10 +82,12 @@ public class FieldDeclarationWriter extends CPlusPlusASTNodeWriter<FieldDeclarat
         writeNode(variableDeclarationFragment.getName());
 
 		// Only write out the initializer when writing to the source file; in that case the field
-		// must be static
+		// must be static.   Instance fields of value types are the exception, as they have no null
+		// value; their initializer is written in the class definition, so it's used by every
+		// constructor
 		Expression initializer = variableDeclarationFragment.getInitializer();
 		if (initializer != null) {
-			if (!writingSourceFile)
+			if (!writingSourceFile && !isValueTypeInstanceField(variableDeclarationFragment))
 				setPosition(ASTUtil.getEndPosition(initializer));
 			else {
 				copySpaceAndComments();
@@ -94,4 +98,10 @@ public class FieldDeclarationWriter extends CPlusPlusASTNodeWriter<FieldDeclarat
 			}
 		}
 	}
+
+	private boolean isValueTypeInstanceField(VariableDeclarationFragment variableDeclarationFragment) {
+		IVariableBinding variableBinding = variableDeclarationFragment.resolveBinding();
+		return variableBinding != null && !Modifier.isStatic(variableBinding.getModifiers()) &&
+		       ASTUtil.isValueType(variableBinding.getType());
+	}
 }
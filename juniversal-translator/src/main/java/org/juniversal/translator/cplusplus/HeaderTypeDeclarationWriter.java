@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.juniversal.translator.core.ASTUtil.forEach;
+import static org.juniversal.translator.core.ASTUtil.isValueType;
 
 public class HeaderTypeDeclarationWriter extends CPlusPlusASTNodeWriter<TypeDeclaration> {
     private TypeDeclaration typeDeclaration;
@@ -55,6 +56,9 @@ public class HeaderTypeDeclarationWriter extends CPlusPlusASTNodeWriter<TypeDecl
 
         boolean isInterface = typeDeclaration.isInterface();
 
+        if (isValueType(typeDeclaration.resolveBinding()))
+            ensureValidValueType(typeDeclaration);
+
         List typeParameters = typeDeclaration.typeParameters();
 
         boolean isGeneric = !typeParameters.isEmpty();
@@ -92,7 +96,11 @@ public class HeaderTypeDeclarationWriter extends CPlusPlusASTNodeWriter<TypeDecl
 
         outputSomethingForType = false;
         writeMethods();
-        writeTypedefs();
+        if (isValueType(typeDeclaration.resolveBinding()))
+            writeValueTypeDefaultConstructor();
+        // Value types don't derive from anything, so have no super typedef
+        if (!isValueType(typeDeclaration.resolveBinding()))
+            writeTypedefs();
         writeFields();
 
         writeNestedTypes();
@@ -106,9 +114,11 @@ public class HeaderTypeDeclarationWriter extends CPlusPlusASTNodeWriter<TypeDecl
     private void writeSuperClassAndInterfaces() {
         Type superclassType = typeDeclaration.getSuperclassType();
 
-        // If there's no superclass & no super interfaces, then derive from Object
+        // If there's no superclass & no super interfaces, then derive from Object.   Value types are the exception,
+        // being standalone classes held by value
         if (superclassType == null && typeDeclaration.superInterfaceTypes().isEmpty()) {
-            write(" : public xuniv::Object");
+            if (!isValueType(typeDeclaration.resolveBinding()))
+                write(" : public xuniv::Object");
             return;
         }
 
@@ -283,6 +293,40 @@ public class HeaderTypeDeclarationWriter extends CPlusPlusASTNodeWriter<TypeDecl
         }
     }
 
+    /**
+     * Value types are held by value, so fields & arrays of them need a default constructor.   It zero initializes the
+     * fields, giving the value the C# struct default would have.   If the class declares its own no argument
+     * constructor, that's used instead.
+     */
+    private void writeValueTypeDefaultConstructor() {
+        for (MethodDeclaration methodDeclaration : typeDeclaration.getMethods()) {
+            if (methodDeclaration.isConstructor() && methodDeclaration.parameters().isEmpty())
+                return;
+        }
+
+        if (outputSomethingForType)
+            writeln();
+
+        writeAccessLevelGroup(AccessLevel.PUBLIC, " // Default value");
+        outputSomethingForType = true;
+
+        writeSpaces(typeIndent + getPreferredIndent());
+        write(typeDeclaration.getName().getIdentifier() + "()");
+
+        boolean first = true;
+        for (FieldDeclaration fieldDeclaration : typeDeclaration.getFields()) {
+            if (ASTUtil.isStatic(fieldDeclaration))
+                continue;
+
+            for (Object fragment : fieldDeclaration.fragments()) {
+                write(first ? " : " : ", ");
+                write(((VariableDeclarationFragment) fragment).getName().getIdentifier() + "()");
+                first = false;
+            }
+        }
+        writeln(" {}");
+    }
+
     private void writeTypedefs() {
         // If we've already output something for the class, add a blank line separator
         if (outputSomethingForType)
@@ -23,14 +23,23 @@
 package org.juniversal.translator.cplusplus;
 
 import java.util.HashMap;
+import java.util.List;
 
 import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.StringLiteral;
+import org.jetbrains.annotations.Nullable;
 
 import static org.juniversal.translator.core.ASTUtil.forEach;
+import static org.juniversal.translator.core.ASTUtil.getStringConcatenationOperands;
+import static org.juniversal.translator.core.ASTUtil.isStringConcatenation;
 
 
 public class InfixExpressionWriter extends CPlusPlusASTNodeWriter<InfixExpression> {
+	// Length assumed for String concatenation operands that aren't literals or primitives, when estimating the result length
+	private static final int ESTIMATED_OPERAND_LENGTH = 16;
+
 	private HashMap<InfixExpression.Operator, String> equivalentOperators;  // Operators that have the same token in both Java & C++
 
 
@@ -67,8 +76,11 @@ public class InfixExpressionWriter extends CPlusPlusASTNodeWriter<InfixExpressio
 	@Override
 	public void write(InfixExpression infixExpression) {
 		InfixExpression.Operator operator = infixExpression.getOperator();
+		ensureNotValueTypeIdentityComparison(infixExpression);
 
-		if (operator == InfixExpression.Operator.RIGHT_SHIFT_UNSIGNED) {
+		if (getTranslator().getTargetProfile().getConcatBuilder() && isStringConcatenation(infixExpression))
+			writeStringConcatenation(infixExpression);
+		else if (operator == InfixExpression.Operator.RIGHT_SHIFT_UNSIGNED) {
 			write("xu::rightShiftUnsigned(");
             writeNode(infixExpression.getLeftOperand());
 
@@ -102,4 +114,71 @@ public class InfixExpressionWriter extends CPlusPlusASTNodeWriter<InfixExpressio
 			}
 		}
 	}
+
+	/**
+	 * Write a String concatenation as a series of appends to a single StringBuilder, sized up front for the estimated
+	 * result, rather than as a chain of "+" operations each creating a temporary String.   This is only done with
+	 * -concatbuilder, as it needs the runtime's StringBuilder capacity constructor.
+	 */
+	private void writeStringConcatenation(InfixExpression infixExpression) {
+		List<List<Expression>> pieces = getStringConcatenationOperands(infixExpression);
+
+		int capacity = 0;
+		for (List<Expression> piece : pieces)
+			capacity += estimateLength(piece);
+
+		getContext().addReferencedTargetType(getTranslator().getTargetProfile().getStringBuilderType());
+		write("xuniv::StringBuilder(" + capacity + ")");
+
+		forEach(pieces, (List<Expression> piece, boolean first) -> {
+			if (!first) {
+				// Skip spaces before the + but if there's a newline (or comments) there, copy them
+				skipSpacesAndTabs();
+				copySpaceAndComments();
+				match("+");
+				skipSpaceAndComments();
+			}
+
+			write(".append(");
+			forEach(piece, (Expression operand, boolean firstInPiece) -> {
+				if (!firstInPiece) {
+					copySpaceAndComments();
+					matchAndWrite("+");
+					copySpaceAndComments();
+				}
+				writeNode(operand);
+			});
+			write(")");
+		});
+
+		write(".toString()");
+	}
+
+	/**
+	 * Estimate the length of a piece of a String concatenation, exact for literals & otherwise based on its type.
+	 */
+	private static int estimateLength(List<Expression> piece) {
+		Expression operand = piece.get(0);
+		if (piece.size() == 1 && operand instanceof StringLiteral)
+			return ((StringLiteral) operand).getLiteralValue().length();
+
+		@Nullable ITypeBinding typeBinding = piece.size() == 1 ? operand.resolveTypeBinding() : null;
+		if (typeBinding == null || !typeBinding.isPrimitive())
+			return ESTIMATED_OPERAND_LENGTH;
+
+		switch (typeBinding.getName()) {
+			case "char":
+				return 1;
+			case "boolean":
+				return 5;
+			case "byte":
+			case "short":
+			case "int":
+				return 11;
+			case "long":
+				return 20;
+			default:
+				return ESTIMATED_OPERAND_LENGTH;
+		}
+	}
 }
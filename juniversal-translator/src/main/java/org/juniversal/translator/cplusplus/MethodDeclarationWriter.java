@@ -144,6 +144,10 @@ public class MethodDeclarationWriter extends CPlusPlusASTNodeWriter<MethodDeclar
         writeParameterList(methodDeclaration);
         getContext().setMethodWildcardTypes(null);
 
+        // Value types are immutable, so their methods can all be called on a const value
+        if (isValueType(typeDeclaration.resolveBinding()) && !methodIsStatic && !methodIsConstructor)
+            write(" const");
+
         writeThrownExceptions(methodDeclaration);
 
         if (getContext().isWritingMethodImplementation()) {
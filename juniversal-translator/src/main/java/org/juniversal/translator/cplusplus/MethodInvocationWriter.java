@@ -29,6 +29,8 @@ import org.jetbrains.annotations.Nullable;
 import org.juniversal.translator.core.JUniversalException;
 import org.xuniversal.translator.core.TypeName;
 
+import static org.juniversal.translator.core.ASTUtil.getBoxedPrimitiveTypeName;
+
 public class MethodInvocationWriter extends CPlusPlusASTNodeWriter<Expression> {
 	public MethodInvocationWriter(CPlusPlusTranslator cPlusPlusASTWriters) {
         super(cPlusPlusASTWriters);
@@ -48,6 +50,33 @@ public class MethodInvocationWriter extends CPlusPlusASTNodeWriter<Expression> {
 		} else if (node instanceof MethodInvocation) {
 			MethodInvocation methodInvocation = (MethodInvocation) node;
 
+			// An element returned from a collection specialized for primitives is the primitive itself, so box it if
+			// Java uses it as an object (except when it's just passed to another specialized collection or the result
+			// isn't used at all)
+			if (getTranslator().getTargetProfile().getPrimitiveCollections() &&
+			    CollectionSpecialization.returnsSpecializedElement(methodInvocation) &&
+			    !methodInvocation.resolveUnboxing() &&
+			    !(methodInvocation.getParent() instanceof ExpressionStatement) &&
+			    !CollectionSpecialization.isSpecializedElementArgument(methodInvocation)) {
+				String primitiveTypeName = getBoxedPrimitiveTypeName(methodInvocation.resolveTypeBinding());
+				getContext().addReferencedTargetType(getTranslator().getTargetProfile().getBoxType());
+				write("xuniv::Box<" + getTranslator().primitiveTypeNameToTargetName(primitiveTypeName) + ">::" +
+				      getTranslator().getBoxFunction(primitiveTypeName) + "(");
+				writeMethodInvocation(false, methodInvocation.getExpression(), methodInvocation.resolveMethodBinding(),
+						methodInvocation.getName(), methodInvocation.typeArguments(), methodInvocation.arguments());
+				write(")");
+				return;
+			}
+
+			// A function ref is invoked directly, as "func(...)"
+			if (getTranslator().getTargetProfile().getFunctionRefs() &&
+			    ClosureAnalysis.isFunctionRefInvocation(methodInvocation)) {
+				writeNode(methodInvocation.getExpression());
+				setPositionToEndOfNode(methodInvocation.getName());
+				writeArgumentList(methodInvocation.arguments());
+				return;
+			}
+
 			writeMethodInvocation(false, methodInvocation.getExpression(), methodInvocation.resolveMethodBinding(),
 					methodInvocation.getName(), methodInvocation.typeArguments(), methodInvocation.arguments());
 		}
@@ -79,7 +108,7 @@ public class MethodInvocationWriter extends CPlusPlusASTNodeWriter<Expression> {
             writeNode(expression);
 
 			copySpaceAndComments();
-			matchAndWrite(".", isStatic ? "::" : "->");
+			matchAndWrite(".", isStatic ? "::" : getMemberAccessOperator(expression));
 
 			copySpaceAndComments();
 		}
@@ -102,6 +131,10 @@ public class MethodInvocationWriter extends CPlusPlusASTNodeWriter<Expression> {
 
 		// TODO: Handle different reference operator used for stack objects
 
+		writeArgumentList(arguments);
+	}
+
+	private void writeArgumentList(List<?> arguments) {
 		copySpaceAndComments();
 		matchAndWrite("(");
 
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import static org.juniversal.translator.core.ASTUtil.anyAncestorMatch;
+import static org.juniversal.translator.core.ASTUtil.anyMatch;
+
+/**
+ * Method local ownership analysis, used to avoid shared_ptr copies (and the atomic reference count updates that go
+ * with them) in the generated C++.
+ * <p>
+ * A parameter is "borrowed" if the method never takes ownership of it: it's never assigned to, and it's only used to
+ * access its members, index into it, or compare it, never stored, returned, passed on, or captured by a lambda or
+ * local/anonymous class.   Such a parameter can be passed as a const reference to the caller's shared_ptr, rather
+ * than as a copy of it.   As with any const reference, that relies on the caller's shared_ptr not changing while the
+ * call is in progress.   The caller may pass in a field or array element, which the method could reset (directly or
+ * via something it calls), releasing the object out from under the reference.   So parameters are only borrowed by
+ * methods that can't write to a reference field or array element and don't call any other methods or constructors.
+ * <p>
+ * The parameter types must be the same in the class definition & the method implementation, and for all overrides
+ * of a method, so the analysis is only done for methods that can't be overridden and don't override anything:
+ * constructors and static, private, and final methods (including those in final & anonymous classes).   The result
+ * only depends on the method declaration, so it's the same wherever the parameter list is written.
+ */
+public class OwnershipAnalysis {
+    /**
+     * Determine if the specified parameter is borrowed, so it can be passed by const reference.
+     *
+     * @param parameter parameter in question
+     * @return true if the parameter is never owned by the method
+     */
+    public static boolean isBorrowedParameter(SingleVariableDeclaration parameter) {
+        if (!(parameter.getParent() instanceof MethodDeclaration) || parameter.isVarargs() ||
+            parameter.getType().isPrimitiveType())
+            return false;
+
+        @Nullable ITypeBinding typeBinding = parameter.getType().resolveBinding();
+        if (typeBinding == null || typeBinding.isTypeVariable() || typeBinding.isWildcardType())
+            return false;
+
+        MethodDeclaration methodDeclaration = (MethodDeclaration) parameter.getParent();
+        @Nullable Block body = methodDeclaration.getBody();
+        if (body == null || !hasFixedSignature(methodDeclaration) || canReleaseReferences(body))
+            return false;
+
+        @Nullable IVariableBinding variableBinding = parameter.resolveBinding();
+        if (variableBinding == null)
+            return false;
+
+        return !escapes(variableBinding, body);
+    }
+
+    /**
+     * Determine if the method body might release an object some caller passed in by reference, by writing to a
+     * non-primitive field or array element or by calling something else that might do that.   Writes to local
+     * variables are fine, as the caller's variables can't be changed that way.
+     */
+    private static boolean canReleaseReferences(Block body) {
+        boolean[] canRelease = new boolean[1];
+
+        body.accept(new ASTVisitor() {
+            @Override public boolean visit(Assignment assignment) {
+                Expression leftHandSide = assignment.getLeftHandSide();
+                @Nullable ITypeBinding typeBinding = leftHandSide.resolveTypeBinding();
+
+                if (typeBinding == null || !typeBinding.isPrimitive()) {
+                    if (!(leftHandSide instanceof SimpleName))
+                        canRelease[0] = true;
+                    else {
+                        @Nullable IBinding binding = ((SimpleName) leftHandSide).resolveBinding();
+                        if (!(binding instanceof IVariableBinding) || ((IVariableBinding) binding).isField())
+                            canRelease[0] = true;
+                    }
+                }
+                return true;
+            }
+
+            @Override public boolean visit(MethodInvocation methodInvocation) {
+                canRelease[0] = true;
+                return false;
+            }
+
+            @Override public boolean visit(SuperMethodInvocation superMethodInvocation) {
+                canRelease[0] = true;
+                return false;
+            }
+
+            @Override public boolean visit(ClassInstanceCreation classInstanceCreation) {
+                canRelease[0] = true;
+                return false;
+            }
+
+            @Override public boolean visit(ConstructorInvocation constructorInvocation) {
+                canRelease[0] = true;
+                return false;
+            }
+
+            @Override public boolean visit(SuperConstructorInvocation superConstructorInvocation) {
+                canRelease[0] = true;
+                return false;
+            }
+
+            @Override public boolean preVisit2(ASTNode node) {
+                return !canRelease[0];
+            }
+        });
+
+        return canRelease[0];
+    }
+
+    /**
+     * Determine if the method's signature is fixed, in that the method can't be overridden and doesn't override
+     * anything.
+     */
+    private static boolean hasFixedSignature(MethodDeclaration methodDeclaration) {
+        @Nullable IMethodBinding methodBinding = methodDeclaration.resolveBinding();
+        if (methodBinding == null)
+            return false;
+
+        int modifiers = methodBinding.getModifiers();
+        if (methodBinding.isConstructor() || Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers))
+            return true;
+
+        ITypeBinding declaringClass = methodBinding.getDeclaringClass();
+        if (!Modifier.isFinal(modifiers) && !Modifier.isFinal(declaringClass.getModifiers()) &&
+            !declaringClass.isAnonymous())
+            return false;
+
+        return !anyAncestorMatch(declaringClass, ancestor ->
+                anyMatch(ancestor.getDeclaredMethods(), (IMethodBinding ancestorMethod) ->
+                        methodBinding.overrides(ancestorMethod)));
+    }
+
+    /**
+     * Determine if the variable escapes the method body, with it used in some way other than borrowing it.
+     */
+    private static boolean escapes(IVariableBinding variableBinding, Block body) {
+        boolean[] escapes = new boolean[1];
+
+        body.accept(new ASTVisitor() {
+            @Override public boolean visit(SimpleName simpleName) {
+                if (variableBinding.isEqualTo(simpleName.resolveBinding()) && !isBorrowingUse(simpleName, body))
+                    escapes[0] = true;
+                return false;
+            }
+
+            @Override public boolean preVisit2(ASTNode node) {
+                return !escapes[0];
+            }
+        });
+
+        return escapes[0];
+    }
+
+    private static boolean isBorrowingUse(SimpleName simpleName, Block body) {
+        // Anything captured by a lambda or a local/anonymous class may outlive the call
+        for (ASTNode ancestor = simpleName.getParent(); ancestor != body; ancestor = ancestor.getParent()) {
+            if (ancestor instanceof LambdaExpression || ancestor instanceof AnonymousClassDeclaration ||
+                ancestor instanceof TypeDeclarationStatement)
+                return false;
+        }
+
+        StructuralPropertyDescriptor locationInParent = simpleName.getLocationInParent();
+        ASTNode parent = simpleName.getParent();
+
+        if (locationInParent == MethodInvocation.EXPRESSION_PROPERTY ||
+            locationInParent == FieldAccess.EXPRESSION_PROPERTY ||
+            locationInParent == QualifiedName.QUALIFIER_PROPERTY ||
+            locationInParent == ArrayAccess.ARRAY_PROPERTY ||
+            locationInParent == InstanceofExpression.LEFT_OPERAND_PROPERTY ||
+            locationInParent == EnhancedForStatement.EXPRESSION_PROPERTY)
+            return true;
+
+        if (parent instanceof InfixExpression && (locationInParent == InfixExpression.LEFT_OPERAND_PROPERTY ||
+                                                  locationInParent == InfixExpression.RIGHT_OPERAND_PROPERTY)) {
+            InfixExpression.Operator operator = ((InfixExpression) parent).getOperator();
+            return operator == InfixExpression.Operator.EQUALS || operator == InfixExpression.Operator.NOT_EQUALS;
+        }
+
+        return false;
+    }
+}
@@ -204,6 +204,53 @@ public abstract class CSharpASTNodeWriter<T extends ASTNode> extends ASTNodeWrit
         return name;
     }
 
+    /**
+     * Write a field update, found by {@link SynchronizationAnalysis#getInterlockedOperation(Block)}, as the equivalent
+     * Interlocked call.   The position isn't changed; the caller is responsible for skipping the source that's
+     * replaced.
+     *
+     * @param operation ++, --, +=, -=, or = expression
+     */
+    public void writeInterlockedOperation(Expression operation) {
+        Expression fieldExpression = SynchronizationAnalysis.getUpdatedFieldExpression(operation);
+
+        @Nullable Expression operand = null;
+        boolean negateOperand = false;
+        String method;
+        if (operation instanceof Assignment) {
+            Assignment.Operator operator = ((Assignment) operation).getOperator();
+            operand = ((Assignment) operation).getRightHandSide();
+            if (operator == Assignment.Operator.ASSIGN)
+                method = "Exchange";
+            else {
+                method = "Add";
+                negateOperand = operator == Assignment.Operator.MINUS_ASSIGN;
+            }
+        } else {
+            boolean increment = operation instanceof PostfixExpression ?
+                    ((PostfixExpression) operation).getOperator() == PostfixExpression.Operator.INCREMENT :
+                    ((PrefixExpression) operation).getOperator() == PrefixExpression.Operator.INCREMENT;
+            method = increment ? "Increment" : "Decrement";
+        }
+
+        write(nativeReference("System.Threading", "Interlocked") + "." + method + "(ref ");
+        writeNodeAtDifferentPosition(fieldExpression);
+
+        if (operand != null) {
+            write(", ");
+            if (negateOperand) {
+                boolean needsParentheses = !(operand instanceof Name || operand instanceof NumberLiteral ||
+                                             operand instanceof ParenthesizedExpression);
+                write(needsParentheses ? "-(" : "-");
+                writeNodeAtDifferentPosition(operand);
+                if (needsParentheses)
+                    write(")");
+            } else writeNodeAtDifferentPosition(operand);
+        }
+
+        write(")");
+    }
+
     public void validateIdentifier(SimpleName simpleName) {
         validateIdentifier(simpleName.getIdentifier());
     }
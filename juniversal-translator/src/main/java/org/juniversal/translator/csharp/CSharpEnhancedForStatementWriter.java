@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.csharp;
+
+import org.eclipse.jdt.core.dom.EnhancedForStatement;
+import org.eclipse.jdt.core.dom.Expression;
+import org.juniversal.translator.core.EnhancedForStatementWriter;
+
+
+public class CSharpEnhancedForStatementWriter extends EnhancedForStatementWriter {
+    public CSharpEnhancedForStatementWriter(CSharpTranslator translator) {
+        super(translator);
+    }
+
+    @Override protected void writeForEachLoop(EnhancedForStatement enhancedForStatement) {
+        matchAndWrite("for", "foreach");
+
+        copySpaceAndComments();
+        matchAndWrite("(");
+
+        copySpaceAndComments();
+        writeNode(enhancedForStatement.getParameter());
+
+        copySpaceAndComments();
+        // TODO: Ensure spaces around "in"
+        matchAndWrite(":", "in");
+
+        copySpaceAndComments();
+        writeNode(enhancedForStatement.getExpression());
+
+        copySpaceAndComments();
+        matchAndWrite(")");
+
+        copySpaceAndComments();
+        writeNode(enhancedForStatement.getBody());
+    }
+
+    /**
+     * The C# compiler already turns foreach over an array into an indexed loop (without an enumerator & with the
+     * range checks eliminated), so that form is kept.
+     */
+    @Override protected boolean isIndexedArrayLoop(EnhancedForStatement enhancedForStatement) {
+        return false;
+    }
+
+    @Override protected void writeLength(Expression expression, boolean isArray) {
+        writeNodeAtDifferentPosition(expression);
+        write(isArray ? ".Length" : ".size()");
+    }
+
+    @Override protected void writeElement(EnhancedForStatement enhancedForStatement, String index, boolean isArray) {
+        writeNodeAtDifferentPosition(enhancedForStatement.getExpression());
+        write(isArray ? "[" + index + "]" : ".get(" + index + ")");
+    }
+}
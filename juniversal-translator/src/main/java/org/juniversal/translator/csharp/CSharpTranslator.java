@@ -27,7 +27,6 @@ import org.jetbrains.annotations.Nullable;
 import org.juniversal.translator.core.JUniversalException;
 import org.juniversal.translator.core.JavaSourceFile;
 import org.juniversal.translator.core.Translator;
-import org.xuniversal.translator.core.TargetProfile;
 import org.xuniversal.translator.csharp.CSharpTargetProfile;
 import org.xuniversal.translator.csharp.CSharpTargetWriter;
 
@@ -39,14 +38,21 @@ import java.util.Map;
 
 import static org.juniversal.translator.core.ASTUtil.forEach;
 import static org.juniversal.translator.core.ASTUtil.isArrayLengthField;
+import static org.juniversal.translator.core.ASTUtil.isValueType;
 
 public class CSharpTranslator extends Translator {
-    private CSharpTargetProfile targetProfile = new CSharpTargetProfile();
+    private CSharpTargetProfile targetProfile;
     private CSharpContext context;
     private HashMap<String, String> annotationMap = new HashMap<>();
     private HashSet<String> cSharpReservedWords;
 
     public CSharpTranslator() {
+        this(new CSharpTargetProfile());
+    }
+
+    public CSharpTranslator(CSharpTargetProfile targetProfile) {
+        this.targetProfile = targetProfile;
+
         annotationMap.put("org.junit.Test", "NUnit.Framework.Test");
 
         addDeclarationWriters();
@@ -68,7 +74,7 @@ public class CSharpTranslator extends Translator {
         });
     }
 
-    @Override public TargetProfile getTargetProfile() {
+    @Override public CSharpTargetProfile getTargetProfile() {
         return targetProfile;
     }
 
@@ -80,6 +86,10 @@ public class CSharpTranslator extends Translator {
         return new CSharpTargetWriter(writer, targetProfile);
     }
 
+    @Override protected CSharpTranslator newTranslator() {
+        return new CSharpTranslator(targetProfile);
+    }
+
     public Map<String, String> getAnnotationMap() {
         return annotationMap;
     }
@@ -93,7 +103,8 @@ public class CSharpTranslator extends Translator {
 
     @Override public String translateNode(JavaSourceFile sourceFile, ASTNode astNode) {
         try (StringWriter writer = new StringWriter()) {
-            context = new CSharpContext(sourceFile, createTargetWriter(writer));
+            CSharpTargetWriter targetWriter = createTargetWriter(writer);
+            context = new CSharpContext(sourceFile, targetWriter);
 
             // Set the type declaration part of the context
             AbstractTypeDeclaration typeDeclaration = (AbstractTypeDeclaration) sourceFile.getCompilationUnit().types().get(0);
@@ -101,6 +112,8 @@ public class CSharpTranslator extends Translator {
 
             writeRootNode(astNode);
 
+            // Flush what the target writer has buffered
+            targetWriter.close();
             return writer.getBuffer().toString();
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -243,45 +256,8 @@ public class CSharpTranslator extends Translator {
      * Add visitors for the different kinds of statements.
      */
     private void addStatementWriters() {
-        // TODO: Implement this
-        // Block
-        addWriter(Block.class, new CSharpASTNodeWriter<Block>(this) {
-            @Override
-            public void write(Block block) {
-                matchAndWrite("{");
-
-                writeNodes(block.statements());
-
-                copySpaceAndComments();
-                matchAndWrite("}");
-            }
-        });
-
-        addWriter(EnhancedForStatement.class, new CSharpASTNodeWriter<EnhancedForStatement>(this) {
-            @Override
-            public void write(EnhancedForStatement enhancedForStatement) {
-                matchAndWrite("for", "foreach");
-
-                copySpaceAndComments();
-                matchAndWrite("(");
-
-                copySpaceAndComments();
-                writeNode(enhancedForStatement.getParameter());
-
-                copySpaceAndComments();
-                // TODO: Ensure spaces around "in"
-                matchAndWrite(":", "in");
-
-                copySpaceAndComments();
-                writeNode(enhancedForStatement.getExpression());
-
-                copySpaceAndComments();
-                matchAndWrite(")");
-
-                copySpaceAndComments();
-                writeNode(enhancedForStatement.getBody());
-            }
-        });
+        // Enhanced for statement
+        addWriter(EnhancedForStatement.class, new CSharpEnhancedForStatementWriter(this));
 
         // Local variable declaration statement
         addWriter(VariableDeclarationStatement.class, new CSharpASTNodeWriter<VariableDeclarationStatement>(this) {
@@ -335,12 +311,34 @@ public class CSharpTranslator extends Translator {
         addWriter(SynchronizedStatement.class, new CSharpASTNodeWriter<SynchronizedStatement>(this) {
             @Override
             public void write(SynchronizedStatement synchronizedStatement) {
+                if (isValueType(synchronizedStatement.getExpression().resolveTypeBinding()))
+                    throw sourceNotSupported("@ValueType values have no identity, so can't be synchronized on");
+
+                // A single update of a field becomes an Interlocked call, without any lock
+                @Nullable Expression interlockedOperation =
+                        SynchronizationAnalysis.getInterlockedOperation(synchronizedStatement.getBody());
+                if (interlockedOperation != null) {
+                    writeInterlockedOperation(interlockedOperation);
+                    write(";");
+                    setPositionToEndOfNode(synchronizedStatement);
+                    return;
+                }
+
                 matchAndWrite("synchronized", "lock");
 
                 copySpaceAndComments();
                 matchAndWrite("(");
 
-                writeNode(synchronizedStatement.getExpression());
+                // Locking "this" or the class literal uses a dedicated lock object instead, so other code locking the
+                // same object can't contend with (or deadlock) the class's own synchronization
+                Expression lockExpression = synchronizedStatement.getExpression();
+                if (SynchronizationAnalysis.isInstanceLock(lockExpression)) {
+                    write(SynchronizationAnalysis.INSTANCE_LOCK);
+                    setPositionToEndOfNode(lockExpression);
+                } else if (SynchronizationAnalysis.isStaticLock(lockExpression)) {
+                    write(SynchronizationAnalysis.STATIC_LOCK);
+                    setPositionToEndOfNode(lockExpression);
+                } else writeNode(lockExpression);
 
                 copySpaceAndComments();
                 matchAndWrite(")");
@@ -33,6 +33,7 @@ import java.util.Set;
 
 import static org.juniversal.translator.core.ASTUtil.forEach;
 import static org.juniversal.translator.core.ASTUtil.getFirstTypeDeclaration;
+import static org.juniversal.translator.core.ASTUtil.VALUE_TYPE_ANNOTATION;
 import static org.juniversal.translator.core.ASTUtil.isGenericImport;
 
 
@@ -98,7 +99,8 @@ class CompilationUnitWriter extends CSharpASTNodeWriter<CompilationUnit> {
         writeUsings(compilationUnit);
 
         // Write out the body contents
-        copySpaceAndComments();
+        if (compilationUnit.imports().isEmpty())
+            copySpaceAndComments();
         write(typeBuffer);
 
         if (packageDeclaration != null)
@@ -117,8 +119,9 @@ class CompilationUnitWriter extends CSharpASTNodeWriter<CompilationUnit> {
 
             String importDeclarationFullyQualifiedName = importDeclarationName.getFullyQualifiedName();
 
-            // Skip imports for the Nullable annotation and mapped annotations
+            // Skip imports for the Nullable & ValueType annotations and mapped annotations
             if (importDeclarationFullyQualifiedName.equals("org.jetbrains.annotations.Nullable") ||
+                importDeclarationFullyQualifiedName.equals(VALUE_TYPE_ANNOTATION) ||
                 annotationMap.containsKey(importDeclarationFullyQualifiedName)) {
                 setPositionToEndOfNode(importDeclaration);
                 return;
@@ -134,11 +137,16 @@ class CompilationUnitWriter extends CSharpASTNodeWriter<CompilationUnit> {
             @Nullable String namespaceToImportForGenericClass = null;
             if (isGenericImport(importDeclaration)) {
                 namespaceToImportForGenericClass = qualifiedName.getQualifier().getFullyQualifiedName();
-                if (genericUsings.contains(namespaceToImportForGenericClass))
+                if (genericUsings.contains(namespaceToImportForGenericClass)) {
+                    setPositionToEndOfNode(importDeclaration);
                     return;
+                }
             }
 
-            copySpaceAndComments();
+            // Each using goes on its own line.   Any comments between imports are dropped; comments before the type
+            // declaration are written with it
+            setPositionToStartOfNode(importDeclaration);
+            writeln();
             matchAndWrite("import", "using");
 
             copySpaceAndComments();
@@ -165,13 +173,15 @@ class CompilationUnitWriter extends CSharpASTNodeWriter<CompilationUnit> {
             wroteUsing.set(true);
         });
 
-        if (wroteUsing.value())
-            writeln();
-
         for (String extraUsing : ((CSharpContext) getContext()).getExtraUsings()) {
+            writeln();
             write("using ");
             write(extraUsing);
-            writeln(";");
+            write(";");
+            wroteUsing.set(true);
         }
+
+        if (wroteUsing.value())
+            writeln();
     }
 }
@@ -121,6 +121,7 @@ public class InfixExpressionWriter extends CSharpASTNodeWriter<InfixExpression>
     @Override
     public void write(InfixExpression infixExpression) {
         InfixExpression.Operator operator = infixExpression.getOperator();
+        ensureNotValueTypeIdentityComparison(infixExpression);
 
         if (operator == InfixExpression.Operator.RIGHT_SHIFT_UNSIGNED) {
             writeRightShiftUnsigned(infixExpression);
@@ -41,6 +41,7 @@ public class MethodDeclarationWriter extends CSharpASTNodeWriter<MethodDeclarati
 
     @Override
     public void write(MethodDeclaration methodDeclaration) {
+        int methodColumn = getTargetColumn();
         AbstractTypeDeclaration typeDeclaration = getContext().getTypeDeclaration();
         boolean isInterface = isInterface(typeDeclaration);
         boolean classIsFinal = isFinal(typeDeclaration);
@@ -166,7 +167,9 @@ public class MethodDeclarationWriter extends CSharpASTNodeWriter<MethodDeclarati
 
         Block body = methodDeclaration.getBody();
         if (body != null) {
-            writeBody(body);
+            if (Modifier.isSynchronized(methodDeclaration.getModifiers()))
+                writeSynchronizedBody(methodDeclaration, methodColumn);
+            else writeBody(body);
         } else {
             copySpaceAndComments();
             matchAndWrite(";");
@@ -322,6 +325,78 @@ public class MethodDeclarationWriter extends CSharpASTNodeWriter<MethodDeclarati
         }
     }
 
+    /**
+     * Write the body of a synchronized method.   A getter just returning a field reads it with Volatile.Read, a body
+     * that's just a single field update becomes an Interlocked call, and anything else is wrapped in a lock statement,
+     * locking the lock object shared by the class hierarchy (see SynchronizationAnalysis).
+     */
+    private void writeSynchronizedBody(MethodDeclaration methodDeclaration, int methodColumn) {
+        Block body = methodDeclaration.getBody();
+        AbstractTypeDeclaration typeDeclaration = getContext().getTypeDeclaration();
+
+        @Nullable IVariableBinding volatileReadField = SynchronizationAnalysis.getVolatileReadField(methodDeclaration);
+        @Nullable Expression interlockedOperation = SynchronizationAnalysis.getInterlockedOperation(body);
+        if (volatileReadField != null || interlockedOperation != null) {
+            Statement statement = (Statement) body.statements().get(0);
+
+            copySpaceAndComments();
+            matchAndWrite("{");
+
+            copySpaceAndComments();
+            if (volatileReadField != null) {
+                ReturnStatement returnStatement = (ReturnStatement) statement;
+                matchAndWrite("return");
+
+                copySpaceAndComments();
+                write(nativeReference("System.Threading", "Volatile") + ".Read(ref ");
+                writeNode(returnStatement.getExpression());
+                write(")");
+
+                copySpaceAndComments();
+                matchAndWrite(";");
+            } else {
+                writeInterlockedOperation(interlockedOperation);
+                write(";");
+                setPositionToEndOfNode(statement);
+            }
+
+            copySpaceAndComments();
+            matchAndWrite("}");
+            return;
+        }
+
+        boolean methodIsStatic = isStatic(methodDeclaration);
+        String lockExpression;
+        if (isValueType(typeDeclaration.resolveBinding()))
+            throw sourceNotSupported("@ValueType values have no identity, so can't be synchronized on");
+        else if (methodIsStatic)
+            lockExpression = SynchronizationAnalysis.canDeclareStaticLock(typeDeclaration) ? SynchronizationAnalysis.STATIC_LOCK :
+                    "typeof(" + typeDeclaration.getName().getIdentifier() + ")";
+        else lockExpression = SynchronizationAnalysis.getInstanceLockDeclarer(typeDeclaration.resolveBinding()) != null ?
+                    SynchronizationAnalysis.INSTANCE_LOCK : "this";
+
+        copySpaceAndComments();
+        matchAndWrite("{");
+
+        writeln();
+        indentToColumn(methodColumn + getPreferredIndent());
+        write("lock (" + lockExpression + ") {");
+
+        int previousAdditionalIndentation = getTargetWriter().incrementAdditionalIndentation(getPreferredIndent());
+        forEach(body.statements(), (Statement statement) -> {
+            copySpaceAndComments();
+            writeNode(statement);
+        });
+
+        copySpaceAndComments();
+        write("}");
+        getTargetWriter().setAdditionalIndentation(previousAdditionalIndentation);
+
+        writeln();
+        indentToColumn(methodColumn);
+        matchAndWrite("}");
+    }
+
     private void writeBody(Block body) {
         copySpaceAndComments();
         matchAndWrite("{");
@@ -49,6 +49,19 @@ public abstract class MethodInvocationWriterBase<T extends Expression> extends C
             objectType = expression.resolveTypeBinding();
         else objectType = methodBinding.getDeclaringClass();
 
+        // Some String methods are written as calls on a span or as static (ordinal) comparisons, instead of on the
+        // String object
+        if (expression != null && isType(objectType, "java.lang.String") && !isStatic(methodBinding)) {
+            @Nullable MethodInvocation substring = getSubstringUsableAsSpan(expression, methodNameString, args);
+            if (substring != null) {
+                writeSpanMethodInvocation(methodInvocationNode, substring, methodNameString, args);
+                return;
+            }
+
+            if (writeStringComparison(methodInvocationNode, expression, methodNameString, args))
+                return;
+        }
+
         //TODO: Detect when precedence allows skkpping parens
         boolean addParentheses = false;
         if (isType(objectType, "java.lang.String") && methodNameString.equals("isEmpty"))
@@ -159,6 +172,139 @@ public abstract class MethodInvocationWriterBase<T extends Expression> extends C
         } else return false;
     }
 
+    /**
+     * If the expression that a String method is called on is itself a substring call, and the method just examines
+     * the substring (comparing or searching it) rather than keeping it, get that substring call.   It's written as a
+     * ReadOnlySpan&lt;char&gt; over the original string's characters, instead of allocating a new string.
+     *
+     * @param expression expression the String method is called on
+     * @param methodName String method name
+     * @param args       String method arguments
+     * @return substring call, if the method can be called on a span instead, otherwise null
+     */
+    private @Nullable MethodInvocation getSubstringUsableAsSpan(Expression expression, String methodName,
+                                                                ArrayList<Expression> args) {
+        if (!(expression instanceof MethodInvocation))
+            return null;
+
+        MethodInvocation substring = (MethodInvocation) expression;
+        @Nullable IMethodBinding substringBinding = substring.resolveMethodBinding();
+        if (!substring.getName().getIdentifier().equals("substring") || substring.getExpression() == null ||
+            substringBinding == null || isStatic(substringBinding) ||
+            !isType(substringBinding.getDeclaringClass(), "java.lang.String"))
+            return null;
+
+        switch (methodName) {
+            case "isEmpty":
+            case "length":
+                return args.isEmpty() ? substring : null;
+
+            case "charAt":
+            case "compareTo":
+            case "contains":
+            case "endsWith":
+            case "equals":
+            case "startsWith":
+                return args.size() == 1 && (methodName.equals("charAt") || isStringTyped(args.get(0))) ?
+                       substring : null;
+
+            case "indexOf":
+                return args.size() == 1 && (isStringTyped(args.get(0)) || isCharTyped(args.get(0))) ?
+                       substring : null;
+
+            default:
+                return null;
+        }
+    }
+
+    private void writeSpanMethodInvocation(T methodInvocation, MethodInvocation substring, String methodName,
+                                           ArrayList<Expression> args) {
+        writeNodeAtDifferentPosition(substring.getExpression());
+        write("." + nativeReference("System", "AsSpan") + "(");
+        writeSubstringRange(substring.arguments());
+        write(")");
+
+        switch (methodName) {
+            case "charAt":
+                write("[");
+                writeNodeAtDifferentPosition(args.get(0));
+                write("]");
+                break;
+
+            case "compareTo":
+                write(".");
+                writeMappedMethod("CompareTo", args.get(0), nativeReference("System", "StringComparison.Ordinal"));
+                break;
+
+            case "contains":
+            case "endsWith":
+            case "startsWith":
+                write(".");
+                writeMappedMethod(Character.toUpperCase(methodName.charAt(0)) + methodName.substring(1), args.get(0),
+                        nativeReference("System", "StringComparison.Ordinal"));
+                break;
+
+            case "equals":
+                write(".");
+                writeMappedMethod("SequenceEqual", args.get(0));
+                break;
+
+            case "indexOf":
+                write(".");
+                if (isStringTyped(args.get(0)))
+                    writeMappedMethod("IndexOf", args.get(0), nativeReference("System", "StringComparison.Ordinal"));
+                else writeMappedMethod("IndexOf", args.get(0));
+                break;
+
+            case "isEmpty":
+                write(".IsEmpty");
+                break;
+
+            case "length":
+                write(".Length");
+                break;
+        }
+
+        setPositionToEndOfNode(methodInvocation);
+    }
+
+    /**
+     * Write String comparisons as static .NET string methods, which compare ordinally (by UTF-16 code unit, like Java
+     * does), unlike String.CompareTo which uses the current culture.
+     *
+     * @return true iff the method call was handled, written as a comparison
+     */
+    private boolean writeStringComparison(T methodInvocation, Expression expression, String methodName,
+                                          ArrayList<Expression> args) {
+        String comparison;
+        switch (methodName) {
+            case "compareTo":
+                comparison = "string.CompareOrdinal(";
+                break;
+            case "compareToIgnoreCase":
+                comparison = "string.Compare(";
+                break;
+            case "equalsIgnoreCase":
+                comparison = "string.Equals(";
+                break;
+            default:
+                return false;
+        }
+
+        verifyArgCount(args, 1);
+
+        write(comparison);
+        writeNodeAtDifferentPosition(expression);
+        write(", ");
+        writeNodeAtDifferentPosition(args.get(0));
+        if (methodName.endsWith("IgnoreCase"))
+            write(", " + nativeReference("System", "StringComparison.OrdinalIgnoreCase"));
+        write(")");
+
+        setPositionToEndOfNode(methodInvocation);
+        return true;
+    }
+
     private boolean writeMappedObjectMethod(T methodInvocation, String methodName,
                                             ArrayList<Expression> args, IMethodBinding methodBinding) {
         if (isStatic(methodBinding))
@@ -228,7 +374,9 @@ public abstract class MethodInvocationWriterBase<T extends Expression> extends C
 
                 case "contains":
                     verifyArgCount(args, 1);
-                    writeMappedMethod("Contains", args.get(0));
+                    if (isStringTyped(args.get(0)))
+                        writeMappedMethod("Contains", args.get(0), nativeReference("System", "StringComparison.Ordinal"));
+                    else writeMappedMethod("Contains", args.get(0));
                     break;
 
                 case "endsWith":
@@ -238,16 +386,12 @@ public abstract class MethodInvocationWriterBase<T extends Expression> extends C
 
                 case "indexOf":
                     verifyArgCount(args, 1, 2);
-                    if (args.size() == 1)
-                        writeMappedMethod("IndexOf", args.get(0));
-                    else writeMappedMethod("IndexOf", args.get(0), args.get(1));
+                    writeMappedSearchMethod("IndexOf", args);
                     break;
 
                 case "lastIndexOf":
                     verifyArgCount(args, 1, 2);
-                    if (args.size() == 1)
-                        writeMappedMethod("LastIndexOf", args.get(0));
-                    else writeMappedMethod("LastIndexOf", args.get(0), args.get(1));
+                    writeMappedSearchMethod("LastIndexOf", args);
                     break;
 
                 // TODO: Handle adding parens when needed
@@ -274,36 +418,14 @@ public abstract class MethodInvocationWriterBase<T extends Expression> extends C
 
                 case "substring":
                     verifyArgCount(args, 1, 2);
-                    if (args.size() == 1)
-                        writeMappedMethod("Substring", args.get(0));
-                    else {
-                        Expression arg0 = args.get(0);
-                        Expression arg1 = args.get(1);
-
-                        // TODO: Verify that arg0 and arg1 and just identifiers or constants, to keep things simple
-
-                        write("Substring");
-                        write("(");
-
-                        setPositionToStartOfNode(arg0);
-                        writeNode(arg0);
-
-                        write(", ");
-
-                        setPositionToStartOfNode(arg1);
-                        writeNode(arg1);
-                        write(" - ");
-                        setPositionToStartOfNode(arg0);
-                        writeNode(arg0);
-
-                        write(")");
-                    }
+                    write("Substring(");
+                    writeSubstringRange(args);
+                    write(")");
                     break;
 
-                // TODO: Remove this
                 case "split":
-                    verifyArgCount(args, 1, 1);
-                    writeMappedMethod("xxxxx");
+                    verifyArgCount(args, 1);
+                    writeSplit(args.get(0));
                     break;
 
                 case "toCharArray":
@@ -362,6 +484,125 @@ public abstract class MethodInvocationWriterBase<T extends Expression> extends C
         setPositionToEndOfNode(methodInvocation);
     }
 
+    /**
+     * Write an IndexOf/LastIndexOf call.   Searching for a string is made ordinal, as by default .NET string searches
+     * use the current culture.   Searching for a char is always ordinal.
+     */
+    private void writeMappedSearchMethod(String mappedMethodName, ArrayList<Expression> args) {
+        if (!isStringTyped(args.get(0))) {
+            if (args.size() == 1)
+                writeMappedMethod(mappedMethodName, args.get(0));
+            else writeMappedMethod(mappedMethodName, args.get(0), args.get(1));
+        } else {
+            String ordinal = nativeReference("System", "StringComparison.Ordinal");
+            if (args.size() == 1)
+                writeMappedMethod(mappedMethodName, args.get(0), ordinal);
+            else writeMappedMethod(mappedMethodName, args.get(0), args.get(1), ordinal);
+        }
+    }
+
+    /**
+     * Write the arguments for a Java substring(beginIndex[, endIndex]) call as .NET start & length arguments, as
+     * taken by Substring and AsSpan.
+     *
+     * @param args substring arguments
+     */
+    private void writeSubstringRange(List<?> args) {
+        Expression beginIndex = (Expression) args.get(0);
+        writeNodeAtDifferentPosition(beginIndex);
+
+        if (args.size() == 2) {
+            Expression endIndex = (Expression) args.get(1);
+
+            write(", ");
+            writeParenthesizedIf(endIndex, !isAdditiveOperand(endIndex, false));
+            write(" - ");
+            writeParenthesizedIf(beginIndex, !isAdditiveOperand(beginIndex, true));
+        }
+    }
+
+    /**
+     * Determine if the expression can be an operand of a subtraction without parentheses.   A right operand can't be
+     * an additive expression itself.
+     */
+    private static boolean isAdditiveOperand(Expression expression, boolean rightOperand) {
+        if (expression instanceof ConditionalExpression || expression instanceof Assignment ||
+            expression instanceof LambdaExpression || expression instanceof InstanceofExpression)
+            return false;
+        if (!(expression instanceof InfixExpression))
+            return true;
+
+        InfixExpression.Operator operator = ((InfixExpression) expression).getOperator();
+        if (operator == InfixExpression.Operator.TIMES || operator == InfixExpression.Operator.DIVIDE ||
+            operator == InfixExpression.Operator.REMAINDER)
+            return true;
+        return !rightOperand &&
+               (operator == InfixExpression.Operator.PLUS || operator == InfixExpression.Operator.MINUS);
+    }
+
+    private void writeParenthesizedIf(Expression expression, boolean parenthesize) {
+        if (parenthesize)
+            write("(");
+        writeNodeAtDifferentPosition(expression);
+        if (parenthesize)
+            write(")");
+    }
+
+    /**
+     * Write a String.split call.   Java's split takes a regular expression & drops trailing empty strings from the
+     * result, neither of which .NET's String.Split does, so split is mapped to runtime extension methods with the Java
+     * semantics.   When the regular expression is just a single (possibly escaped) literal character, the common case
+     * for CSV & protocol parsing, SplitOrdinal is used, which scans for the char with no regular expression overhead.
+     * The extension methods are only used with -splithelpers, as they need a runtime that provides them.
+     *
+     * @param regex regular expression argument
+     */
+    private void writeSplit(Expression regex) {
+        if (!getTranslator().getTargetProfile().getSplitHelpers())
+            throw sourceNotSupported("Java method String.split is only supported with -splithelpers");
+
+        @Nullable Character separator = null;
+        if (regex instanceof StringLiteral) {
+            String value = ((StringLiteral) regex).getLiteralValue();
+            if (value.length() == 1 && ".$|()[{^?*+\\".indexOf(value.charAt(0)) == -1)
+                separator = value.charAt(0);
+            else if (value.length() == 2 && value.charAt(0) == '\\' && !Character.isLetterOrDigit(value.charAt(1)))
+                separator = value.charAt(1);
+        }
+
+        if (separator != null)
+            writeMappedMethod(nativeReference("XUniversal", "SplitOrdinal"), toCharLiteral(separator));
+        else writeMappedMethod(nativeReference("XUniversal", "SplitRegex"), regex);
+    }
+
+    private static String toCharLiteral(char c) {
+        switch (c) {
+            case '\'':
+                return "'\\''";
+            case '\\':
+                return "'\\\\'";
+            case '\t':
+                return "'\\t'";
+            case '\n':
+                return "'\\n'";
+            case '\r':
+                return "'\\r'";
+            default:
+                if (c < ' ' || c > '~')
+                    return String.format("'\\u%04x'", (int) c);
+                return "'" + c + "'";
+        }
+    }
+
+    private static boolean isStringTyped(Expression expression) {
+        return isType(expression.resolveTypeBinding(), "java.lang.String");
+    }
+
+    private static boolean isCharTyped(Expression expression) {
+        @Nullable ITypeBinding typeBinding = expression.resolveTypeBinding();
+        return typeBinding != null && typeBinding.getName().equals("char");
+    }
+
     private void verifyArgCount(ArrayList<Expression> args, int expectedArgCount) {
         if (args.size() != expectedArgCount)
             throw sourceNotSupported("Method call has " + args.size() +
@@ -0,0 +1,448 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.csharp;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+import static org.juniversal.translator.core.ASTUtil.*;
+
+/**
+ * Analysis of Java synchronization, used to lower it to cheaper .NET primitives where that preserves its meaning.
+ * <ul>
+ * <li>A synchronized block or method whose body is just a single update of a primitive field (an increment,
+ * decrement, add, or plain assignment) is written as an Interlocked operation.   That's only done for private fields
+ * whose every use in a synchronized block or method is such a single update (or a synchronized getter), as otherwise
+ * another, lock protected, compound update of the field could interleave with it.</li>
+ * <li>A synchronized getter, just returning a field, is written as a Volatile.Read of the field, which gives the same
+ * visibility guarantee without taking the lock.   That's only done for private fields of a reference type (a class,
+ * interface, or array, but not an enum or struct) or a primitive type Volatile.Read has an overload for, where every
+ * synchronized method or block writing the field writes it just once, so a reader not taking the lock never sees a
+ * value the lock would have hidden.</li>
+ * <li>Synchronized methods, and blocks synchronizing on "this" or the class, lock a lock object dedicated to that
+ * purpose, rather than the object (or Type object) itself, which any other code could lock too.   Code outside the
+ * class hierarchy synchronizing on the object then no longer excludes the hierarchy's own synchronized code.</li>
+ * </ul>
+ * Instance synchronization must exclude across the whole class hierarchy, as Java locks the one object.   So the
+ * instance lock object is a protected field declared once, by the topmost class of the hierarchy, and used by all
+ * its subclasses.   Each class is translated seeing only its superclasses' bindings, so whether that top class
+ * declares the lock is decided from its binding alone:  it does if it declares a synchronized instance method.   If
+ * it doesn't, or some superclass (other than Object) isn't part of the translation, the hierarchy keeps locking the
+ * object itself.   Static synchronization locks a different class object for each class, so each class has its own
+ * private static lock.
+ */
+public class SynchronizationAnalysis {
+    public static final String INSTANCE_LOCK = "juniversalLock";
+    public static final String STATIC_LOCK = "juniversalStaticLock";
+
+    /**
+     * Get the operation that a synchronized block or method body consists of, if it can be written as an Interlocked
+     * operation instead of under a lock.
+     *
+     * @param body synchronized block or method body
+     * @return the update expression, or null if the body must be written under a lock
+     */
+    public static @Nullable Expression getInterlockedOperation(Block body) {
+        @Nullable Expression operation = getSingleFieldUpdate(body);
+        if (operation == null || !isOnlyUpdatedAtomically(getUpdatedField(operation), body))
+            return null;
+        return operation;
+    }
+
+    /**
+     * Get the field read by a synchronized getter, whose body just returns the field, if that can be written as a
+     * Volatile.Read.
+     *
+     * @param methodDeclaration method in question
+     * @return field binding, or null if the method isn't such a getter
+     */
+    public static @Nullable IVariableBinding getVolatileReadField(MethodDeclaration methodDeclaration) {
+        @Nullable Block body = methodDeclaration.getBody();
+        if (!Modifier.isSynchronized(methodDeclaration.getModifiers()) || body == null ||
+            body.statements().size() != 1 || !(body.statements().get(0) instanceof ReturnStatement))
+            return null;
+
+        @Nullable Expression expression = ((ReturnStatement) body.statements().get(0)).getExpression();
+        @Nullable IVariableBinding field = expression == null ? null : getOwnField(expression, body);
+        if (field == null || !Modifier.isPrivate(field.getModifiers()) || Modifier.isVolatile(field.getModifiers()) ||
+            Modifier.isFinal(field.getModifiers()) || !isVolatileReadType(field.getType()) ||
+            !isOnlyWrittenOnceWhenLocked(field, body))
+            return null;
+        return field;
+    }
+
+    /**
+     * Determine if Volatile.Read supports the type:  a primitive it has an overload for (all but char), or a reference
+     * type, which Volatile.Read&lt;T&gt; requires be a class.   Enums, structs, and boxed primitives (which are
+     * written as .NET value types) aren't classes, nor are type variables, which may be bound to value types.
+     */
+    private static boolean isVolatileReadType(ITypeBinding type) {
+        if (type.isPrimitive())
+            return !type.getName().equals("char");
+        else return (type.isClass() || type.isInterface() || type.isArray()) && !type.isEnum() &&
+                    !isValueType(type) && getBoxedPrimitiveTypeName(type) == null;
+    }
+
+    /**
+     * Determine if every synchronized method or block that writes the field writes it just once, outside of any loop.
+     * A reader taking the lock then sees the same values as one that doesn't, never a value that a later write in the
+     * same synchronized code replaces.   Unsynchronized writes are racy in Java anyway, so don't matter.
+     */
+    private static boolean isOnlyWrittenOnceWhenLocked(IVariableBinding field, ASTNode node) {
+        boolean[] onlyWrittenOnce = {true};
+
+        node.getRoot().accept(new ASTVisitor() {
+            @Override public boolean visit(SimpleName simpleName) {
+                if (field.isEqualTo(simpleName.resolveBinding()) && isWrite(simpleName)) {
+                    boolean inLoop = false;
+                    for (ASTNode ancestor = simpleName.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+                        if (ancestor instanceof ForStatement || ancestor instanceof EnhancedForStatement ||
+                            ancestor instanceof WhileStatement || ancestor instanceof DoStatement)
+                            inLoop = true;
+                        else if (isSynchronized(ancestor)) {
+                            if (inLoop || countWrites(ancestor, field) > 1)
+                                onlyWrittenOnce[0] = false;
+                            break;
+                        }
+                    }
+                }
+                return false;
+            }
+
+            @Override public boolean preVisit2(ASTNode node) {
+                return onlyWrittenOnce[0];
+            }
+        });
+
+        return onlyWrittenOnce[0];
+    }
+
+    private static boolean isSynchronized(ASTNode node) {
+        return node instanceof SynchronizedStatement ||
+               node instanceof MethodDeclaration && Modifier.isSynchronized(((MethodDeclaration) node).getModifiers());
+    }
+
+    private static int countWrites(ASTNode node, IVariableBinding field) {
+        int[] writes = new int[1];
+        node.accept(new ASTVisitor() {
+            @Override public boolean visit(SimpleName simpleName) {
+                if (field.isEqualTo(simpleName.resolveBinding()) && isWrite(simpleName))
+                    ++writes[0];
+                return false;
+            }
+        });
+        return writes[0];
+    }
+
+    /**
+     * Determine if the reference to a variable, via a simple name or "this.name", assigns, increments, or decrements it.
+     */
+    private static boolean isWrite(SimpleName simpleName) {
+        ASTNode use = simpleName.getLocationInParent() == FieldAccess.NAME_PROPERTY ? simpleName.getParent() : simpleName;
+        ASTNode parent = use.getParent();
+
+        if (use.getLocationInParent() == Assignment.LEFT_HAND_SIDE_PROPERTY || parent instanceof PostfixExpression)
+            return true;
+        else if (parent instanceof PrefixExpression) {
+            PrefixExpression.Operator operator = ((PrefixExpression) parent).getOperator();
+            return operator == PrefixExpression.Operator.INCREMENT || operator == PrefixExpression.Operator.DECREMENT;
+        } else return false;
+    }
+
+    /**
+     * Determine if the lock expression of a synchronized statement refers to the object itself ("this"), so the
+     * instance lock object is used instead.
+     */
+    public static boolean isInstanceLock(Expression lockExpression) {
+        if (!(lockExpression instanceof ThisExpression))
+            return false;
+
+        @Nullable AbstractTypeDeclaration enclosingTypeDeclaration = getEnclosingTypeDeclaration(lockExpression);
+        if (enclosingTypeDeclaration == null || getInstanceLockDeclarer(enclosingTypeDeclaration.resolveBinding()) == null)
+            return false;
+
+        @Nullable Name qualifier = ((ThisExpression) lockExpression).getQualifier();
+        return qualifier == null || isEnclosingType(qualifier.resolveTypeBinding(), lockExpression);
+    }
+
+    /**
+     * Determine if the lock expression of a synchronized statement is the enclosing class's class literal, so the
+     * static lock object is used instead.
+     */
+    public static boolean isStaticLock(Expression lockExpression) {
+        return lockExpression instanceof TypeLiteral && canDeclareStaticLock(getEnclosingTypeDeclaration(lockExpression)) &&
+               isEnclosingType(((TypeLiteral) lockExpression).getType().resolveBinding(), lockExpression);
+    }
+
+    /**
+     * Get the class that declares the instance lock object used by the specified class, itself or the topmost class of
+     * its hierarchy.
+     *
+     * @param typeBinding class in question
+     * @return class declaring the instance lock, or null if the class's instance synchronization locks the object itself
+     */
+    public static @Nullable ITypeBinding getInstanceLockDeclarer(@Nullable ITypeBinding typeBinding) {
+        if (typeBinding == null)
+            return null;
+
+        ITypeBinding topClass = typeBinding.getTypeDeclaration();
+        while (true) {
+            @Nullable ITypeBinding superclass = topClass.getSuperclass();
+            if (superclass == null || isType(superclass, "java.lang.Object"))
+                break;
+            else if (!superclass.isFromSource())
+                return null;
+            topClass = superclass.getTypeDeclaration();
+        }
+
+        if (!topClass.isClass() || topClass.isAnonymous() || topClass.isLocal() || isValueType(topClass) ||
+            !anyMatch(topClass.getDeclaredMethods(), (IMethodBinding methodBinding) ->
+                    Modifier.isSynchronized(methodBinding.getModifiers()) && !isStatic(methodBinding)))
+            return null;
+        return topClass;
+    }
+
+    /**
+     * Determine if the type can have a static lock object field.   Only classes can; interfaces can't have instance
+     * fields & structs can't have field initializers.   Synchronization in other types keeps locking the Type object
+     * itself.
+     *
+     * @param typeDeclaration type in question
+     * @return true if the type can declare a static lock object
+     */
+    public static boolean canDeclareStaticLock(@Nullable AbstractTypeDeclaration typeDeclaration) {
+        return typeDeclaration instanceof TypeDeclaration && !((TypeDeclaration) typeDeclaration).isInterface() &&
+               !isValueType(typeDeclaration.resolveBinding());
+    }
+
+    /**
+     * Determine if the type declares a static lock object, because some static synchronized method or block
+     * synchronizing on the class (not nested in another type) locks it.
+     *
+     * @param typeDeclaration type in question
+     * @return true if the static lock object should be declared
+     */
+    public static boolean usesStaticLock(TypeDeclaration typeDeclaration) {
+        if (!canDeclareStaticLock(typeDeclaration))
+            return false;
+
+        boolean[] usesLock = new boolean[1];
+
+        for (MethodDeclaration methodDeclaration : typeDeclaration.getMethods()) {
+            @Nullable Block body = methodDeclaration.getBody();
+            if (Modifier.isSynchronized(methodDeclaration.getModifiers()) && body != null &&
+                Modifier.isStatic(methodDeclaration.getModifiers()) &&
+                getInterlockedOperation(body) == null && getVolatileReadField(methodDeclaration) == null)
+                usesLock[0] = true;
+        }
+
+        typeDeclaration.accept(new ASTVisitor() {
+            @Override public boolean visit(SynchronizedStatement synchronizedStatement) {
+                if (isStaticLock(synchronizedStatement.getExpression()) &&
+                    getInterlockedOperation(synchronizedStatement.getBody()) == null)
+                    usesLock[0] = true;
+                return true;
+            }
+
+            @Override public boolean visit(TypeDeclaration nestedTypeDeclaration) {
+                return nestedTypeDeclaration == typeDeclaration;
+            }
+
+            @Override public boolean visit(AnonymousClassDeclaration anonymousClassDeclaration) {
+                return false;
+            }
+        });
+
+        return usesLock[0];
+    }
+
+    /**
+     * Get the single statement of the body if it's an update of a private, non final, int or long field of the class
+     * that Interlocked supports:  ++, --, +=, -= (where the operand doesn't use the field), or assignment (which is also
+     * supported for float and double fields).
+     */
+    private static @Nullable Expression getSingleFieldUpdate(Block body) {
+        List<?> statements = body.statements();
+        if (statements.size() != 1 || !(statements.get(0) instanceof ExpressionStatement))
+            return null;
+
+        Expression expression = ((ExpressionStatement) statements.get(0)).getExpression();
+        @Nullable Expression fieldExpression;
+        @Nullable Expression operand = null;
+        if (expression instanceof PostfixExpression)
+            fieldExpression = ((PostfixExpression) expression).getOperand();
+        else if (expression instanceof PrefixExpression) {
+            PrefixExpression.Operator operator = ((PrefixExpression) expression).getOperator();
+            fieldExpression = operator == PrefixExpression.Operator.INCREMENT ||
+                              operator == PrefixExpression.Operator.DECREMENT ?
+                    ((PrefixExpression) expression).getOperand() : null;
+        } else if (expression instanceof Assignment) {
+            Assignment.Operator operator = ((Assignment) expression).getOperator();
+            fieldExpression = operator == Assignment.Operator.ASSIGN || operator == Assignment.Operator.PLUS_ASSIGN ||
+                              operator == Assignment.Operator.MINUS_ASSIGN ?
+                    ((Assignment) expression).getLeftHandSide() : null;
+            operand = ((Assignment) expression).getRightHandSide();
+        } else return null;
+
+        @Nullable IVariableBinding field = fieldExpression == null ? null : getOwnField(fieldExpression, body);
+        if (field == null || !Modifier.isPrivate(field.getModifiers()) || Modifier.isVolatile(field.getModifiers()) ||
+            Modifier.isFinal(field.getModifiers()))
+            return null;
+
+        String typeName = field.getType().getName();
+        boolean isAssignment = expression instanceof Assignment &&
+                               ((Assignment) expression).getOperator() == Assignment.Operator.ASSIGN;
+        if (!(typeName.equals("int") || typeName.equals("long") ||
+              isAssignment && (typeName.equals("float") || typeName.equals("double"))))
+            return null;
+
+        // Java compound assignments narrow implicitly, but the Interlocked.Add operand must already be of the field type
+        if (operand != null && (usesField(operand, field) ||
+                                !isAssignment && !operand.resolveTypeBinding().isAssignmentCompatible(field.getType())))
+            return null;
+
+        return expression;
+    }
+
+    /**
+     * Get the field expression (a simple name or "this.name") updated by an operation returned by {@link
+     * #getInterlockedOperation(Block)}.
+     */
+    public static Expression getUpdatedFieldExpression(Expression operation) {
+        if (operation instanceof PostfixExpression)
+            return ((PostfixExpression) operation).getOperand();
+        else if (operation instanceof PrefixExpression)
+            return ((PrefixExpression) operation).getOperand();
+        else return ((Assignment) operation).getLeftHandSide();
+    }
+
+    private static IVariableBinding getUpdatedField(Expression operation) {
+        Expression fieldExpression = getUpdatedFieldExpression(operation);
+        if (fieldExpression instanceof FieldAccess)
+            return ((FieldAccess) fieldExpression).resolveFieldBinding();
+        else return (IVariableBinding) ((SimpleName) fieldExpression).resolveBinding();
+    }
+
+    /**
+     * Determine if every use of the field in synchronized code is an update that's lowered to an Interlocked
+     * operation (or a read in a synchronized getter), so no lock protected code relies on the field not changing.
+     */
+    private static boolean isOnlyUpdatedAtomically(IVariableBinding field, ASTNode node) {
+        boolean[] onlyAtomic = {true};
+
+        node.getRoot().accept(new ASTVisitor() {
+            @Override public boolean visit(SimpleName simpleName) {
+                if (field.isEqualTo(simpleName.resolveBinding()) && !isAtomicUse(simpleName, field))
+                    onlyAtomic[0] = false;
+                return false;
+            }
+
+            @Override public boolean preVisit2(ASTNode node) {
+                return onlyAtomic[0];
+            }
+        });
+
+        return onlyAtomic[0];
+    }
+
+    private static boolean isAtomicUse(SimpleName simpleName, IVariableBinding field) {
+        for (ASTNode ancestor = simpleName.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            @Nullable Block synchronizedBody = null;
+            if (ancestor instanceof SynchronizedStatement)
+                synchronizedBody = ((SynchronizedStatement) ancestor).getBody();
+            else if (ancestor instanceof MethodDeclaration) {
+                MethodDeclaration methodDeclaration = (MethodDeclaration) ancestor;
+                if (!Modifier.isSynchronized(methodDeclaration.getModifiers()))
+                    continue;
+                if (field.isEqualTo(getVolatileReadField(methodDeclaration)))
+                    return true;
+                synchronizedBody = methodDeclaration.getBody();
+            }
+
+            if (synchronizedBody != null) {
+                @Nullable Expression update = getSingleFieldUpdate(synchronizedBody);
+                return update != null && field.isEqualTo(getUpdatedField(update));
+            }
+        }
+
+        // Unsynchronized uses are racy in Java anyway, so don't need the lock
+        return true;
+    }
+
+    /**
+     * Get the field an expression refers to, if it's a field of the class enclosing the node referenced via a simple
+     * name or "this.name".
+     */
+    private static @Nullable IVariableBinding getOwnField(Expression expression, ASTNode node) {
+        @Nullable IBinding binding;
+        if (expression instanceof SimpleName)
+            binding = ((SimpleName) expression).resolveBinding();
+        else if (expression instanceof FieldAccess &&
+                 ((FieldAccess) expression).getExpression() instanceof ThisExpression &&
+                 ((ThisExpression) ((FieldAccess) expression).getExpression()).getQualifier() == null)
+            binding = ((FieldAccess) expression).resolveFieldBinding();
+        else return null;
+
+        if (!(binding instanceof IVariableBinding) || !((IVariableBinding) binding).isField())
+            return null;
+
+        IVariableBinding field = (IVariableBinding) binding;
+        return isEnclosingType(field.getDeclaringClass(), node) ? field : null;
+    }
+
+    private static boolean usesField(Expression expression, IVariableBinding field) {
+        boolean[] usesField = new boolean[1];
+        expression.accept(new ASTVisitor() {
+            @Override public boolean visit(SimpleName simpleName) {
+                if (field.isEqualTo(simpleName.resolveBinding()))
+                    usesField[0] = true;
+                return false;
+            }
+        });
+        return usesField[0];
+    }
+
+    private static boolean isEnclosingType(@Nullable ITypeBinding typeBinding, ASTNode node) {
+        @Nullable AbstractTypeDeclaration enclosingTypeDeclaration = getEnclosingTypeDeclaration(node);
+        if (typeBinding == null || enclosingTypeDeclaration == null)
+            return false;
+
+        @Nullable ITypeBinding enclosingType = enclosingTypeDeclaration.resolveBinding();
+        return enclosingType != null && enclosingType.isEqualTo(typeBinding.getTypeDeclaration());
+    }
+
+    /**
+     * Get the type declaration enclosing the node, or null if the node is inside an anonymous class.
+     */
+    private static @Nullable AbstractTypeDeclaration getEnclosingTypeDeclaration(ASTNode node) {
+        for (ASTNode ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            if (ancestor instanceof AbstractTypeDeclaration)
+                return (AbstractTypeDeclaration) ancestor;
+            else if (ancestor instanceof AnonymousClassDeclaration)
+                return null;
+        }
+        return null;
+    }
+}
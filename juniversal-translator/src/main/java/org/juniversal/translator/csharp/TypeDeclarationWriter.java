@@ -36,6 +36,7 @@ public class TypeDeclarationWriter extends CSharpASTNodeWriter<TypeDeclaration>
 
     @Override
     public void write(TypeDeclaration typeDeclaration) {
+        int typeColumn = getTargetColumn();
         @Nullable AbstractTypeDeclaration outerTypeDeclaration = getContext().getTypeDeclaration();
         getContext().setTypeDeclaration(typeDeclaration);
 
@@ -56,12 +57,17 @@ public class TypeDeclarationWriter extends CSharpASTNodeWriter<TypeDeclaration>
 
             boolean isInterface = typeDeclaration.isInterface();
 
+            // Value types become structs, which are implicitly sealed
+            boolean isValueType = isValueType(typeDeclaration.resolveBinding());
+            if (isValueType)
+                ensureValidValueType(typeDeclaration);
+
             List typeParameters = typeDeclaration.typeParameters();
             boolean isGeneric = !typeParameters.isEmpty();
 
             writeAccessModifier(modifiers);
 
-            if (isFinal(typeDeclaration))
+            if (isFinal(typeDeclaration) && !isValueType)
                 writeSealedModifier();
             else if (isAbstract(typeDeclaration))
                 writeAbstractModifier();
@@ -71,6 +77,8 @@ public class TypeDeclarationWriter extends CSharpASTNodeWriter<TypeDeclaration>
 
             if (isInterface)
                 matchAndWrite("interface");
+            else if (isValueType)
+                matchAndWrite("class", "struct");
             else
                 matchAndWrite("class");
 
@@ -107,6 +115,8 @@ public class TypeDeclarationWriter extends CSharpASTNodeWriter<TypeDeclaration>
                 writeNode(bodyDeclaration);
             });
 
+            writeLockObjects(typeDeclaration, typeColumn + getPreferredIndent());
+
             copySpaceAndComments();
             matchAndWrite("}");
         } finally {
@@ -114,6 +124,33 @@ public class TypeDeclarationWriter extends CSharpASTNodeWriter<TypeDeclaration>
         }
     }
 
+    /**
+     * Declare the lock objects used by synchronized methods & blocks, in place of locking the object (or its Type)
+     * itself.   The instance lock is shared with subclasses, so is protected unless the class is sealed.
+     */
+    private void writeLockObjects(TypeDeclaration typeDeclaration, int memberColumn) {
+        @Nullable ITypeBinding typeBinding = typeDeclaration.resolveBinding();
+        @Nullable ITypeBinding instanceLockDeclarer = SynchronizationAnalysis.getInstanceLockDeclarer(typeBinding);
+        boolean declaresInstanceLock = instanceLockDeclarer != null && instanceLockDeclarer.isEqualTo(typeBinding);
+        boolean usesStaticLock = SynchronizationAnalysis.usesStaticLock(typeDeclaration);
+
+        if (declaresInstanceLock || usesStaticLock)
+            writeln();
+
+        if (declaresInstanceLock) {
+            writeln();
+            indentToColumn(memberColumn);
+            write((isFinal(typeDeclaration) ? "private" : "protected") + " readonly object " +
+                  SynchronizationAnalysis.INSTANCE_LOCK + " = new object();");
+        }
+
+        if (usesStaticLock) {
+            writeln();
+            indentToColumn(memberColumn);
+            write("private static readonly object " + SynchronizationAnalysis.STATIC_LOCK + " = new object();");
+        }
+    }
+
     private void writeFunctionalInterfaceAsDelegate(TypeDeclaration typeDeclaration) {
         MethodDeclaration functionalInterfaceMethod = getFunctionalInterfaceMethod(typeDeclaration);
 
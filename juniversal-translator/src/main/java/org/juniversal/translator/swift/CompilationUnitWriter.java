@@ -39,7 +39,13 @@ public class CompilationUnitWriter extends SwiftASTNodeWriter {
 
 		AbstractTypeDeclaration mainTypeDeclaration = ASTUtil.getFirstTypeDeclaration(compilationUnit);
 
-		setPosition(mainTypeDeclaration.getStartPosition());
+		// Swift has no packages or imports within a module, so just the type is written, with the comments before it
+		setPositionToStartOfNodeSpaceAndComments(mainTypeDeclaration);
+		copySpaceAndComments();
+		writeNode(mainTypeDeclaration);
+		copySpaceAndComments();
+
+		setPositionToEndOfNode(compilationUnit);
 
 /*
 		if (context.getOutputType() == OutputType.HEADER_FILE)
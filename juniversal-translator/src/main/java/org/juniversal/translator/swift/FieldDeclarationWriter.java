@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.swift;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import static org.juniversal.translator.core.ASTUtil.forEach;
+import static org.juniversal.translator.core.ASTUtil.isFinal;
+import static org.juniversal.translator.core.ASTUtil.isStatic;
+
+
+public class FieldDeclarationWriter extends SwiftASTNodeWriter<FieldDeclaration> {
+    public FieldDeclarationWriter(SwiftTranslator translator) {
+        super(translator);
+    }
+
+    /**
+     * Final fields become constants (let), others variables (var), with the type following each name.
+     */
+    @Override
+    public void write(FieldDeclaration fieldDeclaration) {
+        write(ValueSemanticsAnalysis.getAccessModifier(fieldDeclaration));
+        if (isStatic(fieldDeclaration))
+            write("static ");
+        write(isFinal(fieldDeclaration) ? "let " : "var ");
+
+        // Skip the modifiers & type; the type is written after each variable name
+        Type type = fieldDeclaration.getType();
+        setPositionToEndOfNode(type);
+
+        forEach(fieldDeclaration.fragments(), (VariableDeclarationFragment fragment, boolean first) -> {
+            if (first)
+                skipSpaceAndComments();
+            else {
+                copySpaceAndComments();
+                matchAndWrite(",");
+
+                copySpaceAndComments();
+            }
+
+            if (fragment.getExtraDimensions() > 0)
+                throw sourceNotSupported("\"int foo[]\" syntax not currently supported; use \"int[] foo\" instead");
+
+            writeNode(fragment.getName());
+            write(": ");
+            writeNodeAtDifferentPosition(type);
+
+            @Nullable Expression initializer = fragment.getInitializer();
+            if (initializer != null) {
+                copySpaceAndComments();
+                matchAndWrite("=");
+
+                copySpaceAndComments();
+                writeNode(initializer);
+            }
+        });
+
+        copySpaceAndComments();
+        match(";");
+    }
+}
@@ -28,10 +28,12 @@ import org.juniversal.translator.core.JavaSourceContext;
 
 import java.util.List;
 
+import static org.juniversal.translator.core.ASTUtil.anyMatch;
+import static org.juniversal.translator.core.ASTUtil.anySuperclassMatch;
+import static org.juniversal.translator.core.ASTUtil.isStatic;
 
-public class MethodDeclarationWriter extends SwiftASTNodeWriter {
-    private SwiftTranslator swiftASTWriters;
 
+public class MethodDeclarationWriter extends SwiftASTNodeWriter {
     public MethodDeclarationWriter(SwiftTranslator swiftASTWriters) {
         super(swiftASTWriters);
     }
@@ -67,10 +69,25 @@ public class MethodDeclarationWriter extends SwiftASTNodeWriter {
                 write("virtual ");
         }
 */
+        AbstractTypeDeclaration typeDeclaration = getContext().getTypeDeclaration();
+        boolean isInterface = typeDeclaration instanceof TypeDeclaration && ((TypeDeclaration) typeDeclaration).isInterface();
+
+        // Protocol requirements take no access modifier.   Methods that can't be overridden are final, so calls to
+        // them are statically dispatched
+        if (!isInterface)
+            write(ValueSemanticsAnalysis.getAccessModifier(methodDeclaration));
+        if (isStatic(methodDeclaration))
+            write("static ");
+        else if (ValueSemanticsAnalysis.isFinal(methodDeclaration))
+            write("final ");
+        if (isOverride(methodDeclaration))
+            write("override ");
+
         skipModifiers(methodDeclaration.modifiers());
-        copySpaceAndComments();
+        skipSpaceAndComments();
 
-        write("func ");
+        if (!methodDeclaration.isConstructor())
+            write("func ");
 
         // Get return type if present
         @Nullable Type returnType = null;
@@ -83,7 +100,7 @@ public class MethodDeclarationWriter extends SwiftASTNodeWriter {
 
         SimpleName name = methodDeclaration.getName();
         setPositionToStartOfNode(name);
-        matchAndWrite(name.getIdentifier());
+        matchAndWrite(name.getIdentifier(), methodDeclaration.isConstructor() ? "init" : name.getIdentifier());
         copySpaceAndComments();
 
         // TODO: Implement this
@@ -110,7 +127,23 @@ public class MethodDeclarationWriter extends SwiftASTNodeWriter {
         // TODO: Implement this
         //writeSuperConstructorInvocation(methodDeclaration, context);
 
-        swiftASTWriters.writeNode(methodDeclaration.getBody());
+        @Nullable Block body = methodDeclaration.getBody();
+        if (body != null)
+            writeNode(body);
+        else setPositionToEndOfNode(methodDeclaration);
+    }
+
+    /**
+     * Determine if the method overrides a superclass method, which Swift requires be marked explicitly.   Protocol
+     * (Java interface) method implementations aren't overrides.
+     */
+    private boolean isOverride(MethodDeclaration methodDeclaration) {
+        @Nullable IMethodBinding methodBinding = methodDeclaration.resolveBinding();
+        if (methodBinding == null || methodBinding.isConstructor())
+            return false;
+
+        return anySuperclassMatch(methodBinding.getDeclaringClass(), superclass ->
+                anyMatch(superclass.getDeclaredMethods(), methodBinding::overrides));
     }
 
     private void writeParameterList(MethodDeclaration methodDeclaration) {
@@ -128,7 +161,7 @@ public class MethodDeclarationWriter extends SwiftASTNodeWriter {
                 copySpaceAndComments();
             }
 
-            swiftASTWriters.writeNode(singleVariableDeclaration);
+            writeNode(singleVariableDeclaration);
             copySpaceAndComments();
 
             first = false;
@@ -214,7 +247,7 @@ public class MethodDeclarationWriter extends SwiftASTNodeWriter {
             }
 
             copySpaceAndComments();
-            swiftASTWriters.writeNode(argument);
+            writeNode(argument);
 
             first = false;
         }
@@ -30,10 +30,16 @@ import org.xuniversal.translator.swift.SwiftTargetWriter;
 import java.io.*;
 
 public class SwiftTranslator extends Translator {
-    private SwiftTargetProfile targetProfile = new SwiftTargetProfile();
+    private SwiftTargetProfile targetProfile;
     private SwiftContext context;
 
     public SwiftTranslator() {
+        this(new SwiftTargetProfile());
+    }
+
+    public SwiftTranslator(SwiftTargetProfile targetProfile) {
+        this.targetProfile = targetProfile;
+
         addDeclarationWriters();
         addStatementWriters();
         addExpressionWriters();
@@ -61,6 +67,10 @@ public class SwiftTranslator extends Translator {
         return new SwiftTargetWriter(writer, targetProfile);
     }
 
+    @Override protected SwiftTranslator newTranslator() {
+        return new SwiftTranslator(targetProfile);
+    }
+
     @Override public void translateFile(JavaSourceFile sourceFile) {
         try (SwiftTargetWriter targetWriter = createTargetWriter(createTargetFileWriter(sourceFile, ".swift"))) {
             context = new SwiftContext(sourceFile, targetWriter);
@@ -70,7 +80,8 @@ public class SwiftTranslator extends Translator {
 
     @Override public String translateNode(JavaSourceFile sourceFile, ASTNode astNode) {
         try (StringWriter writer = new StringWriter()) {
-            context = new SwiftContext(sourceFile, createTargetWriter(writer));
+            SwiftTargetWriter targetWriter = createTargetWriter(writer);
+            context = new SwiftContext(sourceFile, targetWriter);
 
             // Set the type declaration part of the context
             AbstractTypeDeclaration typeDeclaration = ASTUtil.getFirstTypeDeclaration(sourceFile.getCompilationUnit());
@@ -78,6 +89,8 @@ public class SwiftTranslator extends Translator {
 
             writeRootNode(astNode);
 
+            // Flush what the target writer has buffered
+            targetWriter.close();
             return writer.getBuffer().toString();
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -102,9 +115,7 @@ public class SwiftTranslator extends Translator {
 
         // TODO: Implement this
         // Field declaration
-/*
         addWriter(FieldDeclaration.class, new FieldDeclarationWriter(this));
-*/
 
         // TODO: Implement this
         // Variable declaration fragment
@@ -148,6 +159,10 @@ public class SwiftTranslator extends Translator {
                 writeNode(name);
                 write(": ");
 
+                // Hint when the parameter is consumed (stored by a method) or just borrowed (by an initializer),
+                // saving a retain/release pair at the call
+                write(ValueSemanticsAnalysis.getOwnershipModifier(singleVariableDeclaration));
+
                 int endOfNamePosition = getPosition();
 
                 Type type = singleVariableDeclaration.getType();
@@ -23,11 +23,14 @@
 package org.juniversal.translator.swift;
 
 import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
+import static org.juniversal.translator.core.ASTUtil.forEach;
 
-public class TypeDeclarationWriter extends SwiftASTNodeWriter {
-    private SwiftTranslator swiftASTWriters;
 
+public class TypeDeclarationWriter extends SwiftASTNodeWriter {
     public TypeDeclarationWriter(SwiftTranslator swiftASTWriters) {
         super(swiftASTWriters);
     }
@@ -38,11 +41,78 @@ public class TypeDeclarationWriter extends SwiftASTNodeWriter {
 		AbstractTypeDeclaration oldTypeDeclaration = getContext().getTypeDeclaration();
         getContext().setTypeDeclaration(typeDeclaration);
 
-        //new WriteTypeDeclaration(typeDeclaration, context, swiftASTWriters);
+        try {
+            if (!typeDeclaration.typeParameters().isEmpty())
+                throw sourceNotSupported("Generic types aren't currently supported for Swift");
+
+            // Final, immutable classes become structs, which are copied rather than reference counted; other
+            // classes are final when nothing can subclass them, so their methods are statically dispatched
+            boolean isInterface = typeDeclaration.isInterface();
+            boolean isStruct = ValueSemanticsAnalysis.isStruct(typeDeclaration);
+
+            List<?> modifiers = typeDeclaration.modifiers();
+            write(ValueSemanticsAnalysis.getAccessModifier(typeDeclaration));
+            if (!isStruct && ValueSemanticsAnalysis.isFinal(typeDeclaration))
+                write("final ");
+
+            skipModifiers(modifiers);
+            skipSpaceAndComments();
+
+            if (isInterface)
+                matchAndWrite("interface", "protocol");
+            else matchAndWrite("class", isStruct ? "struct" : "class");
+
+            copySpaceAndComments();
+            matchAndWrite(typeDeclaration.getName().getIdentifier());
+
+            writeSuperClassAndInterfaces(typeDeclaration);
+
+            copySpaceAndComments();
+            matchAndWrite("{");
+
+            forEach(typeDeclaration.bodyDeclarations(), (BodyDeclaration bodyDeclaration) -> {
+                copySpaceAndComments();
+                writeNode(bodyDeclaration);
+            });
 
-        getContext().setTypeDeclaration(oldTypeDeclaration);
+            copySpaceAndComments();
+            matchAndWrite("}");
+        } finally {
+            getContext().setTypeDeclaration(oldTypeDeclaration);
+        }
 	}
 
+    private void writeSuperClassAndInterfaces(TypeDeclaration typeDeclaration) {
+        @Nullable Type superclassType = typeDeclaration.getSuperclassType();
+
+        if (superclassType != null) {
+            copySpaceAndComments();
+            matchAndWrite("extends", ":");
+
+            copySpaceAndComments();
+            writeNode(superclassType);
+        }
+
+        // Swift lists the superclass & protocols together, separated by commas
+        forEach(typeDeclaration.superInterfaceTypes(), (Type superInterfaceType, boolean first) -> {
+            if (first) {
+                if (superclassType == null) {
+                    copySpaceAndComments();
+                    matchAndWrite(typeDeclaration.isInterface() ? "extends" : "implements", ":");
+                } else {
+                    skipSpaceAndComments();
+                    matchAndWrite("implements", ",");
+                }
+            } else {
+                copySpaceAndComments();
+                matchAndWrite(",");
+            }
+
+            copySpaceAndComments();
+            writeNode(superInterfaceType);
+        });
+    }
+
 /*
     public WriteTypeDeclaration(TypeDeclaration typeDeclaration, Context context, SwiftASTWriters astWriters) {
         this.typeDeclaration = typeDeclaration;
@@ -0,0 +1,474 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.swift;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.juniversal.translator.core.ASTUtil.anyAncestorMatch;
+import static org.juniversal.translator.core.ASTUtil.anyMatch;
+import static org.juniversal.translator.core.ASTUtil.forEach;
+
+/**
+ * Analysis used to generate Swift that avoids reference counting & dynamic dispatch where the Java semantics allow it.
+ * <ul>
+ * <li>A final, immutable class becomes a struct.   As no field can change, a copy can't be told apart from the
+ * original, except by identity, so the class must not be compared with == or != or synchronized on.   It must also
+ * override equals & hashCode, so collections compare its instances by value too, and never be null, which a struct
+ * can't be, or be used as an Object or interface, where identity could be used by code that isn't checked (like
+ * IdentityHashMap).   Those checks are only done within the compilation unit, which is all the translator sees at
+ * once, so only private nested classes, which nothing outside the file can use, are considered.</li>
+ * <li>Classes and methods are marked final when the JDT bindings prove nothing overrides them, so calls to them are
+ * statically dispatched.   Java private members are private (or fileprivate when used by a nested type).</li>
+ * <li>Reference parameters of methods that can't be overridden get ownership hints:  __owned for a method parameter
+ * that's stored in a field or returned, so the caller passes its reference rather than retaining a new one, and
+ * __shared for an initializer parameter that's only used during the call, so it isn't retained at all.</li>
+ * </ul>
+ */
+public class ValueSemanticsAnalysis {
+    /**
+     * Determine if the class can be written as a Swift struct.
+     *
+     * @param typeDeclaration class in question
+     * @return true if the class is private, final, immutable, has value equality, and its identity is never used
+     */
+    public static boolean isStruct(TypeDeclaration typeDeclaration) {
+        @Nullable ITypeBinding typeBinding = typeDeclaration.resolveBinding();
+        if (typeBinding == null || typeDeclaration.isInterface() || !isFinal(typeDeclaration) ||
+            typeDeclaration.getSuperclassType() != null || !typeBinding.isMember() ||
+            !Modifier.isPrivate(typeBinding.getModifiers()) || !Modifier.isStatic(typeBinding.getModifiers()))
+            return false;
+
+        for (FieldDeclaration fieldDeclaration : typeDeclaration.getFields()) {
+            if (Modifier.isStatic(fieldDeclaration.getModifiers()))
+                continue;
+
+            // Arrays are values in Swift, so an array field would no longer be shared between copies
+            @Nullable ITypeBinding fieldType = fieldDeclaration.getType().resolveBinding();
+            if (!Modifier.isFinal(fieldDeclaration.getModifiers()) || fieldType == null || fieldType.isArray() ||
+                fieldType.isEqualTo(typeBinding))
+                return false;
+        }
+
+        boolean overridesEquals = false, overridesHashCode = false;
+        for (MethodDeclaration methodDeclaration : typeDeclaration.getMethods()) {
+            if (Modifier.isSynchronized(methodDeclaration.getModifiers()) ||
+                methodDeclaration.getName().getIdentifier().equals("finalize") &&
+                methodDeclaration.parameters().isEmpty())
+                return false;
+
+            @Nullable IMethodBinding methodBinding = methodDeclaration.resolveBinding();
+            if (methodBinding != null && !Modifier.isStatic(methodBinding.getModifiers())) {
+                if (isEqualsMethod(methodBinding))
+                    overridesEquals = true;
+                else if (methodBinding.getName().equals("hashCode") && methodBinding.getParameterTypes().length == 0)
+                    overridesHashCode = true;
+            }
+        }
+        if (!overridesEquals || !overridesHashCode)
+            return false;
+
+        return !isIdentityUsed(typeBinding, typeDeclaration.getRoot());
+    }
+
+    private static boolean isEqualsMethod(IMethodBinding methodBinding) {
+        ITypeBinding[] parameterTypes = methodBinding.getParameterTypes();
+        return methodBinding.getName().equals("equals") && parameterTypes.length == 1 &&
+               parameterTypes[0].getQualifiedName().equals("java.lang.Object");
+    }
+
+    /**
+     * Determine if the class can be marked final:  it's declared final, or it's private or local and nothing in the
+     * compilation unit subclasses it.
+     */
+    public static boolean isFinal(TypeDeclaration typeDeclaration) {
+        @Nullable ITypeBinding typeBinding = typeDeclaration.resolveBinding();
+        if (typeBinding == null || typeDeclaration.isInterface())
+            return false;
+
+        if (Modifier.isFinal(typeDeclaration.getModifiers()))
+            return true;
+        if (!Modifier.isPrivate(typeDeclaration.getModifiers()) && !typeBinding.isLocal())
+            return false;
+
+        return !isSubclassed(typeBinding, typeDeclaration.getRoot());
+    }
+
+    /**
+     * Determine if the method should be marked final:  it's an instance method of a class that isn't itself final
+     * (where it would be redundant), and it's declared final or private so can't be overridden.
+     */
+    public static boolean isFinal(MethodDeclaration methodDeclaration) {
+        ASTNode parent = methodDeclaration.getParent();
+        if (!(parent instanceof TypeDeclaration) || ((TypeDeclaration) parent).isInterface() ||
+            isFinal((TypeDeclaration) parent) || methodDeclaration.isConstructor() ||
+            Modifier.isStatic(methodDeclaration.getModifiers()))
+            return false;
+
+        return Modifier.isFinal(methodDeclaration.getModifiers()) ||
+               Modifier.isPrivate(methodDeclaration.getModifiers());
+    }
+
+    /**
+     * Get the Swift access modifier for a declaration, with a trailing space, or the empty string for internal
+     * access (which Java package private & protected members get).   Java private is file scoped for nested types,
+     * so a private member used outside its own type (by a nested or outer type) is fileprivate.
+     */
+    public static String getAccessModifier(BodyDeclaration bodyDeclaration) {
+        int modifiers = bodyDeclaration.getModifiers();
+        if (Modifier.isPublic(modifiers))
+            return "public ";
+        else if (!Modifier.isPrivate(modifiers))
+            return "";
+
+        ASTNode declaringType = bodyDeclaration.getParent();
+        if (!(declaringType instanceof AbstractTypeDeclaration))
+            return "fileprivate ";
+
+        for (IBinding binding : getDeclaredBindings(bodyDeclaration)) {
+            if (binding == null || !isOnlyUsedWithin(binding, (AbstractTypeDeclaration) declaringType))
+                return "fileprivate ";
+        }
+        return "private ";
+    }
+
+    /**
+     * Get the ownership modifier for a parameter, with a trailing space, or the empty string if it should use the
+     * default convention (borrowed for methods, owned for initializers).   Ownership is part of the method signature,
+     * which overrides must match, so it's only changed for methods that can't be overridden & don't override
+     * anything.
+     */
+    public static String getOwnershipModifier(SingleVariableDeclaration parameter) {
+        if (!(parameter.getParent() instanceof MethodDeclaration) || parameter.isVarargs() ||
+            parameter.getType().isPrimitiveType())
+            return "";
+
+        MethodDeclaration methodDeclaration = (MethodDeclaration) parameter.getParent();
+        @Nullable Block body = methodDeclaration.getBody();
+        @Nullable IVariableBinding variableBinding = parameter.resolveBinding();
+        if (body == null || variableBinding == null || !hasFixedSignature(methodDeclaration))
+            return "";
+
+        boolean isStored = isStored(variableBinding, body);
+        if (methodDeclaration.isConstructor())
+            return isStored ? "" : "__shared ";
+        else return isStored ? "__owned " : "";
+    }
+
+    private static boolean hasFixedSignature(MethodDeclaration methodDeclaration) {
+        @Nullable IMethodBinding methodBinding = methodDeclaration.resolveBinding();
+        if (methodBinding == null)
+            return false;
+
+        int modifiers = methodBinding.getModifiers();
+        if (methodBinding.isConstructor() || Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers))
+            return true;
+
+        if (!Modifier.isFinal(modifiers) && !(methodDeclaration.getParent() instanceof TypeDeclaration &&
+                                              isFinal((TypeDeclaration) methodDeclaration.getParent())))
+            return false;
+
+        return !anyAncestorMatch(methodBinding.getDeclaringClass(), ancestor ->
+                anyMatch(ancestor.getDeclaredMethods(), (IMethodBinding ancestorMethod) ->
+                        methodBinding.overrides(ancestorMethod)));
+    }
+
+    /**
+     * Determine if the parameter's value is kept past the call:  assigned to a field or returned.
+     */
+    private static boolean isStored(IVariableBinding variableBinding, Block body) {
+        boolean[] isStored = new boolean[1];
+
+        body.accept(new ASTVisitor() {
+            @Override public boolean visit(SimpleName simpleName) {
+                if (!variableBinding.isEqualTo(simpleName.resolveBinding()))
+                    return false;
+
+                ASTNode parent = simpleName.getParent();
+                if (parent instanceof ReturnStatement)
+                    isStored[0] = true;
+                else if (parent instanceof Assignment &&
+                         simpleName.getLocationInParent() == Assignment.RIGHT_HAND_SIDE_PROPERTY) {
+                    Expression leftHandSide = ((Assignment) parent).getLeftHandSide();
+                    if (leftHandSide instanceof FieldAccess || leftHandSide instanceof QualifiedName ||
+                        leftHandSide instanceof SimpleName &&
+                        ((SimpleName) leftHandSide).resolveBinding() instanceof IVariableBinding &&
+                        ((IVariableBinding) ((SimpleName) leftHandSide).resolveBinding()).isField())
+                        isStored[0] = true;
+                }
+                return false;
+            }
+        });
+
+        return isStored[0];
+    }
+
+    private static boolean isSubclassed(ITypeBinding typeBinding, ASTNode root) {
+        boolean[] isSubclassed = new boolean[1];
+
+        root.accept(new ASTVisitor() {
+            @Override public boolean visit(TypeDeclaration typeDeclaration) {
+                checkSuperclass(typeDeclaration.resolveBinding());
+                return true;
+            }
+
+            @Override public boolean visit(AnonymousClassDeclaration anonymousClassDeclaration) {
+                checkSuperclass(anonymousClassDeclaration.resolveBinding());
+                return true;
+            }
+
+            private void checkSuperclass(@Nullable ITypeBinding subclassBinding) {
+                @Nullable ITypeBinding superclass = subclassBinding == null ? null : subclassBinding.getSuperclass();
+                if (superclass != null && superclass.getTypeDeclaration().isEqualTo(typeBinding))
+                    isSubclassed[0] = true;
+            }
+        });
+
+        return isSubclassed[0];
+    }
+
+    /**
+     * Determine if the identity of instances of the type is, or could be, used:  by comparing references, synchronizing
+     * on them, using them as an Object or interface (other than to call equals), putting them in an IdentityHashMap,
+     * or using null for them, including leaving a field or array element null by default.
+     */
+    private static boolean isIdentityUsed(ITypeBinding typeBinding, ASTNode root) {
+        boolean[] isIdentityUsed = new boolean[1];
+
+        root.accept(new ASTVisitor() {
+            @Override public void preVisit(ASTNode node) {
+                if (!(node instanceof Expression))
+                    return;
+
+                Expression expression = (Expression) node;
+                @Nullable ITypeBinding convertedType = getConvertedType(expression);
+                if (convertedType == null)
+                    return;
+
+                if (expression instanceof NullLiteral) {
+                    if (isType(convertedType))
+                        isIdentityUsed[0] = true;
+                } else if (isOfType(expression) && !isType(convertedType) && !isEqualsArgument(expression))
+                    isIdentityUsed[0] = true;
+            }
+
+            @Override public boolean visit(ParameterizedType parameterizedType) {
+                @Nullable ITypeBinding parameterizedTypeBinding = parameterizedType.resolveBinding();
+                if (parameterizedTypeBinding != null &&
+                    parameterizedTypeBinding.getErasure().getQualifiedName().equals("java.util.IdentityHashMap")) {
+                    for (ITypeBinding typeArgument : parameterizedTypeBinding.getTypeArguments()) {
+                        if (isType(typeArgument))
+                            isIdentityUsed[0] = true;
+                    }
+                }
+                return true;
+            }
+
+            @Override public boolean visit(FieldDeclaration fieldDeclaration) {
+                // A field that's not final & not initialized starts out null
+                if (!Modifier.isFinal(fieldDeclaration.getModifiers())) {
+                    forEach(fieldDeclaration.fragments(), (VariableDeclarationFragment fragment) -> {
+                        @Nullable IVariableBinding variableBinding = fragment.resolveBinding();
+                        if (fragment.getInitializer() == null && variableBinding != null &&
+                            isType(variableBinding.getType()))
+                            isIdentityUsed[0] = true;
+                    });
+                }
+                return true;
+            }
+
+            @Override public boolean visit(ArrayCreation arrayCreation) {
+                // Elements of an array created without an initializer start out null
+                @Nullable ITypeBinding arrayType = arrayCreation.resolveTypeBinding();
+                if (arrayCreation.getInitializer() == null && arrayType != null && isType(arrayType.getElementType()))
+                    isIdentityUsed[0] = true;
+                return true;
+            }
+
+            @Override public boolean visit(InfixExpression infixExpression) {
+                InfixExpression.Operator operator = infixExpression.getOperator();
+                if ((operator == InfixExpression.Operator.EQUALS || operator == InfixExpression.Operator.NOT_EQUALS) &&
+                    (isOfType(infixExpression.getLeftOperand()) || isOfType(infixExpression.getRightOperand())))
+                    isIdentityUsed[0] = true;
+                return true;
+            }
+
+            @Override public boolean visit(SynchronizedStatement synchronizedStatement) {
+                if (isOfType(synchronizedStatement.getExpression()))
+                    isIdentityUsed[0] = true;
+                return true;
+            }
+
+            private boolean isOfType(Expression expression) {
+                @Nullable ITypeBinding expressionType = expression.resolveTypeBinding();
+                return expressionType != null && isType(expressionType);
+            }
+
+            private boolean isType(ITypeBinding otherTypeBinding) {
+                return otherTypeBinding.getTypeDeclaration().isEqualTo(typeBinding);
+            }
+        });
+
+        return isIdentityUsed[0];
+    }
+
+    /**
+     * Get the type that the value of the expression is converted to by where it's used:  the type of the variable it's
+     * assigned to, the parameter it's passed for, the type returned, or the type it's cast to.
+     *
+     * @param expression expression in question
+     * @return type the value is converted to, or null if the value isn't converted (e.g. it's just used to call a
+     * method)
+     */
+    private static @Nullable ITypeBinding getConvertedType(Expression expression) {
+        Expression use = expression;
+        while (use.getParent() instanceof ParenthesizedExpression)
+            use = (Expression) use.getParent();
+
+        StructuralPropertyDescriptor locationInParent = use.getLocationInParent();
+        ASTNode parent = use.getParent();
+
+        if (locationInParent == VariableDeclarationFragment.INITIALIZER_PROPERTY) {
+            @Nullable IVariableBinding variableBinding = ((VariableDeclarationFragment) parent).resolveBinding();
+            return variableBinding != null ? variableBinding.getType() : null;
+        } else if (locationInParent == Assignment.RIGHT_HAND_SIDE_PROPERTY)
+            return ((Assignment) parent).getLeftHandSide().resolveTypeBinding();
+        else if (locationInParent == CastExpression.EXPRESSION_PROPERTY)
+            return ((CastExpression) parent).getType().resolveBinding();
+        else if (locationInParent == ConditionalExpression.THEN_EXPRESSION_PROPERTY ||
+                 locationInParent == ConditionalExpression.ELSE_EXPRESSION_PROPERTY)
+            return ((ConditionalExpression) parent).resolveTypeBinding();
+        else if (locationInParent == ArrayInitializer.EXPRESSIONS_PROPERTY) {
+            @Nullable ITypeBinding arrayType = ((ArrayInitializer) parent).resolveTypeBinding();
+            return arrayType != null ? arrayType.getComponentType() : null;
+        } else if (locationInParent == ReturnStatement.EXPRESSION_PROPERTY ||
+                   locationInParent == LambdaExpression.BODY_PROPERTY) {
+            @Nullable IMethodBinding methodBinding = getEnclosingMethod(use);
+            return methodBinding != null ? methodBinding.getReturnType() : null;
+        } else if (locationInParent == MethodInvocation.ARGUMENTS_PROPERTY)
+            return getParameterType(((MethodInvocation) parent).resolveMethodBinding(),
+                    ((MethodInvocation) parent).arguments(), use);
+        else if (locationInParent == SuperMethodInvocation.ARGUMENTS_PROPERTY)
+            return getParameterType(((SuperMethodInvocation) parent).resolveMethodBinding(),
+                    ((SuperMethodInvocation) parent).arguments(), use);
+        else if (locationInParent == ClassInstanceCreation.ARGUMENTS_PROPERTY)
+            return getParameterType(((ClassInstanceCreation) parent).resolveConstructorBinding(),
+                    ((ClassInstanceCreation) parent).arguments(), use);
+        else if (locationInParent == ConstructorInvocation.ARGUMENTS_PROPERTY)
+            return getParameterType(((ConstructorInvocation) parent).resolveConstructorBinding(),
+                    ((ConstructorInvocation) parent).arguments(), use);
+        else if (locationInParent == SuperConstructorInvocation.ARGUMENTS_PROPERTY)
+            return getParameterType(((SuperConstructorInvocation) parent).resolveConstructorBinding(),
+                    ((SuperConstructorInvocation) parent).arguments(), use);
+        else return null;
+    }
+
+    private static @Nullable ITypeBinding getParameterType(@Nullable IMethodBinding methodBinding, List<?> arguments,
+                                                           Expression argument) {
+        if (methodBinding == null)
+            return null;
+
+        ITypeBinding[] parameterTypes = methodBinding.getParameterTypes();
+        int index = arguments.indexOf(argument);
+        if (methodBinding.isVarargs() && index >= parameterTypes.length - 1) {
+            ITypeBinding varargsType = parameterTypes[parameterTypes.length - 1];
+            @Nullable ITypeBinding argumentType = argument.resolveTypeBinding();
+            return argumentType != null && argumentType.isArray() ? varargsType : varargsType.getComponentType();
+        }
+        return index < parameterTypes.length ? parameterTypes[index] : null;
+    }
+
+    private static @Nullable IMethodBinding getEnclosingMethod(ASTNode node) {
+        for (ASTNode ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            if (ancestor instanceof LambdaExpression)
+                return ((LambdaExpression) ancestor).resolveMethodBinding();
+            else if (ancestor instanceof MethodDeclaration)
+                return ((MethodDeclaration) ancestor).resolveBinding();
+            else if (ancestor instanceof AbstractTypeDeclaration || ancestor instanceof AnonymousClassDeclaration)
+                return null;
+        }
+        return null;
+    }
+
+    /**
+     * Determine if the expression is passed to equals, which compares it by value, as the class overrides equals.
+     */
+    private static boolean isEqualsArgument(Expression expression) {
+        Expression use = expression;
+        while (use.getParent() instanceof ParenthesizedExpression)
+            use = (Expression) use.getParent();
+
+        if (use.getLocationInParent() != MethodInvocation.ARGUMENTS_PROPERTY)
+            return false;
+        @Nullable IMethodBinding methodBinding = ((MethodInvocation) use.getParent()).resolveMethodBinding();
+        return methodBinding != null && isEqualsMethod(methodBinding);
+    }
+
+    private static boolean isOnlyUsedWithin(IBinding binding, AbstractTypeDeclaration declaringType) {
+        boolean[] isOnlyUsedWithin = {true};
+
+        declaringType.getRoot().accept(new ASTVisitor() {
+            @Override public boolean visit(SimpleName simpleName) {
+                @Nullable IBinding nameBinding = simpleName.resolveBinding();
+                if (nameBinding instanceof IMethodBinding)
+                    nameBinding = ((IMethodBinding) nameBinding).getMethodDeclaration();
+                else if (nameBinding instanceof IVariableBinding)
+                    nameBinding = ((IVariableBinding) nameBinding).getVariableDeclaration();
+
+                if (binding.isEqualTo(nameBinding) && getEnclosingType(simpleName) != declaringType)
+                    isOnlyUsedWithin[0] = false;
+                return false;
+            }
+        });
+
+        return isOnlyUsedWithin[0];
+    }
+
+    private static @Nullable ASTNode getEnclosingType(ASTNode node) {
+        for (ASTNode ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            if (ancestor instanceof AbstractTypeDeclaration || ancestor instanceof AnonymousClassDeclaration)
+                return ancestor;
+        }
+        return null;
+    }
+
+    /**
+     * Get the bindings for what the body declaration declares; an element is null if its binding can't be resolved.
+     */
+    private static List<IBinding> getDeclaredBindings(BodyDeclaration bodyDeclaration) {
+        ArrayList<IBinding> bindings = new ArrayList<>();
+        if (bodyDeclaration instanceof MethodDeclaration)
+            bindings.add(((MethodDeclaration) bodyDeclaration).resolveBinding());
+        else if (bodyDeclaration instanceof AbstractTypeDeclaration)
+            bindings.add(((AbstractTypeDeclaration) bodyDeclaration).resolveBinding());
+        else if (bodyDeclaration instanceof FieldDeclaration) {
+            forEach(((FieldDeclaration) bodyDeclaration).fragments(), (VariableDeclarationFragment fragment) -> {
+                bindings.add(fragment.resolveBinding());
+            });
+        } else bindings.add(null);
+        return bindings;
+    }
+}
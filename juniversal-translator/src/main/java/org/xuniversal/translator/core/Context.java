@@ -33,6 +33,7 @@ public abstract class Context {
         this.source = sourceFile.getSource();
         this.position = 0;
         sourceCopier = new SourceCopier(sourceFile, source, targetWriter);
+        targetWriter.setSource(source);
     }
 
     public abstract SourceFile getSourceFile();
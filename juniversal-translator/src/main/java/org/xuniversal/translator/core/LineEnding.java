@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.xuniversal.translator.core;
+
+/**
+ * Line ending to use for translated output.  PRESERVE uses whatever the source file uses, judged by its first line
+ * break.
+ */
+public enum LineEnding {
+    LF("\n"),
+    CRLF("\r\n"),
+    PRESERVE(null);
+
+    private final String separator;
+
+    LineEnding(String separator) {
+        this.separator = separator;
+    }
+
+    /**
+     * Get the line separator characters to write for the specified source.
+     *
+     * @param source source being translated
+     * @return line separator
+     */
+    public String getSeparator(String source) {
+        if (separator != null)
+            return separator;
+
+        int newlineIndex = source.indexOf('\n');
+        if (newlineIndex > 0 && source.charAt(newlineIndex - 1) == '\r')
+            return CRLF.separator;
+        else if (newlineIndex == -1)
+            return CRLF.separator;
+        else return LF.separator;
+    }
+
+    /**
+     * Parse a line ending command line argument value, which is the enum name, case insensitive.
+     *
+     * @param value argument value (e.g. "lf")
+     * @return line ending
+     */
+    public static LineEnding fromArgument(String value) {
+        for (LineEnding lineEnding : values()) {
+            if (lineEnding.name().equalsIgnoreCase(value))
+                return lineEnding;
+        }
+        throw new UserViewableException("'" + value + "' is not a valid line ending; must be lf, crlf, or preserve");
+    }
+}
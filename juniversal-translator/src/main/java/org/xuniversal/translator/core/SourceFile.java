@@ -25,22 +25,63 @@ package org.xuniversal.translator.core;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 
-public abstract class SourceFile {
+public class SourceFile {
     private @Nullable File sourceFile;    // Null if there is no file
     private final String source;
     private int sourceTabStop;
-
-    public SourceFile(File sourceFile, int sourceTabStop) {
-        this.sourceFile = sourceFile;
-        this.source = Util.readFile(sourceFile);
-        this.sourceTabStop = sourceTabStop;
+    // Position of the last character of each line terminator (\n, \r\n, or \r), in order
+    private final int[] lineEnds;
+    // For each line, the position of its first tab, or -1 if it has no tabs
+    private final int[] firstTabs;
+    // Last logical column computed for a position after a tab, so scans forward on the same line can resume from there
+    private int cachedLogicalColumnPosition = -1;
+    private int cachedLogicalColumn;
+
+    public SourceFile(File sourceFile, Charset charset, int sourceTabStop) {
+        this(sourceFile, Util.readFile(sourceFile, charset), sourceTabStop);
     }
 
     public SourceFile(String source, int sourceTabStop) {
-        this.sourceFile = null;
+        this(null, source, sourceTabStop);
+    }
+
+    private SourceFile(@Nullable File sourceFile, String source, int sourceTabStop) {
+        this.sourceFile = sourceFile;
         this.source = source;
         this.sourceTabStop = sourceTabStop;
+
+        int length = source.length();
+        int[] lineEnds = new int[16];
+        int lineEndCount = 0;
+        int[] firstTabs = new int[lineEnds.length + 1];
+        int lineCount = 1;
+        firstTabs[0] = -1;
+
+        for (int i = 0; i < length; ++i) {
+            char currChar = source.charAt(i);
+
+            if (currChar == '\t') {
+                if (firstTabs[lineCount - 1] == -1)
+                    firstTabs[lineCount - 1] = i;
+            } else if (currChar == '\n' || currChar == '\r') {
+                // Treat \r\n as a single line terminator, ending at the \n
+                if (currChar == '\r' && i + 1 < length && source.charAt(i + 1) == '\n')
+                    ++i;
+
+                if (lineEndCount == lineEnds.length) {
+                    lineEnds = Arrays.copyOf(lineEnds, lineEndCount * 2);
+                    firstTabs = Arrays.copyOf(firstTabs, lineEndCount * 2 + 1);
+                }
+                lineEnds[lineEndCount++] = i;
+                firstTabs[lineCount++] = -1;
+            }
+        }
+
+        this.lineEnds = Arrays.copyOf(lineEnds, lineEndCount);
+        this.firstTabs = Arrays.copyOf(firstTabs, lineCount);
     }
 
     public @Nullable File getSourceFile() {
@@ -117,10 +158,23 @@ public abstract class SourceFile {
      * @return logical column
      */
     public int getSourceLogicalColumn(int position) {
+        int lineNumber = getLineNumber(position);
         int physicalColumn = getPhysicalColumn(position);
+        int lineStartPosition = position - physicalColumn;
+
+        // Before the first tab on the line, logical & physical columns are the same
+        int firstTab = lineNumber > 0 ? firstTabs[lineNumber - 1] : -1;
+        if (firstTab == -1 || position <= firstTab)
+            return physicalColumn;
+
+        int startPosition = firstTab;
+        int logicalColumn = firstTab - lineStartPosition;
+        if (cachedLogicalColumnPosition > firstTab && cachedLogicalColumnPosition <= position) {
+            startPosition = cachedLogicalColumnPosition;
+            logicalColumn = cachedLogicalColumn;
+        }
 
-        int logicalColumn = 0;
-        for (int i = position - physicalColumn; i < position; ++i) {
+        for (int i = startPosition; i < position; ++i) {
             char currChar = source.charAt(i);
             if (currChar == '\t')
                 logicalColumn += sourceTabStop - (logicalColumn % sourceTabStop);
@@ -128,12 +182,63 @@ public abstract class SourceFile {
                 ++logicalColumn;
         }
 
+        cachedLogicalColumnPosition = position;
+        cachedLogicalColumn = logicalColumn;
         return logicalColumn;
     }
 
-    public abstract int getPhysicalColumn(int position);
+    /**
+     * Gets the physical (0 based) column of the specified position, which is its offset from the start of its line.
+     *
+     * @param position source position in question
+     * @return physical column
+     */
+    public int getPhysicalColumn(int position) {
+        int lineNumber = getLineNumber(position);
+        return lineNumber == 1 ? position : position - (lineEnds[lineNumber - 2] + 1);
+    }
+
+    /**
+     * Gets the (1 based) line number of the specified position.  Lines are terminated by \n, \r\n, or \r.
+     *
+     * @param position source position in question
+     * @return line number
+     */
+    public int getLineNumber(int position) {
+        if (position < 0 || position >= source.length()) {
+            if (position == source.length())
+                throw new RuntimeException("Position " + position + " is at end of source file; can't get line number");
+            else throw new RuntimeException("Position " + position + " isn't valid");
+        }
 
-    public abstract int getLineNumber(int position);
+        // Binary search for the first line end at or after the position; the line number is one more than its index
+        int low = 0;
+        int high = lineEnds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lineEnds[middle] < position)
+                low = middle + 1;
+            else high = middle;
+        }
+        return low + 1;
+    }
+
+    /**
+     * Gets the position for the specified line & physical column.  If the line doesn't exist or the column is past the
+     * end of the line (including its terminator), -1 is returned.
+     *
+     * @param line   line number (1 based)
+     * @param column physical column (0 based)
+     * @return source position or -1 if there's no such position
+     */
+    public int getPosition(int line, int column) {
+        if (line < 1 || column < 0 || line > lineEnds.length + 1)
+            return -1;
 
-    public abstract int getPosition(int line, int column);
+        int lineStartPosition = line == 1 ? 0 : lineEnds[line - 2] + 1;
+        int lineEndPosition = line == lineEnds.length + 1 ? source.length() - 1 : lineEnds[line - 1];
+
+        int position = lineStartPosition + column;
+        return position > lineEndPosition ? -1 : position;
+    }
 }
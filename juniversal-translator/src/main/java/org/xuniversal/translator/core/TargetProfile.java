@@ -22,6 +22,8 @@
 
 package org.xuniversal.translator.core;
 
+import java.nio.charset.Charset;
+
 /**
  * @author Bret Johnson
  * @since 7/20/2014 6:45 PM
@@ -30,6 +32,8 @@ public abstract class TargetProfile {
     private int tabStop = -1;
     private boolean classBraceOnSameLine = true;
     private int preferredIndent = 4;    // TODO: Set
+    private LineEnding lineEnding = LineEnding.CRLF;
+    private Charset charset = Charset.defaultCharset();
 
     /**
      * Returns how many spaces a tab should correspond to in the C++ output (e.g. 4 or 2). If tabs
@@ -71,10 +75,52 @@ public abstract class TargetProfile {
         classBraceOnSameLine = value;
     }
 
+    /**
+     * Returns the line ending used in the output.  Defaults to CRLF.
+     *
+     * @return output line ending
+     */
+    public LineEnding getLineEnding() {
+        return lineEnding;
+    }
+
+    public void setLineEnding(LineEnding lineEnding) {
+        this.lineEnding = lineEnding;
+    }
+
+    /**
+     * Returns the character encoding used for output files.  Defaults to the platform default.
+     *
+     * @return output charset
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
     public int getPreferredIndent() {
         return preferredIndent;
     }
 
+    /**
+     * Resets the target specific output options, set by command line flags like -nonatomicrefs, to their defaults.
+     */
+    public void resetOptions() {
+    }
+
+    /**
+     * Returns a description of the target specific output options that are set, each preceded by a space, or the empty
+     * string if none are.  A change here means previously translated output is out of date.
+     *
+     * @return description of the options set
+     */
+    public String getOptionsDescription() {
+        return "";
+    }
+
     public abstract String getInt8Type();
 
     public abstract String getInt16Type();
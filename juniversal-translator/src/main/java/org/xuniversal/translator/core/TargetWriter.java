@@ -28,18 +28,27 @@ import java.io.*;
 
 
 public abstract class TargetWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 8192;
+
     private int currColumn;                           // Current column on line (0 based)
     private boolean accumulatingSpacesAtBeginningOfLine;
     private int spacesAtBeginningOfLine;
     private Writer writer;
+    // Output is collected here & written to writer in blocks, rather than a character at a time
+    private char[] buffer = new char[BUFFER_SIZE];
+    private int bufferLength = 0;
     // Additional amount to indent or (if negative) outdent
     private int additionalIndentation = 0;
     private int destTabStop = -1;
+    private LineEnding lineEnding;
+    private String lineSeparator;
 
 
     public TargetWriter(Writer writer, TargetProfile targetProfile) {
         this.writer = writer;
         this.destTabStop = targetProfile.getTabStop();
+        this.lineEnding = targetProfile.getLineEnding();
+        this.lineSeparator = lineEnding.getSeparator("");
 
         currColumn = 0;
         accumulatingSpacesAtBeginningOfLine = true;
@@ -48,6 +57,7 @@ public abstract class TargetWriter implements AutoCloseable {
 
     @Override public void close() {
         try {
+            flushBuffer();
             writer.close();
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -68,16 +78,49 @@ public abstract class TargetWriter implements AutoCloseable {
     }
 
     public Writer getWriter() {
+        try {
+            flushBuffer();
+        } catch (IOException e) {
+            throw new JUniversalException(e);
+        }
         return writer;
     }
 
     public abstract TargetProfile getTargetProfile();
 
+    /**
+     * Set the source being translated, which determines the line separator when the line ending is PRESERVE.
+     *
+     * @param source source being translated
+     */
+    public void setSource(String source) {
+        lineSeparator = lineEnding.getSeparator(source);
+    }
+
     public void write(String string) {
         try {
             int length = string.length();
-            for (int i = 0; i < length; ++i)
-                writeCharInternal(string.charAt(i));
+            int i = 0;
+            while (i < length) {
+                char character = string.charAt(i);
+
+                if (isSpecialChar(character) || (character == ' ' && accumulatingSpacesAtBeginningOfLine)) {
+                    writeCharInternal(character);
+                    ++i;
+                } else {
+                    // Write the run of ordinary characters starting here all at once.  Once something other than a
+                    // space is on the line, spaces are ordinary too
+                    int runEnd = i + 1;
+                    while (runEnd < length && !isSpecialChar(string.charAt(runEnd)))
+                        ++runEnd;
+
+                    startLineContent();
+                    appendToBuffer(string, i, runEnd);
+                    currColumn += runEnd - i;
+
+                    i = runEnd;
+                }
+            }
         } catch (IOException e) {
             throw new JUniversalException(e);
         }
@@ -131,7 +174,7 @@ public abstract class TargetWriter implements AutoCloseable {
         else if (character == '\n') {
             // If only whitespace on a line, don't write out indentation
 
-            writer.write("\r\n");
+            appendToBuffer(lineSeparator, 0, lineSeparator.length());
 
             accumulatingSpacesAtBeginningOfLine = true;
             spacesAtBeginningOfLine = additionalIndentation;
@@ -139,23 +182,33 @@ public abstract class TargetWriter implements AutoCloseable {
         } else if (character == ' ') {
             if (accumulatingSpacesAtBeginningOfLine)
                 ++spacesAtBeginningOfLine;
-            else writer.write(' ');
+            else appendToBuffer(' ');
 
             ++currColumn;
         } else if (character == '\t')
             throw new JUniversalException("Can't directly write tabs to a CPPWriter");
         else {
-            // Write any accumulated indentation plus any defined additional indentation
-            if (accumulatingSpacesAtBeginningOfLine) {
-                writeAccumulatedSpacesAtBeginningOfLine();
-                accumulatingSpacesAtBeginningOfLine = false;
-            }
-
-            writer.write(character);
+            startLineContent();
+            appendToBuffer(character);
             ++currColumn;
         }
     }
 
+    private static boolean isSpecialChar(char character) {
+        return character == '\n' || character == '\r' || character == '\t';
+    }
+
+    /**
+     * Called before writing something other than a space; if that's the first thing on the line, write any accumulated
+     * indentation plus any defined additional indentation.
+     */
+    private void startLineContent() throws IOException {
+        if (accumulatingSpacesAtBeginningOfLine) {
+            writeAccumulatedSpacesAtBeginningOfLine();
+            accumulatingSpacesAtBeginningOfLine = false;
+        }
+    }
+
     private void writeAccumulatedSpacesAtBeginningOfLine() throws IOException {
         int spaces = spacesAtBeginningOfLine;
         if (spaces <= 0)
@@ -165,14 +218,39 @@ public abstract class TargetWriter implements AutoCloseable {
         if (destTabStop != -1) {
             int tabs = spaces / destTabStop;
             for (int i = 0; i < tabs; ++i)
-                writer.write('\t');
+                appendToBuffer('\t');
 
             // What can't be tabified should be a space
             spaces = spaces % destTabStop;
         }
 
         for (int i = 0; i < spaces; ++i)
-            writer.write(' ');
+            appendToBuffer(' ');
+    }
+
+    private void appendToBuffer(char character) throws IOException {
+        if (bufferLength == buffer.length)
+            flushBuffer();
+        buffer[bufferLength++] = character;
+    }
+
+    private void appendToBuffer(String string, int start, int end) throws IOException {
+        while (start < end) {
+            if (bufferLength == buffer.length)
+                flushBuffer();
+
+            int count = Math.min(end - start, buffer.length - bufferLength);
+            string.getChars(start, start + count, buffer, bufferLength);
+            bufferLength += count;
+            start += count;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (bufferLength > 0) {
+            writer.write(buffer, 0, bufferLength);
+            bufferLength = 0;
+        }
     }
 
     public int setAdditionalIndentation(int value) {
@@ -202,16 +280,29 @@ public abstract class TargetWriter implements AutoCloseable {
         private MyStringWriter bufferedWriter;
 
         public BufferedWriter() {
+            flush();
             this.originalWriter = writer;
             bufferedWriter = new MyStringWriter();
             writer = bufferedWriter;
         }
 
-        public String getBufferContents() { return bufferedWriter.toString(); }
+        public String getBufferContents() {
+            flush();
+            return bufferedWriter.toString();
+        }
 
         @Override public void close() {
+            flush();
             writer = originalWriter;
         }
+
+        private void flush() {
+            try {
+                flushBuffer();
+            } catch (IOException e) {
+                throw new JUniversalException(e);
+            }
+        }
     }
 
     /**
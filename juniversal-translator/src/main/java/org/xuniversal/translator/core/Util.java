@@ -24,13 +24,17 @@ package org.xuniversal.translator.core;
 
 import org.juniversal.translator.core.JUniversalException;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 public class Util {
+	// Source files at least this big are memory mapped when read
+	private static final long MAPPED_READ_THRESHOLD = 1024 * 1024;
 
 	/**
 	 * Count number of times specified character appears in string.
@@ -82,23 +86,67 @@ public class Util {
 	}
 
 	public static String readFile(File file) {
-		try {
-			StringBuilder stringBuilder = new StringBuilder();
+		return readFile(file, Charset.defaultCharset());
+	}
 
-			FileReader fileReader = new FileReader(file);
+	/**
+	 * Read the contents of a text file. Large files are memory mapped & decoded in one pass, while smaller ones are
+	 * read with a buffered reader. Either way, if the file isn't valid in the specified encoding a UserViewableException
+	 * is thrown, rather than silently replacing the bad characters.
+	 *
+	 * @param file
+	 *            file to read
+	 * @param charset
+	 *            character encoding of the file
+	 * @return file contents
+	 */
+	public static String readFile(File file, Charset charset) {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
 
-			char[] contentsBuffer = new char[1024];
-			int charsRead = 0;
-			while ((charsRead = fileReader.read(contentsBuffer)) != -1)
-				stringBuilder.append(contentsBuffer, 0, charsRead);
+			if (size >= MAPPED_READ_THRESHOLD) {
+				MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+				return charset.newDecoder().decode(mappedBuffer).toString();
+			}
 
-			fileReader.close();
+			StringBuilder stringBuilder = new StringBuilder((int) size);
+			try (BufferedReader reader = new BufferedReader(Channels.newReader(channel, charset.newDecoder(), -1))) {
+				char[] contentsBuffer = new char[8192];
+				int charsRead;
+				while ((charsRead = reader.read(contentsBuffer)) != -1)
+					stringBuilder.append(contentsBuffer, 0, charsRead);
+			}
 
 			return stringBuilder.toString();
-		} catch (FileNotFoundException e) {
+		} catch (CharacterCodingException e) {
+			throw new UserViewableException("File " + file + " isn't valid " + charset.name() +
+					"; specify its encoding with -sourceencoding");
+		} catch (IOException e) {
+			throw new JUniversalException(e);
+		}
+	}
+
+	/**
+	 * Open a file for writing text, creating or truncating it. The returned writer encodes directly into the file
+	 * channel, so callers that write in blocks don't need an additional layer of buffering.
+	 *
+	 * @param file
+	 *            file to write
+	 * @param charset
+	 *            character encoding to use
+	 * @return writer for the file
+	 */
+	public static Writer createFileWriter(File file, Charset charset) {
+		try {
+			FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+			// Unmappable characters are replaced, as with FileWriter, rather than failing the translation
+			CharsetEncoder encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			return Channels.newWriter(channel, encoder, -1);
+		} catch (IOException e) {
 			throw new JUniversalException(e);
-		} catch (IOException ioe) {
-			throw new JUniversalException(ioe);
 		}
 	}
 }
@@ -42,6 +42,15 @@ public class CPlusPlusTargetProfile extends TargetProfile {
     private static TypeName boxType = new TypeName("xuniv", "Box");
     private static TypeName sharedPtrType = new TypeName("std", "shared_ptr");
     private static TypeName weakPtrType = new TypeName("std", "weak_ptr");
+    private static TypeName makeSharedFunction = new TypeName("std", "make_shared");
+    private static TypeName refType = new TypeName("xuniv", "ref");
+    private static TypeName weakRefType = new TypeName("xuniv", "weak_ref");
+    private static TypeName makeRefFunction = new TypeName("xuniv", "make_ref");
+    private boolean nonAtomicReferenceCounting = false;
+    private boolean boxCache = false;
+    private boolean concatBuilder = false;
+    private boolean functionRefs = false;
+    private boolean primitiveCollections = false;
 
     public CPlusPlusTargetWriter createTargetWriter(Writer writer) {
         return new CPlusPlusTargetWriter(writer, this);
@@ -106,11 +115,111 @@ public class CPlusPlusTargetProfile extends TargetProfile {
         return boxType;
     }
 
+    /**
+     * Returns whether objects are reference counted non atomically, for code that's confined to a single thread.
+     * Defaults to false.
+     *
+     * @return true if objects are held via the runtime's intrusive, non atomic xuniv::ref, false for std::shared_ptr
+     */
+    public boolean getNonAtomicReferenceCounting() {
+        return nonAtomicReferenceCounting;
+    }
+
+    /**
+     * Sets whether objects are reference counted non atomically.   If so, objects are held via xuniv::ref (and
+     * xuniv::weak_ref), which keeps the count in the xuniv::Object itself & updates it with plain increments &
+     * decrements, instead of std::shared_ptr, whose count is in a separate control block & updated atomically.   The
+     * generated code must then only be used from a single thread.
+     *
+     * @param value true to use non atomic reference counting, false for std::shared_ptr
+     */
+    public void setNonAtomicReferenceCounting(boolean value) {
+        nonAtomicReferenceCounting = value;
+    }
+
+    /**
+     * Returns whether primitives are boxed with xuniv::Box&lt;T&gt;::valueOf, which like Java's valueOf returns a cached
+     * box for small values, instead of always allocating a new box with xuniv::Box&lt;T&gt;::make.   Defaults to false, as
+     * valueOf needs a runtime that provides the cache.
+     *
+     * @return true if boxes are cached
+     */
+    public boolean getBoxCache() {
+        return boxCache;
+    }
+
+    public void setBoxCache(boolean value) {
+        boxCache = value;
+    }
+
+    /**
+     * Returns whether String concatenations are written as appends to a single xuniv::StringBuilder, constructed with
+     * the estimated capacity of the result, instead of a chain of "+" operations.   Defaults to false, as that needs a
+     * runtime whose StringBuilder has a capacity constructor & can be used by value.
+     *
+     * @return true if String concatenations use a presized StringBuilder
+     */
+    public boolean getConcatBuilder() {
+        return concatBuilder;
+    }
+
+    public void setConcatBuilder(boolean value) {
+        concatBuilder = value;
+    }
+
+    /**
+     * Returns whether functional interface parameters that are only invoked, & only ever passed lambdas, are written as
+     * xuniv::FunctionRef, a non-owning reference to the caller's lambda, with the lambda capturing by reference.
+     * Defaults to false, as that needs a runtime that provides FunctionRef.
+     *
+     * @return true if function ref parameters are used
+     */
+    public boolean getFunctionRefs() {
+        return functionRefs;
+    }
+
+    public void setFunctionRefs(boolean value) {
+        functionRefs = value;
+    }
+
+    /**
+     * Returns whether java.util collections of boxed primitives, when that can't change behavior, are written with the
+     * primitive as the type argument (like ArrayList&lt;int&gt;), holding the values unboxed.   Defaults to false, as
+     * that needs a runtime whose collection templates are specialized for primitives.
+     *
+     * @return true if collections are specialized for primitives
+     */
+    public boolean getPrimitiveCollections() {
+        return primitiveCollections;
+    }
+
+    public void setPrimitiveCollections(boolean value) {
+        primitiveCollections = value;
+    }
+
+    @Override public void resetOptions() {
+        nonAtomicReferenceCounting = false;
+        boxCache = false;
+        concatBuilder = false;
+        functionRefs = false;
+        primitiveCollections = false;
+    }
+
+    @Override public String getOptionsDescription() {
+        return (nonAtomicReferenceCounting ? " nonatomicrefs" : "") + (boxCache ? " boxcache" : "") +
+               (concatBuilder ? " concatbuilder" : "") + (functionRefs ? " functionrefs" : "") +
+               (primitiveCollections ? " primitivecollections" : "");
+    }
+
     public TypeName getSharedPtrType() {
-        return sharedPtrType;
+        return nonAtomicReferenceCounting ? refType : sharedPtrType;
     }
 
     public TypeName getWeakPtrType() {
-        return weakPtrType;
+        return nonAtomicReferenceCounting ? weakRefType : weakPtrType;
+    }
+
+    public TypeName getMakeSharedFunction() {
+        return nonAtomicReferenceCounting ? makeRefFunction : makeSharedFunction;
     }
 }
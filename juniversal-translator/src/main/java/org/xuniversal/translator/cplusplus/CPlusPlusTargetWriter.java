@@ -31,6 +31,7 @@ import org.xuniversal.translator.core.TypeName;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -133,4 +134,28 @@ public class CPlusPlusTargetWriter extends TargetWriter {
         // Close namespace definitions
         namespaceName.forEach((String nameComponent) -> writeln("}"));
     }
+
+    /**
+     * Write the string literal pool for a source file.   Each distinct literal gets a function returning its String,
+     * which is created the first time it's needed & shared after that, instead of a new String being allocated each
+     * time the literal is evaluated.  C++11 guarantees that initializing a function static is thread safe.
+     *
+     * @param literals C++ string literals (e.g. u"abc"), in pool order
+     */
+    public void writeStringLiteralPool(List<String> literals) {
+        writeln("namespace {");
+        String stringPtrType = targetProfile.getSharedPtrType().toString("::") + "< xuniv::String >";
+        for (int i = 0; i < literals.size(); ++i) {
+            writeln("    const " + stringPtrType + "& " + getStringLiteralPoolFunction(i) + "() {");
+            writeln("        static const " + stringPtrType + " literal = xuniv::String::make(" +
+                    literals.get(i) + ");");
+            writeln("        return literal;");
+            writeln("    }");
+        }
+        writeln("}");
+    }
+
+    public static String getStringLiteralPoolFunction(int index) {
+        return "juniversalStringLiteral" + index;
+    }
 }
@@ -40,6 +40,12 @@ public class CSharpTargetProfile extends TargetProfile {
     private static TypeName stringBuilderType = new TypeName(new HierarchicalName("System", "Text"), "StringBuilder");
     private static TypeName arrayType = new TypeName("System", "Array");
 
+    private boolean splitHelpers = false;
+
+    @Override public boolean isCSharp() {
+        return true;
+    }
+
     @Override public String getInt8Type() {
         return "sbyte";
     }
@@ -91,4 +97,27 @@ public class CSharpTargetProfile extends TargetProfile {
     @Override public TypeName getArrayType() {
         return arrayType;
     }
+
+    /**
+     * Returns whether String.split is written as a call to the XUniversal.SplitOrdinal & XUniversal.SplitRegex
+     * extension methods, which implement Java's split semantics.   Defaults to false, as that needs a runtime that
+     * provides them; without it, String.split isn't supported.
+     *
+     * @return true if the split helpers are used
+     */
+    public boolean getSplitHelpers() {
+        return splitHelpers;
+    }
+
+    public void setSplitHelpers(boolean value) {
+        splitHelpers = value;
+    }
+
+    @Override public void resetOptions() {
+        splitHelpers = false;
+    }
+
+    @Override public String getOptionsDescription() {
+        return splitHelpers ? " splithelpers" : "";
+    }
 }
@@ -100,7 +100,7 @@ public class TranslateNodeTest {
                 expectedSwift);
     }
 
-    public CompilationUnit parseCompilationUnit(String java) {
+    public static CompilationUnit parseCompilationUnit(String java) {
         ASTParser parser = ASTParser.newParser(AST.JLS8);
         parser.setKind(ASTParser.K_COMPILATION_UNIT);
 
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+import org.juniversal.translator.core.Translator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Base class for tests that translate whole Java source files, in package "test", with the command line translator &
+ * check the target files it writes.
+ */
+public abstract class TranslateSourceFileTest {
+	@Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File sourceDirectory;
+	private File outputDirectory;
+
+	@Before public void createSourceDirectory() throws IOException {
+		sourceDirectory = temporaryFolder.newFolder();
+	}
+
+	/**
+	 * Write another Java source file, to be translated along with the test class.
+	 *
+	 * @param path   path of the source file, relative to the source directory
+	 * @param source Java source
+	 */
+	protected void writeSource(String path, String source) throws IOException {
+		File file = new File(sourceDirectory, path);
+		File directory = file.getParentFile();
+		assertTrue(directory.isDirectory() || directory.mkdirs());
+		Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Translate the given Java class, which is written to test/&lt;className&gt;.java, asserting that it translates
+	 * without errors.
+	 *
+	 * @param language  target language, as passed to -l
+	 * @param className name of the class, used for the source file name
+	 * @param source    Java source, without the package declaration
+	 * @param options   additional translator options
+	 */
+	protected void translate(String language, String className, String source, String... options) throws IOException {
+		assertTrue("Translation failed", tryTranslate(language, className, source, options));
+	}
+
+	/**
+	 * Translate the given Java class, like translate, returning false if the translator reported errors.
+	 */
+	protected boolean tryTranslate(String language, String className, String source, String... options)
+			throws IOException {
+		outputDirectory = temporaryFolder.newFolder();
+		writeSource("test/" + className + ".java", "package test;\n\n" + source);
+
+		ArrayList<String> args = new ArrayList<>();
+		Collections.addAll(args, "-l", language, "-o", outputDirectory.getPath());
+		Collections.addAll(args, options);
+		args.add(sourceDirectory.getPath());
+		return Translator.translate(args.toArray(new String[args.size()]));
+	}
+
+	/**
+	 * Read a target file written by the last translation, with line endings normalized to \n.
+	 *
+	 * @param fileName file name, in the output directory for package "test"
+	 * @return file contents
+	 */
+	protected String readTarget(String fileName) throws IOException {
+		File file = new File(new File(outputDirectory, "test"), fileName);
+		assertTrue("Target file " + fileName + " wasn't written", file.exists());
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).replace("\r\n", "\n");
+	}
+
+	protected static void assertContains(String expected, String actual) {
+		if (!actual.contains(expected))
+			fail("Output doesn't contain expected text.\nEXPECTED:\n" + expected + "\nACTUAL:\n" + actual);
+	}
+
+	protected static void assertNotContains(String unexpected, String actual) {
+		if (actual.contains(unexpected))
+			fail("Output contains unexpected text.\nUNEXPECTED:\n" + unexpected + "\nACTUAL:\n" + actual);
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.all;
+
+import org.junit.Test;
+import org.juniversal.translator.TranslateSourceFileTest;
+
+import java.io.IOException;
+
+public class EnhancedForStatementTest extends TranslateSourceFileTest {
+	private static final String SOURCE =
+			"import java.util.ArrayList;\n" +
+			"import java.util.List;\n\n" +
+			"public class Loops {\n" +
+			"    private final ArrayList<String> names = new ArrayList<String>();\n" +
+			"    private ArrayList<String> other = new ArrayList<String>();\n\n" +
+			"    public int sumArray(int[] values) {\n" +
+			"        int sum = 0;\n" +
+			"        for (int value : values)\n" +
+			"            sum += value;\n" +
+			"        return sum;\n" +
+			"    }\n\n" +
+			"    public String joinNames() {\n" +
+			"        String all = \"\";\n" +
+			"        for (String name : names)\n" +
+			"            all += name;\n" +
+			"        return all;\n" +
+			"    }\n\n" +
+			"    public String joinOther() {\n" +
+			"        String all = \"\";\n" +
+			"        for (String name : other)\n" +
+			"            all += name;\n" +
+			"        return all;\n" +
+			"    }\n\n" +
+			"    public String joinList(List<String> list) {\n" +
+			"        String all = \"\";\n" +
+			"        for (String name : list)\n" +
+			"            all += name;\n" +
+			"        return all;\n" +
+			"    }\n" +
+			"}\n";
+
+	@Test public void testCPlusPlus() throws IOException {
+		translate("c++", "Loops", SOURCE);
+		String source = readTarget("Loops.cpp");
+
+		assertContains(
+				"    for (int juniversalIndex0 = 0, juniversalLength0 = values->length(); juniversalIndex0 < juniversalLength0; ++juniversalIndex0) {\n" +
+				"        int value = values->uncheckedAt(juniversalIndex0);\n" +
+				"        sum += value;\n" +
+				"    }\n", source);
+		// A final field that's an ArrayList
+		assertContains(
+				"    for (int juniversalIndex0 = 0, juniversalLength0 = names->size(); juniversalIndex0 < juniversalLength0; ++juniversalIndex0) {\n" +
+				"        std::shared_ptr< xuniv::String > name = names->get(juniversalIndex0);\n" +
+				"        all += name;\n" +
+				"    }\n", source);
+		// The field can change in the loop & a List may not have random access
+		assertContains("    for (std::shared_ptr< xuniv::String > name : *other)\n", source);
+		assertContains("    for (std::shared_ptr< xuniv::String > name : *list)\n", source);
+	}
+
+	@Test public void testCSharp() throws IOException {
+		translate("c#", "Loops", SOURCE);
+		String source = readTarget("Loops.cs");
+
+		// The C# compiler already lowers foreach over an array
+		assertContains("            foreach (int value in values)\n", source);
+		assertContains(
+				"            for (int juniversalIndex0 = 0, juniversalLength0 = names.size(); juniversalIndex0 < juniversalLength0; ++juniversalIndex0) {\n" +
+				"                string name = names.get(juniversalIndex0);\n" +
+				"                all += name;\n" +
+				"            }\n", source);
+		assertContains("            foreach (string name in other)\n", source);
+		assertContains("            foreach (string name in list)\n", source);
+	}
+
+	@Test public void testUnboxedElements() throws IOException {
+		String source =
+				"import java.util.ArrayList;\n" +
+				"import java.util.List;\n\n" +
+				"public class Sums {\n" +
+				"    public int sumList(List<Integer> values) {\n" +
+				"        int sum = 0;\n" +
+				"        for (int value : values)\n" +
+				"            sum += value;\n" +
+				"        return sum;\n" +
+				"    }\n\n" +
+				"    public int sumLocal() {\n" +
+				"        ArrayList<Integer> values = new ArrayList<Integer>();\n" +
+				"        values.add(1);\n" +
+				"        int sum = 0;\n" +
+				"        for (int value : values)\n" +
+				"            sum += value;\n" +
+				"        return sum;\n" +
+				"    }\n" +
+				"}\n";
+
+		// Only a list specialized for int holds elements that can be read as ints in the lowered loop
+		translate("c++", "Sums", source);
+		assertNotContains("juniversalIndex0", readTarget("Sums.cpp"));
+
+		translate("c++", "Sums", source, "-primitivecollections");
+		String target = readTarget("Sums.cpp");
+		assertContains("    for (int value : *values)\n", target);
+		assertContains("        int value = values->get(juniversalIndex0);\n", target);
+	}
+}
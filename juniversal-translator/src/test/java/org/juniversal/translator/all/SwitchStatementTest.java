@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.all;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Statement;
+import org.junit.Test;
+import org.juniversal.translator.TranslateNodeTest;
+import org.juniversal.translator.TranslateSourceFileTest;
+import org.juniversal.translator.core.JavaSourceFile;
+import org.juniversal.translator.cplusplus.CPlusPlusTranslator;
+import org.xuniversal.translator.cplusplus.CPlusPlusTargetProfile;
+
+import java.io.IOException;
+
+public class SwitchStatementTest extends TranslateSourceFileTest {
+	private static final String SOURCE =
+			"public class Dispatch {\n" +
+			"    private String method = \"get\";\n\n" +
+			"    public int command(String name) {\n" +
+			"        switch (name) {\n" +
+			"            case \"get\":\n" +
+			"                return 1;\n" +
+			"            case \"put\":\n" +
+			"            case \"post\":\n" +
+			"                return 2;\n" +
+			"            case \"Aa\":\n" +
+			"            case \"BB\":\n" +
+			"                return 3;\n" +
+			"            default:\n" +
+			"                return 0;\n" +
+			"        }\n" +
+			"    }\n\n" +
+			"    public int field() {\n" +
+			"        int value = 0;\n" +
+			"        switch (method) {\n" +
+			"            case \"get\":\n" +
+			"                value = 1;\n" +
+			"                break;\n" +
+			"            case \"delete\":\n" +
+			"                value = 2;\n" +
+			"            default:\n" +
+			"                value += 10;\n" +
+			"        }\n" +
+			"        return value;\n" +
+			"    }\n" +
+			"}\n";
+
+	@Test public void testCPlusPlusStringSwitch() throws IOException {
+		translate("c++", "Dispatch", SOURCE);
+		String source = readTarget("Dispatch.cpp");
+
+		// "Aa" & "BB" have the same hash code
+		assertContains(
+				"    {\n" +
+				"        int juniversalCase0 = -1;\n" +
+				"        switch (name->hashCode()) {\n" +
+				"            case 2112: if (name->equals(juniversalStringLiteral0())) juniversalCase0 = 3; else if (name->equals(juniversalStringLiteral1())) juniversalCase0 = 4; break;\n" +
+				"            case 102230: if (name->equals(juniversalStringLiteral2())) juniversalCase0 = 0; break;\n" +
+				"            case 111375: if (name->equals(juniversalStringLiteral3())) juniversalCase0 = 1; break;\n" +
+				"            case 3446944: if (name->equals(juniversalStringLiteral4())) juniversalCase0 = 2; break;\n" +
+				"        }\n" +
+				"        switch (juniversalCase0) {\n" +
+				"            case 0:\n" +
+				"                return 1;\n" +
+				"            case 1:\n" +
+				"            case 2:\n" +
+				"                return 2;\n" +
+				"            case 3:\n" +
+				"            case 4:\n" +
+				"                return 3;\n" +
+				"            default:\n" +
+				"                return 0;\n" +
+				"        }\n" +
+				"    }\n", source);
+
+		// A field is read once, into a temporary
+		assertContains(
+				"        const std::shared_ptr< xuniv::String > juniversalSwitchValue0 = method;\n" +
+				"        int juniversalCase0 = -1;\n" +
+				"        switch (juniversalSwitchValue0->hashCode()) {\n", source);
+		assertContains(
+				"        switch (juniversalCase0) {\n" +
+				"            case 0:\n" +
+				"                value = 1;\n" +
+				"                break;\n" +
+				"            case 1:\n" +
+				"                value = 2;\n" +
+				"            default:\n" +
+				"                value += 10;\n" +
+				"        }\n", source);
+	}
+
+	@Test public void testCSharpFallThrough() throws IOException {
+		translate("c#", "Dispatch", SOURCE);
+		String source = readTarget("Dispatch.cs");
+
+		assertContains("                case \"put\":\n" +
+		               "                case \"post\":\n" +
+		               "                    return 2;\n", source);
+		assertContains("                case \"delete\":\n" +
+		               "                    value = 2;\n" +
+		               "                    goto default;\n" +
+		               "                default:\n" +
+		               "                    value += 10;\n" +
+		               "                    break;\n", source);
+	}
+
+	@Test public void testCPlusPlusEnumSwitch() {
+		String javaSource =
+				"package test;\n\n" +
+				"class TestClass {\n" +
+				"    enum Color { RED, GREEN, BLUE }\n\n" +
+				"    int warmth(Color color) {\n" +
+				"        switch (color) {\n" +
+				"            case RED:\n" +
+				"                return 2;\n" +
+				"            case BLUE:\n" +
+				"                return 0;\n" +
+				"            default:\n" +
+				"                return 1;\n" +
+				"        }\n" +
+				"    }\n" +
+				"}\n";
+
+		CompilationUnit compilationUnit = TranslateNodeTest.parseCompilationUnit(javaSource);
+		Statement switchStatement = (Statement) TranslateNodeTest.getFirstMethodBlock(compilationUnit).statements().get(0);
+		String translated = new CPlusPlusTranslator(new CPlusPlusTargetProfile())
+				.translateNode(new JavaSourceFile(compilationUnit, javaSource, 4), switchStatement);
+
+		assertEquals(
+				"switch (color->ordinal()) {\n" +
+				"            case 0 /* RED */:\n" +
+				"                return 2;\n" +
+				"            case 2 /* BLUE */:\n" +
+				"                return 0;\n" +
+				"            default:\n" +
+				"                return 1;\n" +
+				"        }", translated.replace("\r\n", "\n"));
+	}
+}
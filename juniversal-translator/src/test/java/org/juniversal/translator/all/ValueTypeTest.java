@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.all;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.juniversal.translator.TranslateSourceFileTest;
+
+import java.io.IOException;
+
+public class ValueTypeTest extends TranslateSourceFileTest {
+	private static final String POINT =
+			"import org.juniversal.annotations.ValueType;\n\n" +
+			"@ValueType\n" +
+			"public final class Point {\n" +
+			"    private final int x;\n" +
+			"    private final int y;\n\n" +
+			"    public Point(int x, int y) {\n" +
+			"        this.x = x;\n" +
+			"        this.y = y;\n" +
+			"    }\n\n" +
+			"    public Point offset(Point other) {\n" +
+			"        return new Point(x + other.x, y + other.y);\n" +
+			"    }\n" +
+			"}\n";
+
+	@Before public void writeSources() throws IOException {
+		writeSource("org/juniversal/annotations/ValueType.java",
+				"package org.juniversal.annotations;\n\npublic @interface ValueType {\n}\n");
+		writeSource("test/Shape.java",
+				"package test;\n\n" +
+				"public class Shape {\n" +
+				"    private Point origin = new Point(1, 2);\n\n" +
+				"    public Point getOrigin() {\n" +
+				"        return origin;\n" +
+				"    }\n" +
+				"}\n");
+	}
+
+	@Test public void testCPlusPlusValueType() throws IOException {
+		translate("c++", "Point", POINT);
+
+		String header = readTarget("Point.h");
+		assertContains("class Point {\npublic:\n", header);
+		assertNotContains("xuniv::Object", header);
+		assertContains("    Point offset(Point other) const;\n", header);
+		assertContains("    Point() : x(), y() {}\n", header);
+		// The class's own header isn't included
+		assertNotContains("#include \"test/Point.h\"", header);
+
+		assertContains("    return Point(x + other.x, y + other.y);\n", readTarget("Point.cpp"));
+
+		String shapeHeader = readTarget("Shape.h");
+		assertContains("    virtual Point getOrigin();\n", shapeHeader);
+		assertContains("    Point origin = Point(1, 2);\n", shapeHeader);
+	}
+
+	@Test public void testCSharpStruct() throws IOException {
+		translate("c#", "Point", POINT);
+		String source = readTarget("Point.cs");
+
+		assertContains("    public struct Point {\n", source);
+		assertNotContains("using org.juniversal.annotations;", source);
+		assertContains("        private Point origin = new Point(1, 2);\n", readTarget("Shape.cs"));
+	}
+
+	@Test public void testOtherValueTypeAnnotation() throws IOException {
+		writeSource("test/ValueType.java", "package test;\n\npublic @interface ValueType {\n}\n");
+		translate("c#", "Point", POINT.replace("import org.juniversal.annotations.ValueType;\n\n", ""));
+
+		assertContains("    public sealed class Point {\n", readTarget("Point.cs"));
+	}
+}
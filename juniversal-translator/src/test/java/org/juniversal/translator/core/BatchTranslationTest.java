@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BatchTranslationTest {
+	@Test public void testPackagesKeptTogether() {
+		List<String[]> batches = Translator.getBatches(new String[]{"a/A1.java", "a/A2.java", "b/B1.java",
+				"b/B2.java", "b/B3.java", "c/C1.java"}, 4);
+
+		// b doesn't fit in the rest of the first batch, so that batch ends early instead of splitting b
+		assertBatches(batches, new String[][]{
+				{"a/A1.java", "a/A2.java"},
+				{"b/B1.java", "b/B2.java", "b/B3.java", "c/C1.java"}});
+	}
+
+	@Test public void testPackageBiggerThanBatchSplit() {
+		List<String[]> batches = Translator.getBatches(new String[]{"a/A1.java", "b/B1.java", "b/B2.java",
+				"b/B3.java", "b/B4.java", "b/B5.java", "c/C1.java"}, 2);
+
+		assertBatches(batches, new String[][]{
+				{"a/A1.java"},
+				{"b/B1.java", "b/B2.java"},
+				{"b/B3.java", "b/B4.java"},
+				{"b/B5.java", "c/C1.java"}});
+	}
+
+	/**
+	 * A package's files are grouped together even when they aren't adjacent in the input, with the packages in the
+	 * order they're first seen.
+	 */
+	@Test public void testInterleavedPackagesGrouped() {
+		List<String[]> batches = Translator.getBatches(new String[]{"a/A1.java", "b/B1.java", "a/A2.java",
+				"Top.java", "b/B2.java"}, 2);
+
+		assertBatches(batches, new String[][]{
+				{"a/A1.java", "a/A2.java"},
+				{"b/B1.java", "b/B2.java"},
+				{"Top.java"}});
+	}
+
+	@Test public void testEveryFileInOneBatch() {
+		ArrayList<String> javaFiles = new ArrayList<>();
+		for (int i = 0; i < 50; i++)
+			javaFiles.add("package" + (i % 7) + "/File" + i + ".java");
+
+		for (int batchSize = 1; batchSize <= 60; batchSize++) {
+			List<String[]> batches = Translator.getBatches(javaFiles.toArray(new String[javaFiles.size()]), batchSize);
+
+			ArrayList<String> batchedFiles = new ArrayList<>();
+			for (String[] batch : batches) {
+				assertTrue(batch.length > 0);
+				assertTrue(batch.length <= batchSize);
+				batchedFiles.addAll(Arrays.asList(batch));
+			}
+
+			assertEquals(javaFiles.size(), batchedFiles.size());
+			assertTrue(batchedFiles.containsAll(javaFiles));
+		}
+	}
+
+	@Test public void testNoFiles() {
+		assertTrue(Translator.getBatches(new String[0], 10).isEmpty());
+	}
+
+	private static void assertBatches(List<String[]> batches, String[][] expected) {
+		assertEquals(expected.length, batches.size());
+		for (int i = 0; i < expected.length; i++)
+			assertArrayEquals(expected[i], batches.get(i));
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.TreeMap;
+
+public class ParallelTranslationTest {
+	@Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test public void testParallelOutputMatchesSerial() throws IOException {
+		File sourceDirectory = temporaryFolder.newFolder("src");
+		writeSources(new File(sourceDirectory, "parallel"), 12);
+
+		assertParallelOutputMatchesSerial(sourceDirectory, "-j", "4");
+	}
+
+	/**
+	 * Each file uses members of generic JDK types, whose parameterized bindings JDT creates lazily, as they're first
+	 * used.  Those files are split between threads, so this fails if bindings are shared between threads.
+	 */
+	@Test public void testParallelJdkGenericMembers() throws IOException {
+		File sourceDirectory = temporaryFolder.newFolder("src");
+		for (int i = 0; i < 8; i++)
+			writeJdkGenericsSource(new File(sourceDirectory, "generics" + i), i);
+
+		assertParallelOutputMatchesSerial(sourceDirectory, "-j", "4");
+		assertParallelOutputMatchesSerial(sourceDirectory, "-j", "3", "-batchsize", "2");
+	}
+
+	private void assertParallelOutputMatchesSerial(File sourceDirectory, String... parallelArgs) throws IOException {
+		for (String language : new String[]{"c++", "c#"}) {
+			File serialDirectory = temporaryFolder.newFolder();
+			File parallelDirectory = temporaryFolder.newFolder();
+
+			assertTrue(Translator.translate(new String[]{"-l", language, "-o", serialDirectory.getPath(),
+					sourceDirectory.getPath()}));
+
+			ArrayList<String> args = new ArrayList<>();
+			Collections.addAll(args, "-l", language, "-o", parallelDirectory.getPath());
+			Collections.addAll(args, parallelArgs);
+			args.add(sourceDirectory.getPath());
+			assertTrue(Translator.translate(args.toArray(new String[args.size()])));
+
+			TreeMap<String, String> serialFiles = readFiles(serialDirectory);
+			assertFalse(serialFiles.isEmpty());
+			assertEquals(serialFiles, readFiles(parallelDirectory));
+		}
+	}
+
+	/**
+	 * Write a chain of classes, each overriding & adding to its superclass, so the translations on different threads
+	 * all walk the same supertypes.
+	 */
+	private static void writeSources(File packageDirectory, int count) throws IOException {
+		assertTrue(packageDirectory.mkdirs());
+
+		for (int i = 0; i < count; i++) {
+			StringBuilder source = new StringBuilder();
+			source.append("package parallel;\n\n");
+			source.append("import java.util.ArrayList;\n");
+			source.append("import java.util.List;\n\n");
+			source.append("public class Class" + i + (i > 0 ? " extends Class" + (i - 1) : "") + " {\n");
+			source.append("    private int count" + i + ";\n");
+			source.append("    private final List<Integer> values" + i + " = new ArrayList<Integer>();\n\n");
+			source.append("    public synchronized void increment" + i + "() {\n");
+			source.append("        count" + i + "++;\n");
+			source.append("    }\n\n");
+			source.append("    public int getValue() {\n");
+			source.append("        values" + i + ".add(" + i + ");\n");
+			source.append("        return " + (i > 0 ? "super.getValue() + " : "") + "values" + i + ".get(0);\n");
+			source.append("    }\n\n");
+			source.append("    private static int sum(int[] values) {\n");
+			source.append("        int total = 0;\n");
+			source.append("        for (int value : values)\n");
+			source.append("            total += value;\n");
+			source.append("        return total;\n");
+			source.append("    }\n");
+			source.append("}\n");
+
+			Files.write(new File(packageDirectory, "Class" + i + ".java").toPath(),
+					source.toString().getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static void writeJdkGenericsSource(File packageDirectory, int i) throws IOException {
+		assertTrue(packageDirectory.mkdirs());
+
+		StringBuilder source = new StringBuilder();
+		source.append("package generics" + i + ";\n\n");
+		source.append("import java.util.ArrayList;\n");
+		source.append("import java.util.Collections;\n");
+		source.append("import java.util.HashMap;\n");
+		source.append("import java.util.Iterator;\n");
+		source.append("import java.util.List;\n");
+		source.append("import java.util.Map;\n\n");
+		source.append("public class Generics" + i + " {\n");
+		source.append("    private final Map<String, List<Integer>> groups = new HashMap<String, List<Integer>>();\n\n");
+		source.append("    public void add(String key, int value) {\n");
+		source.append("        List<Integer> values = groups.get(key);\n");
+		source.append("        if (values == null) {\n");
+		source.append("            values = new ArrayList<Integer>();\n");
+		source.append("            groups.put(key, values);\n");
+		source.append("        }\n");
+		source.append("        values.add(value + " + i + ");\n");
+		source.append("    }\n\n");
+		source.append("    public List<String> getSortedKeys() {\n");
+		source.append("        List<String> keys = new ArrayList<String>(groups.keySet());\n");
+		source.append("        Collections.sort(keys);\n");
+		source.append("        return Collections.unmodifiableList(keys);\n");
+		source.append("    }\n\n");
+		source.append("    public int getTotal() {\n");
+		source.append("        int total = 0;\n");
+		source.append("        for (Map.Entry<String, List<Integer>> entry : groups.entrySet()) {\n");
+		source.append("            Iterator<Integer> iterator = entry.getValue().iterator();\n");
+		source.append("            while (iterator.hasNext())\n");
+		source.append("                total += iterator.next();\n");
+		source.append("        }\n");
+		source.append("        return total;\n");
+		source.append("    }\n");
+		source.append("}\n");
+
+		Files.write(new File(packageDirectory, "Generics" + i + ".java").toPath(),
+				source.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static TreeMap<String, String> readFiles(File directory) throws IOException {
+		TreeMap<String, String> files = new TreeMap<>();
+		readFiles(directory, "", files);
+		return files;
+	}
+
+	private static void readFiles(File directory, String prefix, TreeMap<String, String> files) throws IOException {
+		File[] children = directory.listFiles();
+		assertNotNull(children);
+
+		for (File child : children) {
+			if (child.isDirectory())
+				readFiles(child, prefix + child.getName() + "/", files);
+			else files.put(prefix + child.getName(), new String(Files.readAllBytes(child.toPath()), StandardCharsets.UTF_8));
+		}
+	}
+}
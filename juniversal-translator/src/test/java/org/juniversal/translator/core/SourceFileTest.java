@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import static org.junit.Assert.*;
+import org.xuniversal.translator.core.SourceFile;
+
+import org.junit.*;
+
+public class SourceFileTest {
+
+	@Test public void testLineNumbersAndColumns() {
+		SourceFile sourceFile = new SourceFile("ab\ncd\r\nef\rgh", 4);
+
+		assertEquals(1, sourceFile.getLineNumber(0));
+		assertEquals(1, sourceFile.getLineNumber(2));
+		assertEquals(2, sourceFile.getLineNumber(3));
+		assertEquals(2, sourceFile.getLineNumber(6));
+		assertEquals(3, sourceFile.getLineNumber(7));
+		assertEquals(4, sourceFile.getLineNumber(10));
+
+		assertEquals(1, sourceFile.getPhysicalColumn(4));
+		assertEquals(0, sourceFile.getPhysicalColumn(10));
+
+		assertEquals(0, sourceFile.getPosition(1, 0));
+		assertEquals(7, sourceFile.getPosition(3, 0));
+		assertEquals(11, sourceFile.getPosition(4, 1));
+		assertEquals(-1, sourceFile.getPosition(4, 2));
+		assertEquals(-1, sourceFile.getPosition(5, 0));
+	}
+
+	@Test public void testLogicalColumns() {
+		SourceFile sourceFile = new SourceFile("ab\tc\t\td\n\tx", 4);
+
+		assertEquals(2, sourceFile.getSourceLogicalColumn(2));
+		assertEquals(4, sourceFile.getSourceLogicalColumn(3));
+		assertEquals(8, sourceFile.getSourceLogicalColumn(5));
+		assertEquals(12, sourceFile.getSourceLogicalColumn(6));
+		// Going backward on a line shouldn't use the cached column from further along
+		assertEquals(5, sourceFile.getSourceLogicalColumn(4));
+		assertEquals(4, sourceFile.getSourceLogicalColumn(9));
+	}
+}
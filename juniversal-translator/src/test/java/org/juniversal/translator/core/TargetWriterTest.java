@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import static org.junit.Assert.*;
+import org.xuniversal.translator.core.LineEnding;
+import org.xuniversal.translator.core.TargetWriter;
+import org.xuniversal.translator.cplusplus.CPlusPlusTargetProfile;
+
+import java.io.StringWriter;
+
+import org.junit.*;
+
+public class TargetWriterTest {
+
+	@Test public void testWriteString() {
+		assertEquals("abc\r\n    def  x\r\n\r\nghi", writeString(-1, 0, "abc\n    def  x\r\n  \nghi"));
+		assertEquals("\t\tabc\r\n\t  def", writeString(4, 0, "        abc\n      def"));
+		assertEquals("  abc\r\n  def", writeString(-1, 2, "abc\ndef"));
+	}
+
+	@Test public void testWriteStringMatchesWriteChar() {
+		String text = "class Foo {\n    int x = 1;   // comment\r\n\n        y++;\n  }\n";
+
+		StringBuilder longText = new StringBuilder();
+		for (int i = 0; i < 1000; ++i)
+			longText.append(text);
+
+		for (int tabStop : new int[] { -1, 4 }) {
+			for (int additionalIndentation : new int[] { 0, 3 }) {
+				assertEquals(writeChars(tabStop, additionalIndentation, text),
+						writeString(tabStop, additionalIndentation, text));
+				assertEquals(writeChars(tabStop, additionalIndentation, longText.toString()),
+						writeString(tabStop, additionalIndentation, longText.toString()));
+			}
+		}
+	}
+
+	@Test public void testLineEnding() {
+		assertEquals("abc\ndef\n", writeString(LineEnding.LF, "", "abc\r\ndef\n"));
+		assertEquals("abc\ndef", writeString(LineEnding.PRESERVE, "x\ny\r\n", "abc\ndef"));
+		assertEquals("abc\r\ndef", writeString(LineEnding.PRESERVE, "x\r\ny\n", "abc\ndef"));
+	}
+
+	@Test public void testBuffering() {
+		StringWriter stringWriter = new StringWriter();
+		TargetWriter targetWriter = createTargetWriter(stringWriter, -1);
+
+		targetWriter.write("first\n");
+		String bufferContents;
+		try (TargetWriter.BufferedWriter bufferedWriter = targetWriter.startBuffering()) {
+			targetWriter.write("second\n");
+			bufferContents = bufferedWriter.getBufferContents();
+		}
+		targetWriter.write("third");
+		targetWriter.close();
+
+		assertEquals("second\r\n", bufferContents);
+		assertEquals("first\r\nthird", stringWriter.toString());
+	}
+
+	private static String writeString(int tabStop, int additionalIndentation, String text) {
+		StringWriter stringWriter = new StringWriter();
+		try (TargetWriter targetWriter = createTargetWriter(stringWriter, tabStop)) {
+			targetWriter.setAdditionalIndentation(additionalIndentation);
+			targetWriter.write(text);
+		}
+		return stringWriter.toString();
+	}
+
+	private static String writeString(LineEnding lineEnding, String source, String text) {
+		StringWriter stringWriter = new StringWriter();
+		CPlusPlusTargetProfile targetProfile = new CPlusPlusTargetProfile();
+		targetProfile.setLineEnding(lineEnding);
+		try (TargetWriter targetWriter = targetProfile.createTargetWriter(stringWriter)) {
+			targetWriter.setSource(source);
+			targetWriter.write(text);
+		}
+		return stringWriter.toString();
+	}
+
+	private static String writeChars(int tabStop, int additionalIndentation, String text) {
+		StringWriter stringWriter = new StringWriter();
+		try (TargetWriter targetWriter = createTargetWriter(stringWriter, tabStop)) {
+			targetWriter.setAdditionalIndentation(additionalIndentation);
+			for (int i = 0; i < text.length(); ++i)
+				targetWriter.write(text.charAt(i));
+		}
+		return stringWriter.toString();
+	}
+
+	private static TargetWriter createTargetWriter(StringWriter stringWriter, int tabStop) {
+		CPlusPlusTargetProfile targetProfile = new CPlusPlusTargetProfile();
+		targetProfile.setTabStop(tabStop);
+		return targetProfile.createTargetWriter(stringWriter);
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class TranslationManifestTest {
+	@Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File sourceDirectory;
+	private File outputDirectory;
+
+	@Before public void writeSources() throws IOException {
+		sourceDirectory = temporaryFolder.newFolder("src");
+		outputDirectory = temporaryFolder.newFolder("out");
+
+		writeSource("Base", "public class Base {\n    public int value() {\n        return 1;\n    }\n}\n");
+		writeSource("User", "public class User {\n    public int use(Base base) {\n        return base.value();\n    }\n}\n");
+		writeSource("Other", "public class Other {\n}\n");
+
+		assertTrue(translate());
+		assertTrue(new File(outputDirectory, TranslationManifest.FILE_NAME).exists());
+		markTargetsStale();
+	}
+
+	@Test public void testUnchanged() throws IOException {
+		assertTrue(translate());
+
+		assertStale("Base", "User", "Other");
+	}
+
+	@Test public void testSourceChanged() throws IOException {
+		writeSource("Other", "public class Other {\n    private int count;\n}\n");
+		assertTrue(translate());
+
+		assertTranslated("Other");
+		assertStale("Base", "User");
+		assertTrue(readTarget("Other").contains("private int count;"));
+	}
+
+	@Test public void testDependencyChanged() throws IOException {
+		writeSource("Base", "public class Base {\n    public int value() {\n        return 2;\n    }\n}\n");
+		assertTrue(translate());
+
+		assertTranslated("Base", "User");
+		assertStale("Other");
+	}
+
+	@Test public void testSourceDeleted() throws IOException {
+		assertTrue(getSourceFile("Other").delete());
+		assertTrue(translate());
+
+		assertFalse(getTargetFile("Other").exists());
+		assertStale("Base", "User");
+	}
+
+	@Test public void testTargetMissing() throws IOException {
+		assertTrue(getTargetFile("User").delete());
+		assertTrue(translate());
+
+		assertTranslated("User");
+		assertStale("Base", "Other");
+	}
+
+	@Test public void testFailedFile() throws IOException {
+		// Inner (non static) classes aren't supported for C#
+		String failingSource = "public class Base {\n    class Inner {\n    }\n\n" +
+		                       "    public int value() {\n        return 3;\n    }\n}\n";
+		writeSource("Base", failingSource);
+		assertFalse(translate());
+		markTargetsStale();
+
+		// A failed file is translated again, even if unchanged
+		assertFalse(translate());
+		assertTranslated("Base");
+		assertStale("Other");
+		markTargetsStale();
+
+		// Once it's fixed, the files depending on it are translated again too
+		writeSource("Base", failingSource.replace("class Inner", "static class Inner"));
+		assertTrue(translate());
+		assertTranslated("Base", "User");
+		assertStale("Other");
+	}
+
+	@Test public void testSettingsChanged() throws IOException {
+		assertTrue(translate("-lineending", "lf"));
+
+		assertTranslated("Base", "User", "Other");
+	}
+
+	private boolean translate(String... options) {
+		String[] args = new String[options.length + 6];
+		args[0] = "-l";
+		args[1] = "c#";
+		args[2] = "-o";
+		args[3] = outputDirectory.getPath();
+		args[4] = "-incremental";
+		System.arraycopy(options, 0, args, 5, options.length);
+		args[args.length - 1] = sourceDirectory.getPath();
+		return Translator.translate(args);
+	}
+
+	private void writeSource(String className, String source) throws IOException {
+		File file = getSourceFile(className);
+		assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+		Files.write(file.toPath(), ("package incremental;\n\n" + source).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private File getSourceFile(String className) {
+		return new File(new File(sourceDirectory, "incremental"), className + ".java");
+	}
+
+	private File getTargetFile(String className) {
+		return new File(new File(outputDirectory, "incremental"), className + ".cs");
+	}
+
+	private String readTarget(String className) throws IOException {
+		return new String(Files.readAllBytes(getTargetFile(className).toPath()), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Overwrite the existing target files with a marker, so translating them again can be detected.
+	 */
+	private void markTargetsStale() throws IOException {
+		for (String className : new String[]{"Base", "User", "Other"}) {
+			File targetFile = getTargetFile(className);
+			if (targetFile.exists())
+				Files.write(targetFile.toPath(), "stale".getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private void assertStale(String... classNames) throws IOException {
+		for (String className : classNames)
+			assertEquals(className + " was translated again", "stale", readTarget(className));
+	}
+
+	private void assertTranslated(String... classNames) throws IOException {
+		for (String className : classNames)
+			assertNotEquals(className + " wasn't translated again", "stale", readTarget(className));
+	}
+}
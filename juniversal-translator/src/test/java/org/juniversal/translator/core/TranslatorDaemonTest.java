@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TranslatorDaemonTest {
+	@Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File projectDirectory;
+
+	@Before public void writeSources() throws IOException {
+		projectDirectory = temporaryFolder.newFolder("project");
+		File packageDirectory = new File(projectDirectory, "src/daemon");
+		assertTrue(packageDirectory.mkdirs());
+		Files.write(new File(packageDirectory, "Simple.java").toPath(),
+				"package daemon;\n\npublic class Simple {\n}\n".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test public void testTranslate() throws IOException {
+		// Relative paths are resolved against the client's directory
+		List<String> response = serve(
+				"dir " + projectDirectory.getPath(),
+				"args 5", "-l", "c#", "-o", "out", "src",
+				"dir " + projectDirectory.getPath(),
+				"args 5", "-l", "c++", "-o", "out", "src");
+
+		assertEquals(2, countLines(response, "exit 0"));
+		assertTrue(new File(projectDirectory, "out/daemon/Simple.cs").exists());
+		assertTrue(new File(projectDirectory, "out/daemon/Simple.h").exists());
+		assertTrue(new File(projectDirectory, "out/daemon/Simple.cpp").exists());
+	}
+
+	@Test public void testOutput() throws IOException {
+		List<String> response = serve("args 5", "-l", "c#", "-o", new File(projectDirectory, "out").getPath(),
+				new File(projectDirectory, "src").getPath());
+
+		assertTrue(response.contains("out Translating " + new File(projectDirectory, "src/daemon/Simple.java").getPath()));
+		assertEquals("exit 0", response.get(response.size() - 1));
+	}
+
+	@Test public void testTranslationError() throws IOException {
+		List<String> response = serve(
+				"args 2", "-o", "out",
+				"args 0");
+
+		assertEquals(Arrays.asList(
+				"err Error: No target language specified; must specify -l <language> param", "exit 1",
+				"err Error: No target language specified; must specify -l <language> param", "exit 1"),
+				removeUsage(response));
+	}
+
+	@Test public void testInvalidRequests() throws IOException {
+		// The daemon keeps serving after an invalid request
+		List<String> response = serve("args x", "args -3", "translate", "stop");
+
+		assertEquals(Arrays.asList(
+				"err Error: invalid translator daemon request: args x", "exit 1",
+				"err Error: invalid translator daemon request: args -3", "exit 1",
+				"err Error: invalid translator daemon request: translate", "exit 1",
+				"exit 0"), response);
+	}
+
+	@Test public void testStop() throws IOException {
+		List<String> response = serve("stop", "args 5", "-l", "c#", "-o", "out", "src");
+
+		assertEquals(Arrays.asList("exit 0"), response);
+	}
+
+	@Test public void testTruncatedRequest() throws IOException {
+		assertEquals(Arrays.<String>asList(), serve("args 3", "-l", "c#"));
+		assertEquals(Arrays.<String>asList(), serve("dir " + projectDirectory.getPath()));
+	}
+
+	/**
+	 * Send the request lines to a new daemon, returning its response lines.
+	 */
+	private static List<String> serve(String... requestLines) throws IOException {
+		StringBuilder request = new StringBuilder();
+		for (String requestLine : requestLines)
+			request.append(requestLine).append('\n');
+
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+		new TranslatorDaemon().serve(new BufferedReader(new StringReader(request.toString())),
+				new PrintStream(response, true, "UTF-8"));
+
+		String responseText = new String(response.toByteArray(), StandardCharsets.UTF_8);
+		return responseText.isEmpty() ? Arrays.<String>asList() :
+		       Arrays.asList(responseText.replace("\r\n", "\n").split("\n"));
+	}
+
+	private static int countLines(List<String> lines, String line) {
+		int count = 0;
+		for (String currLine : lines) {
+			if (currLine.equals(line))
+				++count;
+		}
+		return count;
+	}
+
+	/**
+	 * Remove the usage lines that follow usage errors.
+	 */
+	private static List<String> removeUsage(List<String> lines) {
+		List<String> result = new ArrayList<>();
+		for (String line : lines) {
+			if (!line.startsWith("err Usage: "))
+				result.add(line);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.junit.Test;
+import org.juniversal.translator.TranslateSourceFileTest;
+
+import java.io.IOException;
+
+public class ArrayBoundsAnalysisTest extends TranslateSourceFileTest {
+	@Test public void testInBoundsLoop() throws IOException {
+		translate("c++", "Loops",
+				"public class Loops {\n" +
+				"    public static int sum(int[] values) {\n" +
+				"        int total = 0;\n" +
+				"        for (int i = 0; i < values.length; i++)\n" +
+				"            total += values[i];\n" +
+				"        return total;\n" +
+				"    }\n" +
+				"}\n");
+
+		assertContains("total += values->uncheckedAt(i);", readTarget("Loops.cpp"));
+	}
+
+	@Test public void testCheckedAccesses() throws IOException {
+		translate("c++", "Loops",
+				"public class Loops {\n" +
+				"    public static int sumThroughLength(int[] values) {\n" +
+				"        int total = 0;\n" +
+				"        for (int i = 0; i <= values.length; i++)\n" +
+				"            total += values[i];\n" +
+				"        return total;\n" +
+				"    }\n\n" +
+				"    public static int sumSkipping(int[] values) {\n" +
+				"        int total = 0;\n" +
+				"        for (int i = 0; i < values.length; i++) {\n" +
+				"            total += values[i];\n" +
+				"            i += 2;\n" +
+				"        }\n" +
+				"        return total;\n" +
+				"    }\n\n" +
+				"    public static void clear(int[] values, int[] other) {\n" +
+				"        for (int i = 0; i < values.length; i++) {\n" +
+				"            values[i] = 0;\n" +
+				"            values = other;\n" +
+				"        }\n" +
+				"    }\n\n" +
+				"    public static int first(int[] values) {\n" +
+				"        return values[0];\n" +
+				"    }\n" +
+				"}\n");
+		String source = readTarget("Loops.cpp");
+
+		assertNotContains("uncheckedAt", source);
+		// The index can reach the length
+		assertContains("total += values->at(i);\n    return total;", source);
+		// The array changes in the loop
+		assertContains("values->at(i) = 0;", source);
+		// Not in a loop
+		assertContains("return values->at(0);", source);
+	}
+}
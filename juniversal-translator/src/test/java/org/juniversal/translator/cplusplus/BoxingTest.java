@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.junit.Test;
+import org.juniversal.translator.TranslateSourceFileTest;
+
+import java.io.IOException;
+
+public class BoxingTest extends TranslateSourceFileTest {
+	private static final String SOURCE =
+			"public class Boxes {\n" +
+			"    public int next(int i) {\n" +
+			"        return (Integer) i + 1;\n" +
+			"    }\n\n" +
+			"    public Object box(int i, double d) {\n" +
+			"        Object o = d;\n" +
+			"        return i;\n" +
+			"    }\n" +
+			"}\n";
+
+	@Test public void testBoxImmediatelyUnboxed() throws IOException {
+		translate("c++", "Boxes", SOURCE);
+
+		assertContains("return (i) + 1;", readTarget("Boxes.cpp"));
+	}
+
+	@Test public void testBoxes() throws IOException {
+		translate("c++", "Boxes", SOURCE);
+		String source = readTarget("Boxes.cpp");
+
+		assertContains("std::shared_ptr< xuniv::Object > o = xuniv::Box<double>::make(d);", source);
+		assertContains("return xuniv::Box<int>::make(i);", source);
+	}
+
+	@Test public void testBoxCache() throws IOException {
+		translate("c++", "Boxes", SOURCE, "-boxcache");
+		String source = readTarget("Boxes.cpp");
+
+		// Java doesn't cache floating point boxes
+		assertContains("std::shared_ptr< xuniv::Object > o = xuniv::Box<double>::make(d);", source);
+		assertContains("return xuniv::Box<int>::valueOf(i);", source);
+	}
+}
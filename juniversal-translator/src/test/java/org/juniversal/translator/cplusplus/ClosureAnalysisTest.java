@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.junit.Test;
+import org.juniversal.translator.TranslateSourceFileTest;
+
+import java.io.IOException;
+
+public class ClosureAnalysisTest extends TranslateSourceFileTest {
+	private static final String SOURCE =
+			"public class Closures {\n" +
+			"    private int total;\n\n" +
+			"    @FunctionalInterface\n" +
+			"    public interface IntVisitor {\n" +
+			"        void visit(int value);\n" +
+			"    }\n\n" +
+			"    private static void forEachValue(int[] values, IntVisitor visitor) {\n" +
+			"        for (int value : values)\n" +
+			"            visitor.visit(value);\n" +
+			"    }\n\n" +
+			"    private static void forEachStored(int[] values, IntVisitor visitor) {\n" +
+			"        for (int value : values)\n" +
+			"            visitor.visit(value);\n" +
+			"    }\n\n" +
+			"    public static void forEachPublic(int[] values, IntVisitor visitor) {\n" +
+			"        for (int value : values)\n" +
+			"            visitor.visit(value);\n" +
+			"    }\n\n" +
+			"    public void storeVisitor(int[] values) {\n" +
+			"        IntVisitor visitor = new IntVisitor() {\n" +
+			"            @Override public void visit(int value) {\n" +
+			"                total += value;\n" +
+			"            }\n" +
+			"        };\n" +
+			"        forEachStored(values, visitor);\n" +
+			"    }\n\n" +
+			"    public void scale(int[] values, final int scale) {\n" +
+			"        forEachValue(values, new IntVisitor() {\n" +
+			"            @Override public void visit(int value) {\n" +
+			"                total += value * scale;\n" +
+			"            }\n" +
+			"        });\n" +
+			"    }\n" +
+			"}\n";
+
+	@Test public void testCaptures() throws IOException {
+		translate("c++", "Closures", SOURCE);
+		String source = readTarget("Closures.cpp");
+
+		assertContains("std::shared_ptr< IntVisitor > visitor = [this](auto value) -> auto{", source);
+		assertContains("forEachValue(values, [this, scale](auto value) -> auto{", source);
+		assertNotContains("FunctionRef", source);
+		assertContains("void Closures::forEachValue(std::shared_ptr< xuniv::Array<int> > values, " +
+		               "std::shared_ptr< IntVisitor > visitor) {", source);
+		assertContains("        visitor->visit(value);\n", source);
+	}
+
+	@Test public void testFunctionRefs() throws IOException {
+		translate("c++", "Closures", SOURCE, "-functionrefs");
+		String source = readTarget("Closures.cpp");
+
+		// Only ever passed lambdas, so the lambda can be referenced & capture by reference
+		assertContains("void Closures::forEachValue(std::shared_ptr< xuniv::Array<int> > values, " +
+		               "xuniv::FunctionRef< void(int) > visitor) {", source);
+		assertContains("        visitor(value);\n", source);
+		assertContains("forEachValue(values, [this, &scale](auto value) -> auto{", source);
+
+		// Passed a stored visitor
+		assertContains("void Closures::forEachStored(std::shared_ptr< xuniv::Array<int> > values, " +
+		               "std::shared_ptr< IntVisitor > visitor) {", source);
+		// May be called from other files
+		assertContains("void Closures::forEachPublic(std::shared_ptr< xuniv::Array<int> > values, " +
+		               "std::shared_ptr< IntVisitor > visitor) {", source);
+	}
+}
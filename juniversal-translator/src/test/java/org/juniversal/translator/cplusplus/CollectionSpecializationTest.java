@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.junit.Test;
+import org.juniversal.translator.TranslateSourceFileTest;
+
+import java.io.IOException;
+
+public class CollectionSpecializationTest extends TranslateSourceFileTest {
+	private static final String SOURCE =
+			"import java.util.ArrayList;\n" +
+			"import java.util.HashMap;\n" +
+			"import java.util.List;\n" +
+			"import java.util.Map;\n\n" +
+			"public class Counts {\n" +
+			"    public int count() {\n" +
+			"        List<Integer> counts = new ArrayList<Integer>();\n" +
+			"        counts.add(1);\n" +
+			"        Integer first = counts.get(0);\n" +
+			"        return first;\n" +
+			"    }\n\n" +
+			"    public Object lookup() {\n" +
+			"        Map<Long, String> names = new HashMap<Long, String>();\n" +
+			"        names.put(1L, \"one\");\n" +
+			"        return names.get(1L);\n" +
+			"    }\n\n" +
+			"    public List<Integer> values() {\n" +
+			"        List<Integer> values = new ArrayList<Integer>();\n" +
+			"        values.add(2);\n" +
+			"        return values;\n" +
+			"    }\n" +
+			"}\n";
+
+	@Test public void testBoxedCollections() throws IOException {
+		translate("c++", "Counts", SOURCE);
+		String source = readTarget("Counts.cpp");
+
+		assertContains("std::shared_ptr< java::util::List<std::shared_ptr< java::lang::Integer >> > counts = " +
+		               "std::make_shared<java::util::ArrayList<std::shared_ptr< java::lang::Integer >>>();", source);
+		assertContains("counts->add(xuniv::Box<int>::make(1));", source);
+		assertNotContains("List<int>", source);
+	}
+
+	@Test public void testPrimitiveCollections() throws IOException {
+		translate("c++", "Counts", SOURCE, "-primitivecollections");
+		String source = readTarget("Counts.cpp");
+
+		assertContains("std::shared_ptr< java::util::List<int> > counts = " +
+		               "std::make_shared<java::util::ArrayList<int>>();", source);
+		assertContains("counts->add(1);", source);
+		// An element used as an object is boxed when it's returned
+		assertContains("std::shared_ptr< java::lang::Integer > first = xuniv::Box<int>::make(counts->get(0));",
+				source);
+
+		// Map.get takes an Object
+		assertContains("names->put(xuniv::Box<int64_t>::make(1LL), juniversalStringLiteral0());", source);
+		// Returned, so used elsewhere
+		assertContains("values->add(xuniv::Box<int>::make(2));", source);
+	}
+}
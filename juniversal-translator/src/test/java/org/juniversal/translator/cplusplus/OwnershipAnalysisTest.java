@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.junit.Test;
+import org.juniversal.translator.TranslateSourceFileTest;
+
+import java.io.IOException;
+
+public class OwnershipAnalysisTest extends TranslateSourceFileTest {
+	private static final String SOURCE =
+			"public final class Borrow {\n" +
+			"    private Borrow next;\n" +
+			"    private int value;\n\n" +
+			"    private static int length(Borrow borrow) {\n" +
+			"        return borrow.value + 1;\n" +
+			"    }\n\n" +
+			"    public int describe(String label) {\n" +
+			"        return label.length();\n" +
+			"    }\n\n" +
+			"    public void setNext(Borrow next) {\n" +
+			"        this.next = next;\n" +
+			"    }\n\n" +
+			"    private static void release(Borrow borrow) {\n" +
+			"        borrow.next = null;\n" +
+			"    }\n" +
+			"}\n";
+
+	@Test public void testBorrowedParameter() throws IOException {
+		translate("c++", "Borrow", SOURCE);
+
+		assertContains("static int length(const std::shared_ptr< Borrow >& borrow);", readTarget("Borrow.h"));
+		assertContains("int Borrow::length(const std::shared_ptr< Borrow >& borrow) {", readTarget("Borrow.cpp"));
+	}
+
+	@Test public void testOwnedParameters() throws IOException {
+		translate("c++", "Borrow", SOURCE);
+		String source = readTarget("Borrow.cpp");
+
+		// Calls another method, which could release the caller's reference
+		assertContains("int Borrow::describe(std::shared_ptr< xuniv::String > label) {", source);
+		// Stores the parameter
+		assertContains("void Borrow::setNext(std::shared_ptr< Borrow > next) {", source);
+		// Writes a reference field, which could be the one the caller passed
+		assertContains("void Borrow::release(std::shared_ptr< Borrow > borrow) {", source);
+	}
+}
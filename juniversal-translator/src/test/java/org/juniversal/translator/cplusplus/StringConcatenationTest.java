@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.junit.Test;
+import org.juniversal.translator.TranslateSourceFileTest;
+
+import java.io.IOException;
+
+public class StringConcatenationTest extends TranslateSourceFileTest {
+	private static final String SOURCE =
+			"public class Concat {\n" +
+			"    public String join(String a, String b, int c) {\n" +
+			"        return a + \", \" + b + c;\n" +
+			"    }\n\n" +
+			"    public int add(int a, int b) {\n" +
+			"        return a + b;\n" +
+			"    }\n" +
+			"}\n";
+
+	@Test public void testConcatenation() throws IOException {
+		translate("c++", "Concat", SOURCE);
+		String source = readTarget("Concat.cpp");
+
+		assertContains("return a + juniversalStringLiteral0() + b + c;", source);
+		assertNotContains("StringBuilder", source);
+	}
+
+	@Test public void testConcatBuilder() throws IOException {
+		translate("c++", "Concat", SOURCE, "-concatbuilder");
+		String source = readTarget("Concat.cpp");
+
+		assertContains(
+				"return xuniv::StringBuilder(45).append(a).append(juniversalStringLiteral0()).append(b).append(c).toString();",
+				source);
+		// Only String concatenations are lowered
+		assertContains("return a + b;", source);
+	}
+}
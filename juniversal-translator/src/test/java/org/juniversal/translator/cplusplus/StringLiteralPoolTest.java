@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.juniversal.translator.TranslateSourceFileTest;
+
+import java.io.IOException;
+
+public class StringLiteralPoolTest extends TranslateSourceFileTest {
+	@Test public void testPooledLiterals() throws IOException {
+		translate("c++", "Literals",
+				"public class Literals {\n" +
+				"    public String greet(String name) {\n" +
+				"        String hello = \"hello\";\n" +
+				"        return hello + name + \"hello\";\n" +
+				"    }\n\n" +
+				"    public String other() {\n" +
+				"        return \"bye\";\n" +
+				"    }\n" +
+				"}\n");
+		String source = readTarget("Literals.cpp");
+
+		assertContains(
+				"namespace {\n" +
+				"    const std::shared_ptr< xuniv::String >& juniversalStringLiteral0() {\n" +
+				"        static const std::shared_ptr< xuniv::String > literal = xuniv::String::make(u\"hello\");\n" +
+				"        return literal;\n" +
+				"    }\n" +
+				"    const std::shared_ptr< xuniv::String >& juniversalStringLiteral1() {\n" +
+				"        static const std::shared_ptr< xuniv::String > literal = xuniv::String::make(u\"bye\");\n" +
+				"        return literal;\n" +
+				"    }\n" +
+				"}\n", source);
+
+		// Each distinct literal is made once, in the pool
+		assertEquals(source.indexOf("u\"hello\""), source.lastIndexOf("u\"hello\""));
+		assertContains("std::shared_ptr< xuniv::String > hello = juniversalStringLiteral0();", source);
+		assertContains("return hello + name + juniversalStringLiteral0();", source);
+		assertContains("return juniversalStringLiteral1();", source);
+	}
+}
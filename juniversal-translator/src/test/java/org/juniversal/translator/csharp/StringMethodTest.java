@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.csharp;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.juniversal.translator.TranslateSourceFileTest;
+
+import java.io.IOException;
+
+public class StringMethodTest extends TranslateSourceFileTest {
+	@Test public void testOrdinalMethods() throws IOException {
+		translate("c#", "Strings",
+				"public class Strings {\n" +
+				"    public boolean test(String a, String b) {\n" +
+				"        int i = a.indexOf(\"x\");\n" +
+				"        boolean same = a.substring(1).equals(b);\n" +
+				"        int c = a.compareTo(b);\n" +
+				"        return a.startsWith(b);\n" +
+				"    }\n" +
+				"}\n");
+		String source = readTarget("Strings.cs");
+
+		assertContains("int i = a.IndexOf(\"x\", StringComparison.Ordinal);", source);
+		assertContains("bool same = a.AsSpan(1).SequenceEqual(b);", source);
+		assertContains("int c = string.CompareOrdinal(a, b);", source);
+		assertContains("return a.StartsWith(b, StringComparison.Ordinal);", source);
+	}
+
+	private static final String SPLIT_SOURCE =
+			"public class Split {\n" +
+			"    public String[] split(String line) {\n" +
+			"        String[] fields = line.split(\",\");\n" +
+			"        String[] pipes = line.split(\"\\\\|\");\n" +
+			"        return line.split(\"\\\\s+\");\n" +
+			"    }\n" +
+			"}\n";
+
+	@Test public void testSplitHelpers() throws IOException {
+		translate("c#", "Split", SPLIT_SOURCE, "-splithelpers");
+		String source = readTarget("Split.cs");
+
+		assertContains("string[] fields = line.SplitOrdinal(',');", source);
+		assertContains("string[] pipes = line.SplitOrdinal('|');", source);
+		assertContains("return line.SplitRegex(\"\\\\s+\");", source);
+	}
+
+	@Test public void testSplitUnsupported() throws IOException {
+		assertFalse(tryTranslate("c#", "Split", SPLIT_SOURCE));
+	}
+}
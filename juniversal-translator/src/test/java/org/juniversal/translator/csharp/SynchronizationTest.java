@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.csharp;
+
+import org.junit.Test;
+import org.juniversal.translator.TranslateSourceFileTest;
+
+import java.io.IOException;
+
+public class SynchronizationTest extends TranslateSourceFileTest {
+	private static final String SOURCE =
+			"import java.util.ArrayList;\n" +
+			"import java.util.List;\n" +
+			"import java.util.concurrent.TimeUnit;\n\n" +
+			"public class Counter {\n" +
+			"    private int count;\n" +
+			"    private long total;\n" +
+			"    private int balance;\n" +
+			"    private List<String> log = new ArrayList<String>();\n" +
+			"    private TimeUnit unit = TimeUnit.SECONDS;\n" +
+			"    protected String label = \"\";\n\n" +
+			"    public synchronized void increment() {\n" +
+			"        count++;\n" +
+			"    }\n\n" +
+			"    public void add(long amount) {\n" +
+			"        synchronized (this) {\n" +
+			"            total += amount;\n" +
+			"        }\n" +
+			"    }\n\n" +
+			"    public synchronized int getCount() {\n" +
+			"        return count;\n" +
+			"    }\n\n" +
+			"    public synchronized boolean withdraw(int amount) {\n" +
+			"        if (balance < amount)\n" +
+			"            return false;\n" +
+			"        balance -= amount;\n" +
+			"        return true;\n" +
+			"    }\n\n" +
+			"    public void addToLog(String message) {\n" +
+			"        synchronized (log) {\n" +
+			"            log.add(message);\n" +
+			"        }\n" +
+			"    }\n\n" +
+			"    public synchronized TimeUnit getUnit() {\n" +
+			"        return unit;\n" +
+			"    }\n\n" +
+			"    public synchronized String getLabel() {\n" +
+			"        return label;\n" +
+			"    }\n" +
+			"}\n";
+
+	@Test public void testInterlocked() throws IOException {
+		translate("c#", "Counter", SOURCE);
+		String source = readTarget("Counter.cs");
+
+		assertContains("        public virtual void increment() {\n" +
+		               "            Interlocked.Increment(ref count);\n" +
+		               "        }\n", source);
+		assertContains("        public virtual void add(long amount) {\n" +
+		               "            Interlocked.Add(ref total, amount);\n" +
+		               "        }\n", source);
+		assertContains("using System.Threading;\n", source);
+	}
+
+	@Test public void testVolatileRead() throws IOException {
+		translate("c#", "Counter", SOURCE);
+		String source = readTarget("Counter.cs");
+
+		assertContains("        public virtual int getCount() {\n" +
+		               "            return Volatile.Read(ref count);\n" +
+		               "        }\n", source);
+		// Volatile.Read doesn't support enums
+		assertContains("        public virtual TimeUnit getUnit() {\n" +
+		               "            lock (juniversalLock) {\n" +
+		               "                return unit;\n", source);
+		// Subclasses can write the field without the lock
+		assertContains("        public virtual string getLabel() {\n" +
+		               "            lock (juniversalLock) {\n" +
+		               "                return label;\n", source);
+	}
+
+	@Test public void testLocks() throws IOException {
+		translate("c#", "Counter", SOURCE);
+		String source = readTarget("Counter.cs");
+
+		assertContains("        public virtual bool withdraw(int amount) {\n" +
+		               "            lock (juniversalLock) {\n" +
+		               "                if (balance < amount)\n", source);
+		assertContains("            lock (log) {\n", source);
+		assertContains("        protected readonly object juniversalLock = new object();\n", source);
+		assertNotContains("lock (this)", source);
+	}
+}
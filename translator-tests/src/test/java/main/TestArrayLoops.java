@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestArrayLoops {
+    private int[] field = new int[10];
+
+    public int testForwardLoop(int[] values) {
+        int sum = 0;
+        for (int i = 0; i < values.length; i++)
+            sum += values[i];
+        return sum;
+    }
+
+    public void testBackwardLoop(int[] values) {
+        for (int i = values.length - 1; i >= 0; --i)
+            values[i] = i;
+    }
+
+    public int testNotProvable(int[] values, int count) {
+        int sum = 0;
+        for (int i = 0; i < count; i++)
+            sum += values[i];
+
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i];
+            i++;
+        }
+
+        for (int i = 0; i < field.length; i++)
+            sum += field[i];
+
+        for (int i = 1; i < values.length; i++)
+            sum += values[i - 1];
+        return sum;
+    }
+
+    public int testEnhancedFor(int[][] rows, ArrayList<String> names, List<String> otherNames) {
+        int sum = 0;
+        for (int[] row : rows) {
+            for (int value : row)
+                sum += value;
+        }
+
+        for (String name : names) {
+            // Count the characters
+            sum += name.length();
+        }
+
+        for (String name : otherNames)
+            sum += name.length();
+
+        for (int value : field)
+            sum += value;
+        return sum;
+    }
+
+    public int testUnboxedElements(ArrayList<Integer> values) {
+        // A list parameter isn't specialized, so for C++ its boxed elements aren't read into an int by an indexed loop
+        int sum = 0;
+        for (int value : values)
+            sum += value;
+
+        // A local list is specialized, so its elements are ints already
+        ArrayList<Integer> squares = new ArrayList<Integer>();
+        squares.add(sum * sum);
+        for (int square : squares)
+            sum += square;
+        return sum;
+    }
+}
@@ -68,6 +68,13 @@ public class TestBoxing {
         actOnObject(inst.primitiveField);
     }
 
+    public void testBoxThenUnbox() {
+        int intValue = 1;
+
+        int sum = (Integer) intValue + 1;
+        long longSum = (Long) (intValue + 1L) * 2;
+    }
+
     private void actOnObject(Object o) {
         o.toString();
         o.hashCode();
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package main;
+
+public class TestClosures {
+    private int total;
+
+    @FunctionalInterface
+    public interface IntVisitor {
+        void visit(int value);
+    }
+
+    @FunctionalInterface
+    public interface Mapper<T> {
+        T map(String value);
+    }
+
+    private static void forEachValue(int[] values, IntVisitor visitor) {
+        for (int value : values)
+            visitor.visit(value);
+    }
+
+    private static <T> T mapName(String name, Mapper<T> mapper) {
+        return mapper.map(name);
+    }
+
+    // Callers outside this file may pass any IntVisitor, so the parameter stays a shared_ptr
+    public static void forEachPublic(int[] values, IntVisitor visitor) {
+        for (int value : values)
+            visitor.visit(value);
+    }
+
+    private static void forEachStored(int[] values, IntVisitor visitor) {
+        for (int value : values)
+            visitor.visit(value);
+    }
+
+    public void testStoredVisitor(int[] values) {
+        IntVisitor visitor = new IntVisitor() {
+            @Override public void visit(int value) {
+                total += value;
+            }
+        };
+        forEachStored(values, visitor);
+    }
+
+    public void testCaptures(int[] values, final int scale) {
+        forEachValue(values, new IntVisitor() {
+            @Override public void visit(int value) {
+                total += value * scale;
+            }
+        });
+
+        final String prefix = "name: ";
+        String mapped = mapName("value", new Mapper<String>() {
+            @Override public String map(String value) {
+                return prefix + value;
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package main;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class TestCollections {
+    public int testPrimitiveCollections() {
+        List<Integer> counts = new ArrayList<Integer>();
+        counts.add(1);
+
+        Map<Long, String> names = new HashMap<Long, String>();
+        names.put(1L, "one");
+
+        HashSet<Character> seen = new HashSet<Character>();
+        seen.add('a');
+
+        Integer first = counts.get(0);
+        List<Integer> copy = new ArrayList<Integer>();
+        copy.add(counts.get(0));
+
+        int total = 0;
+        for (int i = 0; i < counts.size(); i++)
+            total += counts.get(i);
+        return total;
+    }
+
+    public int testBoxedCollections(int k) {
+        // Methods taking an Object and null elements keep the collections boxed
+        Map<Integer, Integer> values = new HashMap<Integer, Integer>();
+        values.put(k, k);
+        Integer v = values.get(k);
+        if (v == null)
+            return 0;
+
+        List<Integer> list = new ArrayList<Integer>();
+        list.add(null);
+        list.add(k);
+
+        List<Integer> indexes = new ArrayList<Integer>();
+        indexes.add(k);
+        indexes.remove(k);
+
+        return list.size() + indexes.size();
+    }
+
+    public boolean testNullableElements(int k) {
+        // put, poll & peek return null when there's no element, so the result can't be a primitive
+        HashMap<Integer, Integer> counts = new HashMap<Integer, Integer>();
+        Integer prev = counts.put(k, 1);
+
+        ArrayDeque<Integer> pending = new ArrayDeque<Integer>();
+        pending.add(k);
+        Integer next = pending.poll();
+
+        return prev == null && next != null;
+    }
+
+    public int testNonNullElements(int k) {
+        // The result of put is unused, and removeFirst throws rather than return null, so these stay specialized
+        HashMap<Integer, Integer> counts = new HashMap<Integer, Integer>();
+        counts.put(k, 1);
+
+        ArrayDeque<Integer> pending = new ArrayDeque<Integer>();
+        pending.add(k);
+        return pending.removeFirst() + counts.size();
+    }
+}
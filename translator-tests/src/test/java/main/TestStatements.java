@@ -47,4 +47,47 @@ public class TestStatements {
         while (i < 200)
             ++i;
     }
+
+    public int testIntSwitch(int i) {
+        int value = 0;
+        switch (i) {
+            case 1:
+                value = 10;
+                break;
+            case 1000:
+            case 100000:
+                value = 20;
+            default:
+                value += 1;
+        }
+        return value;
+    }
+
+    public int testStringSwitch(String command) {
+        switch (command) {
+            case "get":
+                return 1;
+            case "put":
+            case "post":
+                return 2;
+            case "Aa":
+            case "BB":
+                return 3;
+            default:
+                return 0;
+        }
+    }
+
+    private String method = "get";
+
+    public void testStringFieldSwitch() {
+        int value = 0;
+        switch (method) {
+            case "get":
+                value = 1;
+                break;
+            case "delete":
+                value = 2;
+        }
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package main;
+
+public class TestStrings {
+    private static String staticField = "static";
+    private String instanceField = "instance";
+
+    public String testLiterals(boolean flag) {
+        String first = "first";
+        String second = "escaped \"quotes\"\n";
+
+        for (int i = 0; i < 10; i++) {
+            if (flag)
+                first = "first";
+        }
+
+        return flag ? second : "other";
+    }
+
+    public String testConcatenation(String name, int count, char separator) {
+        String message = "name: " + name + separator + " count: " + count;
+        String numericFirst = 1 + 2 + name;
+        String multiline = message +
+                           " (" + instanceField + ")"
+                           + staticField;
+        return message + multiline;
+    }
+
+    public int testParsing(String line, String key, int start, int end) {
+        int count = 0;
+        if (line.substring(start, end).equals(key))
+            ++count;
+        if (line.substring(start + 1).startsWith(key) || line.substring(start, end + 1).isEmpty())
+            ++count;
+        if (line.compareTo(key) < 0 && key.equalsIgnoreCase(line))
+            ++count;
+
+        String[] fields = line.split(",");
+        String[] words = line.split("\\s+");
+        String[] pipes = line.split("\\|");
+        return count + line.indexOf(key, start) + line.substring(start).indexOf(':') + fields.length + words.length +
+               pipes.length;
+    }
+}
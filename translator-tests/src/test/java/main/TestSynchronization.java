@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class TestSynchronization {
+    private int count;
+    private long total;
+    private double average;
+    private String name = "";
+    private int balance;
+    private static int instances;
+    private List<String> log = new ArrayList<>();
+    private TimeUnit unit = TimeUnit.SECONDS;
+    protected String label = "";
+    private String status = "";
+
+    public TestSynchronization() {
+        synchronized (TestSynchronization.class) {
+            instances++;
+        }
+    }
+
+    public synchronized void increment() {
+        count++;
+    }
+
+    public void add(long amount) {
+        synchronized (this) {
+            total += amount;
+        }
+    }
+
+    public synchronized void setAverage(double average) {
+        this.average = average;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized String getName() {
+        return name;
+    }
+
+    public synchronized void setName(String name) {
+        this.name = name;
+    }
+
+    public synchronized void deposit(int amount) {
+        balance += amount;
+    }
+
+    public synchronized boolean withdraw(int amount) {
+        if (balance < amount)
+            return false;
+        balance -= amount;
+        return true;
+    }
+
+    public void addToLog(String message) {
+        synchronized (log) {
+            log.add(message);
+        }
+    }
+
+    // Volatile.Read doesn't support enums, so this keeps the lock
+    public synchronized TimeUnit getUnit() {
+        return unit;
+    }
+
+    public synchronized void setUnit(TimeUnit unit) {
+        this.unit = unit;
+    }
+
+    // Subclasses can write a protected field without the lock, so this keeps the lock
+    public synchronized String getLabel() {
+        return label;
+    }
+
+    // A locked reader never sees the intermediate status, so this keeps the lock
+    public synchronized String getStatus() {
+        return status;
+    }
+
+    public synchronized void run() {
+        status = "running";
+        status = "done";
+    }
+
+    public static synchronized int getInstances() {
+        return instances;
+    }
+}